@@ -0,0 +1,69 @@
+package com.example.finalproject;
+
+import android.app.Application;
+
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.cache.CachePolicy;
+import com.example.finalproject.data.images.ImageStore;
+import com.example.finalproject.data.movieinfo.MovieRepository;
+import com.example.finalproject.data.pexels.PhotoRepository;
+import com.example.finalproject.data.soccermatch.MatchRepository;
+import com.example.finalproject.data.ticketmaster.EventRepository;
+import com.example.finalproject.image.ImageLoader;
+import com.example.finalproject.network.NetworkClient;
+import com.example.finalproject.network.OkHttpTransport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The FinalProjectApplication class holds process-wide setup shared by every feature.
+ * It configures the shared network layer and image loader before any fragment issues a request.
+ */
+public class FinalProjectApplication extends Application {
+
+    // Number of network dispatcher threads shared by all features
+    private static final int NETWORK_THREAD_POOL_SIZE = 4;
+    // Upper bound of the shared HTTP disk cache
+    private static final int NETWORK_CACHE_SIZE_BYTES = 20 * 1024 * 1024;
+
+    /**
+     * Called when the application is starting, before any activity has been created.
+     */
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        NetworkClient.configure(NETWORK_THREAD_POOL_SIZE, NETWORK_CACHE_SIZE_BYTES);
+        // How long each API's stored responses are shown without revalidating them; once
+        // expired they are revalidated with a conditional request
+        CachePolicy.setTtl(MatchRepository.NAMESPACE, TimeUnit.MINUTES.toMillis(5));
+        CachePolicy.setTtl(EventRepository.NAMESPACE, TimeUnit.MINUTES.toMillis(15));
+        CachePolicy.setTtl(PhotoRepository.NAMESPACE, TimeUnit.HOURS.toMillis(1));
+        CachePolicy.setTtl(MovieRepository.NAMESPACE, TimeUnit.DAYS.toMillis(1));
+        ImageLoader.install(this);
+        // Delete saved images whose rows were removed in an earlier session
+        AppExecutors.getInstance().diskIO().execute(() -> ImageStore.getInstance(this).sweep());
+    }
+
+    /**
+     * Called when the system asks the process to release memory; writes the queue depth and
+     * latency metrics of the shared executors and the network traffic counters to the debug log,
+     * since a trim request usually follows a burst of work or the app moving to the background.
+     *
+     * @param level The context of the trim, e.g. TRIM_MEMORY_UI_HIDDEN.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        AppExecutors.getInstance().logMetrics();
+        OkHttpTransport.getInstance().logStats();
+    }
+
+    /**
+     * Called when the application process is being terminated; stops the shared network threads.
+     */
+    @Override
+    public void onTerminate() {
+        NetworkClient.shutdown();
+        super.onTerminate();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.finalproject.concurrent;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Process-wide executors shared by every feature: a small I/O pool for database and file work,
+ * a CPU pool for parsing and diffing, a download pool for long file transfers, and an executor
+ * that posts to the main thread. The background pools have a fixed number of named threads and
+ * a bounded queue, so tapping a button repeatedly queues work instead of creating threads.
+ */
+public final class AppExecutors {
+
+    private static final String TAG = "AppExecutors";
+
+    // Thread and queue limits for the I/O pool
+    private static final int IO_THREADS = 3;
+    private static final int IO_QUEUE_CAPACITY = 128;
+    // Queue limit for the CPU pool; its thread count follows the core count
+    private static final int CPU_QUEUE_CAPACITY = 256;
+    // Thread and queue limits for the download pool, kept apart so large files never delay queries
+    private static final int DOWNLOAD_THREADS = 2;
+    private static final int DOWNLOAD_QUEUE_CAPACITY = 32;
+
+    private static volatile AppExecutors instance; // Process-wide instance
+
+    private final MonitoredThreadPoolExecutor diskIO; // Executor for database and file work
+    private final MonitoredThreadPoolExecutor cpu; // Executor for parsing and other CPU work
+    private final MonitoredThreadPoolExecutor download; // Executor for streaming file downloads
+    private final Executor mainThread; // Executor posting to the main thread
+
+    /**
+     * Creates the shared executors.
+     */
+    private AppExecutors() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        diskIO = new MonitoredThreadPoolExecutor("app-io", IO_THREADS, IO_QUEUE_CAPACITY);
+        cpu = new MonitoredThreadPoolExecutor("app-cpu",
+                Math.max(1, Math.min(cores - 1, 4)), CPU_QUEUE_CAPACITY);
+        download = new MonitoredThreadPoolExecutor("app-download", DOWNLOAD_THREADS, DOWNLOAD_QUEUE_CAPACITY);
+        mainThread = new MainThreadExecutor();
+    }
+
+    /**
+     * Returns the shared executors, creating them on first use.
+     *
+     * @return The process-wide AppExecutors.
+     */
+    public static AppExecutors getInstance() {
+        AppExecutors result = instance;
+        if (result == null) {
+            synchronized (AppExecutors.class) {
+                result = instance;
+                if (result == null) {
+                    result = new AppExecutors();
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the executor for database and file work.
+     *
+     * @return The I/O executor.
+     */
+    public MonitoredThreadPoolExecutor diskIO() {
+        return diskIO;
+    }
+
+    /**
+     * Returns the executor for CPU-bound work such as parsing.
+     *
+     * @return The CPU executor.
+     */
+    public MonitoredThreadPoolExecutor cpu() {
+        return cpu;
+    }
+
+    /**
+     * Returns the executor for streaming downloads to files.
+     *
+     * @return The download executor.
+     */
+    public MonitoredThreadPoolExecutor download() {
+        return download;
+    }
+
+    /**
+     * Returns an executor that runs tasks on the main thread.
+     *
+     * @return The main-thread executor.
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Writes the queue depth and latency metrics of the background pools to the debug log.
+     */
+    public void logMetrics() {
+        Log.d(TAG, diskIO.toString());
+        Log.d(TAG, cpu.toString());
+        Log.d(TAG, download.toString());
+    }
+
+    /**
+     * Executor that posts tasks to the main looper.
+     */
+    private static final class MainThreadExecutor implements Executor {
+        private final Handler handler = new Handler(Looper.getMainLooper()); // Main-thread handler
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            handler.post(command);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.finalproject.concurrent;
+
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size ThreadPoolExecutor with a bounded work queue and named threads that records
+ * queue depth and task latency. Work submitted while the queue is full never grows the thread
+ * count or the queue: a background caller runs the task itself, which slows the producer down,
+ * while a task submitted from the main thread is parked in an overflow list and moved into the
+ * queue as workers finish, rather than throwing RejectedExecutionException into a click handler,
+ * blocking the UI or losing a write. Tasks run either way are counted in the latency metrics.
+ */
+public class MonitoredThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private static final String TAG = "MonitoredExecutor";
+
+    private final String name; // Name used as thread prefix and in metrics output
+    private final AtomicInteger peakQueueDepth = new AtomicInteger(); // Largest queue depth observed
+    private final AtomicLong timedTasks = new AtomicLong(); // Number of tasks that finished
+    private final AtomicLong totalWaitNanos = new AtomicLong(); // Total time tasks spent queued
+    private final AtomicLong totalRunNanos = new AtomicLong(); // Total time tasks spent running
+    private final AtomicLong rejectedTasks = new AtomicLong(); // Tasks submitted while the queue was full
+    private final ConcurrentLinkedDeque<Runnable> overflow = new ConcurrentLinkedDeque<>(); // Main-thread tasks waiting for queue space
+    private final ThreadLocal<Long> runStart = new ThreadLocal<>(); // Start time of the running task
+
+    /**
+     * Creates a new executor.
+     *
+     * @param name          Prefix for thread names, e.g. "app-io".
+     * @param threads       Number of worker threads.
+     * @param queueCapacity Maximum number of tasks waiting for a thread.
+     */
+    public MonitoredThreadPoolExecutor(String name, int threads, int queueCapacity) {
+        super(threads, threads, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory(name),
+                new SaturationPolicy());
+        this.name = name;
+        allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a task, stamping it with its enqueue time so wait latency can be measured.
+     *
+     * @param command The task to run.
+     */
+    @Override
+    public void execute(@NonNull Runnable command) {
+        super.execute(new TimedTask(command));
+        int depth = getQueue().size();
+        int peak = peakQueueDepth.get();
+        while (depth > peak && !peakQueueDepth.compareAndSet(peak, depth)) {
+            peak = peakQueueDepth.get();
+        }
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        long now = System.nanoTime();
+        if (r instanceof TimedTask) {
+            totalWaitNanos.addAndGet(now - ((TimedTask) r).enqueuedAt);
+        }
+        runStart.set(now);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        Long start = runStart.get();
+        if (start != null) {
+            totalRunNanos.addAndGet(System.nanoTime() - start);
+            runStart.remove();
+        }
+        timedTasks.incrementAndGet();
+        drainOverflow();
+    }
+
+    /**
+     * Moves parked tasks into the work queue while it has room. Called by a worker after each
+     * task, so the worker picks them up next; the queue was full when they were parked, so some
+     * worker is always about to finish.
+     */
+    private void drainOverflow() {
+        Runnable next;
+        while ((next = overflow.pollFirst()) != null) {
+            if (!getQueue().offer(next)) {
+                overflow.offerFirst(next);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs a task that did not fit in the queue on the submitting thread, recording its wait
+     * and run time like a task run by a worker.
+     *
+     * @param task The task to run.
+     */
+    private void runInCaller(Runnable task) {
+        long start = System.nanoTime();
+        if (task instanceof TimedTask) {
+            totalWaitNanos.addAndGet(start - ((TimedTask) task).enqueuedAt);
+        }
+        try {
+            task.run();
+        } finally {
+            totalRunNanos.addAndGet(System.nanoTime() - start);
+            timedTasks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of tasks currently waiting for a thread.
+     *
+     * @return The current queue depth.
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * Returns the largest queue depth observed since the executor was created.
+     *
+     * @return The peak queue depth.
+     */
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    /**
+     * Returns the number of tasks submitted while the queue was full.
+     *
+     * @return The rejected task count.
+     */
+    public long getRejectedCount() {
+        return rejectedTasks.get();
+    }
+
+    /**
+     * Returns the number of tasks submitted from the main thread that are waiting for room in
+     * the queue.
+     *
+     * @return The overflow depth.
+     */
+    public int getOverflowDepth() {
+        return overflow.size();
+    }
+
+    /**
+     * Returns the mean time finished tasks spent waiting in the queue.
+     *
+     * @return Average wait latency in milliseconds.
+     */
+    public double getAverageWaitMillis() {
+        long count = timedTasks.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / (count * 1_000_000.0);
+    }
+
+    /**
+     * Returns the mean time finished tasks spent running.
+     *
+     * @return Average run latency in milliseconds.
+     */
+    public double getAverageRunMillis() {
+        long count = timedTasks.get();
+        return count == 0 ? 0 : totalRunNanos.get() / (count * 1_000_000.0);
+    }
+
+    /**
+     * Returns a one-line summary of the executor's metrics, suitable for logging.
+     *
+     * @return The metrics summary.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s[threads=%d, active=%d, queued=%d, peakQueued=%d, overflow=%d, done=%d, rejected=%d, avgWait=%.2fms, avgRun=%.2fms]",
+                name, getPoolSize(), getActiveCount(), getQueueDepth(), getPeakQueueDepth(), getOverflowDepth(),
+                timedTasks.get(), rejectedTasks.get(), getAverageWaitMillis(), getAverageRunMillis());
+    }
+
+    /**
+     * Wrapper that remembers when a task was queued.
+     */
+    private static final class TimedTask implements Runnable {
+        private final Runnable delegate; // The wrapped task
+        private final long enqueuedAt = System.nanoTime(); // Time the task was queued
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+
+    /**
+     * Handles a full queue: background callers run the task themselves, tasks from the main
+     * thread are parked until a worker has room for them, and tasks submitted after shutdown
+     * are dropped.
+     */
+    private static final class SaturationPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            MonitoredThreadPoolExecutor pool = (MonitoredThreadPoolExecutor) executor;
+            pool.rejectedTasks.incrementAndGet();
+            if (executor.isShutdown()) {
+                return;
+            }
+            if (Looper.getMainLooper().isCurrentThread()) {
+                Log.w(TAG, "Queue full, parking task submitted from the main thread: " + pool);
+                pool.overflow.offerLast(r);
+                // The workers may have emptied the queue since the rejection
+                pool.drainOverflow();
+                if (pool.getPoolSize() == 0) {
+                    pool.prestartCoreThread();
+                }
+                return;
+            }
+            pool.runInCaller(r);
+        }
+    }
+
+    /**
+     * ThreadFactory producing threads named "prefix-N".
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix; // Thread name prefix
+        private final AtomicInteger counter = new AtomicInteger(); // Next thread number
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
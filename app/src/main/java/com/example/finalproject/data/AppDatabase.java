@@ -0,0 +1,209 @@
+package com.example.finalproject.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.cache.CachedResponse;
+import com.example.finalproject.data.cache.CachedResponseDao;
+import com.example.finalproject.data.images.ImageBlob;
+import com.example.finalproject.data.images.ImageBlobDao;
+import com.example.finalproject.data.images.ImageSource;
+import com.example.finalproject.data.movieinfo.Movie;
+import com.example.finalproject.data.movieinfo.MovieDao;
+import com.example.finalproject.data.movieinfo.MovieFts;
+import com.example.finalproject.data.pexels.Photo;
+import com.example.finalproject.data.pexels.PhotoDao;
+import com.example.finalproject.data.pexels.PhotoFts;
+import com.example.finalproject.data.saved.SavedKeyIndex;
+import com.example.finalproject.data.soccermatch.Match;
+import com.example.finalproject.data.soccermatch.MatchDao;
+import com.example.finalproject.data.soccermatch.MatchFts;
+import com.example.finalproject.data.ticketmaster.Event;
+import com.example.finalproject.data.ticketmaster.EventDao;
+import com.example.finalproject.data.ticketmaster.EventFts;
+
+/**
+ * Database class representing the Room database holding the saved photos, movies, events and
+ * matches, with the full-text index of each, the blob store of their saved images and the index
+ * of stored query responses. It is the app's only database file, so a cold start opens one
+ * file; it replaces the four databases the app used to keep, whose rows are imported the first
+ * time it is opened.
+ * <p>
+ * The database runs in write-ahead-log mode: reads run on their own connections next to a write
+ * instead of waiting for it, and a commit appends to the log rather than rewriting pages twice.
+ * Android gives a WAL database one writing connection and a few reading ones, which covers the
+ * threads of the I/O executor all queries run on, so queries do not queue for a connection.
+ */
+@Database(entities = {Photo.class, PhotoFts.class, Movie.class, MovieFts.class,
+        Event.class, EventFts.class, Match.class, MatchFts.class,
+        ImageBlob.class, ImageSource.class, CachedResponse.class}, version = 1)
+public abstract class AppDatabase extends RoomDatabase {
+
+    // Name of the database file
+    private static final String DATABASE_NAME = "app";
+
+    private static volatile AppDatabase instance; // Process-wide instance
+
+    private volatile SavedKeyIndex<Photo> savedPhotos; // Keys of the saved photos, created on first use
+    private volatile SavedKeyIndex<Movie> savedMovies; // Keys of the saved movies, created on first use
+    private volatile SavedKeyIndex<Event> savedEvents; // Keys of the saved events, created on first use
+    private volatile SavedKeyIndex<Match> savedMatches; // Keys of the saved matches, created on first use
+
+    /**
+     * Returns the shared database, building it on first use. Building does not open the
+     * SQLite file; Room opens it on the first DAO call, which always runs on a background thread.
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide AppDatabase.
+     */
+    public static AppDatabase getInstance(@NonNull Context context) {
+        AppDatabase result = instance;
+        if (result == null) {
+            synchronized (AppDatabase.class) {
+                result = instance;
+                if (result == null) {
+                    Context appContext = context.getApplicationContext();
+                    result = Room.databaseBuilder(appContext, AppDatabase.class, DATABASE_NAME)
+                            .setQueryExecutor(AppExecutors.getInstance().diskIO())
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                            .addCallback(new Callback() {
+                                @Override
+                                public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                                    // Runs on every open, so an interrupted import resumes
+                                    LegacyDatabases.importInto(appContext, db);
+                                }
+                            })
+                            .build();
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the PhotoDao object for accessing photo data in the database.
+     * @return The PhotoDao object.
+     */
+    public abstract PhotoDao photoDAO();
+
+    /**
+     * Retrieves the MovieDao object for accessing movie data in the database.
+     * @return The MovieDao object.
+     */
+    public abstract MovieDao movieDAO();
+
+    /**
+     * Retrieves the EventDao object for accessing event data in the database.
+     * @return The EventDao object.
+     */
+    public abstract EventDao eventDao();
+
+    /**
+     * Retrieves the MatchDao object for accessing match data in the database.
+     * @return The MatchDao object.
+     */
+    public abstract MatchDao matchDAO();
+
+    /**
+     * Retrieves the ImageBlobDao object for accessing the saved-image blob store.
+     * @return The ImageBlobDao object.
+     */
+    public abstract ImageBlobDao imageBlobDao();
+
+    /**
+     * Retrieves the CachedResponseDao object for accessing stored query responses.
+     * @return The CachedResponseDao object.
+     */
+    public abstract CachedResponseDao cachedResponseDao();
+
+    /**
+     * Returns the in-memory index of the saved photos, creating it on first use. Writers report
+     * every photo they insert or delete to it, so lists can mark saved rows without a query.
+     * @return The process-wide index of saved photos, keyed like the unique index.
+     */
+    public SavedKeyIndex<Photo> savedPhotos() {
+        SavedKeyIndex<Photo> result = savedPhotos;
+        if (result == null) {
+            synchronized (this) {
+                result = savedPhotos;
+                if (result == null) {
+                    PhotoDao dao = photoDAO();
+                    result = new SavedKeyIndex<>(dao::getAllUrls,
+                            Photo::getUrl);
+                    savedPhotos = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the in-memory index of the saved movies, creating it on first use. Writers report
+     * every movie they insert or delete to it, so lists can mark saved rows without a query.
+     * @return The process-wide index of saved movies, keyed like the unique index.
+     */
+    public SavedKeyIndex<Movie> savedMovies() {
+        SavedKeyIndex<Movie> result = savedMovies;
+        if (result == null) {
+            synchronized (this) {
+                result = savedMovies;
+                if (result == null) {
+                    MovieDao dao = movieDAO();
+                    result = new SavedKeyIndex<>(dao::getAllTitleYearKeys,
+                            movie -> movie.getTitle() == null || movie.getYear() == null
+                                    ? null : movie.getTitle() + "|" + movie.getYear());
+                    savedMovies = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the in-memory index of the saved events, creating it on first use. Writers report
+     * every event they insert or delete to it, so lists can mark saved rows without a query.
+     * @return The process-wide index of saved events, keyed like the unique index.
+     */
+    public SavedKeyIndex<Event> savedEvents() {
+        SavedKeyIndex<Event> result = savedEvents;
+        if (result == null) {
+            synchronized (this) {
+                result = savedEvents;
+                if (result == null) {
+                    EventDao dao = eventDao();
+                    result = new SavedKeyIndex<>(dao::getAllUrls,
+                            Event::getUrl);
+                    savedEvents = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the in-memory index of the saved matches, creating it on first use. Writers report
+     * every match they insert or delete to it, so lists can mark saved rows without a query.
+     * @return The process-wide index of saved matches, keyed like the unique index.
+     */
+    public SavedKeyIndex<Match> savedMatches() {
+        SavedKeyIndex<Match> result = savedMatches;
+        if (result == null) {
+            synchronized (this) {
+                result = savedMatches;
+                if (result == null) {
+                    MatchDao dao = matchDAO();
+                    result = new SavedKeyIndex<>(dao::getAllUrls,
+                            Match::getUrl);
+                    savedMatches = result;
+                }
+            }
+        }
+        return result;
+    }
+}
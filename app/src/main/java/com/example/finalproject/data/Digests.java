@@ -0,0 +1,85 @@
+package com.example.finalproject.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 helpers used to name stored files by their key or contents.
+ */
+public final class Digests {
+
+    // Size of the read buffer when hashing files
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // Hex digits, indexed by nibble value
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Digests() {
+    }
+
+    /**
+     * Returns the SHA-256 of a string's UTF-8 bytes, in lower-case hex.
+     * @param value The string to hash.
+     * @return The hex digest.
+     */
+    public static String sha256Hex(String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the SHA-256 of a byte array, in lower-case hex.
+     * @param bytes The bytes to hash.
+     * @return The hex digest.
+     */
+    public static String sha256Hex(byte[] bytes) {
+        return toHex(newDigest().digest(bytes));
+    }
+
+    /**
+     * Returns the SHA-256 of a file's contents, in lower-case hex.
+     * @param file The file to hash.
+     * @return The hex digest.
+     * @throws IOException If the file cannot be read.
+     */
+    public static String sha256Hex(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Creates a SHA-256 digest, which every Java platform is required to provide.
+     * @return A new digest.
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Formats bytes as lower-case hex.
+     * @param bytes The bytes to format.
+     * @return The hex string.
+     */
+    private static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(out);
+    }
+}
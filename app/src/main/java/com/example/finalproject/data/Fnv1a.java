@@ -0,0 +1,59 @@
+package com.example.finalproject.data;
+
+/**
+ * 64-bit FNV-1a hashing, used where keys are compared by a cheap hash rather than stored,
+ * such as stable list IDs, the index of saved keys and the match keys of the Scorebat feed.
+ * Free of Android APIs, so the benchmark module can compile it.
+ */
+public final class Fnv1a {
+
+    // FNV-1a 64-bit offset basis and prime
+    public static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    public static final long PRIME = 0x100000001b3L;
+
+    private Fnv1a() {
+    }
+
+    /**
+     * Hashes the UTF-16 code units of a string.
+     * @param value The string; null hashes to the offset basis.
+     * @return The 64-bit hash.
+     */
+    public static long hash(String value) {
+        long hash = OFFSET_BASIS;
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= PRIME;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes a range of bytes.
+     * @param bytes The bytes.
+     * @param from Offset of the first byte.
+     * @param to Offset just after the last byte.
+     * @return The 64-bit hash.
+     */
+    public static long hash(byte[] bytes, int from, int to) {
+        return hash(OFFSET_BASIS, bytes, from, to);
+    }
+
+    /**
+     * Continues a hash over a range of bytes.
+     * @param hash The hash so far.
+     * @param bytes The bytes.
+     * @param from Offset of the first byte.
+     * @param to Offset just after the last byte.
+     * @return The 64-bit hash.
+     */
+    public static long hash(long hash, byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            hash ^= bytes[i] & 0xff;
+            hash *= PRIME;
+        }
+        return hash;
+    }
+}
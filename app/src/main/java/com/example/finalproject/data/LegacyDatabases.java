@@ -0,0 +1,158 @@
+package com.example.finalproject.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves the rows of the separate databases the app used to keep, one per feature, into the
+ * {@link AppDatabase}, then deletes the old files. The old files are read with plain SQLite
+ * rather than Room, so any of their schema versions can be read: only the columns both sides
+ * have are copied.
+ */
+final class LegacyDatabases {
+
+    // Tag for log messages
+    private static final String TAG = "LegacyDatabases";
+    // Old database files and the table each held, in the same order
+    private static final String[] FILES = {"pexels", "movie", "events", "match"};
+    private static final String[] TABLES = {"Photo", "Movie", "Event", "Match"};
+
+    /**
+     * Not instantiable.
+     */
+    private LegacyDatabases() {
+    }
+
+    /**
+     * Imports every old database file that still exists and deletes it. Each file is copied in
+     * one transaction and deleted only after it commits; rows keep their ids, so copying a file
+     * again after an interruption skips the rows already copied. A file that cannot be read is
+     * kept and tried again on the next open. Called on the thread opening the database.
+     *
+     * @param context The application context.
+     * @param db      The app database, just opened.
+     */
+    static void importInto(Context context, SupportSQLiteDatabase db) {
+        for (int i = 0; i < FILES.length; i++) {
+            File file = context.getDatabasePath(FILES[i]);
+            if (!file.exists()) {
+                continue;
+            }
+            try {
+                importFile(file, TABLES[i], db);
+            } catch (SQLException e) {
+                Log.w(TAG, "Could not import rows from " + FILES[i], e);
+                continue;
+            }
+            // Also removes the journal and write-ahead log of the old file
+            context.deleteDatabase(FILES[i]);
+        }
+    }
+
+    /**
+     * Copies the table of an old file into the same table of the app database, in one
+     * transaction.
+     *
+     * @param file  The old database file.
+     * @param table The table to copy.
+     * @param db    The app database.
+     */
+    private static void importFile(File file, String table, SupportSQLiteDatabase db) {
+        // Opened for writing so SQLite can recover an interrupted transaction of the old file
+        try (SQLiteDatabase legacy = SQLiteDatabase.openDatabase(file.getPath(), null,
+                SQLiteDatabase.OPEN_READWRITE)) {
+            db.beginTransaction();
+            try {
+                copyTable(legacy, table, db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+    }
+
+    /**
+     * Copies the rows of one table of an old file into the same table of the app database.
+     * Only columns both tables have are copied. Rows whose id or natural key is already taken
+     * are skipped; rows are copied oldest first, so of duplicates saved before the key was
+     * unique the oldest is kept. The full-text index is filled by its triggers as rows arrive.
+     *
+     * @param legacy The old database.
+     * @param table  The table to copy.
+     * @param db     The app database.
+     */
+    private static void copyTable(SQLiteDatabase legacy, String table, SupportSQLiteDatabase db) {
+        List<String> columns = new ArrayList<>(columnsOf(db.query("PRAGMA table_info(`" + table + "`)")));
+        columns.retainAll(columnsOf(legacy.rawQuery("PRAGMA table_info(`" + table + "`)", null)));
+        if (columns.isEmpty()) {
+            return;
+        }
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            select.append(i == 0 ? "`" : ", `").append(columns.get(i)).append('`');
+        }
+        select.append(" FROM `").append(table).append("` ORDER BY rowid");
+        try (Cursor cursor = legacy.rawQuery(select.toString(), null)) {
+            ContentValues values = new ContentValues();
+            while (cursor.moveToNext()) {
+                values.clear();
+                for (int i = 0; i < columns.size(); i++) {
+                    putColumn(values, columns.get(i), cursor, i);
+                }
+                db.insert(table, SQLiteDatabase.CONFLICT_IGNORE, values);
+            }
+        }
+    }
+
+    /**
+     * Reads the column names from the result of a table_info pragma, then closes it.
+     *
+     * @param tableInfo The pragma result.
+     * @return The column names; empty if the table does not exist.
+     */
+    private static Set<String> columnsOf(Cursor tableInfo) {
+        Set<String> columns = new HashSet<>();
+        try (Cursor cursor = tableInfo) {
+            int name = cursor.getColumnIndexOrThrow("name");
+            while (cursor.moveToNext()) {
+                columns.add(cursor.getString(name));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Copies one column of the current row into values, keeping its SQLite storage class.
+     */
+    private static void putColumn(ContentValues values, String column, Cursor cursor, int index) {
+        switch (cursor.getType(index)) {
+            case Cursor.FIELD_TYPE_NULL:
+                values.putNull(column);
+                break;
+            case Cursor.FIELD_TYPE_INTEGER:
+                values.put(column, cursor.getLong(index));
+                break;
+            case Cursor.FIELD_TYPE_FLOAT:
+                values.put(column, cursor.getDouble(index));
+                break;
+            case Cursor.FIELD_TYPE_BLOB:
+                values.put(column, cursor.getBlob(index));
+                break;
+            default:
+                values.put(column, cursor.getString(index));
+                break;
+        }
+    }
+}
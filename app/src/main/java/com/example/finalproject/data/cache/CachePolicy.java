@@ -0,0 +1,71 @@
+package com.example.finalproject.data.cache;
+
+import androidx.annotation.NonNull;
+
+import com.android.volley.Cache;
+import com.android.volley.NetworkResponse;
+import com.android.volley.toolbox.HttpHeaderParser;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides how long a stored response is used without asking the server. By default the
+ * response's own Cache-Control and Expires headers decide; a response without them is stale at
+ * once and revalidated with a conditional request on every query, which costs only headers when
+ * it has not changed. A time to live configured for a namespace overrides the headers, for APIs
+ * whose headers forbid caching data that changes far less often than that.
+ */
+public final class CachePolicy {
+
+    // Times to live configured per namespace, in milliseconds
+    private static final Map<String, Long> ttls = new ConcurrentHashMap<>();
+
+    /**
+     * Not instantiable.
+     */
+    private CachePolicy() {
+    }
+
+    /**
+     * Sets how long responses of a namespace are used without asking the server, whatever
+     * their headers say. Typically called from Application.onCreate; a change applies to
+     * responses stored or confirmed afterwards.
+     *
+     * @param namespace The feature the responses belong to, as passed to its repository.
+     * @param ttlMillis The time to live in milliseconds; 0 revalidates on every query.
+     */
+    public static void setTtl(@NonNull String namespace, long ttlMillis) {
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("Negative time to live");
+        }
+        ttls.put(namespace, ttlMillis);
+    }
+
+    /**
+     * Removes the time to live of a namespace, so the response headers decide again.
+     *
+     * @param namespace The feature the responses belong to.
+     */
+    public static void clearTtl(@NonNull String namespace) {
+        ttls.remove(namespace);
+    }
+
+    /**
+     * Returns the time until which a response that was just received is fresh.
+     *
+     * @param namespace The feature the response belongs to.
+     * @param response  The response, either with a body or 304 Not Modified.
+     * @param now       The current time, in milliseconds since the epoch.
+     * @return The expiry time, in milliseconds since the epoch; at most now if it is stale at once.
+     */
+    static long expiresAt(@NonNull String namespace, @NonNull NetworkResponse response, long now) {
+        Long ttl = ttls.get(namespace);
+        if (ttl != null) {
+            return now + ttl;
+        }
+        // Null for no-cache and no-store; softTtl is 0 when the headers give no freshness
+        Cache.Entry headers = HttpHeaderParser.parseCacheHeaders(response);
+        return headers == null ? now : headers.softTtl;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.finalproject.data.cache;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class describing the latest response stored for one query. The body itself lives in
+ * a file named after the query key's hash, since a Room row cannot hold bodies larger than
+ * the 2 MB cursor window.
+ */
+@Entity(indices = {@Index({"namespace", "usedAt"}), @Index("usedAt")})
+public class CachedResponse {
+
+    // Key of the query, normally its URL
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "queryKey")
+    private String queryKey = "";
+
+    // Feature the query belongs to, such as "pexels"
+    @ColumnInfo(name = "namespace")
+    private String namespace;
+
+    // SHA-256 of the body, used to tell whether a refreshed body changed
+    @ColumnInfo(name = "bodyHash")
+    private String bodyHash;
+
+    // Charset of the body
+    @ColumnInfo(name = "charset")
+    private String charset;
+
+    // Size of the body in bytes
+    @ColumnInfo(name = "size")
+    private long size;
+
+    // Time the body was last confirmed by the server, in milliseconds since the epoch
+    @ColumnInfo(name = "fetchedAt")
+    private long fetchedAt;
+
+    // Time the body was last stored or read, in milliseconds since the epoch; orders eviction
+    @ColumnInfo(name = "usedAt")
+    private long usedAt;
+
+    // Entity tag the server sent with the body, sent back in If-None-Match; null if none
+    @ColumnInfo(name = "etag")
+    private String etag;
+
+    // Last-Modified date the server sent with the body, sent back in If-Modified-Since; null if none
+    @ColumnInfo(name = "lastModified")
+    private String lastModified;
+
+    // Time until which the body is used without asking the server, in milliseconds since the epoch
+    @ColumnInfo(name = "expiresAt")
+    private long expiresAt;
+
+    /**
+     * Default constructor for the CachedResponse class.
+     */
+    public CachedResponse() {
+    }
+
+    /**
+     * Getter method for retrieving the query key.
+     * @return The query key.
+     */
+    @NonNull
+    public String getQueryKey() {
+        return queryKey;
+    }
+
+    /**
+     * Setter method for setting the query key.
+     * @param queryKey The query key.
+     */
+    public void setQueryKey(@NonNull String queryKey) {
+        this.queryKey = queryKey;
+    }
+
+    /**
+     * Getter method for retrieving the namespace.
+     * @return The feature the query belongs to.
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Setter method for setting the namespace.
+     * @param namespace The feature the query belongs to.
+     */
+    public void setNamespace(String namespace) {
+        this.namespace = namespace;
+    }
+
+    /**
+     * Getter method for retrieving the body hash.
+     * @return The SHA-256 of the body.
+     */
+    public String getBodyHash() {
+        return bodyHash;
+    }
+
+    /**
+     * Setter method for setting the body hash.
+     * @param bodyHash The SHA-256 of the body.
+     */
+    public void setBodyHash(String bodyHash) {
+        this.bodyHash = bodyHash;
+    }
+
+    /**
+     * Getter method for retrieving the charset.
+     * @return The charset of the body.
+     */
+    public String getCharset() {
+        return charset;
+    }
+
+    /**
+     * Setter method for setting the charset.
+     * @param charset The charset of the body.
+     */
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Getter method for retrieving the body size.
+     * @return The size in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Setter method for setting the body size.
+     * @param size The size in bytes.
+     */
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    /**
+     * Getter method for retrieving the fetch time.
+     * @return The time the body was last confirmed, in milliseconds since the epoch.
+     */
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * Setter method for setting the fetch time.
+     * @param fetchedAt The time the body was last confirmed, in milliseconds since the epoch.
+     */
+    public void setFetchedAt(long fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Getter method for retrieving the last use time.
+     * @return The time the body was last stored or read, in milliseconds since the epoch.
+     */
+    public long getUsedAt() {
+        return usedAt;
+    }
+
+    /**
+     * Setter method for setting the last use time.
+     * @param usedAt The time the body was last stored or read, in milliseconds since the epoch.
+     */
+    public void setUsedAt(long usedAt) {
+        this.usedAt = usedAt;
+    }
+
+    /**
+     * Getter method for retrieving the entity tag.
+     * @return The entity tag of the body, or null if the server sent none.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Setter method for setting the entity tag.
+     * @param etag The entity tag of the body, or null.
+     */
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    /**
+     * Getter method for retrieving the last modification date.
+     * @return The Last-Modified header of the body, or null if the server sent none.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Setter method for setting the last modification date.
+     * @param lastModified The Last-Modified header of the body, or null.
+     */
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Getter method for retrieving the expiry time.
+     * @return The time until which the body is fresh, in milliseconds since the epoch.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Setter method for setting the expiry time.
+     * @param expiresAt The time until which the body is fresh, in milliseconds since the epoch.
+     */
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.finalproject.data.cache;
+
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) interface for stored query responses.
+ */
+@Dao
+public interface CachedResponseDao {
+
+    /**
+     * Retrieves the stored response for a query.
+     * @param queryKey The query key.
+     * @return The stored response, or null if there is none.
+     */
+    @Query("SELECT * FROM CachedResponse WHERE queryKey = :queryKey")
+    CachedResponse find(String queryKey);
+
+    /**
+     * Inserts or replaces the stored response for a query.
+     * @param response The response to store.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(CachedResponse response);
+
+    /**
+     * Records that the server confirmed a stored response is still current. Validators the
+     * confirmation did not carry are kept.
+     * @param queryKey The query key.
+     * @param fetchedAt The time of the confirmation, in milliseconds since the epoch.
+     * @param etag The entity tag sent with the confirmation, or null.
+     * @param lastModified The Last-Modified header sent with the confirmation, or null.
+     * @param expiresAt The time until which the response is fresh, in milliseconds since the epoch.
+     */
+    @Query("UPDATE CachedResponse SET fetchedAt = :fetchedAt, etag = COALESCE(:etag, etag),"
+            + " lastModified = COALESCE(:lastModified, lastModified), expiresAt = :expiresAt"
+            + " WHERE queryKey = :queryKey")
+    void confirm(String queryKey, long fetchedAt, String etag, String lastModified, long expiresAt);
+
+    /**
+     * Records that a stored response was read.
+     * @param queryKey The query key.
+     * @param usedAt The time of the read, in milliseconds since the epoch.
+     */
+    @Query("UPDATE CachedResponse SET usedAt = :usedAt WHERE queryKey = :queryKey")
+    void touch(String queryKey, long usedAt);
+
+    /**
+     * Retrieves the responses of a namespace beyond the most recently used ones.
+     * @param namespace The feature the queries belong to.
+     * @param keep Number of most recently used responses to keep.
+     * @return A list of responses that may be evicted.
+     */
+    @Query("SELECT * FROM CachedResponse WHERE namespace = :namespace ORDER BY usedAt DESC LIMIT -1 OFFSET :keep")
+    List<CachedResponse> getEvictable(String namespace, int keep);
+
+    /**
+     * Retrieves the total size of the stored bodies.
+     * @return The size in bytes.
+     */
+    @Query("SELECT COALESCE(SUM(size), 0) FROM CachedResponse")
+    long getTotalSize();
+
+    /**
+     * Retrieves the least recently used responses of every namespace.
+     * @param limit Maximum number of responses to return.
+     * @return A list of responses, least recently used first.
+     */
+    @Query("SELECT * FROM CachedResponse ORDER BY usedAt ASC LIMIT :limit")
+    List<CachedResponse> getLeastRecentlyUsed(int limit);
+
+    /**
+     * Deletes a stored response.
+     * @param response The response to delete.
+     */
+    @Delete
+    void delete(CachedResponse response);
+}
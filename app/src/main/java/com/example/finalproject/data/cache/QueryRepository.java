@@ -0,0 +1,442 @@
+package com.example.finalproject.data.cache;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.ParseError;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.HttpHeaderParser;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.network.JsonStreamParser;
+import com.example.finalproject.network.NetworkClient;
+import com.example.finalproject.network.ParseStage;
+import com.example.finalproject.network.RawRequest;
+import com.example.finalproject.network.RequestKeys;
+import com.example.finalproject.network.StreamingJsonRequest;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Base class of the per-feature repositories. Queries are answered stale-while-revalidate:
+ * the stored response for the query, if any, is parsed and delivered at once, the network is
+ * asked for a fresh copy in the background, and the fresh copy is parsed and delivered only if
+ * its bytes differ from the stored ones. The request carries the stored response's validators,
+ * so an unchanged response costs only headers, and a stored response within its time to live
+ * (see {@link CachePolicy}) is not revalidated at all. Without connectivity the stored results
+ * stay on screen. Concurrent identical queries are coalesced into one.
+ *
+ * @param <T> The entity type the feature's responses contain.
+ */
+public abstract class QueryRepository<T> {
+
+    private static final String TAG = "QueryRepository";
+    // Validator headers of responses and of conditional requests
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    private final Context appContext; // Application context for the network client
+    private final String namespace; // Feature name the responses are stored under
+    private final ResponseCache cache; // Stored responses
+    private final ParseStage parseStage; // Stage responses are parsed in
+    private final Map<String, SharedQuery<T>> inFlight = new HashMap<>(); // Running queries by key, main thread only
+
+    /**
+     * Creates a repository.
+     *
+     * @param context   Any context; only its application context is retained.
+     * @param namespace Feature name the responses are stored under.
+     */
+    protected QueryRepository(@NonNull Context context, @NonNull String namespace) {
+        this.appContext = context.getApplicationContext();
+        this.namespace = namespace;
+        this.cache = ResponseCache.getInstance(appContext);
+        this.parseStage = ParseStage.getDefault();
+    }
+
+    /**
+     * Creates a parser for one response. A new parser is used for every body, so parsers may
+     * keep per-response state such as paging links.
+     *
+     * @return A new parser.
+     */
+    protected abstract JsonStreamParser<T> newParser();
+
+    /**
+     * Returns an indexer that delivers responses as lists decoding their items on demand, or
+     * null to parse every item up front. Features whose responses carry no paging state and
+     * show only a few of many items at a time override this. Null by default.
+     *
+     * @return The indexer, or null.
+     */
+    @Nullable
+    protected ParseStage.Indexer<T> newIndexer() {
+        return null;
+    }
+
+    /**
+     * Answers a query from the stored response, then revalidates it over the network. Identical
+     * queries already in flight are joined rather than repeated: they share one cache read, one
+     * network request and one parse, and every caller receives the results. Must be called on
+     * the main thread.
+     *
+     * @param url      URL of the query; its canonical form is the cache and coalescing key.
+     * @param headers  Extra request headers, or null. Must be the same for every caller of a URL.
+     * @param callback Receives results on the main thread.
+     * @return A handle that stops further callbacks to this caller.
+     */
+    protected Subscription load(@NonNull String url, @Nullable Map<String, String> headers,
+                                @NonNull Callback<T> callback) {
+        String key = RequestKeys.normalize(url);
+        SharedQuery<T> shared = inFlight.get(key);
+        if (shared == null || shared.isFinished()) {
+            SharedQuery<T> started = new SharedQuery<>();
+            Pipeline pipeline = new Pipeline();
+            started.setOnIdle(() -> {
+                pipeline.cancel();
+                inFlight.remove(key, started);
+            });
+            inFlight.put(key, started);
+            start(key, url, headers, pipeline, new Callback<T>() {
+                @Override
+                public void onChunk(List<T> chunk, int offset) {
+                    started.onChunk(chunk, offset);
+                }
+
+                @Override
+                public void onResult(QueryResult<T> result) {
+                    if (!result.isFromCache()) {
+                        inFlight.remove(key, started);
+                    }
+                    started.onResult(result);
+                }
+
+                @Override
+                public void onUnchanged() {
+                    inFlight.remove(key, started);
+                    started.onUnchanged();
+                }
+
+                @Override
+                public void onError(VolleyError error, boolean showingCached) {
+                    inFlight.remove(key, started);
+                    started.onError(error, showingCached);
+                }
+            });
+            shared = started;
+        }
+        SharedQuery<T> joined = shared;
+        joined.subscribe(callback);
+        return new Subscription(() -> joined.unsubscribe(callback), joined::isFinished);
+    }
+
+    /**
+     * Runs one query: reads the stored response, then revalidates it over the network. A stored
+     * response still within its time to live ends the query once it has been parsed, without
+     * asking the server; if it cannot be parsed, the response is fetched in full instead.
+     */
+    private void start(String key, String url, @Nullable Map<String, String> headers,
+                       Pipeline pipeline, Callback<T> callback) {
+        AppExecutors executors = AppExecutors.getInstance();
+        executors.diskIO().execute(() -> {
+            if (pipeline.isCancelled()) {
+                return;
+            }
+            ResponseCache.Entry cached = cache.get(key);
+            executors.mainThread().execute(() -> {
+                if (pipeline.isCancelled()) {
+                    return;
+                }
+                if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+                    // Still within its time to live; the server is asked only if it is unreadable,
+                    // and then without validators, since a 304 would leave nothing to show
+                    parse(cached.getBody(), cached.getCharset(), true, pipeline, callback,
+                            () -> fetch(key, url, headers, null, pipeline, callback));
+                    return;
+                }
+                if (cached != null) {
+                    parse(cached.getBody(), cached.getCharset(), true, pipeline, callback, null);
+                }
+                fetch(key, url, headers, cached, pipeline, callback);
+            });
+        });
+    }
+
+    /**
+     * Requests a fresh copy of a query's response. With a stored response the request is
+     * conditional, so a server that still has the same version answers 304 without a body.
+     */
+    private void fetch(String key, String url, @Nullable Map<String, String> headers,
+                       @Nullable ResponseCache.Entry cached, Pipeline pipeline, Callback<T> callback) {
+        AppExecutors executors = AppExecutors.getInstance();
+        boolean haveCached = cached != null;
+        RawRequest request = new RawRequest(url, conditionalHeaders(headers, cached),
+                response -> {
+                    long now = System.currentTimeMillis();
+                    String etag = response.headers == null ? null : response.headers.get(HEADER_ETAG);
+                    String lastModified = response.headers == null ? null : response.headers.get(HEADER_LAST_MODIFIED);
+                    long expiresAt = CachePolicy.expiresAt(namespace, response, now);
+                    if (response.notModified && haveCached) {
+                        // Only headers came back; the stored body shown already is current
+                        executors.diskIO().execute(() -> cache.confirm(key, etag, lastModified, expiresAt));
+                        callback.onUnchanged();
+                        return;
+                    }
+                    byte[] body = response.data == null ? new byte[0] : response.data;
+                    String charset = HttpHeaderParser.parseCharset(response.headers, "UTF-8");
+                    // Store the body and find out whether it changed, off the main thread
+                    executors.diskIO().execute(() -> {
+                        boolean changed = true;
+                        try {
+                            changed = cache.put(namespace, key, body, charset, etag, lastModified, expiresAt);
+                        } catch (IOException e) {
+                            Log.w(TAG, "Could not store response for " + url, e);
+                        }
+                        boolean deliver = changed || !haveCached;
+                        executors.mainThread().execute(() -> {
+                            if (pipeline.isCancelled()) {
+                                return;
+                            }
+                            if (deliver) {
+                                parse(body, charset, false, pipeline, callback, null);
+                            } else {
+                                callback.onUnchanged();
+                            }
+                        });
+                    });
+                },
+                error -> {
+                    if (!pipeline.isCancelled()) {
+                        callback.onError(error, haveCached);
+                    }
+                });
+        pipeline.setRequest(request);
+        NetworkClient.getInstance(appContext).add(request);
+    }
+
+    /**
+     * Adds the validators of a stored response to a query's headers.
+     *
+     * @param headers The query's own headers, or null.
+     * @param cached  The stored response, or null.
+     * @return The headers to send; the query's own if there is nothing to add.
+     */
+    @Nullable
+    private static Map<String, String> conditionalHeaders(@Nullable Map<String, String> headers,
+                                                          @Nullable ResponseCache.Entry cached) {
+        if (cached == null || (cached.getEtag() == null && cached.getLastModified() == null)) {
+            return headers;
+        }
+        Map<String, String> conditional = headers == null ? new HashMap<>() : new HashMap<>(headers);
+        if (cached.getEtag() != null) {
+            conditional.put(HEADER_IF_NONE_MATCH, cached.getEtag());
+        }
+        if (cached.getLastModified() != null) {
+            conditional.put(HEADER_IF_MODIFIED_SINCE, cached.getLastModified());
+        }
+        return conditional;
+    }
+
+    /**
+     * Parses a body in the background and delivers the result. Chunks are forwarded only for
+     * network responses when nothing was shown from the cache, so stored results are never
+     * replaced piecemeal. A stored result that finishes parsing after the network result is dropped.
+     *
+     * @param ifUnreadable For a stored body that is used without revalidating it: runs if the
+     *                     body cannot be parsed, while a parsed body is followed by onUnchanged.
+     *                     Null when a network request is already running or for network bodies.
+     */
+    private void parse(byte[] body, String charset, boolean fromCache, Pipeline pipeline,
+                       Callback<T> callback, @Nullable Runnable ifUnreadable) {
+        JsonStreamParser<T> parser = newParser();
+        ParseStage.Delivery<T> delivery = new ParseStage.Delivery<T>() {
+            @Override
+            public boolean isCancelled() {
+                return pipeline.isCancelled() || (fromCache && pipeline.freshDelivered);
+            }
+
+            @Override
+            public void onChunk(List<T> chunk, int offset) {
+                if (!fromCache && !pipeline.cachedDelivered) {
+                    callback.onChunk(chunk, offset);
+                }
+            }
+
+            @Override
+            public void onComplete(List<T> items) {
+                if (fromCache) {
+                    pipeline.cachedDelivered = true;
+                } else {
+                    pipeline.freshDelivered = true;
+                }
+                callback.onResult(new QueryResult<>(items, parser, fromCache));
+                if (ifUnreadable != null) {
+                    // The stored result is current and nothing else is coming
+                    callback.onUnchanged();
+                }
+            }
+
+            @Override
+            public void onError(Exception error) {
+                if (fromCache) {
+                    // A stored body that no longer parses is not shown; the network result is
+                    Log.w(TAG, "Could not parse stored response", error);
+                    if (ifUnreadable != null) {
+                        ifUnreadable.run();
+                    }
+                } else {
+                    callback.onError(new ParseError(error), pipeline.cachedDelivered);
+                }
+            }
+        };
+        ParseStage.Indexer<T> indexer = newIndexer();
+        if (indexer != null) {
+            parseStage.index(body, charset, indexer, delivery);
+        } else {
+            parseStage.parse(body, charset, parser, StreamingJsonRequest.DEFAULT_CHUNK_SIZE, delivery);
+        }
+    }
+
+    /**
+     * Handle one caller holds on a query, possibly shared with other callers.
+     */
+    public static final class Subscription {
+
+        private final Runnable leave; // Removes this caller from the query
+        private final BooleanSupplier finished; // Whether the query delivered its last callback
+        private boolean cancelled; // Set once cancel() has been called
+
+        /**
+         * Creates a handle.
+         *
+         * @param leave    Removes the caller from the query it joined.
+         * @param finished Reports whether the query delivered its last callback.
+         */
+        Subscription(Runnable leave, BooleanSupplier finished) {
+            this.leave = leave;
+            this.finished = finished;
+        }
+
+        /**
+         * Stops callbacks to this caller. The query itself stops once no caller is left.
+         * Must be called on the main thread.
+         */
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                leave.run();
+            }
+        }
+
+        /**
+         * Returns whether this caller has cancelled.
+         *
+         * @return True after cancel() has been called.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Returns whether the query is still running for this caller, so an identical request
+         * made now would only join it.
+         *
+         * @return True until the caller cancels or the network result, confirmation or error arrives.
+         */
+        public boolean isActive() {
+            return !cancelled && !finished.getAsBoolean();
+        }
+    }
+
+    /**
+     * State of one run of a query. Written on the main thread; the volatile flags are also
+     * read by the parse stage.
+     */
+    private static final class Pipeline {
+
+        private volatile boolean cancelled; // Set once cancel() has been called
+        private RawRequest request; // Network request, once issued
+        private boolean cachedDelivered; // True once a stored result was delivered
+        private volatile boolean freshDelivered; // True once a network result was delivered
+
+        /**
+         * Stops the run; no further callbacks are delivered.
+         */
+        void cancel() {
+            cancelled = true;
+            if (request != null) {
+                request.cancel();
+            }
+        }
+
+        /**
+         * Returns whether the run has been cancelled.
+         *
+         * @return True after cancel() has been called.
+         */
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Records the network request so cancel() can stop it.
+         *
+         * @param request The request.
+         */
+        void setRequest(RawRequest request) {
+            this.request = request;
+            if (cancelled) {
+                request.cancel();
+            }
+        }
+    }
+
+    /**
+     * Receives query results on the main thread.
+     *
+     * @param <T> The entity type.
+     */
+    public interface Callback<T> {
+
+        /**
+         * Called with the first items of a network response while the rest is still being
+         * parsed, only when no stored result was shown. Does nothing by default.
+         *
+         * @param chunk  The items in the chunk.
+         * @param offset Index of the first item within the whole response.
+         */
+        default void onChunk(List<T> chunk, int offset) {
+        }
+
+        /**
+         * Called with a complete result: first the stored one, if any, then the network one
+         * if it differs.
+         *
+         * @param result The result.
+         */
+        void onResult(QueryResult<T> result);
+
+        /**
+         * Called when the network confirmed the stored result is current. Does nothing by default.
+         */
+        default void onUnchanged() {
+        }
+
+        /**
+         * Called when the network request or parsing fails.
+         *
+         * @param error         The cause.
+         * @param showingCached True if a stored result was delivered and is still valid to show.
+         */
+        void onError(VolleyError error, boolean showingCached);
+    }
+}
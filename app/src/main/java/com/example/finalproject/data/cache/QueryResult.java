@@ -0,0 +1,57 @@
+package com.example.finalproject.data.cache;
+
+import com.example.finalproject.network.JsonStreamParser;
+
+import java.util.List;
+
+/**
+ * One complete result of a repository query.
+ *
+ * @param <T> The entity type.
+ */
+public final class QueryResult<T> {
+
+    private final List<T> items; // Parsed items, unmodifiable
+    private final JsonStreamParser<T> parser; // Parser that produced the items
+    private final boolean fromCache; // True if the items came from a stored response
+
+    /**
+     * Creates a result.
+     *
+     * @param items     Parsed items, unmodifiable.
+     * @param parser    Parser that produced the items.
+     * @param fromCache True if the items came from a stored response.
+     */
+    QueryResult(List<T> items, JsonStreamParser<T> parser, boolean fromCache) {
+        this.items = items;
+        this.parser = parser;
+        this.fromCache = fromCache;
+    }
+
+    /**
+     * Returns the parsed items.
+     *
+     * @return An unmodifiable list of items.
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the parser that produced the items, for response-level details such as paging.
+     *
+     * @return The parser.
+     */
+    public JsonStreamParser<T> getParser() {
+        return parser;
+    }
+
+    /**
+     * Returns whether the items came from a stored response rather than the network.
+     *
+     * @return True for a stored result.
+     */
+    public boolean isFromCache() {
+        return fromCache;
+    }
+}
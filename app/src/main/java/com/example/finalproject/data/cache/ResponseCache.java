@@ -0,0 +1,312 @@
+package com.example.finalproject.data.cache;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.Digests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Keeps the latest raw response body for each query, so a repeated query can be answered
+ * before the network replies and while offline. Bodies are stored in files named after the
+ * hash of the query key, with their metadata in the {@link AppDatabase}: the server's
+ * validators, so the body can be revalidated with a conditional request, and the time until
+ * which it is used without asking. Each namespace keeps at most {@link #MAX_ENTRIES_PER_NAMESPACE}
+ * responses and all bodies together take at most {@link #MAX_TOTAL_BYTES}, evicting the least
+ * recently used first. The bodies live in the cache directory, so the system may also reclaim
+ * them; a body found missing is treated as never stored. All methods do disk work and must be
+ * called on a background thread.
+ */
+public final class ResponseCache {
+
+    // Most responses kept per feature
+    static final int MAX_ENTRIES_PER_NAMESPACE = 50;
+    // Most bytes of bodies kept across all features
+    static final long MAX_TOTAL_BYTES = 8L * 1024 * 1024;
+    // Number of responses read per eviction query when over the size limit
+    private static final int EVICTION_BATCH = 16;
+    // Directory under getCacheDir() holding the bodies
+    private static final String BODY_DIRECTORY = "responses";
+
+    private static volatile ResponseCache instance; // Process-wide instance
+
+    private final CachedResponseDao dao; // Response metadata
+    private final File bodyDirectory; // Directory holding the bodies
+
+    /**
+     * Creates the cache.
+     * @param context The application context.
+     */
+    private ResponseCache(Context context) {
+        dao = AppDatabase.getInstance(context).cachedResponseDao();
+        bodyDirectory = new File(context.getCacheDir(), BODY_DIRECTORY);
+    }
+
+    /**
+     * Returns the shared cache, creating it on first use.
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide ResponseCache.
+     */
+    public static ResponseCache getInstance(@NonNull Context context) {
+        ResponseCache result = instance;
+        if (result == null) {
+            synchronized (ResponseCache.class) {
+                result = instance;
+                if (result == null) {
+                    result = new ResponseCache(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the stored response for a query.
+     * @param queryKey The query key.
+     * @return The stored response, or null if there is none or its file is missing.
+     */
+    @Nullable
+    public synchronized Entry get(@NonNull String queryKey) {
+        CachedResponse response = dao.find(queryKey);
+        if (response == null) {
+            return null;
+        }
+        File file = fileFor(queryKey);
+        try {
+            byte[] body = Files.readAllBytes(file.toPath());
+            dao.touch(queryKey, System.currentTimeMillis());
+            return new Entry(body, response.getCharset(), response.getBodyHash(), response.getFetchedAt(),
+                    response.getEtag(), response.getLastModified(), response.getExpiresAt());
+        } catch (IOException e) {
+            // The system reclaimed the body; forget the row
+            dao.delete(response);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a fresh response for a query. The file is rewritten only when the body differs
+     * from the stored one; the validators and expiry are replaced either way.
+     * @param namespace The feature the query belongs to.
+     * @param queryKey The query key.
+     * @param body The response body.
+     * @param charset The charset of the body.
+     * @param etag The ETag header of the response, or null.
+     * @param lastModified The Last-Modified header of the response, or null.
+     * @param expiresAt The time until which the body is fresh, in milliseconds since the epoch.
+     * @return True if the body differs from the stored one or nothing was stored.
+     * @throws IOException If the body cannot be written.
+     */
+    public synchronized boolean put(@NonNull String namespace, @NonNull String queryKey,
+                                    @NonNull byte[] body, @NonNull String charset,
+                                    @Nullable String etag, @Nullable String lastModified,
+                                    long expiresAt) throws IOException {
+        long now = System.currentTimeMillis();
+        String bodyHash = Digests.sha256Hex(body);
+        CachedResponse existing = dao.find(queryKey);
+        File file = fileFor(queryKey);
+        if (existing != null && bodyHash.equals(existing.getBodyHash()) && file.exists()) {
+            // A server that sends no validators should not keep stale ones in use
+            existing.setEtag(etag);
+            existing.setLastModified(lastModified);
+            existing.setFetchedAt(now);
+            existing.setUsedAt(now);
+            existing.setExpiresAt(expiresAt);
+            dao.upsert(existing);
+            return false;
+        }
+
+        if (!bodyDirectory.isDirectory() && !bodyDirectory.mkdirs()) {
+            throw new IOException("Could not create " + bodyDirectory);
+        }
+        File part = new File(file.getPath() + ".part");
+        try (OutputStream out = new FileOutputStream(part)) {
+            out.write(body);
+        }
+        if (!part.renameTo(file)) {
+            part.delete();
+            throw new IOException("Could not move response to " + file);
+        }
+
+        CachedResponse response = new CachedResponse();
+        response.setQueryKey(queryKey);
+        response.setNamespace(namespace);
+        response.setBodyHash(bodyHash);
+        response.setCharset(charset);
+        response.setSize(body.length);
+        response.setFetchedAt(now);
+        response.setUsedAt(now);
+        response.setEtag(etag);
+        response.setLastModified(lastModified);
+        response.setExpiresAt(expiresAt);
+        dao.upsert(response);
+
+        for (CachedResponse evicted : dao.getEvictable(namespace, MAX_ENTRIES_PER_NAMESPACE)) {
+            evict(evicted);
+        }
+        trimToSize(queryKey);
+        return true;
+    }
+
+    /**
+     * Evicts the least recently used responses until the bodies fit in {@link #MAX_TOTAL_BYTES}.
+     * The response just stored is kept even if it alone is over the limit.
+     * @param keepKey Key of the response just stored.
+     */
+    private void trimToSize(String keepKey) {
+        long total = dao.getTotalSize();
+        while (total > MAX_TOTAL_BYTES) {
+            List<CachedResponse> oldest = dao.getLeastRecentlyUsed(EVICTION_BATCH);
+            boolean evictedAny = false;
+            for (CachedResponse response : oldest) {
+                if (total <= MAX_TOTAL_BYTES) {
+                    break;
+                }
+                if (response.getQueryKey().equals(keepKey)) {
+                    continue;
+                }
+                evict(response);
+                total -= response.getSize();
+                evictedAny = true;
+            }
+            if (!evictedAny) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deletes a stored response and its body.
+     * @param response The response to delete.
+     */
+    private void evict(CachedResponse response) {
+        dao.delete(response);
+        fileFor(response.getQueryKey()).delete();
+    }
+
+    /**
+     * Records that the server answered a conditional request with 304 Not Modified, so the
+     * stored body is current. Validators the answer did not carry are kept.
+     * @param queryKey The query key.
+     * @param etag The ETag header of the answer, or null.
+     * @param lastModified The Last-Modified header of the answer, or null.
+     * @param expiresAt The time until which the body is fresh, in milliseconds since the epoch.
+     */
+    public synchronized void confirm(@NonNull String queryKey, @Nullable String etag,
+                                     @Nullable String lastModified, long expiresAt) {
+        dao.confirm(queryKey, System.currentTimeMillis(), etag, lastModified, expiresAt);
+    }
+
+    /**
+     * Returns the file holding a query's body.
+     * @param queryKey The query key.
+     * @return The body file.
+     */
+    private File fileFor(String queryKey) {
+        return new File(bodyDirectory, Digests.sha256Hex(queryKey));
+    }
+
+    /**
+     * A stored response body and its metadata.
+     */
+    public static final class Entry {
+
+        private final byte[] body; // The raw body
+        private final String charset; // Charset of the body
+        private final String bodyHash; // SHA-256 of the body
+        private final long fetchedAt; // Time the body was last confirmed
+        private final String etag; // ETag of the body, or null
+        private final String lastModified; // Last-Modified date of the body, or null
+        private final long expiresAt; // Time until which the body is fresh
+
+        /**
+         * Creates an entry.
+         * @param body The raw body.
+         * @param charset Charset of the body.
+         * @param bodyHash SHA-256 of the body.
+         * @param fetchedAt Time the body was last confirmed, in milliseconds since the epoch.
+         * @param etag ETag of the body, or null.
+         * @param lastModified Last-Modified date of the body, or null.
+         * @param expiresAt Time until which the body is fresh, in milliseconds since the epoch.
+         */
+        Entry(byte[] body, String charset, String bodyHash, long fetchedAt,
+              String etag, String lastModified, long expiresAt) {
+            this.body = body;
+            this.charset = charset;
+            this.bodyHash = bodyHash;
+            this.fetchedAt = fetchedAt;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Getter method for retrieving the body.
+         * @return The raw body.
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * Getter method for retrieving the charset.
+         * @return The charset of the body.
+         */
+        public String getCharset() {
+            return charset;
+        }
+
+        /**
+         * Getter method for retrieving the body hash.
+         * @return The SHA-256 of the body.
+         */
+        public String getBodyHash() {
+            return bodyHash;
+        }
+
+        /**
+         * Getter method for retrieving the fetch time.
+         * @return The time the body was last confirmed, in milliseconds since the epoch.
+         */
+        public long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        /**
+         * Getter method for retrieving the entity tag.
+         * @return The ETag of the body, or null if the server sent none.
+         */
+        @Nullable
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Getter method for retrieving the last modification date.
+         * @return The Last-Modified date of the body, or null if the server sent none.
+         */
+        @Nullable
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Returns whether the body may be used without asking the server.
+         * @param now The current time, in milliseconds since the epoch.
+         * @return True until the body expires.
+         */
+        public boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.finalproject.data.cache;
+
+import com.android.volley.VolleyError;
+import com.example.finalproject.concurrent.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One in-flight query shared by every caller that asked for the same request key. The
+ * underlying cache read, network call and parse happen once; their results are fanned out to
+ * all subscribers, and a subscriber that joins late is first replayed what the others already
+ * received. Confined to the main thread.
+ *
+ * @param <T> The entity type.
+ */
+final class SharedQuery<T> implements QueryRepository.Callback<T> {
+
+    private final List<QueryRepository.Callback<T>> subscribers = new ArrayList<>(); // Current subscribers
+    private final List<T> chunkItems = new ArrayList<>(); // Items delivered in chunks so far
+    private QueryResult<T> lastResult; // Most recent complete result, for replay
+    private Runnable onIdle; // Runs when the last subscriber leaves before the query finishes
+    private boolean finished; // True once the network result, confirmation or error arrived
+
+    /**
+     * Sets the action run when every subscriber has cancelled.
+     *
+     * @param onIdle Cancels the underlying work.
+     */
+    void setOnIdle(Runnable onIdle) {
+        this.onIdle = onIdle;
+    }
+
+    /**
+     * Adds a subscriber and replays what the query has delivered so far.
+     *
+     * @param callback The subscriber.
+     */
+    void subscribe(QueryRepository.Callback<T> callback) {
+        subscribers.add(callback);
+        QueryResult<T> result = lastResult;
+        List<T> chunk = chunkItems.isEmpty() ? null : Collections.unmodifiableList(new ArrayList<>(chunkItems));
+        if (result == null && chunk == null) {
+            return;
+        }
+        // Replay asynchronously so callers never get a callback from inside load()
+        AppExecutors.getInstance().mainThread().execute(() -> {
+            if (!subscribers.contains(callback)) {
+                return;
+            }
+            if (result != null) {
+                callback.onResult(result);
+            } else {
+                callback.onChunk(chunk, 0);
+            }
+        });
+    }
+
+    /**
+     * Removes a subscriber, cancelling the underlying work if it was the last one.
+     *
+     * @param callback The subscriber.
+     */
+    void unsubscribe(QueryRepository.Callback<T> callback) {
+        subscribers.remove(callback);
+        if (subscribers.isEmpty() && !finished && onIdle != null) {
+            onIdle.run();
+        }
+    }
+
+    /**
+     * Returns whether the query has delivered its final callback.
+     *
+     * @return True once finished.
+     */
+    boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void onChunk(List<T> chunk, int offset) {
+        if (offset == 0) {
+            chunkItems.clear();
+        }
+        chunkItems.addAll(chunk);
+        for (QueryRepository.Callback<T> subscriber : new ArrayList<>(subscribers)) {
+            subscriber.onChunk(chunk, offset);
+        }
+    }
+
+    @Override
+    public void onResult(QueryResult<T> result) {
+        lastResult = result;
+        chunkItems.clear();
+        if (!result.isFromCache()) {
+            finished = true;
+        }
+        for (QueryRepository.Callback<T> subscriber : new ArrayList<>(subscribers)) {
+            subscriber.onResult(result);
+        }
+    }
+
+    @Override
+    public void onUnchanged() {
+        finished = true;
+        for (QueryRepository.Callback<T> subscriber : new ArrayList<>(subscribers)) {
+            subscriber.onUnchanged();
+        }
+    }
+
+    @Override
+    public void onError(VolleyError error, boolean showingCached) {
+        finished = true;
+        for (QueryRepository.Callback<T> subscriber : new ArrayList<>(subscribers)) {
+            subscriber.onError(error, showingCached);
+        }
+    }
+}
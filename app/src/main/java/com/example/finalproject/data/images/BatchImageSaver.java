@@ -0,0 +1,271 @@
+package com.example.finalproject.data.images;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.network.FileDownloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores the images of many items as one batch: images already in the {@link ImageStore} are
+ * referenced in one transaction, the rest are downloaded a few at a time, and all downloads
+ * are committed in a second transaction. Each distinct URL is downloaded once however many
+ * items share it. Progress and the result are delivered on the main thread.
+ */
+public final class BatchImageSaver {
+
+    // Number of downloads run at once, matching the download executor's threads
+    private static final int MAX_PARALLEL_DOWNLOADS = 2;
+
+    private final ImageStore store; // Store the images go into
+    private final AppExecutors executors; // Executors for disk work and callbacks
+
+    /**
+     * Creates a saver.
+     *
+     * @param context Any context; only its application context is retained.
+     */
+    public BatchImageSaver(@NonNull Context context) {
+        this.store = ImageStore.getInstance(context);
+        this.executors = AppExecutors.getInstance();
+    }
+
+    /**
+     * Starts storing a batch of images. Must be called on the main thread.
+     *
+     * @param urls     The image URLs, one per item; null and empty entries are ignored.
+     * @param listener Receives progress and the result on the main thread.
+     * @return A handle that can cancel the batch.
+     */
+    public Batch save(@NonNull List<String> urls, @NonNull Listener listener) {
+        List<String> wanted = new ArrayList<>();
+        for (String url : urls) {
+            if (url != null && !url.isEmpty()) {
+                wanted.add(url);
+            }
+        }
+        Batch batch = new Batch(listener);
+        executors.diskIO().execute(() -> {
+            List<String> missing = store.acquireExistingAll(wanted);
+            List<String> acquired = new ArrayList<>(wanted);
+            for (String url : missing) {
+                acquired.remove(url);
+            }
+            Map<String, File> targets = new HashMap<>();
+            IOException error = null;
+            try {
+                for (String url : new LinkedHashSet<>(missing)) {
+                    targets.put(url, store.newTempFile());
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            IOException failure = error;
+            executors.mainThread().execute(() -> {
+                batch.referenced.addAll(acquired);
+                if (batch.cancelled) {
+                    batch.releaseReferences();
+                } else if (failure != null) {
+                    batch.releaseReferences();
+                    listener.onError(failure);
+                } else {
+                    batch.download(missing, targets);
+                }
+            });
+        });
+        return batch;
+    }
+
+    /**
+     * A running batch.
+     */
+    public final class Batch {
+
+        private final Listener listener; // Receives progress and the result
+        private final List<String> referenced = new ArrayList<>(); // References taken so far
+        private final List<FileDownloader.Download> downloads = new ArrayList<>(); // Running downloads
+        private final Map<String, File> downloaded = new HashMap<>(); // Finished downloads by URL
+        private final ArrayDeque<String> queue = new ArrayDeque<>(); // URLs waiting to download
+        private List<String> missing; // URLs not stored yet, one per occurrence
+        private Map<String, File> targets; // Temporary file of each URL to download
+        private int total; // Number of distinct URLs to download
+        private int finished; // Number of downloads that succeeded or failed
+        private boolean cancelled; // Set once cancel() has been called
+
+        /**
+         * Creates a batch.
+         *
+         * @param listener Receives progress and the result.
+         */
+        private Batch(Listener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Stops the batch: running downloads are cancelled, finished ones deleted and every
+         * reference taken is given back. The listener is not called again.
+         */
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            for (FileDownloader.Download download : downloads) {
+                download.cancel();
+            }
+            downloads.clear();
+            queue.clear();
+            List<File> files = new ArrayList<>(downloaded.values());
+            downloaded.clear();
+            executors.diskIO().execute(() -> {
+                for (File file : files) {
+                    file.delete();
+                }
+            });
+            releaseReferences();
+        }
+
+        /**
+         * Downloads the images that are not stored yet.
+         */
+        private void download(List<String> missing, Map<String, File> targets) {
+            this.missing = missing;
+            this.targets = targets;
+            queue.addAll(targets.keySet());
+            total = queue.size();
+            if (total == 0) {
+                commit();
+                return;
+            }
+            listener.onProgress(0, total);
+            startQueued();
+        }
+
+        /**
+         * Starts queued downloads up to the parallel limit.
+         */
+        private void startQueued() {
+            while (downloads.size() < MAX_PARALLEL_DOWNLOADS && !queue.isEmpty()) {
+                String url = queue.poll();
+                FileDownloader.Download[] handle = new FileDownloader.Download[1];
+                handle[0] = FileDownloader.getInstance().download(url, null, targets.get(url),
+                        new FileDownloader.Listener() {
+                            @Override
+                            public void onProgress(long bytesWritten, long totalBytes) {
+                            }
+
+                            @Override
+                            public void onComplete(@NonNull File file) {
+                                if (cancelled) {
+                                    executors.diskIO().execute(file::delete);
+                                    return;
+                                }
+                                downloaded.put(url, file);
+                                onDownloadFinished(handle[0]);
+                            }
+
+                            @Override
+                            public void onError(@NonNull IOException error) {
+                                onDownloadFinished(handle[0]);
+                            }
+                        });
+                downloads.add(handle[0]);
+            }
+        }
+
+        /**
+         * Records a finished download and starts the next one, or commits once all are done.
+         */
+        private void onDownloadFinished(FileDownloader.Download download) {
+            if (cancelled) {
+                return;
+            }
+            downloads.remove(download);
+            finished++;
+            listener.onProgress(finished, total);
+            if (finished == total) {
+                commit();
+            } else {
+                startQueued();
+            }
+        }
+
+        /**
+         * Commits every finished download in one transaction and reports the result.
+         */
+        private void commit() {
+            Map<String, File> files = new HashMap<>(downloaded);
+            downloaded.clear();
+            executors.diskIO().execute(() -> {
+                List<String> committed = store.commitAll(missing, files);
+                executors.mainThread().execute(() -> {
+                    referenced.addAll(committed);
+                    if (cancelled) {
+                        // Cancelled while committing; give back the references just taken
+                        releaseReferences();
+                        return;
+                    }
+                    Set<String> stored = new HashSet<>(referenced);
+                    int failed = 0;
+                    for (String url : new HashSet<>(missing)) {
+                        if (!stored.contains(url)) {
+                            failed++;
+                        }
+                    }
+                    listener.onComplete(stored, failed);
+                });
+            });
+        }
+
+        /**
+         * Gives back every reference the batch has taken.
+         */
+        private void releaseReferences() {
+            List<String> urls = new ArrayList<>(referenced);
+            referenced.clear();
+            if (!urls.isEmpty()) {
+                executors.diskIO().execute(() -> store.releaseAll(urls));
+            }
+        }
+    }
+
+    /**
+     * Receives the progress and result of a batch on the main thread.
+     */
+    public interface Listener {
+        /**
+         * Called as downloads finish.
+         *
+         * @param finished Number of images downloaded or failed so far.
+         * @param total    Number of images that had to be downloaded.
+         */
+        void onProgress(int finished, int total);
+
+        /**
+         * Called once every image has been stored or has failed.
+         *
+         * @param storedUrls The URLs now stored and referenced once per item that named them.
+         * @param failed     Number of distinct URLs that could not be downloaded or stored.
+         */
+        void onComplete(@NonNull Set<String> storedUrls, int failed);
+
+        /**
+         * Called if the batch could not start; nothing was stored.
+         *
+         * @param error The cause.
+         */
+        void onError(@NonNull IOException error);
+    }
+}
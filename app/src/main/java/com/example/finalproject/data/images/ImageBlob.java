@@ -0,0 +1,111 @@
+package com.example.finalproject.data.images;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class representing one unique saved image file, identified by the SHA-256 hash of
+ * its bytes. Every saved row whose image has these bytes holds one reference to it.
+ */
+@Entity
+public class ImageBlob {
+
+    // SHA-256 of the file contents, in lower-case hex
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "contentHash")
+    private String contentHash = "";
+
+    // File extension including the dot, such as ".jpg"
+    @ColumnInfo(name = "extension")
+    private String extension;
+
+    // Size of the file in bytes
+    @ColumnInfo(name = "size")
+    private long size;
+
+    // Number of saved rows using this file
+    @ColumnInfo(name = "refCount")
+    private int refCount;
+
+    /**
+     * Default constructor for the ImageBlob class.
+     */
+    public ImageBlob() {
+    }
+
+    /**
+     * Getter method for retrieving the content hash.
+     * @return The SHA-256 of the file contents.
+     */
+    @NonNull
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Setter method for setting the content hash.
+     * @param contentHash The SHA-256 of the file contents.
+     */
+    public void setContentHash(@NonNull String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Getter method for retrieving the file extension.
+     * @return The extension including the dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Setter method for setting the file extension.
+     * @param extension The extension including the dot.
+     */
+    public void setExtension(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Getter method for retrieving the file size.
+     * @return The size in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Setter method for setting the file size.
+     * @param size The size in bytes.
+     */
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    /**
+     * Getter method for retrieving the reference count.
+     * @return The number of saved rows using this file.
+     */
+    public int getRefCount() {
+        return refCount;
+    }
+
+    /**
+     * Setter method for setting the reference count.
+     * @param refCount The number of saved rows using this file.
+     */
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    /**
+     * Returns the name of the file holding this blob.
+     * @return The content hash followed by the extension.
+     */
+    public String getFileName() {
+        return contentHash + extension;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.finalproject.data.images;
+
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) interface for the saved-image blob store.
+ */
+@Dao
+public interface ImageBlobDao {
+
+    /**
+     * Looks up which blob a source URL was stored in.
+     * @param urlHash The SHA-256 of the source URL.
+     * @return The mapping, or null if the URL has never been saved.
+     */
+    @Query("SELECT * FROM ImageSource WHERE urlHash = :urlHash")
+    ImageSource findSource(String urlHash);
+
+    /**
+     * Looks up a blob by its content hash.
+     * @param contentHash The SHA-256 of the file contents.
+     * @return The blob, or null if there is none.
+     */
+    @Query("SELECT * FROM ImageBlob WHERE contentHash = :contentHash")
+    ImageBlob findBlob(String contentHash);
+
+    /**
+     * Records which blob a source URL was stored in, replacing any earlier mapping.
+     * @param source The mapping to store.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertSource(ImageSource source);
+
+    /**
+     * Inserts a new blob.
+     * @param blob The blob to insert.
+     */
+    @Insert
+    void insertBlob(ImageBlob blob);
+
+    /**
+     * Adds one reference to a blob.
+     * @param contentHash The SHA-256 of the file contents.
+     */
+    @Query("UPDATE ImageBlob SET refCount = refCount + 1 WHERE contentHash = :contentHash")
+    void addReference(String contentHash);
+
+    /**
+     * Removes one reference from a blob, never going below zero.
+     * @param contentHash The SHA-256 of the file contents.
+     */
+    @Query("UPDATE ImageBlob SET refCount = MAX(refCount - 1, 0) WHERE contentHash = :contentHash")
+    void removeReference(String contentHash);
+
+    /**
+     * Retrieves blobs no saved row refers to any more.
+     * @return A list of unreferenced blobs.
+     */
+    @Query("SELECT * FROM ImageBlob WHERE refCount = 0")
+    List<ImageBlob> getUnreferencedBlobs();
+
+    /**
+     * Deletes every URL mapping that points at a blob.
+     * @param contentHash The SHA-256 of the file contents.
+     */
+    @Query("DELETE FROM ImageSource WHERE contentHash = :contentHash")
+    void deleteSourcesFor(String contentHash);
+
+    /**
+     * Deletes a blob row.
+     * @param blob The blob to delete.
+     */
+    @Delete
+    void deleteBlob(ImageBlob blob);
+}
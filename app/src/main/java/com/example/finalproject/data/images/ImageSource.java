@@ -0,0 +1,76 @@
+package com.example.finalproject.data.images;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class mapping a source image URL, by the SHA-256 hash of the URL, to the blob its
+ * bytes were stored in. Lets a repeated save of the same URL skip the download entirely.
+ */
+@Entity(indices = {@Index("contentHash")})
+public class ImageSource {
+
+    // SHA-256 of the source URL, in lower-case hex
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "urlHash")
+    private String urlHash = "";
+
+    // Content hash of the blob downloaded from the URL
+    @ColumnInfo(name = "contentHash")
+    private String contentHash;
+
+    /**
+     * Default constructor for the ImageSource class.
+     */
+    public ImageSource() {
+    }
+
+    /**
+     * Constructor to map a URL hash to a blob.
+     * @param urlHash The SHA-256 of the source URL.
+     * @param contentHash The content hash of the blob.
+     */
+    @Ignore
+    public ImageSource(@NonNull String urlHash, String contentHash) {
+        this.urlHash = urlHash;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Getter method for retrieving the URL hash.
+     * @return The SHA-256 of the source URL.
+     */
+    @NonNull
+    public String getUrlHash() {
+        return urlHash;
+    }
+
+    /**
+     * Setter method for setting the URL hash.
+     * @param urlHash The SHA-256 of the source URL.
+     */
+    public void setUrlHash(@NonNull String urlHash) {
+        this.urlHash = urlHash;
+    }
+
+    /**
+     * Getter method for retrieving the content hash.
+     * @return The content hash of the blob.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Setter method for setting the content hash.
+     * @param contentHash The content hash of the blob.
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.finalproject.data.images;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.Digests;
+import com.example.finalproject.network.FileDownloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content-addressed store for saved images. Each unique image is kept once, under the SHA-256
+ * of its bytes, and counts how many saved rows refer to it. A second table maps the SHA-256 of
+ * each source URL to its blob, so saving a URL that is already stored costs no download and
+ * no file I/O, only a reference-count update.
+ *
+ * <p>Releasing the last reference does not delete the file straight away; {@link #sweep()}
+ * removes unreferenced blobs later, which lets an undo re-acquire the image for free.
+ * All methods do disk work and must be called on a background thread.</p>
+ */
+public final class ImageStore {
+
+    // Directory under getFilesDir() holding the blobs
+    private static final String BLOB_DIRECTORY = "images";
+    // Directory under getCacheDir() holding downloads not yet committed
+    private static final String TEMP_DIRECTORY = "image-downloads";
+    // Age after which a pending download counts as abandoned; a running one writes far more often
+    private static final long ABANDONED_DOWNLOAD_AGE_MS = TimeUnit.HOURS.toMillis(1);
+
+    private static volatile ImageStore instance; // Process-wide instance
+
+    private final ImageBlobDao dao; // Blob and source tables
+    private final AppDatabase db; // Database used for transactions
+    private final File blobDirectory; // Directory holding the blobs
+    private final File tempDirectory; // Directory holding pending downloads
+
+    /**
+     * Creates the store.
+     * @param context The application context.
+     */
+    private ImageStore(Context context) {
+        db = AppDatabase.getInstance(context);
+        dao = db.imageBlobDao();
+        blobDirectory = new File(context.getFilesDir(), BLOB_DIRECTORY);
+        tempDirectory = new File(context.getCacheDir(), TEMP_DIRECTORY);
+    }
+
+    /**
+     * Returns the shared store, creating it on first use.
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide ImageStore.
+     */
+    public static ImageStore getInstance(@NonNull Context context) {
+        ImageStore result = instance;
+        if (result == null) {
+            synchronized (ImageStore.class) {
+                result = instance;
+                if (result == null) {
+                    result = new ImageStore(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds a reference to the blob already stored for a URL, without any download.
+     * @param url The source image URL, or null.
+     * @return The stored file, or null if the URL has not been stored and must be downloaded.
+     */
+    @Nullable
+    public synchronized File acquireExisting(@Nullable String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        return db.runInTransaction(() -> {
+            ImageSource source = dao.findSource(Digests.sha256Hex(url));
+            if (source == null) {
+                return null;
+            }
+            ImageBlob blob = dao.findBlob(source.getContentHash());
+            if (blob == null) {
+                return null;
+            }
+            File file = new File(blobDirectory, blob.getFileName());
+            if (!file.exists()) {
+                return null;
+            }
+            dao.addReference(blob.getContentHash());
+            return file;
+        });
+    }
+
+    /**
+     * Adds a reference to the blob stored for each URL, in one transaction.
+     * @param urls The source image URLs; a URL listed twice gets two references.
+     * @return The URLs, one entry per occurrence, that have not been stored and must be downloaded.
+     */
+    public synchronized List<String> acquireExistingAll(@NonNull List<String> urls) {
+        return db.runInTransaction(() -> {
+            List<String> missing = new ArrayList<>();
+            for (String url : urls) {
+                if (acquireExisting(url) == null) {
+                    missing.add(url);
+                }
+            }
+            return missing;
+        });
+    }
+
+    /**
+     * Returns a fresh file to download into before calling {@link #commit}.
+     * @return A new, not yet existing temporary file.
+     * @throws IOException If the temporary directory cannot be created.
+     */
+    public File newTempFile() throws IOException {
+        if (!tempDirectory.isDirectory() && !tempDirectory.mkdirs()) {
+            throw new IOException("Could not create " + tempDirectory);
+        }
+        return new File(tempDirectory, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Moves a downloaded file into the store and adds a reference to it. If the same bytes are
+     * already stored, from this or any other URL, the download is discarded and the existing
+     * blob is used.
+     * @param url The source image URL.
+     * @param downloaded The downloaded file, which is moved or deleted.
+     * @param extension The file extension including the dot, such as ".jpg".
+     * @return The stored file.
+     * @throws IOException If the file cannot be read or moved.
+     */
+    public synchronized File commit(@NonNull String url, @NonNull File downloaded,
+                                    @NonNull String extension) throws IOException {
+        String contentHash = Digests.sha256Hex(downloaded);
+        long size = downloaded.length();
+        if (!blobDirectory.isDirectory() && !blobDirectory.mkdirs()) {
+            throw new IOException("Could not create " + blobDirectory);
+        }
+        ImageBlob blob = dao.findBlob(contentHash);
+        File file;
+        if (blob != null && new File(blobDirectory, blob.getFileName()).exists()) {
+            // Same bytes are already stored; keep one copy
+            downloaded.delete();
+            file = new File(blobDirectory, blob.getFileName());
+        } else {
+            blob = new ImageBlob();
+            blob.setContentHash(contentHash);
+            blob.setExtension(extension.toLowerCase(Locale.ROOT));
+            blob.setSize(size);
+            file = new File(blobDirectory, blob.getFileName());
+            if (!downloaded.renameTo(file)) {
+                throw new IOException("Could not move download to " + file);
+            }
+        }
+        ImageBlob stored = blob;
+        db.runInTransaction(() -> {
+            if (dao.findBlob(contentHash) == null) {
+                dao.insertBlob(stored);
+            }
+            dao.addReference(contentHash);
+            dao.insertSource(new ImageSource(Digests.sha256Hex(url), contentHash));
+        });
+        return file;
+    }
+
+    /**
+     * Commits a batch of downloads in one transaction, as {@link #commit} does for one. A URL
+     * listed more than once is committed once and referenced once per occurrence. Downloads
+     * that cannot be stored are deleted and their URLs skipped.
+     * @param urls The source image URLs, one entry per reference to add.
+     * @param downloads The downloaded file of each URL; URLs without one are skipped.
+     * @return The URLs, one entry per occurrence, that are now stored and referenced.
+     */
+    public synchronized List<String> commitAll(@NonNull List<String> urls,
+                                               @NonNull Map<String, File> downloads) {
+        return db.runInTransaction(() -> {
+            List<String> referenced = new ArrayList<>();
+            Set<String> committed = new HashSet<>();
+            for (String url : urls) {
+                if (committed.contains(url)) {
+                    if (acquireExisting(url) != null) {
+                        referenced.add(url);
+                    }
+                    continue;
+                }
+                File downloaded = downloads.get(url);
+                if (downloaded == null) {
+                    continue;
+                }
+                try {
+                    commit(url, downloaded, FileDownloader.extensionOf(url));
+                    committed.add(url);
+                    referenced.add(url);
+                } catch (IOException e) {
+                    downloaded.delete();
+                }
+            }
+            return referenced;
+        });
+    }
+
+    /**
+     * Removes one reference per URL, in one transaction.
+     * @param urls The source image URLs; a URL listed twice loses two references.
+     */
+    public synchronized void releaseAll(@NonNull List<String> urls) {
+        db.runInTransaction(() -> {
+            for (String url : urls) {
+                release(url);
+            }
+        });
+    }
+
+    /**
+     * Removes one reference from the blob stored for a URL. Does nothing if the URL is unknown.
+     * @param url The source image URL.
+     */
+    public synchronized void release(@Nullable String url) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+        db.runInTransaction(() -> {
+            ImageSource source = dao.findSource(Digests.sha256Hex(url));
+            if (source != null) {
+                dao.removeReference(source.getContentHash());
+            }
+        });
+    }
+
+    /**
+     * Deletes blobs no saved row refers to, along with their URL mappings and any abandoned
+     * downloads. A download counts as abandoned once its file has not been written for
+     * {@link #ABANDONED_DOWNLOAD_AGE_MS}, so a save started while the sweep runs keeps its file.
+     * @return The number of blobs deleted.
+     */
+    public synchronized int sweep() {
+        int deleted = 0;
+        for (ImageBlob blob : dao.getUnreferencedBlobs()) {
+            db.runInTransaction(() -> {
+                dao.deleteSourcesFor(blob.getContentHash());
+                dao.deleteBlob(blob);
+            });
+            new File(blobDirectory, blob.getFileName()).delete();
+            deleted++;
+        }
+        File[] pending = tempDirectory.listFiles();
+        if (pending != null) {
+            long cutoff = System.currentTimeMillis() - ABANDONED_DOWNLOAD_AGE_MS;
+            for (File file : pending) {
+                if (file.lastModified() < cutoff) {
+                    file.delete();
+                }
+            }
+        }
+        return deleted;
+    }
+}
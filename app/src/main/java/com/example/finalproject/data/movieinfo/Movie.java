@@ -2,6 +2,7 @@ package com.example.finalproject.data.movieinfo;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import org.json.JSONException;
@@ -9,8 +10,9 @@ import org.json.JSONObject;
 
 /**
  * Entity class representing a movie.
+ * A movie is identified by its title and year, which together are unique among saved rows.
  */
-@Entity
+@Entity(indices = {@Index(value = {"title", "year"}, unique = true)})
 public class Movie {
 
     // Primary key
@@ -1,9 +1,13 @@
 package com.example.finalproject.data.movieinfo;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 import java.util.List;
 
@@ -14,23 +18,126 @@ import java.util.List;
 public interface MovieDao {
 
     /**
-     * Retrieves all movies from the database.
-     * @return A list of all movies stored in the database.
+     * Retrieves one page of movies with keyset pagination: the rows whose id is greater than
+     * the last id already loaded, in id order.
+     * @param afterId Id of the last row already loaded, or 0 for the first page.
+     * @param limit Maximum number of rows to return.
+     * @return A list of at most limit movies.
+     */
+    @Query("SELECT * FROM movie WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<Movie> getMoviesAfter(long afterId, int limit);
+
+    /**
+     * Retrieves the page of movies just before the first one loaded, for scrolling back
+     * after earlier pages were dropped: the rows whose id is less than the given one, newest
+     * id first.
+     * @param beforeId Id of the first row still loaded.
+     * @param limit Maximum number of rows to return.
+     * @return A list of at most limit movies, in descending id order.
      */
-    @Query("SELECT * FROM movie")
-    List<Movie> getAllMovies();
+    @Query("SELECT * FROM movie WHERE id < :beforeId ORDER BY id DESC LIMIT :limit")
+    List<Movie> getMoviesBefore(long beforeId, int limit);
 
     /**
-     * Inserts a new movie into the database.
+     * Retrieves the title and year of every saved movie as one key, read from the unique index
+     * alone. Keys have the form title|year.
+     * @return A list of title|year keys.
+     */
+    @Query("SELECT title || '|' || year FROM Movie WHERE title IS NOT NULL AND year IS NOT NULL")
+    List<String> getAllTitleYearKeys();
+
+    /**
+     * Inserts a new movie into the database. Nothing is written if a movie with the same
+     * title and year is already saved.
      * @param movie The movie to insert.
+     * @return The id of the new row, or -1 if the movie was already saved.
      */
-    @Insert
-    void insert(Movie movie);
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(Movie movie);
 
     /**
      * Deletes a movie from the database.
      * @param movie The movie to delete.
+     * @return The number of rows deleted, 0 if it was not saved.
      */
     @Delete
-    void delete(Movie movie);
+    int delete(Movie movie);
+
+    /**
+     * Inserts several movies in one transaction, so the batch costs a single commit.
+     * @param movies The movies to insert.
+     * @return The id of each new row, or -1 for each movie that was already saved.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAll(List<Movie> movies);
+
+    /**
+     * Deletes several movies in one transaction.
+     * @param movies The movies to delete.
+     * @return The number of rows deleted.
+     */
+    @Delete
+    int deleteAll(List<Movie> movies);
+
+    /**
+     * Looks up a saved movie by its title and year through the unique index.
+     * @param title The title of the movie.
+     * @param year The release year of the movie.
+     * @return The saved movie, or null if it is not saved.
+     */
+    @Query("SELECT * FROM Movie WHERE title = :title AND year = :year LIMIT 1")
+    Movie findByTitleAndYear(String title, String year);
+
+    /**
+     * Overwrites the details of the saved movie with the given title and year, keeping its id.
+     * @param title The title of the movie.
+     * @param year The release year of the movie.
+     * @param rating The new rating.
+     * @param runtime The new runtime.
+     * @param mainActors The new main actors.
+     * @param plot The new plot.
+     * @param posterUrl The new poster URL.
+     * @return The number of rows updated, 0 if it is not saved.
+     */
+    @Query("UPDATE Movie SET rating = :rating, runtime = :runtime, mainActors = :mainActors,"
+            + " plot = :plot, posterUrl = :posterUrl"
+            + " WHERE title = :title AND year = :year")
+    int updateByTitleAndYear(String title, String year, String rating, String runtime,
+            String mainActors, String plot, String posterUrl);
+
+    /**
+     * Saves a movie, or refreshes the details of the saved movie with the same title and year, in one
+     * transaction. A refreshed row keeps its id, so it keeps its place in keyset pages.
+     * @param movie The movie to save.
+     * @return The saved row as it was before being refreshed, or null if the movie was new.
+     */
+    @Transaction
+    default Movie upsert(Movie movie) {
+        Movie previous = findByTitleAndYear(movie.getTitle(), movie.getYear());
+        if (previous == null) {
+            insert(movie);
+        } else {
+            updateByTitleAndYear(movie.getTitle(), movie.getYear(), movie.getRating(), movie.getRuntime(),
+                    movie.getMainActors(), movie.getPlot(), movie.getPosterUrl());
+        }
+        return previous;
+    }
+
+    /**
+     * Runs a full-text query over the indexed columns of the saved movies. Only the id and
+     * the match statistics of each matching row are read, never the rows themselves.
+     * @param query An FTS4 MATCH expression.
+     * @return A cursor over the id and the matchinfo 'pcx' blob of each matching movie.
+     */
+    @Query("SELECT rowid, matchinfo(MovieFts, 'pcx') AS matchinfo FROM MovieFts"
+            + " WHERE MovieFts MATCH :query")
+    Cursor searchHits(String query);
+
+    /**
+     * Retrieves the saved movies with the given ids, in no particular order.
+     * @param ids The ids.
+     * @return The movies that are still saved.
+     */
+    @Query("SELECT * FROM Movie WHERE id IN (:ids)")
+    List<Movie> getByIds(List<Long> ids);
 }
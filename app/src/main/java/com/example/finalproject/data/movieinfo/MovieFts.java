@@ -0,0 +1,76 @@
+package com.example.finalproject.data.movieinfo;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Full-text index over the searchable columns of the saved movies. The index keeps no copy of the
+ * text: it reads the Movie table, and triggers Room creates with it update the index whenever
+ * a movie is inserted, updated or deleted. Its rowid is the id of the indexed movie.
+ */
+@Fts4(contentEntity = Movie.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity
+public class MovieFts {
+
+    // Title of the movie
+    @ColumnInfo(name = "title")
+    private String title;
+
+    // Plot summary
+    @ColumnInfo(name = "plot")
+    private String plot;
+
+    // Main actors
+    @ColumnInfo(name = "mainActors")
+    private String mainActors;
+
+    /**
+     * Getter method for retrieving the indexed title of the movie.
+     * @return The title of the movie.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Setter method for setting the indexed title of the movie.
+     * @param title The title of the movie to set.
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Getter method for retrieving the indexed plot summary of the movie.
+     * @return The plot summary of the movie.
+     */
+    public String getPlot() {
+        return plot;
+    }
+
+    /**
+     * Setter method for setting the indexed plot summary of the movie.
+     * @param plot The plot summary of the movie to set.
+     */
+    public void setPlot(String plot) {
+        this.plot = plot;
+    }
+
+    /**
+     * Getter method for retrieving the indexed main actors of the movie.
+     * @return The main actors of the movie.
+     */
+    public String getMainActors() {
+        return mainActors;
+    }
+
+    /**
+     * Setter method for setting the indexed main actors of the movie.
+     * @param mainActors The main actors of the movie to set.
+     */
+    public void setMainActors(String mainActors) {
+        this.mainActors = mainActors;
+    }
+}
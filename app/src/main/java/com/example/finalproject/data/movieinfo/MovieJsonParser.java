@@ -0,0 +1,60 @@
+package com.example.finalproject.data.movieinfo;
+
+import com.example.finalproject.network.JsonReaders;
+import com.example.finalproject.network.JsonStreamParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for OMDb title lookups. Emits a single Movie, or nothing when OMDb
+ * answers with an error object such as "Movie not found!".
+ */
+public class MovieJsonParser implements JsonStreamParser<Movie> {
+
+    /**
+     * Parses an OMDb title response.
+     *
+     * @param reader The reader positioned at the start of the response.
+     * @param sink   Receives the movie, if one was found.
+     * @throws IOException If the response is malformed.
+     */
+    @Override
+    public void parse(JsonReader reader, Consumer<Movie> sink) throws IOException {
+        Movie movie = new Movie();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Title":
+                    movie.setTitle(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "Year":
+                    movie.setYear(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "imdbRating":
+                    movie.setRating(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "Runtime":
+                    movie.setRuntime(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "Actors":
+                    movie.setMainActors(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "Plot":
+                    movie.setPlot(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "Poster":
+                    movie.setPosterUrl(JsonReaders.nextStringOrNull(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        if (movie.getTitle() != null) {
+            sink.accept(movie);
+        }
+    }
+}
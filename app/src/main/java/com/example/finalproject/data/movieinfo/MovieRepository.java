@@ -0,0 +1,74 @@
+package com.example.finalproject.data.movieinfo;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.example.finalproject.data.cache.QueryRepository;
+import com.example.finalproject.network.JsonStreamParser;
+import com.example.finalproject.network.RequestKeys;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * Repository for OMDb title lookups. Each lookup is stored, so a repeated title shows at once
+ * and works offline while it is refreshed in the background.
+ */
+public class MovieRepository extends QueryRepository<Movie> {
+
+    // Namespace the responses are stored under
+    public static final String NAMESPACE = "omdb";
+    // Title lookup endpoint of the OMDb API, including the API key
+    private static final String TITLE_URL = "https://www.omdbapi.com/?apikey=81b1f826&t=";
+
+    private static volatile MovieRepository instance; // Process-wide instance
+
+    /**
+     * Creates the repository.
+     * @param context The application context.
+     */
+    private MovieRepository(Context context) {
+        super(context, NAMESPACE);
+    }
+
+    /**
+     * Returns the shared repository, creating it on first use.
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide MovieRepository.
+     */
+    public static MovieRepository getInstance(@NonNull Context context) {
+        MovieRepository result = instance;
+        if (result == null) {
+            synchronized (MovieRepository.class) {
+                result = instance;
+                if (result == null) {
+                    result = new MovieRepository(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected JsonStreamParser<Movie> newParser() {
+        return new MovieJsonParser();
+    }
+
+    /**
+     * Looks up a movie by title.
+     * @param title The title to look up; case and extra whitespace are ignored.
+     * @param callback Receives the movie, or an empty list if none matched, on the main thread.
+     * @return A handle that stops further callbacks.
+     */
+    public Subscription findByTitle(@NonNull String title, @NonNull Callback<Movie> callback) {
+        String url;
+        try {
+            url = TITLE_URL + URLEncoder.encode(RequestKeys.normalizeTerm(title), "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+        return load(url, null, callback);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.finalproject.data.pexels;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import org.json.JSONException;
@@ -9,8 +10,9 @@ import org.json.JSONObject;
 
 /**
  * Entity class representing a photo.
+ * A photo is identified by its Pexels URL, which is unique among saved rows.
  */
-@Entity
+@Entity(indices = {@Index(value = {"url"}, unique = true)})
 public class Photo {
 
     // Primary key
@@ -1,9 +1,13 @@
 package com.example.finalproject.data.pexels;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 import java.util.List;
 
@@ -14,23 +18,123 @@ import java.util.List;
 public interface PhotoDao {
 
     /**
-     * Retrieves all photos from the database.
-     * @return A list of all photos stored in the database.
+     * Retrieves one page of photos with keyset pagination: the rows whose id is greater than
+     * the last id already loaded, in id order.
+     * @param afterId Id of the last row already loaded, or 0 for the first page.
+     * @param limit Maximum number of rows to return.
+     * @return A list of at most limit photos.
+     */
+    @Query("SELECT * FROM Photo WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<Photo> getPhotosAfter(long afterId, int limit);
+
+    /**
+     * Retrieves the page of photos just before the first one loaded, for scrolling back
+     * after earlier pages were dropped: the rows whose id is less than the given one, newest
+     * id first.
+     * @param beforeId Id of the first row still loaded.
+     * @param limit Maximum number of rows to return.
+     * @return A list of at most limit photos, in descending id order.
      */
-    @Query("SELECT * FROM Photo")
-    List<Photo> getAllPhotos();
+    @Query("SELECT * FROM Photo WHERE id < :beforeId ORDER BY id DESC LIMIT :limit")
+    List<Photo> getPhotosBefore(long beforeId, int limit);
 
     /**
-     * Inserts a new photo into the database.
+     * Retrieves the URL of every saved photo, read from the unique index alone.
+     * @return A list of Pexels URLs.
+     */
+    @Query("SELECT url FROM Photo WHERE url IS NOT NULL")
+    List<String> getAllUrls();
+
+    /**
+     * Inserts a new photo into the database. Nothing is written if a photo with the same
+     * Pexels URL is already saved.
      * @param photo The photo to insert.
+     * @return The id of the new row, or -1 if the photo was already saved.
      */
-    @Insert
-    void insert(Photo photo);
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(Photo photo);
 
     /**
      * Deletes a photo from the database.
      * @param photo The photo to delete.
+     * @return The number of rows deleted, 0 if it was not saved.
      */
     @Delete
-    void delete(Photo photo);
+    int delete(Photo photo);
+
+    /**
+     * Inserts several photos in one transaction, so the batch costs a single commit.
+     * @param photos The photos to insert.
+     * @return The id of each new row, or -1 for each photo that was already saved.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAll(List<Photo> photos);
+
+    /**
+     * Deletes several photos in one transaction.
+     * @param photos The photos to delete.
+     * @return The number of rows deleted.
+     */
+    @Delete
+    int deleteAll(List<Photo> photos);
+
+    /**
+     * Looks up a saved photo by its Pexels URL through the unique index.
+     * @param url The Pexels page URL of the photo.
+     * @return The saved photo, or null if it is not saved.
+     */
+    @Query("SELECT * FROM Photo WHERE url = :url LIMIT 1")
+    Photo findByUrl(String url);
+
+    /**
+     * Overwrites the details of the saved photo with the given Pexels URL, keeping its id.
+     * @param url The Pexels page URL of the photo.
+     * @param width The new width.
+     * @param height The new height.
+     * @param photographer The new photographer name.
+     * @param thumbnailUrl The new thumbnail URL.
+     * @param imageUrl The new original image URL.
+     * @return The number of rows updated, 0 if it is not saved.
+     */
+    @Query("UPDATE Photo SET width = :width, height = :height, photographer = :photographer,"
+            + " thumbnailUrl = :thumbnailUrl, imageUrl = :imageUrl"
+            + " WHERE url = :url")
+    int updateByUrl(String url, int width, int height,
+            String photographer, String thumbnailUrl, String imageUrl);
+
+    /**
+     * Saves a photo, or refreshes the details of the saved photo with the same Pexels URL, in one
+     * transaction. A refreshed row keeps its id, so it keeps its place in keyset pages.
+     * @param photo The photo to save.
+     * @return The saved row as it was before being refreshed, or null if the photo was new.
+     */
+    @Transaction
+    default Photo upsert(Photo photo) {
+        Photo previous = findByUrl(photo.getUrl());
+        if (previous == null) {
+            insert(photo);
+        } else {
+            updateByUrl(photo.getUrl(), photo.getWidth(), photo.getHeight(),
+                    photo.getPhotographer(), photo.getThumbnailUrl(), photo.getImageUrl());
+        }
+        return previous;
+    }
+
+    /**
+     * Runs a full-text query over the indexed columns of the saved photos. Only the id and
+     * the match statistics of each matching row are read, never the rows themselves.
+     * @param query An FTS4 MATCH expression.
+     * @return A cursor over the id and the matchinfo 'pcx' blob of each matching photo.
+     */
+    @Query("SELECT rowid, matchinfo(PhotoFts, 'pcx') AS matchinfo FROM PhotoFts"
+            + " WHERE PhotoFts MATCH :query")
+    Cursor searchHits(String query);
+
+    /**
+     * Retrieves the saved photos with the given ids, in no particular order.
+     * @param ids The ids.
+     * @return The photos that are still saved.
+     */
+    @Query("SELECT * FROM Photo WHERE id IN (:ids)")
+    List<Photo> getByIds(List<Long> ids);
 }
@@ -0,0 +1,36 @@
+package com.example.finalproject.data.pexels;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Full-text index over the searchable columns of the saved photos. The index keeps no copy of the
+ * text: it reads the Photo table, and triggers Room creates with it update the index whenever
+ * a photo is inserted, updated or deleted. Its rowid is the id of the indexed photo.
+ */
+@Fts4(contentEntity = Photo.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity
+public class PhotoFts {
+
+    // Name of the photographer
+    @ColumnInfo(name = "photographer")
+    private String photographer;
+
+    /**
+     * Getter method for retrieving the indexed name of the photographer.
+     * @return The name of the photographer.
+     */
+    public String getPhotographer() {
+        return photographer;
+    }
+
+    /**
+     * Setter method for setting the indexed name of the photographer.
+     * @param photographer The name of the photographer to set.
+     */
+    public void setPhotographer(String photographer) {
+        this.photographer = photographer;
+    }
+}
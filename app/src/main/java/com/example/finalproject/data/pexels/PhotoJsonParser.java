@@ -0,0 +1,115 @@
+package com.example.finalproject.data.pexels;
+
+import com.example.finalproject.network.JsonReaders;
+import com.example.finalproject.network.JsonStreamParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for Pexels search responses. Reads the "photos" array and builds a Photo
+ * from the fields Photo stores, skipping the rest of each item. Also records whether the
+ * response links to a next page, so use a new parser for each request.
+ */
+public class PhotoJsonParser implements JsonStreamParser<Photo> {
+
+    private volatile boolean hasNextPage; // True if the response contained a "next_page" link
+
+    /**
+     * Returns whether the parsed response linked to a next page of results.
+     *
+     * @return True if there are more results after this page.
+     */
+    public boolean hasNextPage() {
+        return hasNextPage;
+    }
+
+    /**
+     * Parses a Pexels search response.
+     *
+     * @param reader The reader positioned at the start of the response.
+     * @param sink   Receives each photo in order.
+     * @throws IOException If the response is malformed.
+     */
+    @Override
+    public void parse(JsonReader reader, Consumer<Photo> sink) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("photos".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    sink.accept(readPhoto(reader));
+                }
+                reader.endArray();
+            } else if ("next_page".equals(name)) {
+                hasNextPage = JsonReaders.nextStringOrNull(reader) != null;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads a single photo object.
+     *
+     * @param reader The reader positioned at a photo object.
+     * @return The parsed photo.
+     * @throws IOException If the object is malformed.
+     */
+    static Photo readPhoto(JsonReader reader) throws IOException {
+        Photo photo = new Photo();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "width":
+                    photo.setWidth(JsonReaders.nextIntOr(reader, 0));
+                    break;
+                case "height":
+                    photo.setHeight(JsonReaders.nextIntOr(reader, 0));
+                    break;
+                case "url":
+                    photo.setUrl(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "photographer":
+                    photo.setPhotographer(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "src":
+                    readSrc(reader, photo);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return photo;
+    }
+
+    /**
+     * Reads the "src" object, keeping only the tiny and original image URLs.
+     *
+     * @param reader The reader positioned at the src object.
+     * @param photo  The photo to fill in.
+     * @throws IOException If the object is malformed.
+     */
+    private static void readSrc(JsonReader reader, Photo photo) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "tiny":
+                    photo.setThumbnailUrl(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "original":
+                    photo.setImageUrl(JsonReaders.nextStringOrNull(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+}
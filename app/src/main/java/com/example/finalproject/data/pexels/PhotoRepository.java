@@ -0,0 +1,93 @@
+package com.example.finalproject.data.pexels;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.example.finalproject.data.cache.QueryRepository;
+import com.example.finalproject.data.cache.QueryResult;
+import com.example.finalproject.network.JsonStreamParser;
+import com.example.finalproject.network.RequestKeys;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Repository for Pexels photo searches. Each result page is stored, so a repeated search
+ * shows at once and works offline while it is refreshed in the background.
+ */
+public class PhotoRepository extends QueryRepository<Photo> {
+
+    // Namespace the responses are stored under
+    public static final String NAMESPACE = "pexels";
+    // Search endpoint of the Pexels API
+    private static final String SEARCH_URL = "https://api.pexels.com/v1/search";
+    // Authorization header sent with every request
+    private static final Map<String, String> HEADERS = Collections.singletonMap(
+            "Authorization", "HylTNwr7lJv53y3ocDv9c4CWSZKxROwR7opQJJwM0tKxlsF0kjDpFei4");
+
+    private static volatile PhotoRepository instance; // Process-wide instance
+
+    /**
+     * Creates the repository.
+     * @param context The application context.
+     */
+    private PhotoRepository(Context context) {
+        super(context, NAMESPACE);
+    }
+
+    /**
+     * Returns the shared repository, creating it on first use.
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide PhotoRepository.
+     */
+    public static PhotoRepository getInstance(@NonNull Context context) {
+        PhotoRepository result = instance;
+        if (result == null) {
+            synchronized (PhotoRepository.class) {
+                result = instance;
+                if (result == null) {
+                    result = new PhotoRepository(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected JsonStreamParser<Photo> newParser() {
+        return new PhotoJsonParser();
+    }
+
+    /**
+     * Searches for photos, one page at a time.
+     * @param query The search term; case and extra whitespace are ignored.
+     * @param page Page number, starting at 1.
+     * @param perPage Number of photos per page.
+     * @param callback Receives the page on the main thread.
+     * @return A handle that stops further callbacks.
+     */
+    public Subscription search(@NonNull String query, int page, int perPage,
+                               @NonNull Callback<Photo> callback) {
+        String url;
+        try {
+            url = SEARCH_URL + "?query=" + URLEncoder.encode(RequestKeys.normalizeTerm(query), "UTF-8")
+                    + "&page=" + page + "&per_page=" + perPage;
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+        return load(url, HEADERS, callback);
+    }
+
+    /**
+     * Returns whether a search result page links to a next page.
+     * @param result A result delivered by {@link #search}.
+     * @return True if there are more results after this page.
+     */
+    public static boolean hasNextPage(@NonNull QueryResult<Photo> result) {
+        return ((PhotoJsonParser) result.getParser()).hasNextPage();
+    }
+}
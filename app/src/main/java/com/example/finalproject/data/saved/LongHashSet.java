@@ -0,0 +1,162 @@
+package com.example.finalproject.data.saved;
+
+/**
+ * Set of long values stored in one open-addressing table of primitives, so each value costs
+ * between 11 and 22 bytes instead of the 50 or more of a boxed HashSet entry. Not thread-safe.
+ */
+final class LongHashSet {
+
+    // Smallest table, a power of two
+    private static final int MIN_CAPACITY = 16;
+    // Marks an empty slot; the value 0 itself is tracked by a flag
+    private static final long EMPTY = 0L;
+
+    private long[] table; // Values by slot, EMPTY where free; length is a power of two
+    private int size; // Number of values stored in the table
+    private boolean containsZero; // Whether the value 0 is in the set
+
+    /**
+     * Creates a set sized for an expected number of values.
+     *
+     * @param expectedSize Number of values expected; the set grows past it as needed.
+     */
+    LongHashSet(int expectedSize) {
+        table = new long[capacityFor(expectedSize)];
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return The size.
+     */
+    int size() {
+        return containsZero ? size + 1 : size;
+    }
+
+    /**
+     * Returns whether a value is in the set.
+     *
+     * @param value The value.
+     * @return True if present.
+     */
+    boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        for (int slot = slotOf(value, mask); ; slot = (slot + 1) & mask) {
+            long current = table[slot];
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == value) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value The value.
+     * @return True if it was not in the set yet.
+     */
+    boolean add(long value) {
+        if (value == EMPTY) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int mask = table.length - 1;
+        int slot = slotOf(value, mask);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        size++;
+        // Keep the table at most three quarters full so probe runs stay short
+        if (size * 4 > table.length * 3) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value The value.
+     * @return True if it was in the set.
+     */
+    boolean remove(long value) {
+        if (value == EMPTY) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int mask = table.length - 1;
+        int slot = slotOf(value, mask);
+        while (table[slot] != value) {
+            if (table[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Shift later values of the probe run back so lookups never stop at the freed slot
+        int free = slot;
+        for (int next = (free + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slotOf(table[next], mask);
+            // Move the value unless its home slot lies cyclically between the free slot and it
+            boolean homeAfterFree = free <= next
+                    ? free < home && home <= next
+                    : free < home || home <= next;
+            if (!homeAfterFree) {
+                table[free] = table[next];
+                free = next;
+            }
+        }
+        table[free] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the home slot of a value, mixing its bits so that values differing only in their
+     * high bits still spread over the table.
+     */
+    private static int slotOf(long value, int mask) {
+        long mixed = value * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    /**
+     * Returns the table length that holds a number of values at most half full.
+     */
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Moves every value into a table of a new length.
+     */
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int slot = slotOf(value, mask);
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.finalproject.data.saved;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.Fnv1a;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of the natural keys of a feature's saved rows, so a result list can mark the
+ * rows that are already saved without a query per row. The keys are read once on the I/O
+ * executor and kept as 64-bit hashes in a primitive set, which stays well under a megabyte even
+ * with tens of thousands of saved rows. Writers report the rows they insert and delete from any
+ * thread; the set itself and the listeners are confined to the main thread, so checking a row
+ * while binding it does no I/O and takes no lock. Until the keys are loaded no row is reported
+ * as saved.
+ *
+ * @param <T> The entity type.
+ */
+public final class SavedKeyIndex<T> {
+
+    private final Supplier<List<String>> loader; // Reads every saved key; runs on the I/O executor
+    private final Function<T, String> keyOf; // Natural key of a row, or null if it has none
+    private final AppExecutors executors; // Executors for loading and main-thread updates
+    private final List<Listener> listeners = new ArrayList<>(); // Notified of changes
+    private final List<Runnable> replay = new ArrayList<>(); // Updates made while loading
+    private LongHashSet keys = new LongHashSet(0); // Hashes of the saved keys
+    private boolean loadStarted; // Set once loading has been started
+    private boolean loading; // Set while the keys are being read
+
+    /**
+     * Creates an index; nothing is read until a listener is added.
+     *
+     * @param loader Reads the natural key of every saved row; called on the I/O executor.
+     * @param keyOf  Returns the natural key of a row, or null if it has none.
+     */
+    public SavedKeyIndex(@NonNull Supplier<List<String>> loader, @NonNull Function<T, String> keyOf) {
+        this.loader = loader;
+        this.keyOf = keyOf;
+        this.executors = AppExecutors.getInstance();
+    }
+
+    /**
+     * Returns whether a row is saved. Must be called on the main thread.
+     *
+     * @param row The row.
+     * @return True if a saved row has the same natural key.
+     */
+    public boolean contains(@NonNull T row) {
+        String key = keyOf.apply(row);
+        return key != null && keys.contains(Fnv1a.hash(key));
+    }
+
+    /**
+     * Records that a row was saved. May be called on any thread, after the insert.
+     *
+     * @param row The saved row.
+     */
+    public void add(@NonNull T row) {
+        addAll(Collections.singletonList(row));
+    }
+
+    /**
+     * Records that rows were saved. May be called on any thread, after the insert.
+     *
+     * @param rows The saved rows.
+     */
+    public void addAll(@NonNull List<T> rows) {
+        long[] hashes = hashesOf(rows);
+        update(() -> {
+            boolean changed = false;
+            for (long hash : hashes) {
+                changed |= keys.add(hash);
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Records that a row was deleted. May be called on any thread, after the delete.
+     *
+     * @param row The deleted row.
+     */
+    public void remove(@NonNull T row) {
+        removeAll(Collections.singletonList(row));
+    }
+
+    /**
+     * Records that rows were deleted. May be called on any thread, after the delete.
+     *
+     * @param rows The deleted rows.
+     */
+    public void removeAll(@NonNull List<T> rows) {
+        long[] hashes = hashesOf(rows);
+        update(() -> {
+            boolean changed = false;
+            for (long hash : hashes) {
+                changed |= keys.remove(hash);
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Adds a listener and loads the keys if that has not been started yet. Must be called on
+     * the main thread.
+     *
+     * @param listener Notified on the main thread whenever rows may have changed state.
+     */
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+        if (!loadStarted) {
+            loadStarted = true;
+            loading = true;
+            executors.diskIO().execute(this::load);
+        }
+    }
+
+    /**
+     * Removes a listener. Must be called on the main thread.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(@Nullable Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads every saved key into a new set and swaps it in on the main thread, replaying the
+     * updates reported meanwhile. Those updates are applied in order after the snapshot, so the
+     * set ends up agreeing with the table whether or not the snapshot already saw them. Runs on
+     * the I/O executor.
+     */
+    private void load() {
+        List<String> saved = loader.get();
+        LongHashSet loaded = new LongHashSet(saved.size());
+        for (String key : saved) {
+            if (key != null) {
+                loaded.add(Fnv1a.hash(key));
+            }
+        }
+        executors.mainThread().execute(() -> {
+            keys = loaded;
+            loading = false;
+            for (Runnable update : replay) {
+                update.run();
+            }
+            replay.clear();
+            notifyListeners();
+        });
+    }
+
+    /**
+     * Applies an update to the set on the main thread, and again after loading if the keys are
+     * being read.
+     *
+     * @param change Applies the update and returns whether the set changed.
+     */
+    private void update(Change change) {
+        executors.mainThread().execute(() -> {
+            if (loading) {
+                replay.add(change::apply);
+            }
+            if (change.apply()) {
+                notifyListeners();
+            }
+        });
+    }
+
+    /**
+     * Returns the key hashes of rows that have a natural key.
+     */
+    private long[] hashesOf(List<T> rows) {
+        long[] hashes = new long[rows.size()];
+        int count = 0;
+        for (T row : rows) {
+            String key = keyOf.apply(row);
+            if (key != null) {
+                hashes[count++] = Fnv1a.hash(key);
+            }
+        }
+        return Arrays.copyOf(hashes, count);
+    }
+
+    /**
+     * Tells the listeners that rows may have changed state.
+     */
+    private void notifyListeners() {
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onSavedKeysChanged();
+        }
+    }
+
+    /**
+     * An update of the set.
+     */
+    private interface Change {
+        /**
+         * Applies the update.
+         *
+         * @return True if the set changed.
+         */
+        boolean apply();
+    }
+
+    /**
+     * Notified on the main thread when saved rows were loaded, added or removed.
+     */
+    public interface Listener {
+        /**
+         * Called after the set of saved keys changed.
+         */
+        void onSavedKeysChanged();
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.finalproject.data.search;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.movieinfo.Movie;
+import com.example.finalproject.data.movieinfo.MovieDao;
+import com.example.finalproject.data.pexels.Photo;
+import com.example.finalproject.data.pexels.PhotoDao;
+import com.example.finalproject.data.soccermatch.Match;
+import com.example.finalproject.data.soccermatch.MatchDao;
+import com.example.finalproject.data.ticketmaster.Event;
+import com.example.finalproject.data.ticketmaster.EventDao;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Searches every saved table at once through their full-text indexes and returns one list
+ * ranked by relevance. Each table is queried for the id and the match statistics of its
+ * matching rows only; those are scored while the cursor is read, only the best
+ * {@link #MAX_RESULTS} are kept, and just those rows are then loaded by id. FTS4 has no built-in
+ * ranking, so the score is computed here from matchinfo: for every query term and column, the
+ * column's weight times the share of the term's occurrences in the whole table that fall in
+ * the row. Terms rare in a table therefore count more than common ones.
+ * Only the most recent search is delivered.
+ */
+public final class SavedSearch {
+
+    // Largest number of results of one search
+    public static final int MAX_RESULTS = 50;
+    // Largest number of words of the typed text that are searched for
+    static final int MAX_TERMS = 8;
+
+    private static volatile SavedSearch instance; // Process-wide instance
+
+    private final List<Source<?>> sources; // The searched tables
+    private final AppExecutors executors; // Executors for queries and delivery
+    private final AtomicInteger generation = new AtomicInteger(); // Bumped by each search and cancel
+
+    /**
+     * Creates the search over the four saved tables.
+     *
+     * @param context The application context.
+     */
+    private SavedSearch(Context context) {
+        AppDatabase db = AppDatabase.getInstance(context);
+        PhotoDao photoDao = db.photoDAO();
+        MovieDao movieDao = db.movieDAO();
+        EventDao eventDao = db.eventDao();
+        MatchDao matchDao = db.matchDAO();
+        // Weights follow the column order of each FTS entity; names and titles weigh the most
+        this.sources = Arrays.asList(
+                new Source<Photo>(new double[]{2.0},
+                        photoDao::searchHits, photoDao::getByIds, Photo::getId,
+                        (photo, score) -> new SearchResult(SearchResult.Kind.PHOTO, photo.getId(), photo,
+                                photo.getPhotographer(), photo.getWidth() + " x " + photo.getHeight(),
+                                photo.getThumbnailUrl(), score)),
+                new Source<Movie>(new double[]{2.0, 1.0, 1.5},
+                        movieDao::searchHits, movieDao::getByIds, Movie::getId,
+                        (movie, score) -> new SearchResult(SearchResult.Kind.MOVIE, movie.getId(), movie,
+                                movie.getTitle(), movie.getYear(), movie.getPosterUrl(), score)),
+                new Source<Event>(new double[]{2.0},
+                        eventDao::searchHits, eventDao::getByIds, Event::getId,
+                        (event, score) -> new SearchResult(SearchResult.Kind.EVENT, event.getId(), event,
+                                event.getName(), event.getStartingDate(), event.getPromoImageUrl(),
+                                score)),
+                new Source<Match>(new double[]{2.0, 1.5, 1.5},
+                        matchDao::searchHits, matchDao::getByIds, Match::getId,
+                        (match, score) -> new SearchResult(SearchResult.Kind.MATCH, match.getId(), match,
+                                match.getTitle(), match.getDate(), match.getThumbnailUrl(), score)));
+        this.executors = AppExecutors.getInstance();
+    }
+
+    /**
+     * Returns the shared search, creating it on first use.
+     *
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide SavedSearch.
+     */
+    public static SavedSearch getInstance(@NonNull Context context) {
+        SavedSearch result = instance;
+        if (result == null) {
+            synchronized (SavedSearch.class) {
+                result = instance;
+                if (result == null) {
+                    result = new SavedSearch(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts a search, superseding any search still running. Every word of the text is
+     * matched as a prefix, and a row must match all of them. Must be called on the main thread.
+     *
+     * @param text     The typed text.
+     * @param callback Receives the results, best first, on the main thread. Not called if
+     *                 another search is started or {@link #cancel()} is called first. Called
+     *                 at once with an empty list if the text holds no words.
+     */
+    public void search(@NonNull String text, @NonNull Consumer<List<SearchResult>> callback) {
+        int search = generation.incrementAndGet();
+        String query = toMatchQuery(text);
+        if (query == null) {
+            callback.accept(Collections.emptyList());
+            return;
+        }
+        executors.diskIO().execute(() -> {
+            List<SearchResult> results = run(query, search);
+            executors.mainThread().execute(() -> {
+                if (results != null && generation.get() == search) {
+                    callback.accept(results);
+                }
+            });
+        });
+    }
+
+    /**
+     * Drops the running search, if any, so its callback is not called.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Runs a query over every table. Runs on the I/O executor.
+     *
+     * @param query  The MATCH expression.
+     * @param search Generation of the search.
+     * @return The results, best first, or null if the search was superseded.
+     */
+    @Nullable
+    private List<SearchResult> run(String query, int search) {
+        // Lowest score on top, so the weakest of the kept hits is the one replaced
+        PriorityQueue<Hit> best = new PriorityQueue<>(MAX_RESULTS + 1, Hit.ORDER);
+        for (Source<?> source : sources) {
+            if (generation.get() != search) {
+                return null;
+            }
+            try (Cursor cursor = source.hits.apply(query)) {
+                while (cursor.moveToNext()) {
+                    Hit hit = new Hit(source, cursor.getLong(0), score(cursor.getBlob(1), source.weights));
+                    if (best.size() < MAX_RESULTS) {
+                        best.add(hit);
+                    } else if (Hit.ORDER.compare(hit, best.peek()) > 0) {
+                        best.poll();
+                        best.add(hit);
+                    }
+                }
+            }
+        }
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(Hit.ORDER.reversed());
+        Map<Source<?>, Map<Long, SearchResult>> resolved = new HashMap<>();
+        for (Source<?> source : sources) {
+            resolved.put(source, source.resolve(ranked));
+        }
+        List<SearchResult> results = new ArrayList<>(ranked.size());
+        for (Hit hit : ranked) {
+            // Rows deleted since the index was read are left out
+            SearchResult result = resolved.get(hit.source).get(hit.rowid);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Turns typed text into an FTS4 MATCH expression: each run of letters and digits becomes a
+     * lower-case prefix term, and the terms are implicitly ANDed. Everything else is dropped,
+     * so the text cannot form operators or malformed syntax.
+     *
+     * @param text The typed text.
+     * @return The expression, or null if the text holds no words.
+     */
+    @Nullable
+    static String toMatchQuery(@NonNull String text) {
+        StringBuilder query = new StringBuilder();
+        int terms = 0;
+        int i = 0;
+        while (i < text.length() && terms < MAX_TERMS) {
+            if (!Character.isLetterOrDigit(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+                continue;
+            }
+            int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            if (terms++ > 0) {
+                query.append(' ');
+            }
+            query.append(text.substring(start, i).toLowerCase(Locale.ROOT)).append('*');
+        }
+        return terms == 0 ? null : query.toString();
+    }
+
+    /**
+     * Scores a row from its matchinfo 'pcx' blob: the phrase count p, the column count c, then
+     * for every phrase and column the hits in this row, the hits in all rows and the rows with
+     * a hit, all 32-bit integers in native byte order.
+     *
+     * @param matchinfo The blob.
+     * @param weights   Weight of each column.
+     * @return The score; higher is better.
+     */
+    static double score(@NonNull byte[] matchinfo, @NonNull double[] weights) {
+        IntBuffer values = ByteBuffer.wrap(matchinfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phrases = values.get(0);
+        int columns = values.get(1);
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int offset = 2 + 3 * (phrase * columns + column);
+                int rowHits = values.get(offset);
+                if (rowHits > 0) {
+                    score += weights[column] * rowHits / values.get(offset + 1);
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * A matching row of one table.
+     */
+    private static final class Hit {
+
+        // Orders hits by score, then newer rows first
+        static final Comparator<Hit> ORDER = Comparator.<Hit>comparingDouble(hit -> hit.score)
+                .thenComparingLong(hit -> hit.rowid);
+
+        final Source<?> source; // Table of the row
+        final long rowid; // Id of the row
+        final double score; // Relevance of the row
+
+        /**
+         * Creates a hit.
+         */
+        Hit(Source<?> source, long rowid, double score) {
+            this.source = source;
+            this.rowid = rowid;
+            this.score = score;
+        }
+    }
+
+    /**
+     * One searched table.
+     *
+     * @param <T> The entity type.
+     */
+    private static final class Source<T> {
+
+        final double[] weights; // Weight of each indexed column
+        final Function<String, Cursor> hits; // Runs a MATCH query, yielding rowid and matchinfo
+        final Function<List<Long>, List<T>> load; // Loads rows by id
+        final ToLongFunction<T> idOf; // Id of a row
+        final BiFunction<T, Double, SearchResult> toResult; // Builds the result of a row
+
+        /**
+         * Creates a source.
+         */
+        Source(double[] weights, Function<String, Cursor> hits, Function<List<Long>, List<T>> load,
+               ToLongFunction<T> idOf, BiFunction<T, Double, SearchResult> toResult) {
+            this.weights = weights;
+            this.hits = hits;
+            this.load = load;
+            this.idOf = idOf;
+            this.toResult = toResult;
+        }
+
+        /**
+         * Loads the rows of this table among the ranked hits and builds their results.
+         *
+         * @param ranked Hits of every table.
+         * @return Results by row id.
+         */
+        Map<Long, SearchResult> resolve(List<Hit> ranked) {
+            Map<Long, Double> scores = new HashMap<>();
+            for (Hit hit : ranked) {
+                if (hit.source == this) {
+                    scores.put(hit.rowid, hit.score);
+                }
+            }
+            Map<Long, SearchResult> results = new HashMap<>();
+            if (scores.isEmpty()) {
+                return results;
+            }
+            for (T row : load.apply(new ArrayList<>(scores.keySet()))) {
+                long id = idOf.applyAsLong(row);
+                results.put(id, toResult.apply(row, scores.get(id)));
+            }
+            return results;
+        }
+    }
+}
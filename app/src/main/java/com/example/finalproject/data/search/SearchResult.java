@@ -0,0 +1,115 @@
+package com.example.finalproject.data.search;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * One saved row found by a {@link SavedSearch}, with the fields a result list shows.
+ */
+public final class SearchResult {
+
+    /**
+     * The saved table a result comes from.
+     */
+    public enum Kind {
+        PHOTO, MOVIE, EVENT, MATCH
+    }
+
+    private final Kind kind; // Table the row comes from
+    private final long id; // Id of the row in its table
+    private final Object item; // The saved entity: a Photo, Movie, Event or Match
+    private final String title; // Main line of the result
+    private final String detail; // Short secondary text, such as a year or a date
+    private final String imageUrl; // Thumbnail to show, or null
+    private final double score; // Relevance; higher is better
+
+    /**
+     * Creates a result.
+     *
+     * @param kind     Table the row comes from.
+     * @param id       Id of the row in its table.
+     * @param item     The saved entity.
+     * @param title    Main line of the result.
+     * @param detail   Short secondary text.
+     * @param imageUrl Thumbnail to show, or null.
+     * @param score    Relevance; higher is better.
+     */
+    SearchResult(@NonNull Kind kind, long id, @NonNull Object item, @Nullable String title,
+                 @Nullable String detail, @Nullable String imageUrl, double score) {
+        this.kind = kind;
+        this.id = id;
+        this.item = item;
+        this.title = title;
+        this.detail = detail;
+        this.imageUrl = imageUrl;
+        this.score = score;
+    }
+
+    /**
+     * Returns the table the row comes from.
+     *
+     * @return The kind of the result.
+     */
+    @NonNull
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the id of the row in its table; with the kind it identifies the result.
+     *
+     * @return The row id.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the saved entity, whose class matches {@link #getKind()}.
+     *
+     * @return The Photo, Movie, Event or Match.
+     */
+    @NonNull
+    public Object getItem() {
+        return item;
+    }
+
+    /**
+     * Returns the main line of the result.
+     *
+     * @return The title, or null.
+     */
+    @Nullable
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the short secondary text of the result.
+     *
+     * @return The detail, or null.
+     */
+    @Nullable
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Returns the thumbnail URL of the result.
+     *
+     * @return The URL, or null.
+     */
+    @Nullable
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    /**
+     * Returns the relevance of the result; only comparable within one search.
+     *
+     * @return The score, higher is better.
+     */
+    public double getScore() {
+        return score;
+    }
+}
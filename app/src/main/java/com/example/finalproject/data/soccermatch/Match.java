@@ -2,6 +2,8 @@ package com.example.finalproject.data.soccermatch;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import org.json.JSONException;
@@ -12,10 +14,14 @@ import java.util.regex.Pattern;
 
 /**
  * Entity class representing a match.
+ * A match is identified by its embed URL, which is unique among saved rows.
  */
-@Entity
+@Entity(indices = {@Index(value = {"url"}, unique = true)})
 public class Match {
 
+    // Pattern matching the src attribute value of the embed iframe, compiled once
+    private static final Pattern IFRAME_SRC = Pattern.compile("<iframe\\s+src='(.*?)'");
+
     // Primary key
     @PrimaryKey(autoGenerate = true)
     @ColumnInfo(name = "id")
@@ -45,6 +51,10 @@ public class Match {
     @ColumnInfo(name = "thumbnailUrl")
     private String thumbnailUrl;
 
+    // Embed HTML of the first video of a parsed match; the URL is extracted from it on first use
+    @Ignore
+    private String embed;
+
     /**
      * Default constructor for the Match class.
      */
@@ -60,7 +70,7 @@ public class Match {
             this.title = matchObject.getString("title");
             this.date = matchObject.getString("date");
             JSONObject highlights = matchObject.getJSONArray("videos").getJSONObject(0);
-            this.url = extractSrcFromHtml(highlights.getString("embed"));
+            this.embed = highlights.getString("embed");
             this.team1 = matchObject.getJSONObject("side1").getString("name");
             this.team2 = matchObject.getJSONObject("side2").getString("name");
             this.thumbnailUrl = matchObject.getString("thumbnail");
@@ -138,7 +148,16 @@ public class Match {
      * @return The URL of the match.
      */
     public String getUrl() {
-        return url;
+        String result = url;
+        if (result == null) {
+            // Extracted on first use, so rows that are never shown or saved skip the regex
+            String html = embed;
+            if (html != null) {
+                result = extractSrcFromHtml(html);
+                url = result;
+            }
+        }
+        return result;
     }
 
     /**
@@ -149,6 +168,15 @@ public class Match {
         this.url = url;
     }
 
+    /**
+     * Setter method for setting the embed HTML of the match's first video. The URL is
+     * extracted from it when {@link #getUrl()} is first called, unless a URL is set.
+     * @param embed The embed HTML containing an iframe tag.
+     */
+    public void setEmbed(String embed) {
+        this.embed = embed;
+    }
+
     /**
      * Getter method for retrieving the title of the match.
      * @return The title of the match.
@@ -187,9 +215,7 @@ public class Match {
      * @return The source URL extracted from the HTML content.
      */
     public static String extractSrcFromHtml(String html) {
-        // Regex pattern to match the src attribute value of the iframe
-        Pattern pattern = Pattern.compile("<iframe\\s+src='(.*?)'");
-        Matcher matcher = pattern.matcher(html);
+        Matcher matcher = IFRAME_SRC.matcher(html);
 
         // Check if src attribute is found and return its value
         if (matcher.find()) {
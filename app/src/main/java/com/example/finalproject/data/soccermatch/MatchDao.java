@@ -1,9 +1,13 @@
 package com.example.finalproject.data.soccermatch;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 
 import java.util.List;
@@ -15,23 +19,139 @@ import java.util.List;
 public interface MatchDao {
 
     /**
-     * Retrieves all matches from the database.
-     * @return A list of all matches stored in the database.
+     * Retrieves one page of matches with keyset pagination: the rows whose id is greater than
+     * the last id already loaded, in id order.
+     * @param afterId Id of the last row already loaded, or 0 for the first page.
+     * @param limit Maximum number of rows to return.
+     * @return A list of at most limit matches.
+     */
+    @Query("SELECT * FROM Match WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<Match> getMatchesAfter(long afterId, int limit);
+
+    /**
+     * Retrieves the page of matches just before the first one loaded, for scrolling back
+     * after earlier pages were dropped: the rows whose id is less than the given one, newest
+     * id first.
+     * @param beforeId Id of the first row still loaded.
+     * @param limit Maximum number of rows to return.
+     * @return A list of at most limit matches, in descending id order.
      */
-    @Query("SELECT * FROM Match")
-    List<Match> getAllMatches();
+    @Query("SELECT * FROM Match WHERE id < :beforeId ORDER BY id DESC LIMIT :limit")
+    List<Match> getMatchesBefore(long beforeId, int limit);
 
     /**
-     * Inserts a new match into the database.
+     * Retrieves the embed URL of every saved match, read from the unique index alone.
+     * @return A list of embed URLs.
+     */
+    @Query("SELECT url FROM Match WHERE url IS NOT NULL")
+    List<String> getAllUrls();
+
+    /**
+     * Inserts a new match into the database. Nothing is written if a match with the same
+     * embed URL is already saved.
      * @param match The match to insert.
+     * @return The id of the new row, or -1 if the match was already saved.
      */
-    @Insert
-    void insert(Match match);
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(Match match);
 
     /**
      * Deletes a match from the database.
      * @param match The match to delete.
+     * @return The number of rows deleted, 0 if it was not saved.
+     */
+    @Delete
+    int delete(Match match);
+
+    /**
+     * Inserts several matches in one transaction, so the batch costs a single commit.
+     * @param matches The matches to insert.
+     * @return The id of each new row, or -1 for each match that was already saved.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAll(List<Match> matches);
+
+    /**
+     * Deletes several matches in one transaction.
+     * @param matches The matches to delete.
+     * @return The number of rows deleted.
      */
     @Delete
-    void delete(Match match);
-}
\ No newline at end of file
+    int deleteAll(List<Match> matches);
+
+    /**
+     * Looks up a saved match by its embed URL through the unique index.
+     * @param url The Scorebat embed URL of the match.
+     * @return The saved match, or null if it is not saved.
+     */
+    @Query("SELECT * FROM Match WHERE url = :url LIMIT 1")
+    Match findByUrl(String url);
+
+    /**
+     * Overwrites the details of the saved match with the given embed URL, keeping its id.
+     * @param url The Scorebat embed URL of the match.
+     * @param date The new date.
+     * @param team1 The new first team.
+     * @param team2 The new second team.
+     * @param title The new title.
+     * @param thumbnailUrl The new thumbnail URL.
+     * @return The number of rows updated, 0 if it is not saved.
+     */
+    @Query("UPDATE Match SET date = :date, team1 = :team1, team2 = :team2,"
+            + " title = :title, thumbnailUrl = :thumbnailUrl"
+            + " WHERE url = :url")
+    int updateByUrl(String url, String date, String team1,
+            String team2, String title, String thumbnailUrl);
+
+    /**
+     * Saves a match, or refreshes the details of the saved match with the same embed URL, in one
+     * transaction. A refreshed row keeps its id, so it keeps its place in keyset pages.
+     * @param match The match to save.
+     * @return The saved row as it was before being refreshed, or null if the match was new.
+     */
+    @Transaction
+    default Match upsert(Match match) {
+        Match previous = findByUrl(match.getUrl());
+        if (previous == null) {
+            insert(match);
+        } else {
+            updateByUrl(match.getUrl(), match.getDate(), match.getTeam1(),
+                    match.getTeam2(), match.getTitle(), match.getThumbnailUrl());
+        }
+        return previous;
+    }
+
+    /**
+     * Refreshes the details of the saved matches among the given ones, in one transaction.
+     * Matches that are not saved are ignored, so nothing is saved by this call.
+     * @param matches Matches as they are now, with the embed URLs of the rows to refresh.
+     * @return The number of saved rows refreshed.
+     */
+    @Transaction
+    default int refreshAll(List<Match> matches) {
+        int updated = 0;
+        for (Match match : matches) {
+            updated += updateByUrl(match.getUrl(), match.getDate(), match.getTeam1(),
+                    match.getTeam2(), match.getTitle(), match.getThumbnailUrl());
+        }
+        return updated;
+    }
+
+    /**
+     * Runs a full-text query over the indexed columns of the saved matches. Only the id and
+     * the match statistics of each matching row are read, never the rows themselves.
+     * @param query An FTS4 MATCH expression.
+     * @return A cursor over the id and the matchinfo 'pcx' blob of each matching match.
+     */
+    @Query("SELECT rowid, matchinfo(MatchFts, 'pcx') AS matchinfo FROM MatchFts"
+            + " WHERE MatchFts MATCH :query")
+    Cursor searchHits(String query);
+
+    /**
+     * Retrieves the saved matches with the given ids, in no particular order.
+     * @param ids The ids.
+     * @return The matches that are still saved.
+     */
+    @Query("SELECT * FROM Match WHERE id IN (:ids)")
+    List<Match> getByIds(List<Long> ids);
+}
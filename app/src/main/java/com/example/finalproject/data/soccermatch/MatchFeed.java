@@ -0,0 +1,454 @@
+package com.example.finalproject.data.soccermatch;
+
+import com.example.finalproject.data.Fnv1a;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The Scorebat feed as an immutable list that keeps the raw response and decodes each Match
+ * only when it is first read, typically when its row is bound or it is saved. Building the list
+ * only finds where each element of the top-level array starts and ends, which allocates two
+ * ints per match instead of a Match with all its strings. A decoded Match is kept, so reading
+ * an element again returns the same object. Safe to read from any thread.
+ * <p>
+ * While indexing, each match is also hashed straight from the raw bytes: its key hashes the
+ * embed HTML, which holds the embed URL that identifies a match, and its fingerprint hashes the
+ * title, date, thumbnail and sides. Two feeds can therefore be compared without decoding either.
+ */
+public final class MatchFeed extends AbstractList<Match> implements RandomAccess {
+
+    // Reports elements that cannot be decoded; java.util.logging reaches logcat on Android and
+    // keeps this class free of Android APIs for the benchmark module
+    private static final Logger LOG = Logger.getLogger(MatchFeed.class.getName());
+    // Member names, as the bytes they appear as in the feed
+    private static final byte[] VIDEOS = ascii("videos");
+    private static final byte[] EMBED = ascii("embed");
+    // Members of a match whose values make up its fingerprint
+    private static final byte[][] FINGERPRINTED = {
+            ascii("title"), ascii("date"), ascii("thumbnail"), ascii("side1"), ascii("side2")};
+
+    private final byte[] body; // The feed, UTF-8 encoded
+    private final int[] bounds; // Start and end offset of each element, two ints per match
+    private final long[] keys; // Hash of the embed of each match
+    private final long[] fingerprints; // Hash of the shown and saved fields of each match
+    private final AtomicReferenceArray<Match> decoded; // Matches decoded so far, by index
+
+    /**
+     * Creates a feed over an indexed body.
+     *
+     * @param body         The feed, UTF-8 encoded.
+     * @param bounds       Start and end offset of each element.
+     * @param keys         Key of each element.
+     * @param fingerprints Fingerprint of each element.
+     */
+    private MatchFeed(byte[] body, int[] bounds, long[] keys, long[] fingerprints) {
+        this.body = body;
+        this.bounds = bounds;
+        this.keys = keys;
+        this.fingerprints = fingerprints;
+        this.decoded = new AtomicReferenceArray<>(keys.length);
+    }
+
+    /**
+     * Indexes a Scorebat feed without decoding its matches. The body is scanned once for the
+     * boundaries of the objects in its top-level array; strings are skipped without decoding.
+     *
+     * @param body    The raw response body.
+     * @param charset Charset of the body.
+     * @return The feed.
+     * @throws IOException If the body is not a JSON array of objects.
+     */
+    public static MatchFeed index(byte[] body, String charset) throws IOException {
+        Charset encoding = Charset.forName(charset);
+        if (!StandardCharsets.UTF_8.equals(encoding) && !StandardCharsets.US_ASCII.equals(encoding)) {
+            // The scan relies on structural characters being single bytes, as in UTF-8
+            body = new String(body, encoding).getBytes(StandardCharsets.UTF_8);
+        }
+        int[] bounds = new int[64];
+        long[] keys = new long[32];
+        long[] fingerprints = new long[32];
+        int count = 0;
+        int i = skipWhitespace(body, 0);
+        if (i >= body.length || body[i] != '[') {
+            throw new IOException("Feed is not a JSON array");
+        }
+        i = skipWhitespace(body, i + 1);
+        if (i < body.length && body[i] == ']') {
+            return new MatchFeed(body, new int[0], new long[0], new long[0]);
+        }
+        long[] hashes = new long[2];
+        while (true) {
+            if (i >= body.length || body[i] != '{') {
+                throw new IOException("Feed element " + count + " is not an object");
+            }
+            int end = scanMatch(body, i, hashes);
+            if (count == keys.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                keys = Arrays.copyOf(keys, keys.length * 2);
+                fingerprints = Arrays.copyOf(fingerprints, fingerprints.length * 2);
+            }
+            bounds[count * 2] = i;
+            bounds[count * 2 + 1] = end;
+            keys[count] = hashes[0];
+            fingerprints[count] = hashes[1];
+            count++;
+            i = skipWhitespace(body, end);
+            if (i < body.length && body[i] == ',') {
+                i = skipWhitespace(body, i + 1);
+            } else if (i < body.length && body[i] == ']') {
+                break;
+            } else {
+                throw new IOException("Malformed feed after element " + (count - 1));
+            }
+        }
+        return new MatchFeed(body, Arrays.copyOf(bounds, count * 2),
+                Arrays.copyOf(keys, count), Arrays.copyOf(fingerprints, count));
+    }
+
+    /**
+     * Returns the match at a position, decoding it on first read.
+     *
+     * @param index The position.
+     * @return The match; the same object on every call.
+     */
+    @Override
+    public Match get(int index) {
+        Match match = decoded.get(index);
+        if (match == null) {
+            Match fresh = decode(index);
+            // Another thread may have decoded it meanwhile; keep whichever was stored first
+            match = decoded.compareAndSet(index, null, fresh) ? fresh : decoded.get(index);
+        }
+        return match;
+    }
+
+    /**
+     * Returns the number of matches in the feed.
+     *
+     * @return The size.
+     */
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key of the match at a position. Matches with the same key are the same
+     * match; a match without an embed is keyed by its fingerprint.
+     *
+     * @param index The position.
+     * @return The 64-bit key.
+     */
+    public long keyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Returns the fingerprint of the match at a position. The same match with the same
+     * fingerprint in two feeds shows and saves the same values.
+     *
+     * @param index The position.
+     * @return The 64-bit fingerprint.
+     */
+    public long fingerprintAt(int index) {
+        return fingerprints[index];
+    }
+
+    /**
+     * Takes over what is still valid from the feed this one replaces. Matches that are in both
+     * feeds with the same fingerprint are not decoded again: the previous feed's decoded Match
+     * is reused. Matches whose fingerprint changed are decoded and returned, so copies of them
+     * kept elsewhere can be updated. Only hashes are compared, so the cost beyond one pass over
+     * the keys is proportional to the number of changed matches.
+     *
+     * @param previous The feed shown before this one.
+     * @return The matches present in both feeds whose details changed, in feed order.
+     */
+    public List<Match> syncFrom(MatchFeed previous) {
+        List<Match> changed = new ArrayList<>();
+        if (previous == this) {
+            return changed;
+        }
+        KeyTable before = new KeyTable(previous.keys);
+        for (int i = 0; i < keys.length; i++) {
+            int old = before.indexOf(keys[i]);
+            if (old < 0) {
+                continue; // A new match; decoded when it is first shown
+            }
+            if (previous.fingerprints[old] != fingerprints[i]) {
+                changed.add(get(i));
+            } else {
+                Match reused = previous.decoded.get(old);
+                if (reused != null) {
+                    decoded.compareAndSet(i, null, reused);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Decodes one element of the feed.
+     */
+    private Match decode(int index) {
+        int start = bounds[index * 2];
+        String json = new String(body, start, bounds[index * 2 + 1] - start, StandardCharsets.UTF_8);
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return MatchJsonParser.readMatch(reader);
+        } catch (IOException | IllegalStateException e) {
+            // The element's structure was checked when indexing, so only odd values get here;
+            // an empty row without a URL is shown rather than failing every bind of the list,
+            // and saving skips it
+            LOG.log(Level.WARNING, "Could not decode match " + index + " of the feed", e);
+            return new Match();
+        }
+    }
+
+    /**
+     * Finds the end of the match object starting at an offset and hashes its members.
+     *
+     * @param body   The feed.
+     * @param i      Offset of the opening brace.
+     * @param hashes Receives the key and the fingerprint of the match.
+     * @return The offset just after the closing brace.
+     */
+    private static int scanMatch(byte[] body, int i, long[] hashes) throws IOException {
+        long key = 0;
+        boolean keyed = false;
+        long fingerprint = 0;
+        i = skipWhitespace(body, i + 1);
+        while (i < body.length && body[i] != '}') {
+            if (body[i] != '"') {
+                throw new IOException("Malformed member in feed");
+            }
+            int nameStart = i + 1;
+            i = skipString(body, i);
+            int nameEnd = i - 1;
+            i = skipWhitespace(body, i);
+            if (i >= body.length || body[i] != ':') {
+                throw new IOException("Malformed member in feed");
+            }
+            int valueStart = skipWhitespace(body, i + 1);
+            i = skipValue(body, valueStart);
+            if (nameIs(body, nameStart, nameEnd, VIDEOS)) {
+                int embed = firstEmbed(body, valueStart);
+                if (embed >= 0) {
+                    key = Fnv1a.hash(body, embed, skipString(body, embed));
+                    keyed = true;
+                }
+            } else {
+                for (byte[] name : FINGERPRINTED) {
+                    if (nameIs(body, nameStart, nameEnd, name)) {
+                        // Each member is hashed on its own and the results combined, so the
+                        // fingerprint does not depend on the order the members come in
+                        fingerprint ^= Fnv1a.hash(Fnv1a.hash(name, 0, name.length), body, valueStart, i);
+                        break;
+                    }
+                }
+            }
+            i = skipWhitespace(body, i);
+            if (i < body.length && body[i] == ',') {
+                i = skipWhitespace(body, i + 1);
+            }
+        }
+        if (i >= body.length) {
+            throw new IOException("Unterminated feed element");
+        }
+        hashes[0] = keyed ? key : fingerprint;
+        hashes[1] = fingerprint;
+        return i + 1;
+    }
+
+    /**
+     * Returns the offset of the "embed" string of the first video in a "videos" value.
+     *
+     * @param body The feed.
+     * @param i    Offset of the value.
+     * @return The offset of the opening quote, or -1 if there is no such string.
+     */
+    private static int firstEmbed(byte[] body, int i) throws IOException {
+        if (body[i] != '[') {
+            return -1;
+        }
+        i = skipWhitespace(body, i + 1);
+        if (i >= body.length || body[i] != '{') {
+            return -1;
+        }
+        i = skipWhitespace(body, i + 1);
+        while (i < body.length && body[i] == '"') {
+            int nameStart = i + 1;
+            i = skipString(body, i);
+            int nameEnd = i - 1;
+            i = skipWhitespace(body, i);
+            int valueStart = skipWhitespace(body, i + 1);
+            if (nameIs(body, nameStart, nameEnd, EMBED)) {
+                return body[valueStart] == '"' ? valueStart : -1;
+            }
+            i = skipWhitespace(body, skipValue(body, valueStart));
+            if (i < body.length && body[i] == ',') {
+                i = skipWhitespace(body, i + 1);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset just after the value starting at an offset.
+     */
+    private static int skipValue(byte[] body, int i) throws IOException {
+        if (i >= body.length) {
+            throw new IOException("Unterminated feed element");
+        }
+        byte b = body[i];
+        if (b == '"') {
+            return skipString(body, i);
+        }
+        if (b == '{' || b == '[') {
+            return skipObject(body, i);
+        }
+        // A number, true, false or null
+        int start = i;
+        while (i < body.length && body[i] != ',' && body[i] != '}' && body[i] != ']'
+                && body[i] != ' ' && body[i] != '\n' && body[i] != '\r' && body[i] != '\t') {
+            i++;
+        }
+        if (i == start) {
+            throw new IOException("Missing value in feed");
+        }
+        return i;
+    }
+
+    /**
+     * Returns whether the member name between two offsets is the given name. Names of the
+     * members read here contain no escapes, so comparing bytes is enough.
+     */
+    private static boolean nameIs(byte[] body, int start, int end, byte[] name) {
+        if (end - start != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (body[start + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes a member name.
+     */
+    private static byte[] ascii(String name) {
+        return name.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns the offset just after the object or array starting at an offset.
+     */
+    private static int skipObject(byte[] body, int i) throws IOException {
+        int depth = 0;
+        while (i < body.length) {
+            byte b = body[i];
+            if (b == '"') {
+                i = skipString(body, i);
+                continue;
+            }
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        throw new IOException("Unterminated feed element");
+    }
+
+    /**
+     * Returns the offset just after the string starting at an offset.
+     */
+    private static int skipString(byte[] body, int i) throws IOException {
+        for (i++; i < body.length; i++) {
+            if (body[i] == '\\') {
+                i++;
+            } else if (body[i] == '"') {
+                return i + 1;
+            }
+        }
+        throw new IOException("Unterminated string in feed");
+    }
+
+    /**
+     * Returns the first offset at or after an offset that is not JSON whitespace.
+     */
+    private static int skipWhitespace(byte[] body, int i) {
+        while (i < body.length && (body[i] == ' ' || body[i] == '\n' || body[i] == '\r' || body[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Open-addressing table from key to the position of its first match in a feed, so a feed
+     * can be looked up without boxing its keys.
+     */
+    private static final class KeyTable {
+
+        private final long[] keys; // Key stored in each slot
+        private final int[] positions; // Position plus one of the key in each slot; 0 if empty
+        private final int mask; // Slot count minus one; the slot count is a power of two
+
+        /**
+         * Builds a table of a feed's keys.
+         *
+         * @param feedKeys The key of each match of the feed, in order.
+         */
+        KeyTable(long[] feedKeys) {
+            int slots = Integer.highestOneBit(Math.max(feedKeys.length, 1) * 2 - 1) * 2;
+            keys = new long[slots];
+            positions = new int[slots];
+            mask = slots - 1;
+            for (int i = 0; i < feedKeys.length; i++) {
+                int slot = slotOf(feedKeys[i]);
+                if (positions[slot] == 0) {
+                    keys[slot] = feedKeys[i];
+                    positions[slot] = i + 1;
+                }
+            }
+        }
+
+        /**
+         * Returns the position of the first match with a key.
+         *
+         * @param key The key.
+         * @return The position, or -1 if no match has the key.
+         */
+        int indexOf(long key) {
+            return positions[slotOf(key)] - 1;
+        }
+
+        /**
+         * Returns the slot holding a key, or the empty slot where it would go.
+         */
+        private int slotOf(long key) {
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            while (positions[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.finalproject.data.soccermatch;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Full-text index over the searchable columns of the saved matches. The index keeps no copy of the
+ * text: it reads the Match table, and triggers Room creates with it update the index whenever
+ * a match is inserted, updated or deleted. Its rowid is the id of the indexed match.
+ */
+@Fts4(contentEntity = Match.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity
+public class MatchFts {
+
+    // Title of the match
+    @ColumnInfo(name = "title")
+    private String title;
+
+    // Home team
+    @ColumnInfo(name = "team1")
+    private String team1;
+
+    // Away team
+    @ColumnInfo(name = "team2")
+    private String team2;
+
+    /**
+     * Getter method for retrieving the indexed title of the match.
+     * @return The title of the match.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Setter method for setting the indexed title of the match.
+     * @param title The title of the match to set.
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Getter method for retrieving the indexed name of the home team.
+     * @return The name of the home team.
+     */
+    public String getTeam1() {
+        return team1;
+    }
+
+    /**
+     * Setter method for setting the indexed name of the home team.
+     * @param team1 The name of the home team to set.
+     */
+    public void setTeam1(String team1) {
+        this.team1 = team1;
+    }
+
+    /**
+     * Getter method for retrieving the indexed name of the away team.
+     * @return The name of the away team.
+     */
+    public String getTeam2() {
+        return team2;
+    }
+
+    /**
+     * Setter method for setting the indexed name of the away team.
+     * @param team2 The name of the away team to set.
+     */
+    public void setTeam2(String team2) {
+        this.team2 = team2;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.finalproject.data.soccermatch;
+
+import com.example.finalproject.network.JsonReaders;
+import com.example.finalproject.network.JsonStreamParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for the Scorebat v1 feed, a top-level array of matches. Builds a Match
+ * from the title, date, thumbnail, team names and the embed HTML of the first video; the
+ * embed URL is extracted from that HTML only when it is first read.
+ */
+public class MatchJsonParser implements JsonStreamParser<Match> {
+
+    /**
+     * Parses a Scorebat feed.
+     *
+     * @param reader The reader positioned at the start of the feed.
+     * @param sink   Receives each match in order.
+     * @throws IOException If the feed is malformed.
+     */
+    @Override
+    public void parse(JsonReader reader, Consumer<Match> sink) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            sink.accept(readMatch(reader));
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Reads a single match object.
+     *
+     * @param reader The reader positioned at a match object.
+     * @return The parsed match.
+     * @throws IOException If the object is malformed.
+     */
+    public static Match readMatch(JsonReader reader) throws IOException {
+        Match match = new Match();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "title":
+                    match.setTitle(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "date":
+                    match.setDate(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "thumbnail":
+                    match.setThumbnailUrl(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "side1":
+                    match.setTeam1(readName(reader));
+                    break;
+                case "side2":
+                    match.setTeam2(readName(reader));
+                    break;
+                case "videos":
+                    match.setEmbed(JsonReaders.firstOf(reader, MatchJsonParser::readEmbed));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return match;
+    }
+
+    /**
+     * Reads a side object and returns its "name".
+     *
+     * @param reader The reader positioned at a side object.
+     * @return The team name, or null.
+     * @throws IOException If the object is malformed.
+     */
+    private static String readName(JsonReader reader) throws IOException {
+        return readField(reader, "name");
+    }
+
+    /**
+     * Reads a video object and returns its "embed" HTML.
+     *
+     * @param reader The reader positioned at a video object.
+     * @return The embed HTML, or null.
+     * @throws IOException If the object is malformed.
+     */
+    private static String readEmbed(JsonReader reader) throws IOException {
+        return readField(reader, "embed");
+    }
+
+    /**
+     * Reads an object and returns one string field, skipping the others.
+     *
+     * @param reader The reader positioned at an object.
+     * @param field  Name of the field to keep.
+     * @return The field value, or null.
+     * @throws IOException If the object is malformed.
+     */
+    private static String readField(JsonReader reader, String field) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (field.equals(reader.nextName())) {
+                value = JsonReaders.nextStringOrNull(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.finalproject.data.soccermatch;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.android.volley.VolleyError;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.cache.QueryRepository;
+import com.example.finalproject.data.cache.QueryResult;
+import com.example.finalproject.network.JsonStreamParser;
+import com.example.finalproject.network.ParseStage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for the Scorebat highlights feed. The feed is stored, so it shows at once and
+ * works offline while it is refreshed in the background. Results are {@link MatchFeed}s.
+ * Each feed delivered is synced with the one delivered before it: matches that did not change
+ * keep their decoded copy, and saved matches whose details changed are refreshed.
+ */
+public class MatchRepository extends QueryRepository<Match> {
+
+    // Namespace the responses are stored under
+    public static final String NAMESPACE = "scorebat";
+    // URL of the Scorebat video feed
+    private static final String FEED_URL = "https://www.scorebat.com/video-api/v1/";
+    // Authorization header sent with every request
+    private static final Map<String, String> HEADERS = Collections.singletonMap(
+            "Authorization", "HylTNwr7lJv53y3ocDv9c4CWSZKxROwR7opQJJwM0tKxlsF0kjDpFei4");
+
+    private static volatile MatchRepository instance; // Process-wide instance
+
+    private final MatchDao matchDAO; // Saved matches, refreshed when the feed changes them
+    private MatchFeed lastFeed; // Feed delivered last, main thread only
+
+    /**
+     * Creates the repository.
+     * @param context The application context.
+     */
+    private MatchRepository(Context context) {
+        super(context, NAMESPACE);
+        this.matchDAO = AppDatabase.getInstance(context).matchDAO();
+    }
+
+    /**
+     * Returns the shared repository, creating it on first use.
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide MatchRepository.
+     */
+    public static MatchRepository getInstance(@NonNull Context context) {
+        MatchRepository result = instance;
+        if (result == null) {
+            synchronized (MatchRepository.class) {
+                result = instance;
+                if (result == null) {
+                    result = new MatchRepository(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected JsonStreamParser<Match> newParser() {
+        return new MatchJsonParser();
+    }
+
+    /**
+     * Delivers the feed as a {@link MatchFeed}, so only the matches that are shown or saved are decoded.
+     */
+    @Override
+    protected ParseStage.Indexer<Match> newIndexer() {
+        return MatchFeed::index;
+    }
+
+    /**
+     * Loads the highlights feed.
+     * @param callback Receives the matches on the main thread.
+     * @return A handle that stops further callbacks.
+     */
+    public Subscription getFeed(@NonNull Callback<Match> callback) {
+        return load(FEED_URL, HEADERS, new Callback<Match>() {
+            @Override
+            public void onChunk(List<Match> chunk, int offset) {
+                callback.onChunk(chunk, offset);
+            }
+
+            @Override
+            public void onResult(QueryResult<Match> result) {
+                sync(result.getItems());
+                callback.onResult(result);
+            }
+
+            @Override
+            public void onUnchanged() {
+                callback.onUnchanged();
+            }
+
+            @Override
+            public void onError(VolleyError error, boolean showingCached) {
+                callback.onError(error, showingCached);
+            }
+        });
+    }
+
+    /**
+     * Syncs a delivered feed with the previous one on the I/O executor. Only hashes of the two
+     * feeds are compared, so the matches decoded and the rows written are the changed ones.
+     * Matches that left the feed are not removed from the saved ones. Called on the main thread.
+     * @param items The delivered feed.
+     */
+    private void sync(List<Match> items) {
+        if (!(items instanceof MatchFeed) || items == lastFeed) {
+            return;
+        }
+        MatchFeed feed = (MatchFeed) items;
+        MatchFeed previous = lastFeed;
+        lastFeed = feed;
+        if (previous == null) {
+            return;
+        }
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            List<Match> changed = feed.syncFrom(previous);
+            if (!changed.isEmpty()) {
+                matchDAO.refreshAll(changed);
+            }
+        });
+    }
+}
@@ -2,6 +2,7 @@ package com.example.finalproject.data.ticketmaster;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import org.json.JSONException;
@@ -9,10 +10,14 @@ import org.json.JSONObject;
 
 /**
  * Entity class representing an event.
+ * An event is identified by its Ticketmaster URL, which is unique among saved rows.
  */
-@Entity
+@Entity(indices = {@Index(value = {"url"}, unique = true)})
 public class Event {
 
+    // Price range shown until the API's priceRanges are parsed
+    public static final String PLACEHOLDER_PRICE_RANGE = "Min: 10  Max: 2220";
+
     // Primary key
     @PrimaryKey(autoGenerate = true)
     @ColumnInfo(name = "id")
@@ -56,7 +61,7 @@ public class Event {
 //            JSONObject rangeFirst = range.getJSONObject(0);
 //            double min = rangeFirst.getDouble("min");
 //            double max = rangeFirst.getDouble("max");
-            this.priceRange = "Min: 10  Max: 2220"; // Placeholder price range
+            this.priceRange = PLACEHOLDER_PRICE_RANGE; // Placeholder price range
             this.url = eventObject.getString("url");
             this.promoImageUrl = eventObject.getJSONArray("images").getJSONObject(0).getString("url");
         } catch (JSONException e) {
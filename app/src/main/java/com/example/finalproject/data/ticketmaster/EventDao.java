@@ -1,9 +1,13 @@
 package com.example.finalproject.data.ticketmaster;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 
 import java.util.List;
@@ -14,23 +18,122 @@ import java.util.List;
 @Dao
 public interface EventDao {
     /**
-     * Retrieves all events from the database.
-     * @return A list of all events.
+     * Retrieves one page of events with keyset pagination: the rows whose id is greater than
+     * the last id already loaded, in id order.
+     * @param afterId Id of the last row already loaded, or 0 for the first page.
+     * @param limit Maximum number of rows to return.
+     * @return A list of at most limit events.
+     */
+    @Query("SELECT * FROM Event WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<Event> getEventsAfter(long afterId, int limit);
+
+    /**
+     * Retrieves the page of events just before the first one loaded, for scrolling back
+     * after earlier pages were dropped: the rows whose id is less than the given one, newest
+     * id first.
+     * @param beforeId Id of the first row still loaded.
+     * @param limit Maximum number of rows to return.
+     * @return A list of at most limit events, in descending id order.
      */
-    @Query("SELECT * FROM Event")
-    List<Event> getAllEvents();
+    @Query("SELECT * FROM Event WHERE id < :beforeId ORDER BY id DESC LIMIT :limit")
+    List<Event> getEventsBefore(long beforeId, int limit);
 
     /**
-     * Inserts a new event into the database.
+     * Retrieves the URL of every saved event, read from the unique index alone.
+     * @return A list of Ticketmaster URLs.
+     */
+    @Query("SELECT url FROM Event WHERE url IS NOT NULL")
+    List<String> getAllUrls();
+
+    /**
+     * Inserts a new event into the database. Nothing is written if an event with the same
+     * Ticketmaster URL is already saved.
      * @param event The event to insert.
+     * @return The id of the new row, or -1 if the event was already saved.
      */
-    @Insert
-    void insert(Event event);
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(Event event);
 
     /**
      * Deletes an event from the database.
      * @param event The event to delete.
+     * @return The number of rows deleted, 0 if it was not saved.
      */
     @Delete
-    void delete(Event event);
+    int delete(Event event);
+
+    /**
+     * Inserts several events in one transaction, so the batch costs a single commit.
+     * @param events The events to insert.
+     * @return The id of each new row, or -1 for each event that was already saved.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAll(List<Event> events);
+
+    /**
+     * Deletes several events in one transaction.
+     * @param events The events to delete.
+     * @return The number of rows deleted.
+     */
+    @Delete
+    int deleteAll(List<Event> events);
+
+    /**
+     * Looks up a saved event by its Ticketmaster URL through the unique index.
+     * @param url The Ticketmaster URL of the event.
+     * @return The saved event, or null if it is not saved.
+     */
+    @Query("SELECT * FROM Event WHERE url = :url LIMIT 1")
+    Event findByUrl(String url);
+
+    /**
+     * Overwrites the details of the saved event with the given Ticketmaster URL, keeping its id.
+     * @param url The Ticketmaster URL of the event.
+     * @param name The new name.
+     * @param startingDate The new starting date.
+     * @param priceRange The new price range.
+     * @param promoImageUrl The new promo image URL.
+     * @return The number of rows updated, 0 if it is not saved.
+     */
+    @Query("UPDATE Event SET name = :name, startingDate = :startingDate, priceRange = :priceRange,"
+            + " promoImageUrl = :promoImageUrl"
+            + " WHERE url = :url")
+    int updateByUrl(String url, String name, String startingDate,
+            String priceRange, String promoImageUrl);
+
+    /**
+     * Saves an event, or refreshes the details of the saved event with the same Ticketmaster URL, in one
+     * transaction. A refreshed row keeps its id, so it keeps its place in keyset pages.
+     * @param event The event to save.
+     * @return The saved row as it was before being refreshed, or null if the event was new.
+     */
+    @Transaction
+    default Event upsert(Event event) {
+        Event previous = findByUrl(event.getUrl());
+        if (previous == null) {
+            insert(event);
+        } else {
+            updateByUrl(event.getUrl(), event.getName(), event.getStartingDate(),
+                    event.getPriceRange(), event.getPromoImageUrl());
+        }
+        return previous;
+    }
+
+    /**
+     * Runs a full-text query over the indexed columns of the saved events. Only the id and
+     * the match statistics of each matching row are read, never the rows themselves.
+     * @param query An FTS4 MATCH expression.
+     * @return A cursor over the id and the matchinfo 'pcx' blob of each matching event.
+     */
+    @Query("SELECT rowid, matchinfo(EventFts, 'pcx') AS matchinfo FROM EventFts"
+            + " WHERE EventFts MATCH :query")
+    Cursor searchHits(String query);
+
+    /**
+     * Retrieves the saved events with the given ids, in no particular order.
+     * @param ids The ids.
+     * @return The events that are still saved.
+     */
+    @Query("SELECT * FROM Event WHERE id IN (:ids)")
+    List<Event> getByIds(List<Long> ids);
 }
@@ -0,0 +1,36 @@
+package com.example.finalproject.data.ticketmaster;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Full-text index over the searchable columns of the saved events. The index keeps no copy of the
+ * text: it reads the Event table, and triggers Room creates with it update the index whenever
+ * an event is inserted, updated or deleted. Its rowid is the id of the indexed event.
+ */
+@Fts4(contentEntity = Event.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity
+public class EventFts {
+
+    // Name of the event
+    @ColumnInfo(name = "name")
+    private String name;
+
+    /**
+     * Getter method for retrieving the indexed name of the event.
+     * @return The name of the event.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Setter method for setting the indexed name of the event.
+     * @param name The name of the event to set.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.finalproject.data.ticketmaster;
+
+import com.example.finalproject.network.JsonReaders;
+import com.example.finalproject.network.JsonStreamParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for Ticketmaster discovery responses. Walks "_embedded.events" and builds
+ * an Event from its name, start date, URL and first image, skipping venues, classifications,
+ * sales data and the other nested objects that make these payloads large.
+ */
+public class EventJsonParser implements JsonStreamParser<Event> {
+
+    /**
+     * Parses a Ticketmaster events response.
+     *
+     * @param reader The reader positioned at the start of the response.
+     * @param sink   Receives each event in order.
+     * @throws IOException If the response is malformed.
+     */
+    @Override
+    public void parse(JsonReader reader, Consumer<Event> sink) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("_embedded".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("events".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            sink.accept(readEvent(reader));
+                        }
+                        reader.endArray();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads a single event object.
+     *
+     * @param reader The reader positioned at an event object.
+     * @return The parsed event.
+     * @throws IOException If the object is malformed.
+     */
+    static Event readEvent(JsonReader reader) throws IOException {
+        Event event = new Event();
+        event.setPriceRange(Event.PLACEHOLDER_PRICE_RANGE);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "name":
+                    event.setName(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "url":
+                    event.setUrl(JsonReaders.nextStringOrNull(reader));
+                    break;
+                case "dates":
+                    event.setStartingDate(readStartDate(reader));
+                    break;
+                case "images":
+                    event.setPromoImageUrl(JsonReaders.firstOf(reader, EventJsonParser::readImageUrl));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return event;
+    }
+
+    /**
+     * Reads "dates" and returns "start.localDate".
+     *
+     * @param reader The reader positioned at the dates object.
+     * @return The local start date, or null.
+     * @throws IOException If the object is malformed.
+     */
+    private static String readStartDate(JsonReader reader) throws IOException {
+        String localDate = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("start".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("localDate".equals(reader.nextName())) {
+                        localDate = JsonReaders.nextStringOrNull(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return localDate;
+    }
+
+    /**
+     * Reads an image object and returns its "url".
+     *
+     * @param reader The reader positioned at an image object.
+     * @return The image URL, or null.
+     * @throws IOException If the object is malformed.
+     */
+    private static String readImageUrl(JsonReader reader) throws IOException {
+        String url = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("url".equals(reader.nextName())) {
+                url = JsonReaders.nextStringOrNull(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return url;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.finalproject.data.ticketmaster;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.example.finalproject.data.cache.QueryRepository;
+import com.example.finalproject.network.JsonStreamParser;
+import com.example.finalproject.network.RequestKeys;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * Repository for Ticketmaster event searches. Each search is stored, so a repeated search
+ * shows at once and works offline while it is refreshed in the background.
+ */
+public class EventRepository extends QueryRepository<Event> {
+
+    // Namespace the responses are stored under
+    public static final String NAMESPACE = "ticketmaster";
+    // Event search endpoint of the Ticketmaster API, including the API key
+    private static final String EVENTS_URL =
+            "https://app.ticketmaster.com/discovery/v2/events.json?apikey=Rzk9LAGNqRN0q0Uo1GJbsLn0snbt3a7k";
+
+    private static volatile EventRepository instance; // Process-wide instance
+
+    /**
+     * Creates the repository.
+     * @param context The application context.
+     */
+    private EventRepository(Context context) {
+        super(context, NAMESPACE);
+    }
+
+    /**
+     * Returns the shared repository, creating it on first use.
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide EventRepository.
+     */
+    public static EventRepository getInstance(@NonNull Context context) {
+        EventRepository result = instance;
+        if (result == null) {
+            synchronized (EventRepository.class) {
+                result = instance;
+                if (result == null) {
+                    result = new EventRepository(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected JsonStreamParser<Event> newParser() {
+        return new EventJsonParser();
+    }
+
+    /**
+     * Searches for events around a city.
+     * @param city The city to search in; case and extra whitespace are ignored.
+     * @param radius The search radius.
+     * @param callback Receives the events on the main thread.
+     * @return A handle that stops further callbacks.
+     */
+    public Subscription search(@NonNull String city, @NonNull String radius,
+                               @NonNull Callback<Event> callback) {
+        String url;
+        try {
+            url = EVENTS_URL + "&city=" + URLEncoder.encode(RequestKeys.normalizeTerm(city), "UTF-8")
+                    + "&radius=" + URLEncoder.encode(radius.trim(), "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+        return load(url, null, callback);
+    }
+}
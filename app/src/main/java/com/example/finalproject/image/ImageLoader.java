@@ -0,0 +1,141 @@
+package com.example.finalproject.image;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.finalproject.network.OkHttpTransport;
+import com.squareup.picasso.LruCache;
+import com.squareup.picasso.OkHttp3Downloader;
+import com.squareup.picasso.Picasso;
+
+import java.io.File;
+import java.util.Locale;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+
+/**
+ * Shared image-request policy for every list and detail screen. Images are decoded to the
+ * measured size of their ImageView rather than at full resolution, and JPEGs, which never
+ * carry alpha, are decoded as RGB_565 at half the memory of ARGB_8888. Because each request
+ * is resized, Picasso keys its memory cache by URL and target size, so a small row thumbnail
+ * and a large detail image of the same URL are cached separately. Downloaded bytes go through
+ * one HTTP client with a disk cache, which {@link ImagePrefetcher} warms ahead of time.
+ */
+public final class ImageLoader {
+
+    // Fraction of the app's heap given to the decoded-bitmap memory cache
+    private static final int MEMORY_CACHE_HEAP_DIVISOR = 8;
+    // Upper bound of the downloaded-image disk cache
+    private static final long DISK_CACHE_BYTES = 50L * 1024 * 1024;
+
+    private static volatile OkHttpClient httpClient; // Client Picasso downloads through
+
+    private ImageLoader() {
+    }
+
+    /**
+     * Installs the shared Picasso instance with a bounded memory cache. Must be called once,
+     * before anything calls {@link Picasso#get()}.
+     *
+     * @param context Any context; the application context is used.
+     */
+    public static void install(@NonNull Context context) {
+        Context appContext = context.getApplicationContext();
+        ActivityManager activityManager = appContext.getSystemService(ActivityManager.class);
+        int heapBytes = activityManager.getMemoryClass() * 1024 * 1024;
+        // Derived from the shared transport, so images reuse its pooled HTTP/2 connections
+        OkHttpClient client = OkHttpTransport.getInstance().client().newBuilder()
+                .cache(new Cache(new File(appContext.getCacheDir(), "picasso-cache"), DISK_CACHE_BYTES))
+                .build();
+        httpClient = client;
+        Picasso picasso = new Picasso.Builder(appContext)
+                .memoryCache(new LruCache(heapBytes / MEMORY_CACHE_HEAP_DIVISOR))
+                .downloader(new OkHttp3Downloader(client))
+                .build();
+        Picasso.setSingletonInstance(picasso);
+    }
+
+    /**
+     * Returns the HTTP client images are downloaded through, so other code can fill or read
+     * the same disk cache.
+     *
+     * @return The client created by {@link #install(Context)}.
+     */
+    static OkHttpClient httpClient() {
+        OkHttpClient client = httpClient;
+        if (client == null) {
+            throw new IllegalStateException("ImageLoader.install() has not been called");
+        }
+        return client;
+    }
+
+    /**
+     * Loads a list-row thumbnail, cropped to fill the view.
+     *
+     * @param url    The image URL, or null to clear the view.
+     * @param target The view to load into.
+     */
+    public static void loadThumbnail(@Nullable String url, @NonNull ImageView target) {
+        if (url == null || url.isEmpty()) {
+            Picasso.get().cancelRequest(target);
+            target.setImageDrawable(null);
+            return;
+        }
+        Picasso.get()
+                .load(url)
+                .fit()
+                .centerCrop()
+                .config(configFor(url))
+                .into(target);
+    }
+
+    /**
+     * Loads a detail image, scaled down to fit inside the view without cropping.
+     *
+     * @param url    The image URL, or null to clear the view.
+     * @param target The view to load into.
+     */
+    public static void loadFitted(@Nullable String url, @NonNull ImageView target) {
+        if (url == null || url.isEmpty()) {
+            Picasso.get().cancelRequest(target);
+            target.setImageDrawable(null);
+            return;
+        }
+        Picasso.get()
+                .load(url)
+                .fit()
+                .centerInside()
+                .config(configFor(url))
+                .into(target);
+    }
+
+    /**
+     * Picks the bitmap config for a URL: RGB_565 for JPEGs, which never carry alpha, and
+     * ARGB_8888 for everything else, since PNG, WebP and GIF may be transparent.
+     *
+     * @param url The image URL.
+     * @return The config to decode with.
+     */
+    static Bitmap.Config configFor(@NonNull String url) {
+        int end = url.length();
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = url.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        String path = url.substring(0, end).toLowerCase(Locale.ROOT);
+        if (path.endsWith(".jpg") || path.endsWith(".jpeg")) {
+            return Bitmap.Config.RGB_565;
+        }
+        return Bitmap.Config.ARGB_8888;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.finalproject.image;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.example.finalproject.concurrent.AppExecutors;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * Downloads detail images into the image disk cache before they are shown, so a detail screen
+ * opens with its image ready. Only the most recently requested set of URLs is worked on; URLs
+ * that are no longer wanted are dropped or their transfers cancelled. Nothing is fetched on
+ * metered networks, and the bytes taken from the network, including those of transfers given
+ * up part way, are capped by a budget that renews every {@link #BUDGET_WINDOW_MS}. Confined to the main thread apart from the transfers themselves.
+ */
+public final class ImagePrefetcher {
+
+    // Network bytes prefetching may spend within one budget window
+    static final long BUDGET_BYTES = 32L * 1024 * 1024;
+    // Length of the window after which the budget is renewed
+    static final long BUDGET_WINDOW_MS = TimeUnit.HOURS.toMillis(1);
+    // Largest single image that is prefetched
+    static final long MAX_IMAGE_BYTES = 8L * 1024 * 1024;
+    // Number of transfers running at once
+    private static final int MAX_RUNNING = 2;
+    // Number of prefetched URLs remembered so they are not fetched twice
+    private static final int MAX_REMEMBERED = 512;
+    // Size of each read from a response body
+    private static final long READ_SIZE = 16 * 1024;
+
+    private static volatile ImagePrefetcher instance; // Process-wide instance
+
+    private final ConnectivityManager connectivity; // Reports whether the network is metered
+    private final Executor main; // Delivers transfer results
+    private final ArrayDeque<String> pending = new ArrayDeque<>(); // Wanted URLs not yet started
+    private final Map<String, Call> running = new HashMap<>(); // Transfers in progress by URL
+    private final Set<String> warmed = Collections.newSetFromMap(
+            new LinkedHashMap<String, Boolean>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_REMEMBERED;
+                }
+            }); // URLs already in the disk cache, oldest first
+    private final AtomicLong spentBytes = new AtomicLong(); // Network bytes spent in the current window
+    private long windowStart = SystemClock.elapsedRealtime(); // Start of the current budget window
+
+    /**
+     * Creates the prefetcher.
+     *
+     * @param context The application context.
+     */
+    private ImagePrefetcher(Context context) {
+        this.connectivity = context.getSystemService(ConnectivityManager.class);
+        this.main = AppExecutors.getInstance().mainThread();
+    }
+
+    /**
+     * Returns the shared prefetcher, creating it on first use.
+     *
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide ImagePrefetcher.
+     */
+    public static ImagePrefetcher getInstance(@NonNull Context context) {
+        ImagePrefetcher result = instance;
+        if (result == null) {
+            synchronized (ImagePrefetcher.class) {
+                result = instance;
+                if (result == null) {
+                    result = new ImagePrefetcher(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the images to prefetch. Transfers of images not in the list are cancelled, and
+     * images already cached, running or over budget are skipped. An empty list stops all work.
+     *
+     * @param urls The image URLs, most important first; null and empty entries are ignored.
+     */
+    public void prefetch(@NonNull List<String> urls) {
+        pending.clear();
+        Iterator<Map.Entry<String, Call>> iterator = running.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Call> entry = iterator.next();
+            if (!urls.contains(entry.getKey())) {
+                entry.getValue().cancel();
+                iterator.remove();
+            }
+        }
+        if (!isAllowed()) {
+            return;
+        }
+        for (String url : urls) {
+            if (url != null && !url.isEmpty() && !warmed.contains(url)
+                    && !running.containsKey(url) && !pending.contains(url)) {
+                pending.add(url);
+            }
+        }
+        startPending();
+    }
+
+    /**
+     * Returns whether prefetching may use the network now.
+     *
+     * @return True on an unmetered network while budget remains.
+     */
+    private boolean isAllowed() {
+        long now = SystemClock.elapsedRealtime();
+        if (now - windowStart >= BUDGET_WINDOW_MS) {
+            // Transfers still running keep adding to the new window, which errs on the safe side
+            windowStart = now;
+            spentBytes.set(0);
+        }
+        return spentBytes.get() < BUDGET_BYTES
+                && connectivity != null
+                && connectivity.getActiveNetwork() != null
+                && !connectivity.isActiveNetworkMetered();
+    }
+
+    /**
+     * Starts pending transfers up to the concurrency limit.
+     */
+    private void startPending() {
+        while (running.size() < MAX_RUNNING && !pending.isEmpty()) {
+            String url = pending.poll();
+            HttpUrl httpUrl = HttpUrl.parse(url);
+            if (httpUrl == null) {
+                continue;
+            }
+            Call call = ImageLoader.httpClient().newCall(new Request.Builder().url(httpUrl).build());
+            running.put(url, call);
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                    main.execute(() -> onFinished(url, call, false));
+                }
+
+                @Override
+                public void onResponse(@NonNull Call call, @NonNull Response response) {
+                    boolean cached = drain(response);
+                    main.execute(() -> onFinished(url, call, cached));
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads a response body to the end so the HTTP client commits it to the disk cache. Runs on
+     * a transfer thread. Gives up, leaving nothing cached, if the image is too large or the
+     * budget runs out; bodies served from the cache cost nothing. Bytes read from the network
+     * count against the budget whether or not the transfer completes.
+     *
+     * @param response The response.
+     * @return True if the whole body was read.
+     */
+    private boolean drain(Response response) {
+        boolean fromNetwork = response.networkResponse() != null;
+        long total = 0;
+        try (ResponseBody body = response.body()) {
+            if (!response.isSuccessful() || body == null) {
+                return false;
+            }
+            long declared = body.contentLength();
+            if (fromNetwork && declared > 0
+                    && (declared > MAX_IMAGE_BYTES || spentBytes.get() + declared > BUDGET_BYTES)) {
+                return false;
+            }
+            BufferedSource source = body.source();
+            Buffer sink = new Buffer();
+            long read;
+            while ((read = source.read(sink, READ_SIZE)) != -1) {
+                sink.clear();
+                total += read;
+                if (fromNetwork && (total > MAX_IMAGE_BYTES || spentBytes.get() + total > BUDGET_BYTES)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (fromNetwork) {
+                spentBytes.addAndGet(total);
+            }
+        }
+    }
+
+    /**
+     * Records a finished transfer and starts the next one.
+     *
+     * @param url    The image URL.
+     * @param call   The transfer.
+     * @param cached True if the image is now in the disk cache.
+     */
+    private void onFinished(String url, Call call, boolean cached) {
+        if (running.get(url) == call) {
+            running.remove(url);
+        }
+        if (cached) {
+            warmed.add(url);
+        }
+        if (isAllowed()) {
+            startPending();
+        } else {
+            pending.clear();
+        }
+    }
+}
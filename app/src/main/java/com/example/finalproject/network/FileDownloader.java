@@ -0,0 +1,243 @@
+package com.example.finalproject.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.toolbox.HttpResponse;
+import com.example.finalproject.concurrent.AppExecutors;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Streams a URL straight to a file on the download executor, without decoding or re-encoding
+ * the bytes. Data is written to a ".part" file that is renamed into place only once the whole
+ * body has arrived, so a cancelled or failed download never leaves a truncated file behind.
+ * Progress and the result are delivered on the main thread. Transfers go through an
+ * {@link HttpTransport}, by default the shared {@link OkHttpTransport}, so a download reuses a
+ * connection the image loader already opened to the same host.
+ */
+public final class FileDownloader {
+
+    // Size of the copy buffer
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // Minimum time between progress callbacks
+    private static final long PROGRESS_INTERVAL_MS = 100;
+    // Connect and read timeouts
+    private static final int TIMEOUT_MS = 15_000;
+
+    private static volatile FileDownloader instance; // Process-wide instance
+
+    private final Executor worker; // Runs the transfers
+    private final Executor main; // Delivers callbacks
+    private final HttpTransport transport; // Sends the requests
+
+    /**
+     * Creates a downloader with explicit executors, sending through the shared transport.
+     *
+     * @param worker Runs the transfers.
+     * @param main   Delivers callbacks.
+     */
+    public FileDownloader(@NonNull Executor worker, @NonNull Executor main) {
+        this(worker, main, OkHttpTransport.getInstance());
+    }
+
+    /**
+     * Creates a downloader with explicit executors and transport.
+     *
+     * @param worker    Runs the transfers.
+     * @param main      Delivers callbacks.
+     * @param transport Sends the requests.
+     */
+    public FileDownloader(@NonNull Executor worker, @NonNull Executor main, @NonNull HttpTransport transport) {
+        this.worker = worker;
+        this.main = main;
+        this.transport = transport;
+    }
+
+    /**
+     * Returns the shared downloader backed by the app's download and main-thread executors.
+     *
+     * @return The process-wide FileDownloader.
+     */
+    public static FileDownloader getInstance() {
+        FileDownloader result = instance;
+        if (result == null) {
+            synchronized (FileDownloader.class) {
+                result = instance;
+                if (result == null) {
+                    AppExecutors executors = AppExecutors.getInstance();
+                    result = new FileDownloader(executors.download(), executors.mainThread());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts downloading a URL into a file.
+     *
+     * @param url      The URL to fetch.
+     * @param headers  Extra request headers, or null.
+     * @param target   The file to create.
+     * @param listener Receives progress and the result on the main thread.
+     * @return A handle that can cancel the download.
+     */
+    public Download download(@NonNull String url, @Nullable Map<String, String> headers,
+                             @NonNull File target, @NonNull Listener listener) {
+        Download download = new Download();
+        worker.execute(() -> run(download, url, headers, target, listener));
+        return download;
+    }
+
+    /**
+     * Returns the file extension of a URL's path, such as ".png", or ".jpg" if it has none.
+     *
+     * @param url The URL.
+     * @return The extension including the dot, in lower case.
+     */
+    public static String extensionOf(@NonNull String url) {
+        int end = url.length();
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        String path = url.substring(0, end);
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        if (dot <= slash || path.length() - dot > 5) {
+            return ".jpg";
+        }
+        return path.substring(dot).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Performs a transfer on the worker thread.
+     */
+    private void run(Download download, String url, @Nullable Map<String, String> headers,
+                     File target, Listener listener) {
+        File part = new File(target.getPath() + ".part");
+        try {
+            if (download.isCancelled()) {
+                return;
+            }
+            HttpResponse response = transport.execute("GET", url,
+                    headers != null ? headers : Collections.<String, String>emptyMap(), null, null, TIMEOUT_MS);
+            int status = response.getStatusCode();
+            InputStream content = response.getContent();
+            if (status < 200 || status >= 300 || content == null) {
+                if (content != null) {
+                    content.close();
+                }
+                throw new IOException("HTTP " + status + " for " + url);
+            }
+            long total = response.getContentLength();
+            long written = 0;
+            long lastReport = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = content;
+                 OutputStream out = new FileOutputStream(part)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (download.isCancelled()) {
+                        throw new InterruptedIOException("Download cancelled");
+                    }
+                    out.write(buffer, 0, read);
+                    written += read;
+                    long now = System.currentTimeMillis();
+                    if (now - lastReport >= PROGRESS_INTERVAL_MS) {
+                        lastReport = now;
+                        long bytes = written;
+                        post(download, () -> listener.onProgress(bytes, total));
+                    }
+                }
+            }
+            if (download.isCancelled()) {
+                throw new InterruptedIOException("Download cancelled");
+            }
+            if (!part.renameTo(target)) {
+                throw new IOException("Could not move download to " + target);
+            }
+            long bytes = written;
+            post(download, () -> {
+                listener.onProgress(bytes, total);
+                listener.onComplete(target);
+            });
+        } catch (IOException e) {
+            part.delete();
+            post(download, () -> listener.onError(e));
+        }
+    }
+
+    /**
+     * Posts a callback to the main thread unless the download has been cancelled.
+     */
+    private void post(Download download, Runnable callback) {
+        main.execute(() -> {
+            if (!download.isCancelled()) {
+                callback.run();
+            }
+        });
+    }
+
+    /**
+     * Handle for a running download.
+     */
+    public static final class Download {
+
+        private volatile boolean cancelled; // Set once cancel() has been called
+
+        /**
+         * Stops the transfer and deletes the partial file. No further callbacks are delivered.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Returns whether the download has been cancelled.
+         *
+         * @return True after cancel() has been called.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Receives download progress and the result on the main thread.
+     */
+    public interface Listener {
+
+        /**
+         * Called periodically while bytes are written.
+         *
+         * @param bytesWritten Bytes written so far.
+         * @param totalBytes   Size of the body, or -1 if the server did not send it.
+         */
+        void onProgress(long bytesWritten, long totalBytes);
+
+        /**
+         * Called once the file is complete.
+         *
+         * @param file The downloaded file.
+         */
+        void onComplete(@NonNull File file);
+
+        /**
+         * Called if the download fails.
+         *
+         * @param error The cause.
+         */
+        void onError(@NonNull IOException error);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.finalproject.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.toolbox.HttpResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sends HTTP requests for the shared network layer. The Volley queue of {@link NetworkClient}
+ * and {@link FileDownloader} both go through a transport, so how connections are opened, pooled
+ * and reused is decided in one place and can be replaced as a whole.
+ */
+public interface HttpTransport {
+
+    /**
+     * Sends a request and waits for the response headers. Called on a background thread.
+     *
+     * @param method      The HTTP method, such as "GET".
+     * @param url         The URL.
+     * @param headers     Request headers.
+     * @param body        The request body, or null for none.
+     * @param contentType The content type of the body, or null.
+     * @param timeoutMs   Connect and read timeout, in milliseconds.
+     * @return The response. Its content, if any, streams the body and must be closed.
+     * @throws IOException If the URL is malformed or the request fails.
+     */
+    @NonNull
+    HttpResponse execute(@NonNull String method, @NonNull String url, @NonNull Map<String, String> headers,
+                         @Nullable byte[] body, @Nullable String contentType, int timeoutMs) throws IOException;
+}
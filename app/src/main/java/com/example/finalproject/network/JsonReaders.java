@@ -0,0 +1,91 @@
+package com.example.finalproject.network;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Small helpers shared by the streaming parsers.
+ */
+public final class JsonReaders {
+
+    private JsonReaders() {
+    }
+
+    /**
+     * Reads the next value as a string, returning null for a JSON null and skipping
+     * objects or arrays found where a string was expected.
+     *
+     * @param reader The reader positioned at a value.
+     * @return The string value, or null.
+     * @throws IOException If the document cannot be read.
+     */
+    public static String nextStringOrNull(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+            return token == JsonToken.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    /**
+     * Reads the next value as an int, returning the fallback for anything that is not a number.
+     *
+     * @param reader   The reader positioned at a value.
+     * @param fallback Value returned when the token is not numeric.
+     * @return The int value, or the fallback.
+     * @throws IOException If the document cannot be read.
+     */
+    public static int nextIntOr(JsonReader reader, int fallback) throws IOException {
+        if (reader.peek() == JsonToken.NUMBER) {
+            return reader.nextInt();
+        }
+        reader.skipValue();
+        return fallback;
+    }
+
+    /**
+     * Reads the first element of an array with the given element reader and skips the rest.
+     * Returns null if the value is not an array or the array is empty.
+     *
+     * @param reader  The reader positioned at a value.
+     * @param element Reads one element.
+     * @param <T>     The element type.
+     * @return The first element, or null.
+     * @throws IOException If the document cannot be read.
+     */
+    public static <T> T firstOf(JsonReader reader, ElementReader<T> element) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        T first = null;
+        reader.beginArray();
+        if (reader.hasNext()) {
+            first = element.read(reader);
+        }
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+        return first;
+    }
+
+    /**
+     * Reads a single value from a JsonReader.
+     *
+     * @param <T> The value type.
+     */
+    public interface ElementReader<T> {
+        /**
+         * Reads one value.
+         *
+         * @param reader The reader positioned at the value.
+         * @return The value read.
+         * @throws IOException If the document cannot be read.
+         */
+        T read(JsonReader reader) throws IOException;
+    }
+}
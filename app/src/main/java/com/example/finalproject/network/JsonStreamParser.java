@@ -0,0 +1,24 @@
+package com.example.finalproject.network;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Pull parser that reads an API response from a JsonReader and emits one entity per item,
+ * reading only the fields the entity uses and skipping everything else.
+ *
+ * @param <T> The entity type produced by the parser.
+ */
+public interface JsonStreamParser<T> {
+
+    /**
+     * Reads the whole response document and passes every parsed item to the sink in order.
+     *
+     * @param reader The reader positioned at the start of the response document.
+     * @param sink   Receives each parsed item as soon as it has been read.
+     * @throws IOException If the document is malformed or cannot be read.
+     */
+    void parse(JsonReader reader, Consumer<T> sink) throws IOException;
+}
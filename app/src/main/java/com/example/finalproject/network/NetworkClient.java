@@ -0,0 +1,146 @@
+package com.example.finalproject.network;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.DiskBasedCache;
+
+import java.io.File;
+
+/**
+ * Application-scoped holder for the single Volley RequestQueue shared by every feature.
+ * The queue is created lazily on first use with a bounded disk cache and a fixed number
+ * of network dispatcher threads, so thread count and cache size stay constant for the
+ * lifetime of the process no matter how many requests are made. Requests are sent through an
+ * {@link HttpTransport}, by default the pooled {@link OkHttpTransport} that images and file
+ * downloads share.
+ */
+public final class NetworkClient {
+
+    // Default number of network dispatcher threads
+    public static final int DEFAULT_THREAD_POOL_SIZE = 4;
+    // Default upper bound of the HTTP disk cache, in bytes
+    public static final int DEFAULT_CACHE_SIZE_BYTES = 10 * 1024 * 1024;
+    // Name of the cache directory inside the app's cache dir
+    private static final String CACHE_DIR_NAME = "volley";
+
+    // Settings used when the queue is first created
+    private static int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
+    private static int cacheSizeBytes = DEFAULT_CACHE_SIZE_BYTES;
+    private static HttpTransport transport; // Null for the shared OkHttpTransport
+
+    private static volatile NetworkClient instance; // Process-wide instance
+
+    private final RequestQueue requestQueue; // Shared RequestQueue
+
+    /**
+     * Creates the client and starts its dispatcher threads.
+     *
+     * @param context Application context used to locate the cache directory.
+     */
+    private NetworkClient(Context context) {
+        File cacheDir = new File(context.getCacheDir(), CACHE_DIR_NAME);
+        HttpTransport stackTransport = transport != null ? transport : OkHttpTransport.getInstance();
+        requestQueue = new RequestQueue(new DiskBasedCache(cacheDir, cacheSizeBytes),
+                new BasicNetwork(new TransportHttpStack(stackTransport)), threadPoolSize);
+        requestQueue.start();
+    }
+
+    /**
+     * Sets the dispatcher pool size and disk cache bound. Must be called before the first
+     * call to {@link #getInstance(Context)}, typically from Application.onCreate.
+     *
+     * @param poolSize  Number of network dispatcher threads.
+     * @param cacheSize Maximum size of the disk cache in bytes.
+     */
+    public static synchronized void configure(int poolSize, int cacheSize) {
+        configure(poolSize, cacheSize, null);
+    }
+
+    /**
+     * Sets the dispatcher pool size, disk cache bound and transport. Must be called before the
+     * first call to {@link #getInstance(Context)}, typically from Application.onCreate.
+     *
+     * @param poolSize      Number of network dispatcher threads.
+     * @param cacheSize     Maximum size of the disk cache in bytes.
+     * @param httpTransport Sends the requests, or null for the shared {@link OkHttpTransport}.
+     */
+    public static synchronized void configure(int poolSize, int cacheSize,
+                                              @Nullable HttpTransport httpTransport) {
+        if (instance != null) {
+            throw new IllegalStateException("NetworkClient is already running");
+        }
+        if (poolSize < 1 || cacheSize < 0) {
+            throw new IllegalArgumentException("Invalid pool size or cache size");
+        }
+        threadPoolSize = poolSize;
+        cacheSizeBytes = cacheSize;
+        transport = httpTransport;
+    }
+
+    /**
+     * Returns the shared client, creating and starting it on first use.
+     *
+     * @param context Any context; only its application context is retained.
+     * @return The process-wide NetworkClient.
+     */
+    public static NetworkClient getInstance(@NonNull Context context) {
+        NetworkClient result = instance;
+        if (result == null) {
+            synchronized (NetworkClient.class) {
+                result = instance;
+                if (result == null) {
+                    result = new NetworkClient(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stops the dispatcher threads of the shared queue and drops the instance.
+     * A later call to {@link #getInstance(Context)} starts a fresh queue.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.requestQueue.cancelAll(request -> true);
+            instance.requestQueue.stop();
+            instance = null;
+        }
+    }
+
+    /**
+     * Returns the shared RequestQueue.
+     *
+     * @return The RequestQueue backing this client.
+     */
+    public RequestQueue getRequestQueue() {
+        return requestQueue;
+    }
+
+    /**
+     * Adds a request to the shared queue.
+     *
+     * @param request The request to dispatch.
+     * @param <T>     The parsed response type.
+     * @return The request that was added.
+     */
+    public <T> Request<T> add(Request<T> request) {
+        return requestQueue.add(request);
+    }
+
+    /**
+     * Cancels every pending request carrying the given tag.
+     *
+     * @param tag The tag the requests were created with.
+     */
+    public void cancelAll(Object tag) {
+        requestQueue.cancelAll(tag);
+    }
+}
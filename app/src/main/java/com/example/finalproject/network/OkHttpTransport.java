@@ -0,0 +1,415 @@
+package com.example.finalproject.network;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.Header;
+import com.android.volley.toolbox.HttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Transport backed by one OkHttp client for the whole process. Its connection pool keeps a few
+ * connections warm, so bursts of API and image requests to the same hosts reuse them instead of
+ * repeating TCP and TLS handshakes, and hosts that support HTTP/2, such as the Pexels API and
+ * the image CDNs, carry concurrent requests over a single multiplexed connection. OkHttp asks
+ * for gzip and decompresses transparently. The image loader derives its client from
+ * {@link #client()}, so images share the same pool and the same per-host limit, which holds for
+ * the synchronous calls of Volley, Picasso and downloads as well as for asynchronous ones.
+ */
+public final class OkHttpTransport implements HttpTransport {
+
+    private static final String TAG = "OkHttpTransport";
+
+    // Idle connections kept warm, across all hosts
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 8;
+    // How long an idle connection is kept warm
+    public static final long DEFAULT_KEEP_ALIVE_MINUTES = 5;
+    // Most concurrent calls to one host, synchronous or asynchronous
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 4;
+    // Timeout used when a caller does not ask for another
+    private static final int DEFAULT_TIMEOUT_MS = 15_000;
+
+    private static volatile OkHttpTransport instance; // Process-wide instance
+
+    private final OkHttpClient client; // Shared client, owning the pool and dispatcher
+    private final Stats stats = new Stats(); // Traffic counters
+    private final Map<Integer, OkHttpClient> clientsByTimeout = new ConcurrentHashMap<>(); // Clients for other timeouts
+
+    /**
+     * Creates a transport with its own connection pool.
+     *
+     * @param maxIdleConnections Idle connections kept warm, across all hosts.
+     * @param keepAliveMinutes   How long an idle connection is kept warm.
+     * @param maxRequestsPerHost Most concurrent calls to one host.
+     */
+    public OkHttpTransport(int maxIdleConnections, long keepAliveMinutes, int maxRequestsPerHost) {
+        Dispatcher dispatcher = new Dispatcher();
+        // Keeps asynchronous calls queued in the dispatcher rather than parked on the host limit
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMinutes, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                .addInterceptor(new HostLimiter(maxRequestsPerHost, stats))
+                .connectTimeout(DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .eventListener(stats)
+                .build();
+    }
+
+    /**
+     * Returns the shared transport, creating it with the default limits on first use.
+     *
+     * @return The process-wide OkHttpTransport.
+     */
+    public static OkHttpTransport getInstance() {
+        OkHttpTransport result = instance;
+        if (result == null) {
+            synchronized (OkHttpTransport.class) {
+                result = instance;
+                if (result == null) {
+                    result = new OkHttpTransport(DEFAULT_MAX_IDLE_CONNECTIONS,
+                            DEFAULT_KEEP_ALIVE_MINUTES, DEFAULT_MAX_REQUESTS_PER_HOST);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the shared client. Callers that need other settings, such as a disk cache, should
+     * derive a client with newBuilder(), which keeps the same pool, dispatcher and host limit.
+     *
+     * @return The client.
+     */
+    @NonNull
+    public OkHttpClient client() {
+        return client;
+    }
+
+    /**
+     * Returns the traffic counters of every client sharing this transport's pool.
+     *
+     * @return The counters.
+     */
+    @NonNull
+    public Stats stats() {
+        return stats;
+    }
+
+    /**
+     * Writes the traffic counters to the debug log.
+     */
+    public void logStats() {
+        Log.d(TAG, stats.toString());
+    }
+
+    @NonNull
+    @Override
+    public HttpResponse execute(@NonNull String method, @NonNull String url, @NonNull Map<String, String> headers,
+                                @Nullable byte[] body, @Nullable String contentType, int timeoutMs) throws IOException {
+        // Request.Builder throws IllegalArgumentException for these; callers only expect IOException
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null) {
+            throw new MalformedURLException("Not an http(s) URL: " + url);
+        }
+        Request.Builder builder = new Request.Builder().url(httpUrl);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        RequestBody requestBody = null;
+        if (body != null) {
+            requestBody = RequestBody.create(contentType == null ? null : MediaType.parse(contentType), body);
+        } else if (method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) {
+            // OkHttp requires a body for these methods
+            requestBody = RequestBody.create(null, new byte[0]);
+        }
+        builder.method(method, requestBody);
+
+        Response response = clientFor(timeoutMs).newCall(builder.build()).execute();
+
+        Headers responseHeaders = response.headers();
+        List<Header> headerList = new ArrayList<>(responseHeaders.size());
+        for (int i = 0; i < responseHeaders.size(); i++) {
+            headerList.add(new Header(responseHeaders.name(i), responseHeaders.value(i)));
+        }
+        int status = response.code();
+        ResponseBody responseBody = response.body();
+        if (responseBody == null || method.equals("HEAD") || status == 204 || status == 304
+                || (status >= 100 && status < 200)) {
+            response.close();
+            return new HttpResponse(status, headerList);
+        }
+        // -1 when unknown, which is always the case once OkHttp has decompressed a gzipped body
+        long length = responseBody.contentLength();
+        return new HttpResponse(status, headerList,
+                length > Integer.MAX_VALUE ? -1 : (int) length, responseBody.byteStream());
+    }
+
+    /**
+     * Returns the client for a timeout, deriving it once per distinct timeout. Volley's default
+     * of 2.5 s differs from the shared client's, so deriving one per call would rebuild a client
+     * for almost every API request.
+     *
+     * @param timeoutMs Connect and read timeout, in milliseconds; 0 or less for the default.
+     * @return A client sharing the pool, dispatcher and host limit.
+     */
+    private OkHttpClient clientFor(int timeoutMs) {
+        if (timeoutMs <= 0 || timeoutMs == client.readTimeoutMillis()) {
+            return client;
+        }
+        return clientsByTimeout.computeIfAbsent(timeoutMs, timeout -> client.newBuilder()
+                .connectTimeout(timeout, TimeUnit.MILLISECONDS)
+                .readTimeout(timeout, TimeUnit.MILLISECONDS)
+                .build());
+    }
+
+    /**
+     * Application interceptor that lets at most a fixed number of calls to one host run at once,
+     * from the request until its response body is closed. Unlike the dispatcher's limit it also
+     * holds for synchronous calls. It sees bodies after gzip decompression, so it counts the
+     * bytes handed to callers for {@link Stats}.
+     */
+    private static final class HostLimiter implements Interceptor {
+
+        private final int maxPerHost; // Most concurrent calls to one host
+        private final Stats stats; // Receives the decoded body byte counts
+        private final Map<String, Semaphore> permits = new ConcurrentHashMap<>(); // Permits by host
+
+        HostLimiter(int maxPerHost, Stats stats) {
+            this.maxPerHost = maxPerHost;
+            this.stats = stats;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            String host = chain.request().url().host();
+            Semaphore semaphore = permits.computeIfAbsent(host, key -> new Semaphore(maxPerHost, true));
+            try {
+                semaphore.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a call to " + host);
+            }
+            boolean handedOff = false;
+            try {
+                Response response = chain.proceed(chain.request());
+                ResponseBody body = response.body();
+                if (body == null) {
+                    return response;
+                }
+                Response limited = response.newBuilder()
+                        .body(new PermitBody(body, semaphore, stats))
+                        .build();
+                handedOff = true;
+                return limited;
+            } finally {
+                if (!handedOff) {
+                    semaphore.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Response body that gives its host permit back when it is closed, and counts the bytes read
+     * from it.
+     */
+    private static final class PermitBody extends ResponseBody {
+
+        private final ResponseBody delegate; // The decompressed body
+        private final Semaphore semaphore; // Permit of the body's host
+        private final Stats stats; // Receives the decoded byte count
+        private final AtomicBoolean released = new AtomicBoolean(); // Set once the permit is back
+        private BufferedSource source; // Counting source, created on first use
+
+        PermitBody(ResponseBody delegate, Semaphore semaphore, Stats stats) {
+            this.delegate = delegate;
+            this.semaphore = semaphore;
+            this.stats = stats;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @NonNull
+        @Override
+        public synchronized BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public long read(@NonNull Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+                        if (read > 0) {
+                            stats.decodedBytes.addAndGet(read);
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                semaphore.release();
+                            }
+                        }
+                    }
+                });
+            }
+            return source;
+        }
+    }
+
+    /**
+     * Counts calls, new connections and TLS handshakes, and the body bytes received as sent
+     * over the wire, before gzip decompression, and as handed to callers, after it. Comparing
+     * handshakes with calls shows how often a warm connection was reused, and the two byte
+     * counts how much gzip saved. Safe to read from any thread.
+     */
+    public static final class Stats extends EventListener {
+
+        private final AtomicLong calls = new AtomicLong(); // Calls started
+        private final AtomicLong connections = new AtomicLong(); // Connections opened
+        private final AtomicLong handshakes = new AtomicLong(); // TLS handshakes started
+        private final AtomicLong multiplexed = new AtomicLong(); // Calls that used an HTTP/2 connection
+        private final AtomicLong wireBytes = new AtomicLong(); // Response body bytes received
+        private final AtomicLong decodedBytes = new AtomicLong(); // Response body bytes after decompression
+
+        /**
+         * Creates zeroed counters.
+         */
+        Stats() {
+        }
+
+        @Override
+        public void callStart(Call call) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void connectStart(Call call, java.net.InetSocketAddress address, java.net.Proxy proxy) {
+            connections.incrementAndGet();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            handshakes.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            if (connection.protocol() == okhttp3.Protocol.HTTP_2) {
+                multiplexed.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            wireBytes.addAndGet(byteCount);
+        }
+
+        /**
+         * Returns the number of calls started.
+         *
+         * @return The count.
+         */
+        public long getCalls() {
+            return calls.get();
+        }
+
+        /**
+         * Returns the number of connections opened; the other calls reused a pooled one.
+         *
+         * @return The count.
+         */
+        public long getConnections() {
+            return connections.get();
+        }
+
+        /**
+         * Returns the number of TLS handshakes started.
+         *
+         * @return The count.
+         */
+        public long getHandshakes() {
+            return handshakes.get();
+        }
+
+        /**
+         * Returns the number of calls carried over an HTTP/2 connection.
+         *
+         * @return The count.
+         */
+        public long getMultiplexed() {
+            return multiplexed.get();
+        }
+
+        /**
+         * Returns the response body bytes received, as compressed on the wire.
+         *
+         * @return The byte count.
+         */
+        public long getWireBytes() {
+            return wireBytes.get();
+        }
+
+        /**
+         * Returns the response body bytes read by callers, after gzip decompression.
+         *
+         * @return The byte count.
+         */
+        public long getDecodedBytes() {
+            return decodedBytes.get();
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "calls=" + calls.get() + " connections=" + connections.get()
+                    + " handshakes=" + handshakes.get() + " http2=" + multiplexed.get()
+                    + " wireBytes=" + wireBytes.get() + " decodedBytes=" + decodedBytes.get();
+        }
+    }
+}
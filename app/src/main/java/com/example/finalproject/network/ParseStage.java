@@ -0,0 +1,224 @@
+package com.example.finalproject.network;
+
+import com.example.finalproject.concurrent.AppExecutors;
+import com.google.gson.stream.JsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a {@link JsonStreamParser} over a response body on a background executor and posts
+ * only immutable, ready-to-bind lists to the main thread. The work posted to the main thread
+ * never parses or allocates entities, so it fits within {@link #MAIN_THREAD_BUDGET_MS}
+ * regardless of the size of the response.
+ */
+public final class ParseStage {
+
+    // Longest a single task posted to the main thread by this stage may take
+    public static final long MAIN_THREAD_BUDGET_MS = 4;
+
+    private static volatile ParseStage defaultStage; // Stage backed by the shared executors
+
+    private final Executor worker; // Executor the parser runs on
+    private final Executor main; // Executor results are posted to
+
+    /**
+     * Creates a stage with explicit executors.
+     *
+     * @param worker Executor the parser runs on.
+     * @param main   Executor results are delivered on.
+     */
+    public ParseStage(Executor worker, Executor main) {
+        this.worker = worker;
+        this.main = main;
+    }
+
+    /**
+     * Returns the stage that parses on the shared CPU pool and delivers on the main thread.
+     *
+     * @return The default ParseStage.
+     */
+    public static ParseStage getDefault() {
+        ParseStage result = defaultStage;
+        if (result == null) {
+            synchronized (ParseStage.class) {
+                result = defaultStage;
+                if (result == null) {
+                    AppExecutors executors = AppExecutors.getInstance();
+                    result = new ParseStage(executors.cpu(), executors.mainThread());
+                    defaultStage = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses a response body in the background and delivers the items in chunks, followed by
+     * the complete list. Nothing is delivered once the delivery reports it is cancelled, and
+     * parsing stops at the next chunk boundary.
+     *
+     * @param body      The raw response body.
+     * @param charset   Charset of the body.
+     * @param parser    Parser for the body.
+     * @param chunkSize Number of items per chunk.
+     * @param delivery  Receives chunks, the complete list or an error on the main executor.
+     * @param <T>       The entity type.
+     */
+    public <T> void parse(byte[] body, String charset, JsonStreamParser<T> parser,
+                          int chunkSize, Delivery<T> delivery) {
+        worker.execute(() -> {
+            if (delivery.isCancelled()) {
+                return;
+            }
+            List<T> all = new ArrayList<>();
+            List<List<T>> pending = new ArrayList<>(1);
+            pending.add(new ArrayList<>(chunkSize));
+            try (JsonReader reader = new JsonReader(
+                    new InputStreamReader(new ByteArrayInputStream(body), charset))) {
+                parser.parse(reader, item -> {
+                    all.add(item);
+                    List<T> chunk = pending.get(0);
+                    chunk.add(item);
+                    if (chunk.size() >= chunkSize) {
+                        if (delivery.isCancelled()) {
+                            // Nobody wants the rest; stop spending CPU on it
+                            throw new CancellationException();
+                        }
+                        postChunk(delivery, chunk, all.size() - chunk.size());
+                        pending.set(0, new ArrayList<>(chunkSize));
+                    }
+                });
+            } catch (CancellationException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                postError(delivery, e);
+                return;
+            }
+            List<T> rest = pending.get(0);
+            if (!rest.isEmpty()) {
+                postChunk(delivery, rest, all.size() - rest.size());
+            }
+            List<T> result = Collections.unmodifiableList(all);
+            main.execute(() -> {
+                if (!delivery.isCancelled()) {
+                    delivery.onComplete(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Indexes a response body in the background and delivers the resulting list, which decodes
+     * its items on demand. No chunks are delivered: indexing is cheap enough that the complete
+     * list is ready about as soon as a first chunk would be.
+     *
+     * @param body     The raw response body.
+     * @param charset  Charset of the body.
+     * @param indexer  Indexer for the body.
+     * @param delivery Receives the list or an error on the main executor.
+     * @param <T>      The entity type.
+     */
+    public <T> void index(byte[] body, String charset, Indexer<T> indexer, Delivery<T> delivery) {
+        worker.execute(() -> {
+            if (delivery.isCancelled()) {
+                return;
+            }
+            List<T> result;
+            try {
+                result = indexer.index(body, charset);
+            } catch (IOException | RuntimeException e) {
+                postError(delivery, e);
+                return;
+            }
+            main.execute(() -> {
+                if (!delivery.isCancelled()) {
+                    delivery.onComplete(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Posts one chunk to the main executor.
+     */
+    private <T> void postChunk(Delivery<T> delivery, List<T> chunk, int offset) {
+        List<T> items = Collections.unmodifiableList(chunk);
+        main.execute(() -> {
+            if (!delivery.isCancelled()) {
+                delivery.onChunk(items, offset);
+            }
+        });
+    }
+
+    /**
+     * Posts a parse failure to the main executor.
+     */
+    private <T> void postError(Delivery<T> delivery, Exception e) {
+        main.execute(() -> {
+            if (!delivery.isCancelled()) {
+                delivery.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Turns a response body into an immutable list that decodes its items when they are read,
+     * instead of parsing every item up front.
+     *
+     * @param <T> The entity type.
+     */
+    public interface Indexer<T> {
+        /**
+         * Indexes a body. Called on the worker executor.
+         *
+         * @param body    The raw response body.
+         * @param charset Charset of the body.
+         * @return An immutable list, safe to read from any thread.
+         * @throws IOException If the body is malformed.
+         */
+        List<T> index(byte[] body, String charset) throws IOException;
+    }
+
+    /**
+     * Receives the output of a parse on the main executor.
+     *
+     * @param <T> The entity type.
+     */
+    public interface Delivery<T> {
+        /**
+         * Returns whether the consumer has gone away; checked before parsing and before every post.
+         *
+         * @return True to stop delivering.
+         */
+        boolean isCancelled();
+
+        /**
+         * Called with the next chunk of parsed items.
+         *
+         * @param chunk  Immutable list of items in the chunk.
+         * @param offset Index of the first item within the whole response.
+         */
+        void onChunk(List<T> chunk, int offset);
+
+        /**
+         * Called once after the last chunk with every parsed item.
+         *
+         * @param items Immutable list of all items.
+         */
+        void onComplete(List<T> items);
+
+        /**
+         * Called instead of onComplete if the body could not be parsed.
+         *
+         * @param error The parse failure.
+         */
+        void onError(Exception error);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.finalproject.network;
+
+import androidx.annotation.Nullable;
+
+import com.android.volley.AuthFailureError;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.HttpHeaderParser;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A Volley GET request that delivers the raw response without decoding it, for callers that
+ * store or compare the body bytes before deciding whether to parse them. Those callers keep
+ * their own copy of the body, so Volley's cache is bypassed: a conditional request the caller
+ * makes gets its 304 Not Modified back with no body and {@link NetworkResponse#notModified} set.
+ */
+public class RawRequest extends Request<NetworkResponse> {
+
+    private final Object lock = new Object(); // Guards the listeners
+    private final Map<String, String> headers; // Extra request headers
+
+    @Nullable
+    private Response.Listener<NetworkResponse> listener; // Receives the raw response
+    @Nullable
+    private Response.ErrorListener errorListener; // Receives network errors
+
+    /**
+     * Creates a new GET request.
+     *
+     * @param url           URL to fetch.
+     * @param headers       Extra headers to send, or null.
+     * @param listener      Receives the raw response on the main thread.
+     * @param errorListener Receives network errors on the main thread.
+     */
+    public RawRequest(String url, @Nullable Map<String, String> headers,
+                      Response.Listener<NetworkResponse> listener,
+                      @Nullable Response.ErrorListener errorListener) {
+        super(Method.GET, url, errorListener);
+        this.headers = headers == null ? Collections.emptyMap() : headers;
+        this.listener = listener;
+        this.errorListener = errorListener;
+        setShouldCache(false);
+    }
+
+    @Override
+    public Map<String, String> getHeaders() throws AuthFailureError {
+        return headers;
+    }
+
+    @Override
+    public void cancel() {
+        super.cancel();
+        synchronized (lock) {
+            listener = null;
+            errorListener = null;
+        }
+    }
+
+    @Override
+    protected Response<NetworkResponse> parseNetworkResponse(NetworkResponse response) {
+        return Response.success(response, HttpHeaderParser.parseCacheHeaders(response));
+    }
+
+    @Override
+    protected void deliverResponse(NetworkResponse response) {
+        Response.Listener<NetworkResponse> target;
+        synchronized (lock) {
+            target = listener;
+        }
+        if (target != null) {
+            target.onResponse(response);
+        }
+    }
+
+    @Override
+    public void deliverError(VolleyError error) {
+        Response.ErrorListener target;
+        synchronized (lock) {
+            target = errorListener;
+        }
+        if (target != null) {
+            target.onErrorResponse(error);
+        }
+    }
+}
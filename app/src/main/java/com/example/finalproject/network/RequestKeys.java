@@ -0,0 +1,79 @@
+package com.example.finalproject.network;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds canonical keys for GET requests, so requests that differ only in parameter order,
+ * host case or a trailing fragment are recognised as the same request.
+ */
+public final class RequestKeys {
+
+    private RequestKeys() {
+    }
+
+    /**
+     * Returns the canonical form of a URL: scheme and host in lower case, query parameters
+     * sorted by name and then value, empty parameters and any fragment removed. Parameter
+     * values are left encoded exactly as given.
+     *
+     * @param url The URL.
+     * @return The canonical URL.
+     */
+    public static String normalize(@NonNull String url) {
+        String withoutFragment = url;
+        int hash = withoutFragment.indexOf('#');
+        if (hash >= 0) {
+            withoutFragment = withoutFragment.substring(0, hash);
+        }
+        String base = withoutFragment;
+        String query = "";
+        int question = withoutFragment.indexOf('?');
+        if (question >= 0) {
+            base = withoutFragment.substring(0, question);
+            query = withoutFragment.substring(question + 1);
+        }
+
+        // Lower-case everything up to the end of the host
+        int schemeEnd = base.indexOf("://");
+        int hostEnd = schemeEnd < 0 ? -1 : base.indexOf('/', schemeEnd + 3);
+        if (schemeEnd >= 0) {
+            int end = hostEnd < 0 ? base.length() : hostEnd;
+            base = base.substring(0, end).toLowerCase(Locale.ROOT) + base.substring(end);
+        }
+
+        List<String> params = new ArrayList<>();
+        for (String param : query.split("&")) {
+            if (!param.isEmpty() && !param.endsWith("=")) {
+                params.add(param);
+            }
+        }
+        if (params.isEmpty()) {
+            return base;
+        }
+        Collections.sort(params);
+        StringBuilder key = new StringBuilder(base).append('?');
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                key.append('&');
+            }
+            key.append(params.get(i));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the canonical form of a free-text search term: trimmed, runs of whitespace
+     * collapsed to one space and lower-cased. Only for APIs that match case-insensitively.
+     *
+     * @param term The search term.
+     * @return The canonical term.
+     */
+    public static String normalizeTerm(@NonNull String term) {
+        return term.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
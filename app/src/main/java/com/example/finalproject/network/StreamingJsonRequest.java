@@ -0,0 +1,183 @@
+package com.example.finalproject.network;
+
+import androidx.annotation.Nullable;
+
+import com.android.volley.AuthFailureError;
+import com.android.volley.NetworkResponse;
+import com.android.volley.ParseError;
+import com.android.volley.Request;
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.HttpHeaderParser;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Volley request that pull-parses the response bytes with a {@link JsonStreamParser} instead
+ * of building a String and a full JSONObject tree. Parsing runs in a {@link ParseStage} on a
+ * background executor; only the entities are kept in memory, and they are handed to the UI
+ * in immutable chunks so the first rows can render before the whole body has been parsed.
+ *
+ * @param <T> The entity type produced by the parser.
+ */
+public class StreamingJsonRequest<T> extends Request<NetworkResponse> {
+
+    // Number of items delivered per chunk when none is given
+    public static final int DEFAULT_CHUNK_SIZE = 20;
+
+    private final Object lock = new Object(); // Guards the listeners
+    private final Map<String, String> headers; // Extra request headers
+    private final JsonStreamParser<T> parser; // Parser for the response body
+    private final int chunkSize; // Number of items per chunk
+    private final ParseStage parseStage; // Stage the body is parsed in
+
+    @Nullable
+    private ChunkListener<T> chunkListener; // Receives items as they are parsed
+    @Nullable
+    private Response.Listener<List<T>> listener; // Receives the complete list
+    @Nullable
+    private Response.ErrorListener errorListener; // Receives network and parse errors
+
+    /**
+     * Creates a new GET request.
+     *
+     * @param url           URL to fetch.
+     * @param headers       Extra headers to send, or null.
+     * @param parser        Parser for the response body.
+     * @param chunkListener Receives parsed items in chunks on the main thread, or null.
+     * @param listener      Receives the complete, unmodifiable list on the main thread.
+     * @param errorListener Receives network and parse errors.
+     */
+    public StreamingJsonRequest(String url, @Nullable Map<String, String> headers,
+                                JsonStreamParser<T> parser,
+                                @Nullable ChunkListener<T> chunkListener,
+                                Response.Listener<List<T>> listener,
+                                @Nullable Response.ErrorListener errorListener) {
+        this(url, headers, parser, DEFAULT_CHUNK_SIZE, chunkListener, listener, errorListener);
+    }
+
+    /**
+     * Creates a new GET request with an explicit chunk size.
+     *
+     * @param url           URL to fetch.
+     * @param headers       Extra headers to send, or null.
+     * @param parser        Parser for the response body.
+     * @param chunkSize     Number of items per chunk.
+     * @param chunkListener Receives parsed items in chunks on the main thread, or null.
+     * @param listener      Receives the complete, unmodifiable list on the main thread.
+     * @param errorListener Receives network and parse errors.
+     */
+    public StreamingJsonRequest(String url, @Nullable Map<String, String> headers,
+                                JsonStreamParser<T> parser, int chunkSize,
+                                @Nullable ChunkListener<T> chunkListener,
+                                Response.Listener<List<T>> listener,
+                                @Nullable Response.ErrorListener errorListener) {
+        super(Method.GET, url, errorListener);
+        this.headers = headers == null ? Collections.emptyMap() : headers;
+        this.parser = parser;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parseStage = ParseStage.getDefault();
+        this.chunkListener = chunkListener;
+        this.listener = listener;
+        this.errorListener = errorListener;
+    }
+
+    @Override
+    public Map<String, String> getHeaders() throws AuthFailureError {
+        return headers;
+    }
+
+    @Override
+    public void cancel() {
+        super.cancel();
+        synchronized (lock) {
+            chunkListener = null;
+            listener = null;
+            errorListener = null;
+        }
+    }
+
+    /**
+     * Keeps the raw response; parsing happens later in the ParseStage rather than on the
+     * network dispatcher thread, which is then free to serve the next request.
+     *
+     * @param response The raw network response.
+     * @return The same response with its cache entry.
+     */
+    @Override
+    protected Response<NetworkResponse> parseNetworkResponse(NetworkResponse response) {
+        return Response.success(response, HttpHeaderParser.parseCacheHeaders(response));
+    }
+
+    /**
+     * Hands the body to the ParseStage. Only a task submission happens on the main thread.
+     *
+     * @param response The raw network response.
+     */
+    @Override
+    protected void deliverResponse(NetworkResponse response) {
+        byte[] body = response.data == null ? new byte[0] : response.data;
+        String charset = HttpHeaderParser.parseCharset(response.headers, "UTF-8");
+        parseStage.parse(body, charset, parser, chunkSize, new ParseStage.Delivery<T>() {
+            @Override
+            public boolean isCancelled() {
+                return isCanceled();
+            }
+
+            @Override
+            public void onChunk(List<T> chunk, int offset) {
+                ChunkListener<T> target;
+                synchronized (lock) {
+                    target = chunkListener;
+                }
+                if (target != null) {
+                    target.onChunk(chunk, offset);
+                }
+            }
+
+            @Override
+            public void onComplete(List<T> items) {
+                Response.Listener<List<T>> target;
+                synchronized (lock) {
+                    target = listener;
+                }
+                if (target != null) {
+                    target.onResponse(items);
+                }
+            }
+
+            @Override
+            public void onError(Exception error) {
+                deliverError(new ParseError(error));
+            }
+        });
+    }
+
+    @Override
+    public void deliverError(VolleyError error) {
+        Response.ErrorListener target;
+        synchronized (lock) {
+            target = errorListener;
+        }
+        if (target != null) {
+            target.onErrorResponse(error);
+        }
+    }
+
+    /**
+     * Receives parsed items in chunks, in response order, on the main thread.
+     *
+     * @param <T> The entity type.
+     */
+    public interface ChunkListener<T> {
+        /**
+         * Called with the next chunk of parsed items.
+         *
+         * @param chunk  The items in the chunk.
+         * @param offset Index of the first item within the whole response; 0 for the first chunk.
+         */
+        void onChunk(List<T> chunk, int offset);
+    }
+}
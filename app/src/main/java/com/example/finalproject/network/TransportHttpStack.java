@@ -0,0 +1,71 @@
+package com.example.finalproject.network;
+
+import com.android.volley.AuthFailureError;
+import com.android.volley.Request;
+import com.android.volley.toolbox.BaseHttpStack;
+import com.android.volley.toolbox.HttpResponse;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Volley stack that sends every request through an {@link HttpTransport} in place of
+ * HurlStack's per-request HttpURLConnection, so the shared queue uses the same pooled
+ * connections as the rest of the app.
+ */
+final class TransportHttpStack extends BaseHttpStack {
+
+    private final HttpTransport transport; // Sends the requests
+
+    /**
+     * Creates the stack.
+     *
+     * @param transport Sends the requests.
+     */
+    TransportHttpStack(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    @Override
+    public HttpResponse executeRequest(Request<?> request, Map<String, String> additionalHeaders)
+            throws IOException, AuthFailureError {
+        Map<String, String> headers = new HashMap<>(request.getHeaders());
+        headers.putAll(additionalHeaders);
+        byte[] body = request.getBody();
+        return transport.execute(methodOf(request, body), request.getUrl(), headers, body,
+                body != null ? request.getBodyContentType() : null, request.getTimeoutMs());
+    }
+
+    /**
+     * Returns the HTTP method of a Volley request.
+     *
+     * @param request The request.
+     * @param body    Its body, or null.
+     * @return The method name.
+     */
+    private static String methodOf(Request<?> request, byte[] body) {
+        switch (request.getMethod()) {
+            case Request.Method.DEPRECATED_GET_OR_POST:
+                return body != null ? "POST" : "GET";
+            case Request.Method.GET:
+                return "GET";
+            case Request.Method.POST:
+                return "POST";
+            case Request.Method.PUT:
+                return "PUT";
+            case Request.Method.DELETE:
+                return "DELETE";
+            case Request.Method.HEAD:
+                return "HEAD";
+            case Request.Method.OPTIONS:
+                return "OPTIONS";
+            case Request.Method.TRACE:
+                return "TRACE";
+            case Request.Method.PATCH:
+                return "PATCH";
+            default:
+                throw new IllegalStateException("Unknown method type " + request.getMethod());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.finalproject.ui.common;
+
+import android.app.AlertDialog;
+import android.content.Context;
+import android.view.View;
+import android.widget.Button;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+
+import com.example.finalproject.R;
+import com.example.finalproject.data.images.BatchImageSaver;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Drives the bar of bulk actions a list screen shows while rows are selected: save every
+ * selected row, delete every selected row, or clear the selection. Saving stores all images
+ * as one {@link BatchImageSaver} batch with its progress on the Save button, which cancels the
+ * batch when tapped again. The screen supplies what saving and deleting mean for its rows.
+ */
+public class BulkActionBar implements RowSelection.Listener {
+
+    private final View bar; // The bar, shown while rows are selected
+    private final Button buttonSave; // Saves the selected rows, or cancels a running save
+    private final Button buttonDelete; // Deletes the selected rows
+    private final RowSelection selection; // The list's selection
+    private final BatchImageSaver saver; // Stores the images of a batch
+    private final Context appContext; // Application context for toasts
+    private BatchImageSaver.Batch batch; // Image batch in progress, or null
+
+    /**
+     * Binds the bar inside a screen's view to a selection.
+     *
+     * @param root      The screen's view, containing R.id.selectionBar.
+     * @param selection The list's selection.
+     * @param actions   Saves or deletes the selected rows.
+     */
+    public BulkActionBar(@NonNull View root, @NonNull RowSelection selection, @NonNull Actions actions) {
+        this.bar = root.findViewById(R.id.selectionBar);
+        this.buttonSave = root.findViewById(R.id.buttonSaveSelected);
+        this.buttonDelete = root.findViewById(R.id.buttonDeleteSelected);
+        Button buttonClear = root.findViewById(R.id.buttonClearSelection);
+        this.selection = selection;
+        this.appContext = root.getContext().getApplicationContext();
+        this.saver = new BatchImageSaver(appContext);
+        selection.setListener(this);
+
+        buttonSave.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if (batch != null) {
+                    cancel();
+                } else {
+                    actions.onSaveSelected(selection.getSelectedPositions());
+                }
+            }
+        });
+        buttonDelete.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                // Ask once for the whole batch, as the detail screens do for one row
+                new AlertDialog.Builder(v.getContext())
+                        .setMessage(String.format(Locale.getDefault(), "Do you want to delete %d items?", selection.getCount()))
+                        .setTitle("Question")
+                        .setNegativeButton("No", (dialog, cl) -> {})
+                        .setPositiveButton("Yes", (dialog, cl) -> actions.onDeleteSelected(selection.getSelectedPositions()))
+                        .create().show();
+            }
+        });
+        buttonClear.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                selection.clear();
+            }
+        });
+        updateViews();
+    }
+
+    /**
+     * Stores the images of the rows being saved as one batch, then hands over the URLs that
+     * were stored. Rows whose image failed should not be saved.
+     *
+     * @param urls     The image URLs, one per row.
+     * @param onStored Receives the stored URLs on the main thread, typically to insert the rows.
+     */
+    public void storeImages(@NonNull List<String> urls, @NonNull Consumer<Set<String>> onStored) {
+        buttonSave.setText("Cancel");
+        batch = saver.save(urls, new BatchImageSaver.Listener() {
+            @Override
+            public void onProgress(int finished, int total) {
+                buttonSave.setText(String.format(Locale.getDefault(), "Cancel (%d/%d)", finished, total));
+            }
+
+            @Override
+            public void onComplete(@NonNull Set<String> storedUrls, int failed) {
+                batch = null;
+                updateViews();
+                if (failed > 0) {
+                    Toast.makeText(appContext, failed + " images could not be saved", Toast.LENGTH_SHORT).show();
+                }
+                onStored.accept(storedUrls);
+            }
+
+            @Override
+            public void onError(@NonNull IOException error) {
+                batch = null;
+                updateViews();
+                Toast.makeText(appContext, "Could not save images: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Cancels a running save, for example when the screen's view is destroyed.
+     */
+    public void cancel() {
+        if (batch != null) {
+            batch.cancel();
+            batch = null;
+            updateViews();
+        }
+    }
+
+    @Override
+    public void onSelectionChanged(int count) {
+        updateViews();
+    }
+
+    /**
+     * Shows the bar while rows are selected or a save is running, with the selected count.
+     */
+    private void updateViews() {
+        int count = selection.getCount();
+        bar.setVisibility(count > 0 || batch != null ? View.VISIBLE : View.GONE);
+        if (batch == null) {
+            buttonSave.setText(String.format(Locale.getDefault(), "Save All (%d)", count));
+        }
+        buttonDelete.setText(String.format(Locale.getDefault(), "Delete All (%d)", count));
+    }
+
+    /**
+     * Saves or deletes the selected rows of a screen.
+     */
+    public interface Actions {
+        /**
+         * Called when Save All is tapped.
+         *
+         * @param positions Adapter positions of the selected rows.
+         */
+        void onSaveSelected(List<Integer> positions);
+
+        /**
+         * Called once the user confirmed Delete All.
+         *
+         * @param positions Adapter positions of the selected rows.
+         */
+        void onDeleteSelected(List<Integer> positions);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.finalproject.ui.common;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+
+/**
+ * Text watcher that reports the text of a field only once the user has stopped typing for a
+ * while, so a search runs for the word being typed rather than for every keystroke. Text shorter
+ * than the minimum length is not reported.
+ */
+public abstract class DebouncedTextWatcher implements TextWatcher {
+
+    // Default pause after the last keystroke before the text is reported
+    public static final long DEFAULT_DELAY_MS = 400;
+    // Default minimum length of reported text, ignoring surrounding whitespace
+    public static final int DEFAULT_MIN_LENGTH = 2;
+
+    private final Handler handler = new Handler(Looper.getMainLooper()); // Delays the report
+    private final long delayMs; // Pause after the last keystroke
+    private final int minLength; // Minimum length of reported text
+    private final Runnable report = this::report; // Pending report, replaced by every keystroke
+    private String pendingText; // Text to report once the pause has passed
+
+    /**
+     * Creates a watcher with the default delay and minimum length.
+     */
+    public DebouncedTextWatcher() {
+        this(DEFAULT_DELAY_MS, DEFAULT_MIN_LENGTH);
+    }
+
+    /**
+     * Creates a watcher.
+     *
+     * @param delayMs   Pause after the last keystroke before the text is reported.
+     * @param minLength Minimum length of reported text, ignoring surrounding whitespace.
+     */
+    public DebouncedTextWatcher(long delayMs, int minLength) {
+        this.delayMs = delayMs;
+        this.minLength = minLength;
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        handler.removeCallbacks(report);
+        pendingText = s.toString();
+        if (pendingText.trim().length() >= minLength) {
+            handler.postDelayed(report, delayMs);
+        }
+    }
+
+    /**
+     * Drops a pending report, for example because the search was started by a button or the
+     * view is being destroyed.
+     */
+    public void cancel() {
+        handler.removeCallbacks(report);
+    }
+
+    /**
+     * Called on the main thread once the user has paused typing.
+     *
+     * @param text The text of the field.
+     */
+    protected abstract void onTextSettled(String text);
+
+    /**
+     * Reports the pending text.
+     */
+    private void report() {
+        onTextSettled(pendingText);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.finalproject.ui.common;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Scroll listener for a RecyclerView with a LinearLayoutManager that asks for more data when
+ * the user gets within a number of rows of either end of the loaded list.
+ */
+public abstract class EndlessScrollListener extends RecyclerView.OnScrollListener {
+
+    private int prefetchDistance; // Number of rows from an end at which loading starts
+
+    /**
+     * Creates a new listener.
+     *
+     * @param prefetchDistance Number of rows from an end at which loading starts.
+     */
+    public EndlessScrollListener(int prefetchDistance) {
+        this.prefetchDistance = Math.max(1, prefetchDistance);
+    }
+
+    /**
+     * Changes how close to an end the user must scroll before more data is requested.
+     *
+     * @param prefetchDistance Number of rows from an end at which loading starts.
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        this.prefetchDistance = Math.max(1, prefetchDistance);
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager) || dy == 0) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int itemCount = layoutManager.getItemCount();
+        if (itemCount == 0) {
+            return;
+        }
+        if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= itemCount - 1 - prefetchDistance) {
+            onLoadMore();
+        } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= prefetchDistance) {
+            onLoadPrevious();
+        }
+    }
+
+    /**
+     * Estimates how many rows fit in a RecyclerView, using the screen height if the view has
+     * not been laid out yet.
+     *
+     * @param recyclerView The list.
+     * @param rowHeightPx  Approximate height of one row in pixels.
+     * @return The number of rows that fit, at least 1.
+     */
+    public static int estimateVisibleRows(@NonNull RecyclerView recyclerView, int rowHeightPx) {
+        int height = recyclerView.getHeight();
+        if (height == 0) {
+            height = recyclerView.getResources().getDisplayMetrics().heightPixels;
+        }
+        return Math.max(1, (height + rowHeightPx - 1) / Math.max(1, rowHeightPx));
+    }
+
+    /**
+     * Called when the user nears the end of the list. May be called repeatedly while the
+     * user keeps scrolling, so implementations must ignore duplicate requests.
+     */
+    public abstract void onLoadMore();
+
+    /**
+     * Called when the user nears the start of the list. Does nothing by default.
+     */
+    public void onLoadPrevious() {
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.finalproject.ui.common;
+
+import android.content.Context;
+import android.widget.Button;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.images.ImageStore;
+import com.example.finalproject.network.FileDownloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Drives a detail screen's Save button: the first tap stores the item's original image in the
+ * content-addressed {@link ImageStore}, the button shows the download progress, and tapping it
+ * again cancels the save. An image that is already stored is reused without any download, and
+ * the bytes are written exactly as served, so no bitmap is decoded or re-encoded.
+ */
+public class ImageSaveController {
+
+    private final Button button; // The Save button
+    private final Context appContext; // Application context for the store and toasts
+    private CharSequence idleLabel; // Button text to restore when no save is running
+    private FileDownloader.Download download; // Download in progress, or null
+    private int generation; // Incremented on every save or cancel to ignore stale callbacks
+    private boolean saving; // True from the first tap until the save finishes or is cancelled
+
+    /**
+     * Creates a controller for a Save button.
+     *
+     * @param button The Save button.
+     */
+    public ImageSaveController(@NonNull Button button) {
+        this.button = button;
+        this.appContext = button.getContext().getApplicationContext();
+    }
+
+    /**
+     * Starts saving the image, or cancels the save if one is already running.
+     *
+     * @param imageUrl The image to store, or null if the item has none.
+     * @param onSaved  Runs on the main thread once the image is stored and referenced,
+     *                 typically to insert the item into the database.
+     */
+    public void saveOrCancel(@Nullable String imageUrl, @NonNull Runnable onSaved) {
+        if (saving) {
+            cancel();
+            return;
+        }
+        if (imageUrl == null || imageUrl.isEmpty()) {
+            onSaved.run();
+            return;
+        }
+
+        saving = true;
+        int saveGeneration = ++generation;
+        idleLabel = button.getText();
+        button.setText("Cancel");
+
+        // Reuse a stored copy if there is one; otherwise download into a temporary file
+        ImageStore store = ImageStore.getInstance(appContext);
+        AppExecutors executors = AppExecutors.getInstance();
+        executors.diskIO().execute(() -> {
+            File existing = store.acquireExisting(imageUrl);
+            File temp = null;
+            IOException error = null;
+            if (existing == null) {
+                try {
+                    temp = store.newTempFile();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            File target = temp;
+            IOException failure = error;
+            executors.mainThread().execute(() -> {
+                if (saveGeneration != generation) {
+                    // Cancelled while looking up; give back the reference just taken
+                    if (existing != null) {
+                        executors.diskIO().execute(() -> store.release(imageUrl));
+                    }
+                } else if (existing != null) {
+                    finish(existing, onSaved);
+                } else if (failure != null) {
+                    fail(failure);
+                } else {
+                    startDownload(saveGeneration, store, imageUrl, target, onSaved);
+                }
+            });
+        });
+    }
+
+    /**
+     * Downloads the image and commits it to the store.
+     */
+    private void startDownload(int saveGeneration, ImageStore store, String imageUrl, File target,
+                               Runnable onSaved) {
+        AppExecutors executors = AppExecutors.getInstance();
+        download = FileDownloader.getInstance().download(imageUrl, null, target, new FileDownloader.Listener() {
+            @Override
+            public void onProgress(long bytesWritten, long totalBytes) {
+                if (totalBytes > 0) {
+                    button.setText(String.format(Locale.getDefault(), "Cancel (%d%%)", bytesWritten * 100 / totalBytes));
+                }
+            }
+
+            @Override
+            public void onComplete(@NonNull File downloaded) {
+                download = null;
+                executors.diskIO().execute(() -> {
+                    try {
+                        File stored = store.commit(imageUrl, downloaded, FileDownloader.extensionOf(imageUrl));
+                        executors.mainThread().execute(() -> {
+                            if (saveGeneration == generation) {
+                                finish(stored, onSaved);
+                            } else {
+                                // Cancelled while committing; give back the reference just taken
+                                executors.diskIO().execute(() -> store.release(imageUrl));
+                            }
+                        });
+                    } catch (IOException e) {
+                        downloaded.delete();
+                        executors.mainThread().execute(() -> {
+                            if (saveGeneration == generation) {
+                                fail(e);
+                            }
+                        });
+                    }
+                });
+            }
+
+            @Override
+            public void onError(@NonNull IOException error) {
+                download = null;
+                fail(error);
+            }
+        });
+    }
+
+    /**
+     * Cancels the running save and restores the button.
+     */
+    private void cancel() {
+        generation++;
+        saving = false;
+        if (download != null) {
+            download.cancel();
+            download = null;
+        }
+        button.setText(idleLabel);
+    }
+
+    /**
+     * Completes a save.
+     */
+    private void finish(File stored, Runnable onSaved) {
+        saving = false;
+        button.setText(idleLabel);
+        onSaved.run();
+        Toast.makeText(appContext, "Image saved to " + stored.getAbsolutePath(), Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Reports a failed save.
+     */
+    private void fail(IOException error) {
+        saving = false;
+        button.setText(idleLabel);
+        Toast.makeText(appContext, "Could not save image: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+    }
+}
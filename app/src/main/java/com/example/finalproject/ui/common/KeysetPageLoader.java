@@ -0,0 +1,328 @@
+package com.example.finalproject.ui.common;
+
+import android.util.Log;
+
+import com.example.finalproject.concurrent.AppExecutors;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads saved rows page by page using keyset pagination: each page is the rows whose id is
+ * greater than the last id already loaded. Unlike OFFSET paging, a page costs the same no
+ * matter how deep the user has scrolled. Only a sliding window of {@link #MAX_PAGES_IN_MEMORY}
+ * pages is kept; once it is full, the page farthest from the scroll direction is dropped and
+ * loaded again by key if the user scrolls back to it. Queries run on the shared I/O executor
+ * and results are delivered on the main thread.
+ *
+ * @param <T> The entity type.
+ */
+public class KeysetPageLoader<T> {
+
+    private static final String TAG = "KeysetPageLoader";
+
+    // Maximum number of pages kept in memory at once
+    static final int MAX_PAGES_IN_MEMORY = 5;
+
+    private final PageQuery<T> afterQuery; // Runs the DAO query for the page after a key
+    private final PageQuery<T> beforeQuery; // Runs the DAO query for the page before a key
+    private final KeyFunction<T> keyFunction; // Extracts the id used as the key
+    private final Listener<T> listener; // Receives the loaded rows on the main thread
+    private final ArrayDeque<Page<T>> pages = new ArrayDeque<>(); // Loaded pages, in id order
+    private int pageSize; // Number of rows per query
+    private long firstKey; // Id of the first row of the first loaded page
+    private long lastKey; // Id of the last row of the last loaded page
+    private int generation; // Incremented on every reset or stop to ignore stale results
+    private boolean active; // True while saved rows are being shown
+    private boolean loading; // True while a query is running
+    private boolean startReached; // True while the first loaded page is the first page of the table
+    private boolean endReached; // True once a query returned fewer rows than asked for
+
+    /**
+     * Creates a new loader.
+     *
+     * @param afterQuery  Runs the DAO query for the rows after a key, in ascending id order.
+     * @param beforeQuery Runs the DAO query for the rows before a key, in descending id order.
+     * @param keyFunction Extracts the id used as the key.
+     * @param listener    Receives the loaded rows on the main thread.
+     */
+    public KeysetPageLoader(PageQuery<T> afterQuery, PageQuery<T> beforeQuery,
+                            KeyFunction<T> keyFunction, Listener<T> listener) {
+        this.afterQuery = afterQuery;
+        this.beforeQuery = beforeQuery;
+        this.keyFunction = keyFunction;
+        this.listener = listener;
+    }
+
+    /**
+     * Discards loaded rows and loads the first page.
+     *
+     * @param pageSize Number of rows per query.
+     */
+    public void start(int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+        generation++;
+        pages.clear();
+        firstKey = 0;
+        lastKey = 0;
+        active = true;
+        loading = false;
+        startReached = true;
+        endReached = false;
+        loadMore();
+    }
+
+    /**
+     * Stops loading, for example when the list switches to search results.
+     */
+    public void stop() {
+        generation++;
+        active = false;
+    }
+
+    /**
+     * Removes rows from the loaded pages, for example after they were deleted, and hands the
+     * remaining rows to the listener.
+     *
+     * @param rows The rows to remove.
+     */
+    public void remove(Collection<T> rows) {
+        if (!active) {
+            return;
+        }
+        boolean changed = false;
+        for (Page<T> page : pages) {
+            changed |= page.rows.removeAll(rows);
+        }
+        if (changed) {
+            publish();
+        }
+    }
+
+    /**
+     * Puts rows back into the loaded pages in key order, for example after a delete was undone,
+     * and hands the loaded rows to the listener. Rows outside the loaded window are left for
+     * paging to load.
+     *
+     * @param rows The rows to put back.
+     */
+    public void restore(Collection<T> rows) {
+        if (!active) {
+            return;
+        }
+        for (T row : rows) {
+            long key = keyFunction.keyOf(row);
+            if ((key > lastKey && !endReached) || (key < firstKey && !startReached)) {
+                continue;
+            }
+            if (pages.isEmpty()) {
+                pages.add(new Page<>(new ArrayList<>(), key, key));
+            }
+            Page<T> target = pages.getLast();
+            for (Page<T> page : pages) {
+                if (key <= page.lastKey) {
+                    target = page;
+                    break;
+                }
+            }
+            int index = 0;
+            while (index < target.rows.size() && keyFunction.keyOf(target.rows.get(index)) < key) {
+                index++;
+            }
+            target.rows.add(index, row);
+        }
+        publish();
+    }
+
+    /**
+     * Loads the page after the last loaded one unless a query is running or every later row
+     * has been loaded.
+     */
+    public void loadMore() {
+        if (!active || loading || endReached) {
+            return;
+        }
+        load(afterQuery, lastKey, false);
+    }
+
+    /**
+     * Loads the page before the first loaded one, if it was dropped from the window, unless a
+     * query is running.
+     */
+    public void loadPrevious() {
+        if (!active || loading || startReached) {
+            return;
+        }
+        load(beforeQuery, firstKey, true);
+    }
+
+    /**
+     * Runs a page query on the I/O executor and hands the result to {@link #onPageLoaded}.
+     *
+     * @param query    The DAO query.
+     * @param key      Key to page from.
+     * @param backward True if the query loads the page before the window.
+     */
+    private void load(PageQuery<T> query, long key, boolean backward) {
+        loading = true;
+        int requestGeneration = generation;
+        int limit = pageSize;
+        AppExecutors executors = AppExecutors.getInstance();
+        executors.diskIO().execute(() -> {
+            List<T> page;
+            try {
+                page = query.load(key, limit);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Page query failed", e);
+                executors.mainThread().execute(() -> onPageFailed(requestGeneration));
+                return;
+            }
+            executors.mainThread().execute(() -> onPageLoaded(requestGeneration, page, limit, backward));
+        });
+    }
+
+    /**
+     * Adds a page to the window, drops the page at the far end if the window is full, and
+     * hands the loaded rows to the listener.
+     *
+     * @param requestGeneration Generation the query was issued in.
+     * @param rows              Rows returned by the query.
+     * @param limit             Number of rows the query asked for.
+     * @param backward          True if the rows precede the window, in descending id order.
+     */
+    private void onPageLoaded(int requestGeneration, List<T> rows, int limit, boolean backward) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        loading = false;
+        if (backward) {
+            if (rows.size() < limit) {
+                startReached = true;
+            }
+            if (!rows.isEmpty()) {
+                List<T> ascending = new ArrayList<>(rows);
+                Collections.reverse(ascending);
+                pages.addFirst(newPage(ascending));
+                firstKey = pages.getFirst().firstKey;
+                if (pages.size() > MAX_PAGES_IN_MEMORY) {
+                    pages.removeLast();
+                    lastKey = pages.getLast().lastKey;
+                    endReached = false;
+                }
+            }
+        } else {
+            if (rows.size() < limit) {
+                endReached = true;
+            }
+            if (!rows.isEmpty()) {
+                pages.addLast(newPage(new ArrayList<>(rows)));
+                lastKey = pages.getLast().lastKey;
+                if (pages.size() == 1) {
+                    firstKey = pages.getFirst().firstKey;
+                }
+                if (pages.size() > MAX_PAGES_IN_MEMORY) {
+                    pages.removeFirst();
+                    firstKey = pages.getFirst().firstKey;
+                    startReached = false;
+                }
+            }
+        }
+        publish();
+    }
+
+    /**
+     * Forgets a failed query so scrolling can retry it.
+     *
+     * @param requestGeneration Generation the query was issued in.
+     */
+    private void onPageFailed(int requestGeneration) {
+        if (requestGeneration == generation) {
+            loading = false;
+        }
+    }
+
+    /**
+     * Wraps non-empty rows in ascending id order as a page, recording its key range.
+     */
+    private Page<T> newPage(List<T> rows) {
+        return new Page<>(rows, keyFunction.keyOf(rows.get(0)),
+                keyFunction.keyOf(rows.get(rows.size() - 1)));
+    }
+
+    /**
+     * Hands the rows of every loaded page to the listener.
+     */
+    private void publish() {
+        List<T> rows = new ArrayList<>();
+        for (Page<T> page : pages) {
+            rows.addAll(page.rows);
+        }
+        listener.onRowsLoaded(Collections.unmodifiableList(rows));
+    }
+
+    /**
+     * One loaded page and the key range it was loaded for. The range stays fixed when rows are
+     * removed, so the window can still be paged from it.
+     */
+    private static final class Page<T> {
+        final List<T> rows; // Rows of the page, in id order
+        final long firstKey; // Id of the first row when the page was loaded
+        final long lastKey; // Id of the last row when the page was loaded
+
+        Page(List<T> rows, long firstKey, long lastKey) {
+            this.rows = rows;
+            this.firstKey = firstKey;
+            this.lastKey = lastKey;
+        }
+    }
+
+    /**
+     * Runs one keyset page query. Called on the I/O executor.
+     *
+     * @param <T> The entity type.
+     */
+    public interface PageQuery<T> {
+        /**
+         * Loads the rows on one side of a key: after it in ascending id order, or before it in
+         * descending id order.
+         *
+         * @param key   Id of the last row already loaded (0 for the first page), or of the
+         *              first row still loaded when paging backwards.
+         * @param limit Maximum number of rows to return.
+         * @return The rows of the page.
+         */
+        List<T> load(long key, int limit);
+    }
+
+    /**
+     * Extracts the key a row is paged by.
+     *
+     * @param <T> The entity type.
+     */
+    public interface KeyFunction<T> {
+        /**
+         * Returns the key of a row.
+         *
+         * @param item The row.
+         * @return Its id.
+         */
+        long keyOf(T item);
+    }
+
+    /**
+     * Receives the loaded rows on the main thread.
+     *
+     * @param <T> The entity type.
+     */
+    public interface Listener<T> {
+        /**
+         * Called after each page with every row in the loaded window.
+         *
+         * @param rows An immutable list of the loaded rows, in id order.
+         */
+        void onRowsLoaded(List<T> rows);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.finalproject.ui.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Multi-selection of the rows of an adapter with stable IDs. Rows are remembered by ID, so a
+ * selection survives the list being re-diffed, and IDs that leave the list are dropped. A long
+ * press starts selecting; while any row is selected, a tap toggles a row instead of opening it.
+ * Toggled rows are rebound with {@link #PAYLOAD} so only their selected state is updated.
+ */
+public final class RowSelection {
+
+    // Payload of a rebind that only changes the state of a row, such as whether it is selected
+    public static final Object PAYLOAD = new Object();
+
+    private final RecyclerView.Adapter<?> adapter; // Adapter whose rows are selected
+    private final Set<Long> selected = new HashSet<>(); // Stable IDs of the selected rows
+    private Listener listener; // Notified when the selection changes
+
+    /**
+     * Creates an empty selection for an adapter with stable IDs.
+     *
+     * @param adapter The adapter.
+     */
+    public RowSelection(@NonNull RecyclerView.Adapter<?> adapter) {
+        this.adapter = adapter;
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                retainPresent();
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                retainPresent();
+            }
+        });
+    }
+
+    /**
+     * Sets the listener notified when the selection changes.
+     *
+     * @param listener The listener, or null.
+     */
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns whether any row is selected, in which case taps toggle rows.
+     *
+     * @return True while selecting.
+     */
+    public boolean isSelecting() {
+        return !selected.isEmpty();
+    }
+
+    /**
+     * Returns whether a row is selected.
+     *
+     * @param id Stable ID of the row.
+     * @return True if selected.
+     */
+    public boolean isSelected(long id) {
+        return selected.contains(id);
+    }
+
+    /**
+     * Returns the number of selected rows.
+     *
+     * @return The count.
+     */
+    public int getCount() {
+        return selected.size();
+    }
+
+    /**
+     * Selects or deselects the row at a position.
+     *
+     * @param position Adapter position of the row; ignored if it is NO_POSITION.
+     */
+    public void toggle(int position) {
+        if (position == RecyclerView.NO_POSITION) {
+            return;
+        }
+        long id = adapter.getItemId(position);
+        if (!selected.remove(id)) {
+            selected.add(id);
+        }
+        adapter.notifyItemChanged(position, PAYLOAD);
+        notifyListener();
+    }
+
+    /**
+     * Deselects every row.
+     */
+    public void clear() {
+        if (selected.isEmpty()) {
+            return;
+        }
+        selected.clear();
+        adapter.notifyItemRangeChanged(0, adapter.getItemCount(), PAYLOAD);
+        notifyListener();
+    }
+
+    /**
+     * Returns the positions of the selected rows, in list order.
+     *
+     * @return The positions.
+     */
+    public List<Integer> getSelectedPositions() {
+        List<Integer> positions = new ArrayList<>();
+        for (int position = 0; position < adapter.getItemCount(); position++) {
+            if (selected.contains(adapter.getItemId(position))) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Drops the IDs of rows that are no longer in the list.
+     */
+    private void retainPresent() {
+        if (selected.isEmpty()) {
+            return;
+        }
+        Set<Long> present = new HashSet<>();
+        for (int position = 0; position < adapter.getItemCount(); position++) {
+            present.add(adapter.getItemId(position));
+        }
+        if (selected.retainAll(present)) {
+            notifyListener();
+        }
+    }
+
+    /**
+     * Tells the listener the selection changed.
+     */
+    private void notifyListener() {
+        if (listener != null) {
+            listener.onSelectionChanged(selected.size());
+        }
+    }
+
+    /**
+     * Notified when rows are selected or deselected.
+     */
+    public interface Listener {
+        /**
+         * Called after the selection changed.
+         *
+         * @param count Number of selected rows.
+         */
+        void onSelectionChanged(int count);
+    }
+}
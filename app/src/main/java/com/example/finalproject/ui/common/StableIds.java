@@ -0,0 +1,36 @@
+package com.example.finalproject.ui.common;
+
+import androidx.annotation.Nullable;
+
+import com.example.finalproject.data.Fnv1a;
+
+/**
+ * Derives stable RecyclerView item IDs from an entity's natural key, such as its URL.
+ */
+public final class StableIds {
+
+    private StableIds() {
+    }
+
+    /**
+     * Hashes a natural key to a 64-bit ID.
+     *
+     * @param key The natural key; null hashes to a fixed value.
+     * @return The 64-bit FNV-1a hash of the key.
+     */
+    public static long of(@Nullable String key) {
+        return Fnv1a.hash(key);
+    }
+
+    /**
+     * Hashes a natural key together with a database row ID, so saved rows that share a key
+     * still get distinct IDs while unsaved items (row ID 0) keep the key's ID.
+     *
+     * @param key   The natural key.
+     * @param rowId The database row ID, or 0 for an unsaved item.
+     * @return The combined 64-bit ID.
+     */
+    public static long of(@Nullable String key, int rowId) {
+        return (of(key) ^ rowId) * Fnv1a.PRIME;
+    }
+}
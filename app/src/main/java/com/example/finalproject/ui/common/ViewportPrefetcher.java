@@ -0,0 +1,154 @@
+package com.example.finalproject.ui.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.finalproject.image.ImagePrefetcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Watches which rows of a RecyclerView are on screen and, once scrolling has stopped and the
+ * rows have stayed put for a moment, asks the {@link ImagePrefetcher} to warm the disk cache
+ * with the detail image of each visible row. Rows the user only flings past are never fetched.
+ */
+public final class ViewportPrefetcher extends RecyclerView.OnScrollListener {
+
+    // Time the visible rows must stay unchanged before their images are prefetched
+    static final long SETTLE_DELAY_MS = 300;
+
+    private final RecyclerView recyclerView; // The list being watched
+    private final UrlProvider urlProvider; // Maps a row to its detail image URL
+    private final ImagePrefetcher prefetcher; // Fetches the images
+    private final Runnable prefetchVisible = this::prefetchVisible; // Pending settle check
+    private final RecyclerView.AdapterDataObserver dataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            schedule();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            schedule();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            schedule();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            schedule();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            schedule();
+        }
+    }; // Reschedules the check when the rows change
+
+    /**
+     * Creates a prefetcher for a list.
+     *
+     * @param recyclerView The list, with its adapter already set.
+     * @param urlProvider  Maps a row to its detail image URL.
+     */
+    private ViewportPrefetcher(RecyclerView recyclerView, UrlProvider urlProvider) {
+        this.recyclerView = recyclerView;
+        this.urlProvider = urlProvider;
+        this.prefetcher = ImagePrefetcher.getInstance(recyclerView.getContext());
+    }
+
+    /**
+     * Starts watching a list. Call {@link #detach()} when its view is destroyed.
+     *
+     * @param recyclerView The list, with its adapter already set.
+     * @param urlProvider  Maps a row to its detail image URL.
+     * @return The attached prefetcher.
+     */
+    public static ViewportPrefetcher attach(@NonNull RecyclerView recyclerView, @NonNull UrlProvider urlProvider) {
+        ViewportPrefetcher viewportPrefetcher = new ViewportPrefetcher(recyclerView, urlProvider);
+        recyclerView.addOnScrollListener(viewportPrefetcher);
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter != null) {
+            adapter.registerAdapterDataObserver(viewportPrefetcher.dataObserver);
+        }
+        return viewportPrefetcher;
+    }
+
+    /**
+     * Stops watching the list and cancels prefetches it started.
+     */
+    public void detach() {
+        recyclerView.removeCallbacks(prefetchVisible);
+        recyclerView.removeOnScrollListener(this);
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter != null) {
+            adapter.unregisterAdapterDataObserver(dataObserver);
+        }
+        prefetcher.prefetch(Collections.emptyList());
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+            schedule();
+        } else {
+            // The rows on screen are about to change; wait until they settle again
+            recyclerView.removeCallbacks(prefetchVisible);
+        }
+    }
+
+    /**
+     * Checks the visible rows once they have stayed unchanged for the settle delay.
+     */
+    private void schedule() {
+        recyclerView.removeCallbacks(prefetchVisible);
+        if (recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE) {
+            recyclerView.postDelayed(prefetchVisible, SETTLE_DELAY_MS);
+        }
+    }
+
+    /**
+     * Hands the detail image URLs of the visible rows to the prefetcher.
+     */
+    private void prefetchVisible() {
+        if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)
+                || recyclerView.getAdapter() == null) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = Math.min(layoutManager.findLastVisibleItemPosition(),
+                recyclerView.getAdapter().getItemCount() - 1);
+        List<String> urls = new ArrayList<>();
+        if (first != RecyclerView.NO_POSITION) {
+            for (int position = first; position <= last; position++) {
+                String url = urlProvider.urlAt(position);
+                if (url != null) {
+                    urls.add(url);
+                }
+            }
+        }
+        prefetcher.prefetch(urls);
+    }
+
+    /**
+     * Maps a row of the list to the image its detail screen shows.
+     */
+    public interface UrlProvider {
+        /**
+         * Returns the detail image URL of a row.
+         *
+         * @param position Adapter position of the row.
+         * @return The URL, or null if the row has no image.
+         */
+        @Nullable
+        String urlAt(int position);
+    }
+}
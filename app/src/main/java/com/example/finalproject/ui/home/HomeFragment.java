@@ -1,18 +1,33 @@
 package com.example.finalproject.ui.home;
 
 import android.os.Bundle;
+import android.text.Editable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.inputmethod.EditorInfo;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.example.finalproject.R;
+import com.example.finalproject.data.movieinfo.Movie;
+import com.example.finalproject.data.pexels.Photo;
+import com.example.finalproject.data.search.SavedSearch;
+import com.example.finalproject.data.search.SearchResult;
+import com.example.finalproject.data.soccermatch.Match;
+import com.example.finalproject.data.ticketmaster.Event;
 import com.example.finalproject.databinding.FragmentHomeBinding;
+import com.example.finalproject.ui.common.DebouncedTextWatcher;
+import com.example.finalproject.ui.movieinfo.MovieDetailFragment;
+import com.example.finalproject.ui.pexels.PexelsDetailFragment;
+import com.example.finalproject.ui.soccermatch.MatchDetailFragment;
+import com.example.finalproject.ui.ticketmaster.EventDetailFragment;
 
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -22,10 +37,19 @@ import java.util.concurrent.Executors;
  */
 public class HomeFragment extends Fragment {
 
+    // Pause after the last keystroke before searching; searches are local, so it can be short
+    private static final long SEARCH_DELAY_MS = 150;
+
     private boolean firstTime = true; // Flag to track if it's the first time fragment is created
 
     private FragmentHomeBinding binding; // Binding for the home fragment layout
 
+    private SavedSearch savedSearch; // Full-text search over all saved content
+
+    private SearchResultAdapter resultAdapter; // Adapter of the search results
+
+    private DebouncedTextWatcher searchWatcher; // Searches once typing pauses
+
     /**
      * Called to have the fragment instantiate its user interface view. This is where
      * you inflate a layout XML file and return the View hierarchy. You can also perform
@@ -67,9 +91,88 @@ public class HomeFragment extends Fragment {
         final TextView textView = binding.textHome;
         homeViewModel.getText().observe(getViewLifecycleOwner(), textView::setText);
 
+        // Set up the search box over every saved photo, movie, event and match
+        savedSearch = SavedSearch.getInstance(requireContext());
+        resultAdapter = new SearchResultAdapter(this::openResult);
+        binding.recyclerViewResults.setLayoutManager(new LinearLayoutManager(getContext()));
+        binding.recyclerViewResults.setAdapter(resultAdapter);
+        searchWatcher = new DebouncedTextWatcher(SEARCH_DELAY_MS, 1) {
+            @Override
+            public void afterTextChanged(Editable s) {
+                super.afterTextChanged(s);
+                // A cleared box shows the introduction again at once
+                if (s.toString().trim().isEmpty()) {
+                    savedSearch.cancel();
+                    showResults(null);
+                }
+            }
+
+            @Override
+            protected void onTextSettled(String text) {
+                savedSearch.search(text, HomeFragment.this::showResults);
+            }
+        };
+        binding.editTextSearch.addTextChangedListener(searchWatcher);
+        // The search key searches at once instead of waiting for the pause
+        binding.editTextSearch.setOnEditorActionListener((v, actionId, event) -> {
+            if (actionId != EditorInfo.IME_ACTION_SEARCH) {
+                return false;
+            }
+            searchWatcher.cancel();
+            String text = v.getText().toString();
+            if (!text.trim().isEmpty()) {
+                savedSearch.search(text, this::showResults);
+            }
+            return true;
+        });
+
         return root;
     }
 
+    /**
+     * Shows the results of the latest search, or the introduction when nothing is searched.
+     *
+     * @param results The results, best first, or null to show the introduction.
+     */
+    private void showResults(List<SearchResult> results) {
+        if (binding == null) {
+            return;
+        }
+        boolean searching = results != null;
+        binding.textHome.setVisibility(searching ? View.GONE : View.VISIBLE);
+        binding.textViewNoResults.setVisibility(searching && results.isEmpty() ? View.VISIBLE : View.GONE);
+        binding.recyclerViewResults.setVisibility(searching && !results.isEmpty() ? View.VISIBLE : View.GONE);
+        resultAdapter.submitList(results);
+        binding.recyclerViewResults.scrollToPosition(0);
+    }
+
+    /**
+     * Opens the detail screen of a search result, where it can be viewed or deleted.
+     *
+     * @param result The tapped result.
+     */
+    private void openResult(SearchResult result) {
+        Fragment fragment;
+        switch (result.getKind()) {
+            case PHOTO:
+                fragment = new PexelsDetailFragment((Photo) result.getItem());
+                break;
+            case MOVIE:
+                fragment = new MovieDetailFragment((Movie) result.getItem());
+                break;
+            case EVENT:
+                fragment = new EventDetailFragment((Event) result.getItem());
+                break;
+            default:
+                fragment = new MatchDetailFragment((Match) result.getItem());
+                break;
+        }
+        requireActivity().getSupportFragmentManager().beginTransaction()
+                .replace(R.id.nav_host_fragment_content_main, fragment)
+                .addToBackStack(null)
+                .commit();
+    }
+
     /**
      * Called when the view previously created by onCreateView has been detached from the fragment.
      * The next time the fragment needs to be displayed, a new view will be created.
@@ -77,6 +180,9 @@ public class HomeFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        searchWatcher.cancel();
+        savedSearch.cancel(); // Drop a running search so its results are not delivered
+        binding.recyclerViewResults.setAdapter(null);
         binding = null; // Nullify binding to avoid memory leaks
     }
 }
@@ -0,0 +1,133 @@
+package com.example.finalproject.ui.home;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.finalproject.R;
+import com.example.finalproject.data.search.SearchResult;
+import com.example.finalproject.image.ImageLoader;
+
+import java.util.Objects;
+
+/**
+ * The SearchResultAdapter class displays the saved photos, movies, events and matches found by
+ * the search box of the home screen, best match first.
+ */
+public class SearchResultAdapter extends ListAdapter<SearchResult, SearchResultAdapter.ResultViewHolder> {
+
+    private final OnResultClickListener listener; // Opens the detail screen of a tapped result
+
+    // Identifies results by their table and row id and compares the fields shown in a row
+    private static final DiffUtil.ItemCallback<SearchResult> DIFF_CALLBACK = new DiffUtil.ItemCallback<SearchResult>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SearchResult oldItem, @NonNull SearchResult newItem) {
+            return oldItem.getKind() == newItem.getKind() && oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SearchResult oldItem, @NonNull SearchResult newItem) {
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getDetail(), newItem.getDetail())
+                    && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl());
+        }
+    };
+
+    /**
+     * Constructs a new SearchResultAdapter.
+     *
+     * @param listener Called when a result is tapped.
+     */
+    public SearchResultAdapter(OnResultClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+    }
+
+    /**
+     * Called when RecyclerView needs a new RecyclerView.ViewHolder of the given type to represent an item.
+     *
+     * @param parent   The ViewGroup into which the new View will be added after it is bound to an adapter position.
+     * @param viewType The view type of the new View.
+     * @return A new ResultViewHolder that holds a View of the given view type.
+     */
+    @NonNull
+    @Override
+    public ResultViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.home_item_result, parent, false);
+        return new ResultViewHolder(view);
+    }
+
+    /**
+     * Called by RecyclerView to display the data at the specified position.
+     *
+     * @param holder   The ViewHolder that should be updated to represent the contents of the item at the given position in the data set.
+     * @param position The position of the item within the adapter's data set.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ResultViewHolder holder, int position) {
+        SearchResult result = getItem(position);
+
+        ImageLoader.loadThumbnail(result.getImageUrl(), holder.imageViewThumbnail);
+        holder.textViewTitle.setText(result.getTitle());
+        String detail = result.getDetail();
+        holder.textViewDetail.setText(detail == null || detail.isEmpty()
+                ? labelOf(result.getKind())
+                : String.format("%s : %s", labelOf(result.getKind()), detail));
+
+        holder.itemView.setOnClickListener(v -> listener.onResultClick(result));
+    }
+
+    /**
+     * Returns the name shown for the table a result comes from.
+     *
+     * @param kind The kind of the result.
+     * @return The label.
+     */
+    private static String labelOf(SearchResult.Kind kind) {
+        switch (kind) {
+            case PHOTO:
+                return "Photo";
+            case MOVIE:
+                return "Movie";
+            case EVENT:
+                return "Event";
+            default:
+                return "Match";
+        }
+    }
+
+    /**
+     * ViewHolder class to hold the views of each item in the RecyclerView.
+     */
+    static class ResultViewHolder extends RecyclerView.ViewHolder {
+        ImageView imageViewThumbnail;
+        TextView textViewTitle;
+        TextView textViewDetail;
+
+        public ResultViewHolder(@NonNull View itemView) {
+            super(itemView);
+            imageViewThumbnail = itemView.findViewById(R.id.imageViewThumbnail);
+            textViewTitle = itemView.findViewById(R.id.textViewTitle);
+            textViewDetail = itemView.findViewById(R.id.textViewDetail);
+        }
+    }
+
+    /**
+     * Interface definition for a callback invoked when a search result is tapped.
+     */
+    public interface OnResultClickListener {
+        /**
+         * Called when a result is tapped.
+         *
+         * @param result The tapped result.
+         */
+        void onResultClick(SearchResult result);
+    }
+}
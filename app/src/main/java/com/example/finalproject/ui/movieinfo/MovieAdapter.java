@@ -8,33 +8,88 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.FragmentManager;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
 import com.example.finalproject.data.movieinfo.Movie;
-import com.squareup.picasso.Picasso;
+import com.example.finalproject.data.saved.SavedKeyIndex;
+import com.example.finalproject.image.ImageLoader;
+import com.example.finalproject.ui.common.RowSelection;
+import com.example.finalproject.ui.common.StableIds;
 
 import java.util.List;
+import java.util.Objects;
 
 
 /**
  * The MovieAdapter class is responsible for managing and displaying movie data in a RecyclerView.
- * It extends RecyclerView.Adapter to provide data to the RecyclerView.
+ * It extends ListAdapter to provide data to the RecyclerView.
  */
-public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHolder> {
+public class MovieAdapter extends ListAdapter<Movie, MovieAdapter.MovieViewHolder> {
 
-    private List<Movie> movies; // List to hold movie data
     private FragmentManager fragmentManager; // FragmentManager to handle fragment transactions
+    private final RowSelection selection = new RowSelection(this); // Rows selected for bulk actions
+    private final SavedKeyIndex<Movie> savedMovies; // Keys of the saved movies, for the saved badge
+    // Rebinds the saved badge of every row when movies are saved or deleted
+    private final SavedKeyIndex.Listener savedListener = () ->
+            notifyItemRangeChanged(0, getItemCount(), RowSelection.PAYLOAD);
+
+    // Identifies movies by their title and year and compares the fields shown in a row
+    private static final DiffUtil.ItemCallback<Movie> DIFF_CALLBACK = new DiffUtil.ItemCallback<Movie>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Movie oldItem, @NonNull Movie newItem) {
+            return oldItem.getId() == newItem.getId()
+                    && Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getYear(), newItem.getYear());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Movie oldItem, @NonNull Movie newItem) {
+            return Objects.equals(oldItem.getRuntime(), newItem.getRuntime())
+                    && Objects.equals(oldItem.getPosterUrl(), newItem.getPosterUrl());
+        }
+    };
 
     /**
-     * Constructs a new MovieAdapter with the given list of movies and FragmentManager.
+     * Constructs a new MovieAdapter. Lists passed to submitList are diffed on the shared CPU
+     * executor and only the rows that changed are rebound.
      *
-     * @param movies           List of movies to be displayed.
-     * @param fragmentManager FragmentManager to handle fragment transactions.
+     * @param fragmentManager The FragmentManager for managing fragments.
+     * @param savedMovies Keys of the saved movies, used to mark rows that are already saved.
      */
-    public MovieAdapter(List<Movie> movies, FragmentManager fragmentManager) {
-        this.movies = movies;
+    public MovieAdapter(FragmentManager fragmentManager, SavedKeyIndex<Movie> savedMovies) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().cpu())
+                .build());
         this.fragmentManager = fragmentManager;
+        this.savedMovies = savedMovies;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Starts following the saved movies while the adapter is shown.
+     *
+     * @param recyclerView The RecyclerView the adapter was attached to.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        savedMovies.addListener(savedListener);
+    }
+
+    /**
+     * Stops following the saved movies, so the process-wide index does not keep the adapter.
+     *
+     * @param recyclerView The RecyclerView the adapter was detached from.
+     */
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        savedMovies.removeListener(savedListener);
     }
 
     /**
@@ -52,6 +107,24 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHol
         return new MovieViewHolder(view);
     }
 
+    /**
+     * Rebinds only the selected state and saved badge of a row when the rebind carries
+     * {@link RowSelection#PAYLOAD}; otherwise binds the whole row.
+     *
+     * @param holder   The ViewHolder to update.
+     * @param position The position of the item within the adapter's data set.
+     * @param payloads The payloads of the rebind; empty for a full bind.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull MovieViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.itemView.setActivated(selection.isSelected(getItemId(position)));
+            holder.textViewSaved.setVisibility(savedMovies.contains(getItem(position)) ? View.VISIBLE : View.GONE);
+        }
+    }
+
     /**
      * Called by RecyclerView to display the data at the specified position.
      *
@@ -60,31 +133,60 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHol
      */
     @Override
     public void onBindViewHolder(@NonNull MovieViewHolder holder, int position) {
-        Movie movie = movies.get(position);
+        Movie movie = getItem(position);
 
-        // Load image using Picasso library
-        Picasso.get().load(movie.getPosterUrl()).into(holder.imageViewPoster);
+        // Load image decoded to the row's size
+        ImageLoader.loadThumbnail(movie.getPosterUrl(), holder.imageViewPoster);
         holder.textViewTitle.setText(movie.getTitle());
         holder.textViewYear.setText(String.format("Year : %s", movie.getYear()));
         holder.textViewRuntime.setText(String.format("Runtime : %s", movie.getRuntime()));
 
+        // Highlight the row if it is selected
+        holder.itemView.setActivated(selection.isSelected(getItemId(position)));
+        // Mark the row if the movie is already saved; the index is in memory, so this does no I/O
+        holder.textViewSaved.setVisibility(savedMovies.contains(movie) ? View.VISIBLE : View.GONE);
+
         // Set onClickListener to open MovieDetailFragment when item is clicked
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                openMovieDetailFragment(movie);
+                if (selection.isSelecting()) {
+                    selection.toggle(holder.getBindingAdapterPosition());
+                } else {
+                    openMovieDetailFragment(movie);
+                }
+            }
+        });
+
+        // Long press starts or extends a selection
+        holder.itemView.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                selection.toggle(holder.getBindingAdapterPosition());
+                return true;
             }
         });
     }
 
     /**
-     * Returns the total number of items in the data set held by the adapter.
+     * Returns a stable ID derived from the item's title and year.
      *
-     * @return The total number of items in this adapter.
+     * @param position The position of the item within the adapter's data set.
+     * @return The stable ID of the item.
      */
     @Override
-    public int getItemCount() {
-        return movies.size();
+    public long getItemId(int position) {
+        Movie movie = getItem(position);
+        return StableIds.of(movie.getTitle() + "|" + movie.getYear(), movie.getId());
+    }
+
+    /**
+     * Returns the multi-selection of this adapter's rows.
+     *
+     * @return The selection.
+     */
+    public RowSelection getSelection() {
+        return selection;
     }
 
     /**
@@ -95,6 +197,7 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHol
         TextView textViewTitle;
         TextView textViewYear;
         TextView textViewRuntime;
+        TextView textViewSaved;
 
         public MovieViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -102,6 +205,7 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHol
             textViewTitle = itemView.findViewById(R.id.textViewTitle);
             textViewYear = itemView.findViewById(R.id.textViewYear);
             textViewRuntime = itemView.findViewById(R.id.textViewRuntime);
+            textViewSaved = itemView.findViewById(R.id.textViewSaved);
         }
     }
 
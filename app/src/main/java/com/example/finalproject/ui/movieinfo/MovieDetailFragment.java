@@ -2,13 +2,11 @@ package com.example.finalproject.ui.movieinfo;
 
 import android.app.AlertDialog;
 import android.content.Context;
-import android.graphics.Bitmap;
 import android.os.Bundle;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.room.Room;
 
 import android.view.LayoutInflater;
 import android.view.View;
@@ -16,28 +14,19 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
-import android.widget.Toast;
 
-import com.android.volley.RequestQueue;
-import com.android.volley.Response;
-import com.android.volley.toolbox.ImageRequest;
-import com.android.volley.toolbox.Volley;
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.images.ImageStore;
 import com.example.finalproject.data.movieinfo.Movie;
 import com.example.finalproject.data.movieinfo.MovieDao;
-import com.example.finalproject.data.movieinfo.MovieDatabase;
+import com.example.finalproject.data.saved.SavedKeyIndex;
+import com.example.finalproject.image.ImageLoader;
+import com.example.finalproject.ui.common.ImageSaveController;
 import com.google.android.material.snackbar.Snackbar;
-import com.squareup.picasso.Picasso;
-
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 
 /**
@@ -58,16 +47,18 @@ public class MovieDetailFragment extends Fragment {
     private Button buttonRemove; // Button to remove the movie
 
     private MovieDao movieDao; // Data Access Object for Movie entity
+    private SavedKeyIndex<Movie> savedMovies; // Keys of the saved movies, updated on save and delete
     private Context thiscontext; // Context of the fragment
 
-    protected RequestQueue queue = null;
+    private ImageSaveController imageSaver; // Streams the poster to storage when saving
+    private ImageStore imageStore; // Content-addressed store holding saved images
 
     /**
      * Constructs a new MovieDetailFragment with the given movie.
      *
      * @param movie The movie object to display details.
      */
-    protected MovieDetailFragment(Movie movie) {
+    public MovieDetailFragment(Movie movie) {
         this.movie = movie;
     }
 
@@ -87,10 +78,10 @@ public class MovieDetailFragment extends Fragment {
 
         thiscontext = getActivity().getApplicationContext();
 
-        // Initialize Room database and DAO
-        MovieDatabase db = Room.databaseBuilder(thiscontext,
-                MovieDatabase.class, "movie").build();
+        // Get the shared Room database and DAO
+        AppDatabase db = AppDatabase.getInstance(thiscontext);
         movieDao = db.movieDAO();
+        savedMovies = db.savedMovies();
 
         // Initialize views
         imageViewPoster = view.findViewById(R.id.imageViewPoster);
@@ -102,9 +93,11 @@ public class MovieDetailFragment extends Fragment {
         textViewPlot = view.findViewById(R.id.textViewPlot);
         buttonRemove = view.findViewById(R.id.buttonRemove);
         buttonSave = view.findViewById(R.id.buttonSave);
+        imageSaver = new ImageSaveController(buttonSave);
+        imageStore = ImageStore.getInstance(thiscontext);
 
         // Load and display movie details
-        Picasso.get().load(movie.getPosterUrl()).into(imageViewPoster);
+        ImageLoader.loadFitted(movie.getPosterUrl(), imageViewPoster);
         textViewTitle.setText(movie.getTitle());
         textViewYear.setText(String.format("Year : %s", movie.getYear()));
         textViewRating.setText(String.format("Rating : %s", movie.getRating()));
@@ -131,62 +124,53 @@ public class MovieDetailFragment extends Fragment {
                         .setNegativeButton("No", (dialog, cl) -> {})
                         .setPositiveButton("Yes", (dialog, cl) -> {
                             // Delete the movie from database
-                            Executor thread = Executors.newSingleThreadExecutor();
-                            thread.execute(() -> movieDao.delete(movie));
+                            Executor thread = AppExecutors.getInstance().diskIO();
+                            thread.execute(() -> {
+                                // Drop this row's reference to its stored image
+                                if (movieDao.delete(movie) > 0) {
+                                    imageStore.release(movie.getPosterUrl());
+                                    savedMovies.remove(movie);
+                                }
+                            });
                             // Pop back stack to return to previous fragment
                             getActivity().getSupportFragmentManager().popBackStack();
                             // Display undo Snackbar
                             Snackbar.make(view, "You deleted it.", Snackbar.LENGTH_LONG)
                                     .setAction("Undo", click -> {
                                         // Insert the movie back to database
-                                        thread.execute(() -> movieDao.insert(movie));
+                                        thread.execute(() -> {
+                                            // Skipped if the movie was saved again in the meantime
+                                            if (movieDao.insert(movie) != -1) {
+                                                imageStore.acquireExisting(movie.getPosterUrl());
+                                                savedMovies.add(movie);
+                                            }
+                                        });
                                     })
                                     .show();
                         }).create().show();
             }
         });
 
-        queue = Volley.newRequestQueue(getActivity().getApplicationContext());
-
         return view;
     }
 
     /**
-     * Method to save the movie poster to internal storage.
+     * Streams the poster to internal storage and then saves the movie, or cancels a save that
+     * is already running.
      */
     private void saveMovieToStorage() {
-        // Get the directory for the app's private internal storage directory.
-        File directory = requireContext().getFilesDir();
-
-        // Generate unique filename for the image
-        String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
-        String imageFileName = "JPEG_" + timeStamp + ".jpg";
-
-        // Request image using Volley library
-        String imageUrl = movie.getPosterUrl();
-        ImageRequest imgReq = new ImageRequest(imageUrl, new Response.Listener<Bitmap>() {
-            @Override
-            public void onResponse(Bitmap bitmap) {
-                try {
-                    // Create a new file in the directory with the generated filename.
-                    File file = new File(directory, imageFileName);
-                    // Write the bitmap to the file.
-                    FileOutputStream fos = new FileOutputStream(file);
-                    bitmap.compress(Bitmap.CompressFormat.JPEG, 100, fos);
-                    fos.close();
-                    // Insert the movie to database
-                    Executor thread = Executors.newSingleThreadExecutor();
-                    thread.execute(() -> movieDao.insert(movie));
-                    // Notify the user that the image has been saved.
-                    Toast.makeText(requireContext(), "Poster saved to " + file.getAbsolutePath(), Toast.LENGTH_SHORT).show();
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+        imageSaver.saveOrCancel(movie.getPosterUrl(), () -> {
+            // Save the movie once its image is on disk. Saving a movie that is already saved refreshes
+            // its row instead of adding a duplicate, and the old row's image reference is given back
+            Executor thread = AppExecutors.getInstance().diskIO();
+            thread.execute(() -> {
+                Movie previous = movieDao.upsert(movie);
+                if (previous != null) {
+                    imageStore.release(previous.getPosterUrl());
+                } else {
+                    savedMovies.add(movie);
                 }
-            }
-        }, 1000, 1000, ImageView.ScaleType.CENTER, null, (error) -> {
+            });
         });
-        queue.add(imgReq);
     }
 }
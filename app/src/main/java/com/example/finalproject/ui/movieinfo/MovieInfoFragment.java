@@ -13,7 +13,6 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import androidx.room.Room;
 
 import android.view.LayoutInflater;
 import android.view.MenuItem;
@@ -24,26 +23,29 @@ import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.Response;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.StringRequest;
-import com.android.volley.toolbox.Volley;
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.cache.QueryRepository;
+import com.example.finalproject.data.cache.QueryResult;
+import com.example.finalproject.data.images.ImageStore;
 import com.example.finalproject.data.movieinfo.Movie;
 import com.example.finalproject.data.movieinfo.MovieDao;
-import com.example.finalproject.data.movieinfo.MovieDatabase;
+import com.example.finalproject.data.movieinfo.MovieRepository;
+import com.example.finalproject.data.saved.SavedKeyIndex;
+import com.example.finalproject.network.RequestKeys;
+import com.example.finalproject.ui.common.BulkActionBar;
+import com.example.finalproject.ui.common.DebouncedTextWatcher;
+import com.example.finalproject.ui.common.EndlessScrollListener;
+import com.example.finalproject.ui.common.KeysetPageLoader;
+import com.example.finalproject.ui.common.ViewportPrefetcher;
+import com.google.android.material.snackbar.Snackbar;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * The MovieInfoFragment class represents a fragment for displaying movie information and performing related actions.
@@ -58,6 +60,13 @@ public class MovieInfoFragment extends Fragment {
     private List<Movie> movieList; // List to hold movies
     private MovieAdapter movieAdapter; // Adapter for RecyclerView
     private MovieDao movieDao; // Data Access Object for Movie entity
+    private SavedKeyIndex<Movie> savedMovies; // Keys of the saved movies, updated on insert and delete
+    private KeysetPageLoader<Movie> savedLoader; // Loads saved movies page by page
+    private BulkActionBar bulkBar; // Saves or deletes the rows selected with a long press
+    private final List<Lookup> runningLookups = new ArrayList<>(); // Lookups that may still deliver
+    private Lookup latestLookup; // Most recent title lookup
+    private DebouncedTextWatcher searchWatcher; // Looks the title up once the user pauses typing
+    private ViewportPrefetcher detailPrefetcher; // Warms the cache with visible rows' posters
 
     // SharedPreferences file name
     private static final String PREFS_NAME = "MoviesTerms";
@@ -94,9 +103,10 @@ public class MovieInfoFragment extends Fragment {
             }
         });
 
-        // Initialize Room database and DAO
-        MovieDatabase db = Room.databaseBuilder(getContext(), MovieDatabase.class, "movie").build();
+        // Get the shared Room database and DAO
+        AppDatabase db = AppDatabase.getInstance(requireContext());
         movieDao = db.movieDAO();
+        savedMovies = db.savedMovies();
 
         // Set author and version information
         TextView textViewAuthor = getActivity().findViewById(R.id.textViewAuthor);
@@ -115,19 +125,52 @@ public class MovieInfoFragment extends Fragment {
 
         // Initialize movie list and adapter
         movieList = new ArrayList<>();
-        movieAdapter = new MovieAdapter(movieList, fragmentManager);
+        movieAdapter = new MovieAdapter(fragmentManager, savedMovies);
         recyclerViewMovies.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerViewMovies.setAdapter(movieAdapter);
+        // Prefetch the detail image of rows that stay on screen, so detail screens open ready
+        detailPrefetcher = ViewportPrefetcher.attach(recyclerViewMovies,
+                position -> movieAdapter.getCurrentList().get(position).getPosterUrl());
+
+        // Load saved movies a screen or two at a time instead of the whole table
+        savedLoader = new KeysetPageLoader<>(movieDao::getMoviesAfter, movieDao::getMoviesBefore,
+                Movie::getId, rows -> {
+            movieList.clear();
+            movieList.addAll(rows);
+            movieAdapter.submitList(new ArrayList<>(movieList));
+        });
+
+        // Save or delete the rows selected with a long press, each batch in one transaction
+        bulkBar = new BulkActionBar(view, movieAdapter.getSelection(), new BulkActionBar.Actions() {
+            @Override
+            public void onSaveSelected(List<Integer> positions) {
+                saveSelected(positions);
+            }
+
+            @Override
+            public void onDeleteSelected(List<Integer> positions) {
+                deleteSelected(positions);
+            }
+        });
+
+        recyclerViewMovies.addOnScrollListener(new EndlessScrollListener(getVisibleRowCount()) {
+            @Override
+            public void onLoadMore() {
+                savedLoader.loadMore();
+            }
+
+            @Override
+            public void onLoadPrevious() {
+                savedLoader.loadPrevious();
+            }
+        });
 
         // Set onClickListener for search button
         buttonSearch.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                String searchTerm = editTextSearch.getText().toString();
-                // Save search term to SharedPreferences
-                saveSearchTerm(searchTerm);
-                // Make API request with search term
-                makeApiRequest(searchTerm);
+                searchWatcher.cancel(); // The button searches now; drop a pending typed lookup
+                search(editTextSearch.getText().toString(), false);
             }
         });
 
@@ -135,14 +178,10 @@ public class MovieInfoFragment extends Fragment {
         buttonShowSaved.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                // Clear movie list
-                movieList.clear();
-                // Fetch saved movies from database and update the list
-                Executor thread = Executors.newSingleThreadExecutor();
-                thread.execute(() -> {
-                    movieList.addAll(movieDao.getAllMovies());
-                    getActivity().runOnUiThread(() -> recyclerViewMovies.setAdapter(movieAdapter));
-                });
+                // Show the first page of saved movies; later pages load on scroll
+                searchWatcher.cancel();
+                cancelLookups(); // Keep lookup results from being added to the saved rows
+                savedLoader.start(getVisibleRowCount() * 2);
             }
         });
 
@@ -152,19 +191,188 @@ public class MovieInfoFragment extends Fragment {
             editTextSearch.setText(savedSearchTerm);
         }
 
+        // Look the title up as the user types, once they pause; added after restoring the term
+        // so that opening the screen does not start a lookup
+        searchWatcher = new DebouncedTextWatcher() {
+            @Override
+            protected void onTextSettled(String text) {
+                search(text, true);
+            }
+        };
+        editTextSearch.addTextChangedListener(searchWatcher);
+
         return view;
     }
 
+    /**
+     * Called when the view is destroyed. Cancels the pending typed lookup and every running
+     * request, so no callback runs for a screen the user has left.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        bulkBar.cancel();
+        recyclerViewMovies.setAdapter(null); // Detaches the adapter from the saved-movie index
+        detailPrefetcher.detach();
+        searchWatcher.cancel();
+        cancelLookups();
+        savedLoader.stop();
+    }
+
+    /**
+     * Method to save the search term and look it up.
+     *
+     * @param searchTerm The title to look up.
+     * @param typed      True if the lookup was started by typing rather than the button.
+     */
+    private void search(String searchTerm, boolean typed) {
+        // Save search term to SharedPreferences
+        saveSearchTerm(searchTerm);
+        savedLoader.stop(); // Replace saved rows with search results
+        makeApiRequest(searchTerm, typed);
+    }
+
+    /**
+     * Method to stop every running lookup.
+     */
+    private void cancelLookups() {
+        for (Lookup lookup : runningLookups) {
+            lookup.subscription.cancel();
+        }
+        runningLookups.clear();
+        latestLookup = null;
+    }
+
+    /**
+     * Method to save the selected movies that are not saved yet. Their images are stored as one
+     * batch, then every movie whose image was stored is inserted in one transaction.
+     *
+     * @param positions Adapter positions of the selected rows.
+     */
+    private void saveSelected(List<Integer> positions) {
+        List<Movie> movies = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (int position : positions) {
+            Movie movie = movieAdapter.getCurrentList().get(position);
+            // Saved rows have a database ID; search results that are saved are in the index
+            if (movie.getId() == 0 && !savedMovies.contains(movie)) {
+                movies.add(movie);
+                urls.add(movie.getPosterUrl());
+            }
+        }
+        if (movies.isEmpty()) {
+            movieAdapter.getSelection().clear();
+            Toast.makeText(requireContext(), "The selected movies are already saved", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        bulkBar.storeImages(urls, stored -> {
+            // Skip the movies whose image could not be stored
+            List<Movie> ready = new ArrayList<>();
+            for (Movie movie : movies) {
+                String url = movie.getPosterUrl();
+                if (url == null || url.isEmpty() || stored.contains(url)) {
+                    ready.add(movie);
+                }
+            }
+            ImageStore imageStore = ImageStore.getInstance(requireContext());
+            Context appContext = requireContext().getApplicationContext();
+            AppExecutors executors = AppExecutors.getInstance();
+            executors.diskIO().execute(() -> {
+                // Movies that are already saved are skipped; give back their image references
+                long[] rowIds = movieDao.insertAll(ready);
+                List<Movie> inserted = new ArrayList<>();
+                List<String> unused = new ArrayList<>();
+                for (int i = 0; i < rowIds.length; i++) {
+                    if (rowIds[i] == -1) {
+                        unused.add(ready.get(i).getPosterUrl());
+                    } else {
+                        inserted.add(ready.get(i));
+                    }
+                }
+                imageStore.releaseAll(unused);
+                savedMovies.addAll(inserted);
+                // Report what was written, not what was asked for
+                executors.mainThread().execute(() -> Toast.makeText(appContext,
+                        "Saved " + inserted.size() + " movies", Toast.LENGTH_SHORT).show());
+            });
+            movieAdapter.getSelection().clear();
+        });
+    }
+
+    /**
+     * Method to delete the selected saved movies in one transaction, with an option to undo.
+     *
+     * @param positions Adapter positions of the selected rows.
+     */
+    private void deleteSelected(List<Integer> positions) {
+        List<Movie> movies = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (int position : positions) {
+            Movie movie = movieAdapter.getCurrentList().get(position);
+            if (movie.getId() != 0) { // Only saved rows can be deleted
+                movies.add(movie);
+                urls.add(movie.getPosterUrl());
+            }
+        }
+        movieAdapter.getSelection().clear();
+        if (movies.isEmpty()) {
+            Toast.makeText(requireContext(), "Only saved movies can be deleted", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        ImageStore imageStore = ImageStore.getInstance(requireContext());
+        Executor thread = AppExecutors.getInstance().diskIO();
+        thread.execute(() -> {
+            // Drop the rows' references to their stored images; if some rows were already gone,
+            // keep the references rather than release an image another row still uses
+            int deleted = movieDao.deleteAll(movies);
+            savedMovies.removeAll(movies);
+            if (deleted == movies.size()) {
+                imageStore.releaseAll(urls);
+            }
+        });
+        savedLoader.remove(movies);
+        // Show undo option with Snackbar
+        Snackbar.make(recyclerViewMovies, "You deleted " + movies.size() + " movies.", Snackbar.LENGTH_LONG)
+                .setAction("Undo", click -> {
+                    // Insert the movies back in one transaction
+                    thread.execute(() -> {
+                        // Movies saved again in the meantime are skipped
+                        long[] rowIds = movieDao.insertAll(movies);
+                        List<Movie> restored = new ArrayList<>();
+                        List<String> restoredUrls = new ArrayList<>();
+                        for (int i = 0; i < rowIds.length; i++) {
+                            if (rowIds[i] != -1) {
+                                restored.add(movies.get(i));
+                                restoredUrls.add(urls.get(i));
+                            }
+                        }
+                        imageStore.acquireExistingAll(restoredUrls);
+                        savedMovies.addAll(restored);
+                    });
+                    savedLoader.restore(movies);
+                })
+                .show();
+    }
+
+    /**
+     * Method to estimate how many rows fit on screen.
+     */
+    private int getVisibleRowCount() {
+        int rowHeight = getResources().getDimensionPixelSize(R.dimen.movie_row_height);
+        return EndlessScrollListener.estimateVisibleRows(recyclerViewMovies, rowHeight);
+    }
+
     /**
      * Method to show AlertDialog with usage instructions.
      */
     private void showAlertDialog() {
         AlertDialog.Builder builder = new AlertDialog.Builder(getActivity());
         builder.setTitle("How To Use")
-                .setMessage("1: To get movies list, first type search term and click on search button\n" +
+                .setMessage("1: To get movies list, type search term; results appear as you type, or click on search button\n" +
                         "2: To see the saved movies, click on 'Show Saved' button\n" +
                         "3: To see more details, click on a movie row\n" +
-                        "4: You also have options to save and remove the movie in detailed view")
+                        "4: You also have options to save and remove the movie in detailed view\n" +
+                        "5: Long-press rows to select several movies, then save or delete them all at once with the buttons above the list")
                 .setPositiveButton("OK", null) // You can add buttons and listeners as needed
                 .show();
     }
@@ -192,47 +400,76 @@ public class MovieInfoFragment extends Fragment {
     }
 
     /**
-     * Method to make API request with the provided search term.
+     * Method to make API request with the provided search term. Lookups started by the button
+     * add a row each; a lookup started by typing is provisional and is replaced, row and request,
+     * by the next one the user types.
      *
      * @param searchTerm The search term to be used in the API request.
+     * @param typed      True if the lookup was started by typing rather than the button.
      */
-    private void makeApiRequest(String searchTerm) {
-        // Instantiate the RequestQueue.
-        RequestQueue queue = Volley.newRequestQueue(requireContext());
-
-        // Define the URL with the search term.
-        String url;
-        try {
-            url = "https://www.omdbapi.com/?apikey=81b1f826&t=" + URLEncoder.encode(searchTerm, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+    private void makeApiRequest(String searchTerm, boolean typed) {
+        String key = RequestKeys.normalizeTerm(searchTerm);
+        if (latestLookup != null && latestLookup.key.equals(key)
+                && (typed || latestLookup.subscription.isActive())) {
+            // The same lookup is running or, while typing, already shown; adding it twice would
+            // duplicate the row. A button press keeps the row the typed lookup added.
+            latestLookup.typed &= typed;
+            return;
+        }
+        if (latestLookup != null && latestLookup.typed) {
+            latestLookup.discard(); // The user typed past it
         }
+        runningLookups.removeIf(lookup -> !lookup.subscription.isActive());
+        latestLookup = new Lookup(key, typed);
+        // Show the stored lookup at once, then refresh it from OMDb in the background
+        latestLookup.subscription = MovieRepository.getInstance(requireContext())
+                .findByTitle(searchTerm, latestLookup);
+        runningLookups.add(latestLookup);
+    }
 
-        // Request a string response from the provided URL.
-        StringRequest stringRequest = new StringRequest(Request.Method.GET, url,
-                new Response.Listener<String>() {
-                    @Override
-                    public void onResponse(String response) {
-                        // Parse the JSON response and update the movieList.
-                        try {
-                            JSONObject jsonResponse = new JSONObject(response);
-                            Movie movie = new Movie(jsonResponse);
-                            movieList.add(movie);
-                            // Notify adapter of changes
-                            movieAdapter.notifyDataSetChanged();
-                        } catch (JSONException e) {
-                            e.printStackTrace();
-                        }
-                    }
-                }, new Response.ErrorListener() {
-            @Override
-            public void onErrorResponse(VolleyError error) {
-                // Handle errors
-                Toast.makeText(requireContext(), "Error: " + error.getMessage(), Toast.LENGTH_LONG).show();
+    /**
+     * One title lookup and the rows it added to the list.
+     */
+    private class Lookup implements QueryRepository.Callback<Movie> {
+        private final String key; // Normalized title
+        private boolean typed; // True while the lookup may be replaced by the next typed one
+        private QueryRepository.Subscription subscription; // Handle of the running lookup
+        private List<Movie> added = Collections.emptyList(); // Rows this lookup added
+
+        Lookup(String key, boolean typed) {
+            this.key = key;
+            this.typed = typed;
+        }
+
+        /**
+         * Cancels the lookup and removes the rows it added.
+         */
+        void discard() {
+            subscription.cancel();
+            if (!added.isEmpty()) {
+                movieList.removeAll(added);
+                added = Collections.emptyList();
+                movieAdapter.submitList(new ArrayList<>(movieList));
             }
-        });
+        }
 
-        // Add the request to the RequestQueue.
-        queue.add(stringRequest);
+        @Override
+        public void onResult(QueryResult<Movie> result) {
+            // A refreshed result replaces the stored one instead of adding a second row
+            movieList.removeAll(added);
+            added = result.getItems();
+            movieList.addAll(added);
+            // Diff against the shown list so only the new row is bound
+            movieAdapter.submitList(new ArrayList<>(movieList));
+        }
+
+        @Override
+        public void onError(VolleyError error, boolean showingCached) {
+            if (showingCached) {
+                Toast.makeText(requireContext(), "Offline: showing saved result", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(requireContext(), "Error: " + error.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        }
     }
 }
@@ -3,14 +3,12 @@ package com.example.finalproject.ui.pexels;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.Intent;
-import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.room.Room;
 
 import android.view.LayoutInflater;
 import android.view.View;
@@ -18,29 +16,20 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
-import android.widget.Toast;
 
-import com.android.volley.Response;
-import com.android.volley.toolbox.ImageRequest;
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.images.ImageStore;
 import com.example.finalproject.data.pexels.Photo;
 import com.example.finalproject.data.pexels.PhotoDao;
-import com.example.finalproject.data.pexels.PhotoDatabase;
+import com.example.finalproject.data.saved.SavedKeyIndex;
+import com.example.finalproject.image.ImageLoader;
+import com.example.finalproject.ui.common.ImageSaveController;
 import com.google.android.material.snackbar.Snackbar;
-import com.squareup.picasso.Picasso;
-
-import com.android.volley.RequestQueue;
-import com.android.volley.toolbox.Volley;
-
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+
+
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 
 /**
@@ -56,15 +45,17 @@ public class PexelsDetailFragment extends Fragment {
     private TextView textViewDimensions; // TextView to display photo dimensions
     private Photo photo; // Photo object to display details
     private PhotoDao pDAO; // Data Access Object for Photo entity
+    private SavedKeyIndex<Photo> savedPhotos; // Keys of the saved photos, updated on save and delete
     private Context thiscontext; // Context of the fragment
-    protected RequestQueue queue = null; // RequestQueue for network requests
+    private ImageSaveController imageSaver; // Streams the original photo to storage when saving
+    private ImageStore imageStore; // Content-addressed store holding saved images
 
     /**
      * Constructs a new PexelsDetailFragment with the given photo.
      *
      * @param photo The photo object to display details.
      */
-    protected PexelsDetailFragment(Photo photo) {
+    public PexelsDetailFragment(Photo photo) {
         this.photo = photo;
     }
 
@@ -84,19 +75,22 @@ public class PexelsDetailFragment extends Fragment {
 
         thiscontext = getActivity().getApplicationContext();
 
-        // Initialize Room database and DAO
-        PhotoDatabase db = Room.databaseBuilder(thiscontext, PhotoDatabase.class, "pexels").build();
+        // Get the shared Room database and DAO
+        AppDatabase db = AppDatabase.getInstance(thiscontext);
         pDAO = db.photoDAO();
+        savedPhotos = db.savedPhotos();
 
         // Initialize views
         imageViewPicture = view.findViewById(R.id.imageViewPoster);
         textViewUrl = view.findViewById(R.id.textViewUrl);
         textViewDimensions = view.findViewById(R.id.textViewDimensions);
         buttonSave = view.findViewById(R.id.buttonSave);
+        imageSaver = new ImageSaveController(buttonSave);
+        imageStore = ImageStore.getInstance(thiscontext);
         buttonRemove = view.findViewById(R.id.buttonRemove);
 
         // Load and display photo details
-        Picasso.get().load(photo.getImageUrl()).into(imageViewPicture);
+        ImageLoader.loadFitted(photo.getImageUrl(), imageViewPicture);
         String dimensions = "Dimensions: " + photo.getWidth() + "x" + photo.getHeight();
         textViewUrl.setText(String.format("URL: %s",photo.getUrl()));
         textViewDimensions.setText(dimensions);
@@ -129,24 +123,32 @@ public class PexelsDetailFragment extends Fragment {
                         .setNegativeButton("No", (dialog, cl) -> {})
                         .setPositiveButton("Yes", (dialog, cl) -> {
                             // Delete the photo from database
-                            Executor thread = Executors.newSingleThreadExecutor();
+                            Executor thread = AppExecutors.getInstance().diskIO();
                             thread.execute(() -> {
-                                pDAO.delete(photo);
-                                // Pop back stack to return to previous fragment
-                                getActivity().getSupportFragmentManager().popBackStack();
-                                // Show Snackbar for undo option
-                                Snackbar.make(view, "You deleted it.", Snackbar.LENGTH_LONG)
-                                        .setAction("Undo", click -> {
-                                            thread.execute(() -> pDAO.insert(photo));
-                                        })
-                                        .show();
+                                // Drop this row's reference to its stored image
+                                if (pDAO.delete(photo) > 0) {
+                                    imageStore.release(photo.getImageUrl());
+                                    savedPhotos.remove(photo);
+                                }
                             });
+                            // Pop back stack to return to previous fragment
+                            getActivity().getSupportFragmentManager().popBackStack();
+                            // Show Snackbar for undo option
+                            Snackbar.make(view, "You deleted it.", Snackbar.LENGTH_LONG)
+                                    .setAction("Undo", click -> {
+                                        thread.execute(() -> {
+                                            // Skipped if the photo was saved again in the meantime
+                                            if (pDAO.insert(photo) != -1) {
+                                                imageStore.acquireExisting(photo.getImageUrl());
+                                                savedPhotos.add(photo);
+                                            }
+                                        });
+                                    })
+                                    .show();
                         }).create().show();
             }
         });
 
-        queue = Volley.newRequestQueue(getActivity().getApplicationContext());
-
         return view;
     }
 
@@ -161,43 +163,22 @@ public class PexelsDetailFragment extends Fragment {
     }
 
     /**
-     * Method to save the photo to internal storage.
+     * Streams the original photo to internal storage and then saves the photo, or cancels a save that
+     * is already running.
      */
     private void saveImageToStorage() {
-        // Get the directory for the app's private internal storage directory.
-        File directory = requireContext().getFilesDir();
-
-        // Generate a unique filename for the image.
-        String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
-        String imageFileName = "JPEG_" + timeStamp + ".jpg";
-
-        String imageUrl = photo.getImageUrl();
-        ImageRequest imgReq = new ImageRequest(imageUrl, new Response.Listener<Bitmap>() {
-            @Override
-            public void onResponse(Bitmap bitmap) {
-                try {
-                    // Create a new file in the directory with the generated filename.
-                    File file = new File(directory, imageFileName);
-                    // Write the bitmap to the file.
-                    FileOutputStream fos = new FileOutputStream(file);
-                    bitmap.compress(Bitmap.CompressFormat.JPEG, 100, fos);
-                    fos.close();
-
-                    // Insert the photo to database
-                    Executor thread = Executors.newSingleThreadExecutor();
-                    thread.execute(() -> pDAO.insert(photo));
-
-                    // Notify the user that the image has been saved.
-                    Toast.makeText(requireContext(), "Image saved to " + file.getAbsolutePath(), Toast.LENGTH_SHORT).show();
-
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+        imageSaver.saveOrCancel(photo.getImageUrl(), () -> {
+            // Save the photo once its image is on disk. Saving a photo that is already saved refreshes
+            // its row instead of adding a duplicate, and the old row's image reference is given back
+            Executor thread = AppExecutors.getInstance().diskIO();
+            thread.execute(() -> {
+                Photo previous = pDAO.upsert(photo);
+                if (previous != null) {
+                    imageStore.release(previous.getImageUrl());
+                } else {
+                    savedPhotos.add(photo);
                 }
-            }
-        }, photo.getWidth(), photo.getHeight(), ImageView.ScaleType.CENTER, null, (error) -> {
+            });
         });
-        queue.add(imgReq);
     }
 }
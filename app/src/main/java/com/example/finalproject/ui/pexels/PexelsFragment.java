@@ -12,7 +12,6 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import androidx.room.Room;
 
 import android.view.LayoutInflater;
 import android.view.MenuItem;
@@ -24,28 +23,28 @@ import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.widget.Toolbar;
 
-import com.android.volley.AuthFailureError;
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.Response;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.StringRequest;
-import com.android.volley.toolbox.Volley;
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.cache.QueryRepository;
+import com.example.finalproject.data.cache.QueryResult;
+import com.example.finalproject.data.images.ImageStore;
 import com.example.finalproject.data.pexels.Photo;
 import com.example.finalproject.data.pexels.PhotoDao;
-import com.example.finalproject.data.pexels.PhotoDatabase;
-
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.example.finalproject.data.pexels.PhotoRepository;
+import com.example.finalproject.data.saved.SavedKeyIndex;
+import com.example.finalproject.network.RequestKeys;
+import com.example.finalproject.ui.common.BulkActionBar;
+import com.example.finalproject.ui.common.DebouncedTextWatcher;
+import com.example.finalproject.ui.common.EndlessScrollListener;
+import com.example.finalproject.ui.common.KeysetPageLoader;
+import com.example.finalproject.ui.common.ViewportPrefetcher;
+import com.google.android.material.snackbar.Snackbar;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * The PexelsFragment class represents a fragment for displaying photos from the Pexels API.
@@ -60,6 +59,17 @@ public class PexelsFragment extends Fragment {
     private List<Photo> photoList; // List of photos
     private PhotoAdapter photoAdapter; // Adapter for RecyclerView
     private PhotoDao photoDao; // Data Access Object for Photo entity
+    private SavedKeyIndex<Photo> savedPhotos; // Keys of the saved photos, updated on insert and delete
+    private PhotoPager photoPager; // Loads search results page by page
+    private KeysetPageLoader<Photo> savedLoader; // Loads saved photos page by page
+    private BulkActionBar bulkBar; // Saves or deletes the rows selected with a long press
+    private DebouncedTextWatcher searchWatcher; // Searches once the user pauses typing
+    private ViewportPrefetcher detailPrefetcher; // Warms the cache with visible rows' full-size photos
+
+    // Pexels accepts at most 80 results per page
+    private static final int MAX_PAGE_SIZE = 80;
+    // Pages hold this many screens of rows so a fetch is not needed on every fling
+    private static final int SCREENS_PER_PAGE = 3;
 
     // SharedPreferences file name
     private static final String PREFS_NAME = "MyPrefs";
@@ -108,27 +118,70 @@ public class PexelsFragment extends Fragment {
         recyclerViewPhotos = view.findViewById(R.id.recyclerViewPhotos);
         buttonShowSaved = view.findViewById(R.id.buttonShowSaved);
 
-        // Initialize Room database and DAO
-        PhotoDatabase db = Room.databaseBuilder(getContext(), PhotoDatabase.class, "pexels").build();
+        // Get the shared Room database and DAO
+        AppDatabase db = AppDatabase.getInstance(requireContext());
         photoDao = db.photoDAO();
+        savedPhotos = db.savedPhotos();
 
         // Initialize FragmentManager
         FragmentManager fragmentManager = requireActivity().getSupportFragmentManager();
 
         // Initialize photo list and adapter
         photoList = new ArrayList<>();
-        photoAdapter = new PhotoAdapter(photoList, fragmentManager);
+        photoAdapter = new PhotoAdapter(fragmentManager, savedPhotos);
         recyclerViewPhotos.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerViewPhotos.setAdapter(photoAdapter);
+        // Prefetch the detail image of rows that stay on screen, so detail screens open ready
+        detailPrefetcher = ViewportPrefetcher.attach(recyclerViewPhotos,
+                position -> photoAdapter.getCurrentList().get(position).getImageUrl());
+
+        // Load saved photos a screen or two at a time instead of the whole table
+        savedLoader = new KeysetPageLoader<>(photoDao::getPhotosAfter, photoDao::getPhotosBefore,
+                Photo::getId, rows -> {
+            photoList.clear();
+            photoList.addAll(rows);
+            photoAdapter.submitList(new ArrayList<>(photoList));
+        });
+
+        // Save or delete the rows selected with a long press, each batch in one transaction
+        bulkBar = new BulkActionBar(view, photoAdapter.getSelection(), new BulkActionBar.Actions() {
+            @Override
+            public void onSaveSelected(List<Integer> positions) {
+                saveSelected(positions);
+            }
+
+            @Override
+            public void onDeleteSelected(List<Integer> positions) {
+                deleteSelected(positions);
+            }
+        });
+
+        // Load search results page by page, fetching the next page about one screen before the end
+        photoPager = new PhotoPager(this::makeApiRequest);
+        recyclerViewPhotos.addOnScrollListener(new EndlessScrollListener(getVisibleRowCount()) {
+            @Override
+            public void onLoadMore() {
+                // Only one of these is active at a time; the other ignores the call
+                photoPager.loadNext();
+                savedLoader.loadMore();
+            }
+
+            @Override
+            public void onLoadPrevious() {
+                photoPager.loadPrevious();
+                savedLoader.loadPrevious();
+            }
+        });
 
         // Handle search button click
         buttonSearch.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
+                searchWatcher.cancel(); // The button searches now; drop a pending typed search
                 String searchTerm = editTextSearch.getText().toString();
-                // Save search term to SharedPreferences
-                saveSearchTerm(searchTerm);
-                makeApiRequest(searchTerm);
+                if (!photoPager.isLoading(RequestKeys.normalizeTerm(searchTerm))) {
+                    startSearch(searchTerm);
+                }
             }
         });
 
@@ -136,12 +189,10 @@ public class PexelsFragment extends Fragment {
         buttonShowSaved.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                photoList.clear();
-                Executor thread = Executors.newSingleThreadExecutor();
-                thread.execute(() -> {
-                    photoList.addAll(photoDao.getAllPhotos());
-                    getActivity().runOnUiThread(() -> recyclerViewPhotos.setAdapter(photoAdapter));
-                });
+                // Show the first page of saved photos; later pages load on scroll
+                searchWatcher.cancel();
+                photoPager.reset(null, 0); // Stop paging search results
+                savedLoader.start(getVisibleRowCount() * 2);
             }
         });
 
@@ -151,17 +202,57 @@ public class PexelsFragment extends Fragment {
             editTextSearch.setText(savedSearchTerm);
         }
 
+        // Search as the user types, once they pause; added after restoring the term so that
+        // opening the screen does not start a search
+        searchWatcher = new DebouncedTextWatcher() {
+            @Override
+            protected void onTextSettled(String text) {
+                if (!photoPager.isSearching(RequestKeys.normalizeTerm(text))) {
+                    startSearch(text);
+                }
+            }
+        };
+        editTextSearch.addTextChangedListener(searchWatcher);
+
         return view;
     }
 
+    /**
+     * Called when the view is destroyed. Cancels the pending typed search and every running
+     * request, so no callback runs for a screen the user has left.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        bulkBar.cancel();
+        recyclerViewPhotos.setAdapter(null); // Detaches the adapter from the saved-photo index
+        detailPrefetcher.detach();
+        searchWatcher.cancel();
+        photoPager.reset(null, 0);
+        savedLoader.stop();
+    }
+
+    // Method to start a new paged search sized to the screen, replacing the current results
+    private void startSearch(String searchTerm) {
+        // Save search term to SharedPreferences
+        saveSearchTerm(searchTerm);
+        savedLoader.stop();
+        photoList.clear();
+        photoAdapter.submitList(new ArrayList<>(photoList));
+        // Resetting the pager cancels the requests of the previous search
+        photoPager.reset(RequestKeys.normalizeTerm(searchTerm), getPageSize());
+        photoPager.loadNext();
+    }
+
     // Method to show AlertDialog
     private void showAlertDialog() {
         AlertDialog.Builder builder = new AlertDialog.Builder(getActivity());
         builder.setTitle("How To Use")
-                .setMessage("1: To get photos list first type search term and click on search button\n" +
+                .setMessage("1: To get photos list type search term; results appear as you type, or click on search button\n" +
                         "2: To see the saved photo, click on Show Saved button\n" +
                         "3: To see more details click on the photo\n" +
-                        "4: You also have options to save and remove the photo in detailed view")
+                        "4: You also have options to save and remove the photo in detailed view\n" +
+                        "5: Long-press rows to select several photos, then save or delete them all at once with the buttons above the list")
                 .setPositiveButton("OK", null) // You can add buttons and listeners as needed
                 .show();
     }
@@ -180,52 +271,149 @@ public class PexelsFragment extends Fragment {
         return sharedPreferences.getString(SEARCH_TERM_KEY, null);
     }
 
-    // Method to make API request to Pexels for photos
-    private void makeApiRequest(String searchTerm) {
-        // Instantiate the RequestQueue.
-        RequestQueue queue = Volley.newRequestQueue(requireContext());
+    // Method to save the selected photos that are not saved yet, storing their images as one batch
+    // and inserting every photo whose image was stored in one transaction
+    private void saveSelected(List<Integer> positions) {
+        List<Photo> photos = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (int position : positions) {
+            Photo photo = photoAdapter.getCurrentList().get(position);
+            // Saved rows have a database ID; search results that are saved are in the index
+            if (photo.getId() == 0 && !savedPhotos.contains(photo)) {
+                photos.add(photo);
+                urls.add(photo.getImageUrl());
+            }
+        }
+        if (photos.isEmpty()) {
+            photoAdapter.getSelection().clear();
+            Toast.makeText(requireContext(), "The selected photos are already saved", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        bulkBar.storeImages(urls, stored -> {
+            // Skip the photos whose image could not be stored
+            List<Photo> ready = new ArrayList<>();
+            for (Photo photo : photos) {
+                String url = photo.getImageUrl();
+                if (url == null || url.isEmpty() || stored.contains(url)) {
+                    ready.add(photo);
+                }
+            }
+            ImageStore imageStore = ImageStore.getInstance(requireContext());
+            Context appContext = requireContext().getApplicationContext();
+            AppExecutors executors = AppExecutors.getInstance();
+            executors.diskIO().execute(() -> {
+                // Photos that are already saved are skipped; give back their image references
+                long[] rowIds = photoDao.insertAll(ready);
+                List<Photo> inserted = new ArrayList<>();
+                List<String> unused = new ArrayList<>();
+                for (int i = 0; i < rowIds.length; i++) {
+                    if (rowIds[i] == -1) {
+                        unused.add(ready.get(i).getImageUrl());
+                    } else {
+                        inserted.add(ready.get(i));
+                    }
+                }
+                imageStore.releaseAll(unused);
+                savedPhotos.addAll(inserted);
+                // Report what was written, not what was asked for
+                executors.mainThread().execute(() -> Toast.makeText(appContext,
+                        "Saved " + inserted.size() + " photos", Toast.LENGTH_SHORT).show());
+            });
+            photoAdapter.getSelection().clear();
+        });
+    }
+
+    // Method to delete the selected saved photos in one transaction, with an option to undo
+    private void deleteSelected(List<Integer> positions) {
+        List<Photo> photos = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (int position : positions) {
+            Photo photo = photoAdapter.getCurrentList().get(position);
+            if (photo.getId() != 0) { // Only saved rows can be deleted
+                photos.add(photo);
+                urls.add(photo.getImageUrl());
+            }
+        }
+        photoAdapter.getSelection().clear();
+        if (photos.isEmpty()) {
+            Toast.makeText(requireContext(), "Only saved photos can be deleted", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        ImageStore imageStore = ImageStore.getInstance(requireContext());
+        Executor thread = AppExecutors.getInstance().diskIO();
+        thread.execute(() -> {
+            // Drop the rows' references to their stored images; if some rows were already gone,
+            // keep the references rather than release an image another row still uses
+            int deleted = photoDao.deleteAll(photos);
+            savedPhotos.removeAll(photos);
+            if (deleted == photos.size()) {
+                imageStore.releaseAll(urls);
+            }
+        });
+        savedLoader.remove(photos);
+        // Show undo option with Snackbar
+        Snackbar.make(recyclerViewPhotos, "You deleted " + photos.size() + " photos.", Snackbar.LENGTH_LONG)
+                .setAction("Undo", click -> {
+                    // Insert the photos back in one transaction
+                    thread.execute(() -> {
+                        // Photos saved again in the meantime are skipped
+                        long[] rowIds = photoDao.insertAll(photos);
+                        List<Photo> restored = new ArrayList<>();
+                        List<String> restoredUrls = new ArrayList<>();
+                        for (int i = 0; i < rowIds.length; i++) {
+                            if (rowIds[i] != -1) {
+                                restored.add(photos.get(i));
+                                restoredUrls.add(urls.get(i));
+                            }
+                        }
+                        imageStore.acquireExistingAll(restoredUrls);
+                        savedPhotos.addAll(restored);
+                    });
+                    savedLoader.restore(photos);
+                })
+                .show();
+    }
+
+    // Method to estimate how many photo rows fit on screen
+    private int getVisibleRowCount() {
+        int rowHeight = getResources().getDimensionPixelSize(R.dimen.photo_row_height);
+        return EndlessScrollListener.estimateVisibleRows(recyclerViewPhotos, rowHeight);
+    }
 
-        // Define the URL with the search term.
-        String url = "https://api.pexels.com/v1/search?query=" + searchTerm;
+    // Method to choose a page size that covers a few screens of rows
+    private int getPageSize() {
+        return Math.min(MAX_PAGE_SIZE, getVisibleRowCount() * SCREENS_PER_PAGE);
+    }
 
-        // Request a string response from the provided URL.
-        StringRequest stringRequest = new StringRequest(Request.Method.GET, url,
-                new Response.Listener<String>() {
+    // Method to load one page of photos through the repository
+    private QueryRepository.Subscription makeApiRequest(int generation, String searchTerm, int page, int pageSize) {
+        // Show the stored page at once, then refresh it from Pexels in the background
+        return PhotoRepository.getInstance(requireContext()).search(searchTerm, page, pageSize,
+                new QueryRepository.Callback<Photo>() {
                     @Override
-                    public void onResponse(String response) {
-                        // Parse the JSON response and update the photoList.
-                        try {
-                            JSONObject jsonResponse = new JSONObject(response);
-                            JSONArray photosArray = jsonResponse.getJSONArray("photos");
-                            photoList.clear(); // Clear previous results
-                            for (int i = 0; i < photosArray.length(); i++) {
-                                JSONObject photoObject = photosArray.getJSONObject(i);
-                                Photo photo = new Photo(photoObject);
-                                photoList.add(photo);
-                            }
-                            // Notify adapter of changes
-                            photoAdapter.notifyDataSetChanged();
-                        } catch (JSONException e) {
-                            e.printStackTrace();
+                    public void onResult(QueryResult<Photo> result) {
+                        if (photoPager.onPageLoaded(generation, page, result.getItems(),
+                                PhotoRepository.hasNextPage(result))) {
+                            photoList.clear();
+                            photoList.addAll(photoPager.snapshot());
+                            // Diff against the shown list so only new or changed rows are bound
+                            photoAdapter.submitList(new ArrayList<>(photoList));
                         }
                     }
-                }, new Response.ErrorListener() {
-            @Override
-            public void onErrorResponse(VolleyError error) {
-                // Handle errors
-                Toast.makeText(requireContext(), "Error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        }) {
-            @Override
-            public Map<String, String> getHeaders() throws AuthFailureError {
-                // Set headers, including Authorization header with your API key
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", "HylTNwr7lJv53y3ocDv9c4CWSZKxROwR7opQJJwM0tKxlsF0kjDpFei4");
-                return headers;
-            }
-        };
 
-        // Add the request to the RequestQueue.
-        queue.add(stringRequest);
+                    @Override
+                    public void onError(VolleyError error, boolean showingCached) {
+                        if (showingCached) {
+                            // Keep the stored page; only mention it once per search
+                            if (page == 1) {
+                                Toast.makeText(requireContext(), "Offline: showing saved results", Toast.LENGTH_SHORT).show();
+                            }
+                            return;
+                        }
+                        // Allow the page to be requested again
+                        photoPager.onPageFailed(generation, page);
+                        Toast.makeText(requireContext(), "Error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
 }
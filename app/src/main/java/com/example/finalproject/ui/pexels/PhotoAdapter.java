@@ -8,32 +8,88 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.FragmentManager;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
 import com.example.finalproject.data.pexels.Photo;
-import com.squareup.picasso.Picasso;
+import com.example.finalproject.data.saved.SavedKeyIndex;
+import com.example.finalproject.image.ImageLoader;
+import com.example.finalproject.ui.common.RowSelection;
+import com.example.finalproject.ui.common.StableIds;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * The PhotoAdapter class is responsible for providing views that represent items in a data set.
- * It extends RecyclerView.Adapter to adapt photos to be displayed in a RecyclerView.
+ * It extends ListAdapter to adapt photos to be displayed in a RecyclerView.
  */
-public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHolder> {
+public class PhotoAdapter extends ListAdapter<Photo, PhotoAdapter.PhotoViewHolder> {
 
-    private List<Photo> photos; // List of photos
     private FragmentManager fragmentManager; // FragmentManager for managing fragments
+    private final RowSelection selection = new RowSelection(this); // Rows selected for bulk actions
+    private final SavedKeyIndex<Photo> savedPhotos; // Keys of the saved photos, for the saved badge
+    // Rebinds the saved badge of every row when photos are saved or deleted
+    private final SavedKeyIndex.Listener savedListener = () ->
+            notifyItemRangeChanged(0, getItemCount(), RowSelection.PAYLOAD);
+
+    // Identifies photos by their Pexels URL and compares the fields shown in a row
+    private static final DiffUtil.ItemCallback<Photo> DIFF_CALLBACK = new DiffUtil.ItemCallback<Photo>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Photo oldItem, @NonNull Photo newItem) {
+            return oldItem.getId() == newItem.getId()
+                    && Objects.equals(oldItem.getUrl(), newItem.getUrl());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Photo oldItem, @NonNull Photo newItem) {
+            return Objects.equals(oldItem.getPhotographer(), newItem.getPhotographer())
+                    && oldItem.getWidth() == newItem.getWidth()
+                    && oldItem.getHeight() == newItem.getHeight()
+                    && Objects.equals(oldItem.getThumbnailUrl(), newItem.getThumbnailUrl());
+        }
+    };
 
     /**
-     * Constructs a new PhotoAdapter with the specified list of photos and FragmentManager.
+     * Constructs a new PhotoAdapter. Lists passed to submitList are diffed on the shared CPU
+     * executor and only the rows that changed are rebound.
      *
-     * @param photos           The list of photos to be displayed.
      * @param fragmentManager The FragmentManager for managing fragments.
+     * @param savedPhotos Keys of the saved photos, used to mark rows that are already saved.
      */
-    public PhotoAdapter(List<Photo> photos, FragmentManager fragmentManager) {
-        this.photos = photos;
+    public PhotoAdapter(FragmentManager fragmentManager, SavedKeyIndex<Photo> savedPhotos) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().cpu())
+                .build());
         this.fragmentManager = fragmentManager;
+        this.savedPhotos = savedPhotos;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Starts following the saved photos while the adapter is shown.
+     *
+     * @param recyclerView The RecyclerView the adapter was attached to.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        savedPhotos.addListener(savedListener);
+    }
+
+    /**
+     * Stops following the saved photos, so the process-wide index does not keep the adapter.
+     *
+     * @param recyclerView The RecyclerView the adapter was detached from.
+     */
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        savedPhotos.removeListener(savedListener);
     }
 
     /**
@@ -50,6 +106,24 @@ public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHol
         return new PhotoViewHolder(view);
     }
 
+    /**
+     * Rebinds only the selected state and saved badge of a row when the rebind carries
+     * {@link RowSelection#PAYLOAD}; otherwise binds the whole row.
+     *
+     * @param holder   The ViewHolder to update.
+     * @param position The position of the item within the adapter's data set.
+     * @param payloads The payloads of the rebind; empty for a full bind.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.itemView.setActivated(selection.isSelected(getItemId(position)));
+            holder.textViewSaved.setVisibility(savedPhotos.contains(getItem(position)) ? View.VISIBLE : View.GONE);
+        }
+    }
+
     /**
      * Called by RecyclerView to display the data at the specified position.
      *
@@ -58,30 +132,59 @@ public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHol
      */
     @Override
     public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position) {
-        Photo photo = photos.get(position);
+        Photo photo = getItem(position);
         holder.textViewPhotographer.setText(photo.getPhotographer());
         holder.textViewDimensions.setText(String.format("%s x %s", photo.getWidth(), photo.getHeight()));
-        // Load image using Picasso library
-        Picasso.get().load(photo.getThumbnailUrl()).into(holder.imageViewThumbnail);
+        // Load image decoded to the row's size
+        ImageLoader.loadThumbnail(photo.getThumbnailUrl(), holder.imageViewThumbnail);
+
+        // Highlight the row if it is selected
+        holder.itemView.setActivated(selection.isSelected(getItemId(position)));
+        // Mark the row if the photo is already saved; the index is in memory, so this does no I/O
+        holder.textViewSaved.setVisibility(savedPhotos.contains(photo) ? View.VISIBLE : View.GONE);
 
         // Set click listener for the item view
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                // Open PhotoDetailFragment
-                openPhotoDetailFragment(photo);
+                if (selection.isSelecting()) {
+                    selection.toggle(holder.getBindingAdapterPosition());
+                } else {
+                    // Open PhotoDetailFragment
+                    openPhotoDetailFragment(photo);
+                }
+            }
+        });
+
+        // Long press starts or extends a selection
+        holder.itemView.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                selection.toggle(holder.getBindingAdapterPosition());
+                return true;
             }
         });
     }
 
     /**
-     * Returns the total number of items in the data set held by the adapter.
+     * Returns a stable ID derived from the item's Pexels URL.
      *
-     * @return The total number of items in the data set.
+     * @param position The position of the item within the adapter's data set.
+     * @return The stable ID of the item.
      */
     @Override
-    public int getItemCount() {
-        return photos.size();
+    public long getItemId(int position) {
+        Photo photo = getItem(position);
+        return StableIds.of(photo.getUrl(), photo.getId());
+    }
+
+    /**
+     * Returns the multi-selection of this adapter's rows.
+     *
+     * @return The selection.
+     */
+    public RowSelection getSelection() {
+        return selection;
     }
 
     /**
@@ -91,6 +194,7 @@ public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHol
         ImageView imageViewThumbnail;
         TextView textViewPhotographer;
         TextView textViewDimensions;
+        TextView textViewSaved;
 
         /**
          * Constructs a new PhotoViewHolder with the specified View.
@@ -102,6 +206,7 @@ public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHol
             imageViewThumbnail = itemView.findViewById(R.id.imageViewThumbnail);
             textViewPhotographer = itemView.findViewById(R.id.textViewPhotographer);
             textViewDimensions = itemView.findViewById(R.id.textViewDimensions);
+            textViewSaved = itemView.findViewById(R.id.textViewSaved);
         }
     }
 
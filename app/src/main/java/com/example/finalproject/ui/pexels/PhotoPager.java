@@ -0,0 +1,199 @@
+package com.example.finalproject.ui.pexels;
+
+import com.example.finalproject.data.cache.QueryRepository;
+import com.example.finalproject.data.pexels.Photo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps a sliding window of Pexels search result pages. Requests for a page that is already
+ * loaded or in flight are dropped, and once more than {@link #MAX_PAGES_IN_MEMORY} pages are
+ * held, the page farthest from the one just loaded is evicted, and its request cancelled, so
+ * memory stays bounded. A page can be delivered twice, from the cache and again after it was
+ * revalidated; a delivery is only taken for a page that is in flight or still held, so a late
+ * refresh of an evicted page never re-enters the window. Starting a new search cancels the
+ * requests still running for the old one.
+ */
+class PhotoPager {
+
+    // Maximum number of pages kept in memory at once
+    static final int MAX_PAGES_IN_MEMORY = 10;
+
+    private final PageRequester requester; // Issues the network request for a page
+    private final TreeMap<Integer, List<Photo>> pages = new TreeMap<>(); // Loaded pages by number
+    private final Set<Integer> inFlight = new HashSet<>(); // Pages currently being fetched
+    private final Map<Integer, QueryRepository.Subscription> requests = new HashMap<>(); // Running page requests
+    private String query; // Current search term, or null when inactive
+    private int pageSize; // Number of photos requested per page
+    private int generation; // Incremented on every reset to ignore stale responses
+    private boolean endReached; // True once a page reported there is no next page
+
+    /**
+     * Creates a pager.
+     *
+     * @param requester Issues the network request for a page.
+     */
+    PhotoPager(PageRequester requester) {
+        this.requester = requester;
+    }
+
+    /**
+     * Starts a new search, discarding every loaded page and cancelling the requests of the
+     * previous one. Pass a null query to deactivate paging.
+     *
+     * @param query    The search term, or null.
+     * @param pageSize Number of photos per page.
+     */
+    void reset(String query, int pageSize) {
+        this.query = query;
+        this.pageSize = pageSize;
+        generation++;
+        for (QueryRepository.Subscription subscription : requests.values()) {
+            subscription.cancel();
+        }
+        requests.clear();
+        pages.clear();
+        inFlight.clear();
+        endReached = false;
+    }
+
+    /**
+     * Returns whether the pager is paging results for the given query.
+     *
+     * @param query The search term.
+     * @return True if this query is the active search.
+     */
+    boolean isSearching(String query) {
+        return this.query != null && this.query.equals(query);
+    }
+
+    /**
+     * Returns whether a search for the given query is active and still has a page in flight.
+     *
+     * @param query The search term.
+     * @return True if a request for this query is already running.
+     */
+    boolean isLoading(String query) {
+        return isSearching(query) && !inFlight.isEmpty();
+    }
+
+    /**
+     * Requests the page after the last loaded one, or the first page if none is loaded.
+     */
+    void loadNext() {
+        if (query == null || endReached) {
+            return;
+        }
+        request(pages.isEmpty() ? 1 : pages.lastKey() + 1);
+    }
+
+    /**
+     * Requests the page before the first loaded one, if an earlier page was evicted.
+     */
+    void loadPrevious() {
+        if (query == null || pages.isEmpty() || pages.firstKey() <= 1) {
+            return;
+        }
+        request(pages.firstKey() - 1);
+    }
+
+    /**
+     * Records a loaded page and evicts the farthest page if the window is full.
+     *
+     * @param generation Generation the request was issued in.
+     * @param page       Page number.
+     * @param photos     Photos on the page.
+     * @param hasNext    Whether the API reported another page after this one.
+     * @return True if the page was accepted; false if it belongs to an earlier search or was
+     *         evicted before this delivery.
+     */
+    boolean onPageLoaded(int generation, int page, List<Photo> photos, boolean hasNext) {
+        if (generation != this.generation) {
+            return false;
+        }
+        if (!inFlight.remove(page) && !pages.containsKey(page)) {
+            // A refresh of a page that has left the window
+            return false;
+        }
+        pages.put(page, photos);
+        if (!hasNext) {
+            endReached = true;
+        }
+        while (pages.size() > MAX_PAGES_IN_MEMORY) {
+            int evicted;
+            if (page - pages.firstKey() >= pages.lastKey() - page) {
+                evicted = pages.pollFirstEntry().getKey();
+            } else {
+                evicted = pages.pollLastEntry().getKey();
+                endReached = false;
+            }
+            QueryRepository.Subscription subscription = requests.remove(evicted);
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Forgets a failed request so the page can be retried.
+     *
+     * @param generation Generation the request was issued in.
+     * @param page       Page number.
+     */
+    void onPageFailed(int generation, int page) {
+        if (generation == this.generation) {
+            inFlight.remove(page);
+        }
+    }
+
+    /**
+     * Returns the photos of every loaded page, in page order.
+     *
+     * @return A new list with the loaded photos.
+     */
+    List<Photo> snapshot() {
+        List<Photo> photos = new ArrayList<>();
+        for (Map.Entry<Integer, List<Photo>> entry : pages.entrySet()) {
+            photos.addAll(entry.getValue());
+        }
+        return photos;
+    }
+
+    /**
+     * Requests a page unless it is loaded or already in flight.
+     *
+     * @param page Page number.
+     */
+    private void request(int page) {
+        if (pages.containsKey(page) || !inFlight.add(page)) {
+            return;
+        }
+        // Forget requests that have delivered their final result
+        requests.values().removeIf(subscription -> !subscription.isActive());
+        requests.put(page, requester.requestPage(generation, query, page, pageSize));
+    }
+
+    /**
+     * Issues the network request for one page and reports back through
+     * {@link #onPageLoaded} or {@link #onPageFailed}.
+     */
+    interface PageRequester {
+        /**
+         * Requests one page of search results.
+         *
+         * @param generation Generation to pass back with the result.
+         * @param query      The search term.
+         * @param page       Page number, starting at 1.
+         * @param pageSize   Number of photos per page.
+         * @return A handle that cancels the request.
+         */
+        QueryRepository.Subscription requestPage(int generation, String query, int page, int pageSize);
+    }
+}
@@ -7,33 +7,152 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.fragment.app.FragmentManager;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.saved.SavedKeyIndex;
 import com.example.finalproject.data.soccermatch.Match;
-import com.squareup.picasso.Picasso;
+import com.example.finalproject.data.soccermatch.MatchFeed;
+import com.example.finalproject.image.ImageLoader;
+import com.example.finalproject.ui.common.RowSelection;
+import com.example.finalproject.ui.common.StableIds;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * The MatchAdapter class is responsible for providing views that represent items in a data set.
- * It extends RecyclerView.Adapter to adapt soccer match data to be displayed in a RecyclerView.
+ * It adapts soccer match data to be displayed in a RecyclerView. A submitted list is diffed
+ * against the shown one and only the rows that changed are rebound; two Scorebat feeds are
+ * diffed by the hashes of their matches, so a refresh decodes only new and changed matches.
  */
 public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHolder> {
 
-    private List<Match> matches; // List of soccer matches
     private FragmentManager fragmentManager; // FragmentManager for managing fragments
+    private final RowSelection selection = new RowSelection(this); // Rows selected for bulk actions
+    private final SavedKeyIndex<Match> savedMatches; // Keys of the saved matches, for the saved badge
+    // Rebinds the saved badge of every row when matches are saved or deleted
+    private final SavedKeyIndex.Listener savedListener = () ->
+            notifyItemRangeChanged(0, getItemCount(), RowSelection.PAYLOAD);
+    private List<Match> matches = Collections.emptyList(); // Shown matches, never modified
+    private int generation; // Number of lists submitted, so a diff that finishes late is dropped
+
+    // Identifies matches by their embed URL and compares the fields shown in a row
+    private static final DiffUtil.ItemCallback<Match> DIFF_CALLBACK = new DiffUtil.ItemCallback<Match>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Match oldItem, @NonNull Match newItem) {
+            return oldItem.getId() == newItem.getId()
+                    && Objects.equals(oldItem.getUrl(), newItem.getUrl())
+                    && Objects.equals(oldItem.getTitle(), newItem.getTitle());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Match oldItem, @NonNull Match newItem) {
+            return Objects.equals(oldItem.getDate(), newItem.getDate())
+                    && Objects.equals(oldItem.getThumbnailUrl(), newItem.getThumbnailUrl());
+        }
+    };
 
     /**
-     * Constructs a new MatchAdapter with the specified list of matches and FragmentManager.
+     * Constructs a new MatchAdapter.
      *
-     * @param matches           The list of soccer matches to be displayed.
-     * @param fragmentManager   The FragmentManager for managing fragments.
+     * @param fragmentManager The FragmentManager for managing fragments.
+     * @param savedMatches Keys of the saved matches, used to mark rows that are already saved.
      */
-    public MatchAdapter(List<Match> matches, FragmentManager fragmentManager) {
-        this.matches = matches;
+    public MatchAdapter(FragmentManager fragmentManager, SavedKeyIndex<Match> savedMatches) {
         this.fragmentManager = fragmentManager;
+        this.savedMatches = savedMatches;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Shows a list of matches. The list is diffed against the shown one on the shared CPU
+     * executor and then shown with only the changed rows rebound. A list of another kind than
+     * the shown one, a feed after saved rows or the reverse, has no rows in common with it and
+     * replaces it at once. Must be called on the main thread.
+     *
+     * @param list The matches to show, which must not be modified afterwards; null for none.
+     */
+    public void submitList(@Nullable List<Match> list) {
+        List<Match> next = list == null ? Collections.<Match>emptyList() : list;
+        List<Match> previous = matches;
+        if (next == previous) {
+            return;
+        }
+        int run = ++generation;
+        if (previous.isEmpty() || next.isEmpty()
+                || (previous instanceof MatchFeed) != (next instanceof MatchFeed)) {
+            matches = next;
+            notifyItemRangeRemoved(0, previous.size());
+            notifyItemRangeInserted(0, next.size());
+            return;
+        }
+        AppExecutors executors = AppExecutors.getInstance();
+        executors.cpu().execute(() -> {
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(new MatchDiff(previous, next));
+            executors.mainThread().execute(() -> {
+                if (run == generation) {
+                    matches = next;
+                    result.dispatchUpdatesTo(this);
+                }
+            });
+        });
+    }
+
+    /**
+     * Returns the shown matches.
+     *
+     * @return The list last shown; not to be modified.
+     */
+    public List<Match> getCurrentList() {
+        return matches;
+    }
+
+    /**
+     * Returns the match at a position.
+     *
+     * @param position The position of the item within the adapter's data set.
+     * @return The match.
+     */
+    protected Match getItem(int position) {
+        return matches.get(position);
+    }
+
+    /**
+     * Returns the number of shown matches.
+     *
+     * @return The count.
+     */
+    @Override
+    public int getItemCount() {
+        return matches.size();
+    }
+
+    /**
+     * Starts following the saved matches while the adapter is shown.
+     *
+     * @param recyclerView The RecyclerView the adapter was attached to.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        savedMatches.addListener(savedListener);
+    }
+
+    /**
+     * Stops following the saved matches, so the process-wide index does not keep the adapter.
+     *
+     * @param recyclerView The RecyclerView the adapter was detached from.
+     */
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        savedMatches.removeListener(savedListener);
     }
 
     /**
@@ -50,6 +169,24 @@ public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHol
         return new MatchViewHolder(view);
     }
 
+    /**
+     * Rebinds only the selected state and saved badge of a row when the rebind carries
+     * {@link RowSelection#PAYLOAD}; otherwise binds the whole row.
+     *
+     * @param holder   The ViewHolder to update.
+     * @param position The position of the item within the adapter's data set.
+     * @param payloads The payloads of the rebind; empty for a full bind.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull MatchViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.itemView.setActivated(selection.isSelected(getItemId(position)));
+            holder.textViewSaved.setVisibility(savedMatches.contains(getItem(position)) ? View.VISIBLE : View.GONE);
+        }
+    }
+
     /**
      * Called by RecyclerView to display the data at the specified position.
      *
@@ -58,32 +195,117 @@ public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHol
      */
     @Override
     public void onBindViewHolder(@NonNull MatchViewHolder holder, int position) {
-        Match match = matches.get(position);
+        Match match = getItem(position);
 
-        // Load match thumbnail using Picasso library
-        Picasso.get().load(match.getThumbnailUrl()).into(holder.imageViewThumbnail);
+        // Load match thumbnail decoded to the row's size
+        ImageLoader.loadThumbnail(match.getThumbnailUrl(), holder.imageViewThumbnail);
 
         holder.textViewTitle.setText(match.getTitle());
         holder.textViewDate.setText(String.format("Date: %s", match.getDate()));
 
+        // Highlight the row if it is selected
+        holder.itemView.setActivated(selection.isSelected(getItemId(position)));
+        // Mark the row if the match is already saved; the index is in memory, so this does no I/O
+        holder.textViewSaved.setVisibility(savedMatches.contains(match) ? View.VISIBLE : View.GONE);
+
         // Set click listener for the item view
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                // Open MatchDetailFragment
-                openMatchDetailFragment(match);
+                if (selection.isSelecting()) {
+                    selection.toggle(holder.getBindingAdapterPosition());
+                } else {
+                    // Open MatchDetailFragment
+                    openMatchDetailFragment(match);
+                }
+            }
+        });
+
+        // Long press starts or extends a selection
+        holder.itemView.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                selection.toggle(holder.getBindingAdapterPosition());
+                return true;
             }
         });
     }
 
     /**
-     * Returns the total number of items in the data set held by the adapter.
+     * Returns a stable ID derived from the item's embed URL. Rows of a feed use the feed's key
+     * of the match, which hashes the same embed without decoding the match.
      *
-     * @return The total number of items in the data set.
+     * @param position The position of the item within the adapter's data set.
+     * @return The stable ID of the item.
      */
     @Override
-    public int getItemCount() {
-        return matches.size();
+    public long getItemId(int position) {
+        if (matches instanceof MatchFeed) {
+            return ((MatchFeed) matches).keyAt(position);
+        }
+        Match match = getItem(position);
+        String key = match.getUrl() != null ? match.getUrl() : match.getTitle() + "|" + match.getDate();
+        return StableIds.of(key, match.getId());
+    }
+
+    /**
+     * Returns the multi-selection of this adapter's rows.
+     *
+     * @return The selection.
+     */
+    public RowSelection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Pairs up the rows of two lists of the same kind. Feeds are compared by the key and
+     * fingerprint of each match; other lists by their items' fields.
+     */
+    private static final class MatchDiff extends DiffUtil.Callback {
+
+        private final List<Match> oldList; // The shown list
+        private final List<Match> newList; // The submitted list
+        private final MatchFeed oldFeed; // The shown list as a feed, or null if it is not one
+        private final MatchFeed newFeed; // The submitted list as a feed, or null if it is not one
+
+        /**
+         * Creates a diff of two lists that are both feeds or both not.
+         *
+         * @param oldList The shown list.
+         * @param newList The submitted list.
+         */
+        MatchDiff(List<Match> oldList, List<Match> newList) {
+            this.oldList = oldList;
+            this.newList = newList;
+            this.oldFeed = oldList instanceof MatchFeed ? (MatchFeed) oldList : null;
+            this.newFeed = newList instanceof MatchFeed ? (MatchFeed) newList : null;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            if (oldFeed != null) {
+                return oldFeed.keyAt(oldItemPosition) == newFeed.keyAt(newItemPosition);
+            }
+            return DIFF_CALLBACK.areItemsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            if (oldFeed != null) {
+                return oldFeed.fingerprintAt(oldItemPosition) == newFeed.fingerprintAt(newItemPosition);
+            }
+            return DIFF_CALLBACK.areContentsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
     }
 
     /**
@@ -93,6 +315,7 @@ public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHol
         ImageView imageViewThumbnail;
         TextView textViewTitle;
         TextView textViewDate;
+        TextView textViewSaved;
 
         /**
          * Constructs a new MatchViewHolder with the specified View.
@@ -104,6 +327,7 @@ public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHol
             imageViewThumbnail = itemView.findViewById(R.id.imageViewThumbnail);
             textViewTitle = itemView.findViewById(R.id.textViewTitle);
             textViewDate = itemView.findViewById(R.id.textViewDate);
+            textViewSaved = itemView.findViewById(R.id.textViewSaved);
         }
     }
 
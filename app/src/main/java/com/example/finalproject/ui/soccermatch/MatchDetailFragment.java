@@ -3,14 +3,12 @@ package com.example.finalproject.ui.soccermatch;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.Intent;
-import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.room.Room;
 
 import android.view.LayoutInflater;
 import android.view.View;
@@ -20,27 +18,19 @@ import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.android.volley.RequestQueue;
-import com.android.volley.Response;
-import com.android.volley.toolbox.ImageRequest;
-import com.android.volley.toolbox.Volley;
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
 
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.images.ImageStore;
+import com.example.finalproject.data.saved.SavedKeyIndex;
 import com.example.finalproject.data.soccermatch.Match;
 import com.example.finalproject.data.soccermatch.MatchDao;
-import com.example.finalproject.data.soccermatch.MatchDatabase;
+import com.example.finalproject.image.ImageLoader;
+import com.example.finalproject.ui.common.ImageSaveController;
 import com.google.android.material.snackbar.Snackbar;
-import com.squareup.picasso.Picasso;
-
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * A fragment to display details of a soccer match.
@@ -65,17 +55,19 @@ public class MatchDetailFragment extends Fragment {
 //     VideoView videoViewHighlight; // VideoView to display match highlight
 
     MatchDao matchDAO; // Data Access Object for Match entities
+    private SavedKeyIndex<Match> savedMatches; // Keys of the saved matches, updated on save and delete
     Context thiscontext; // Context reference
 
     Match match; // Match object representing the current match
-    protected RequestQueue queue = null; // RequestQueue for network requests
+    private ImageSaveController imageSaver; // Streams the thumbnail to storage when saving
+    private ImageStore imageStore; // Content-addressed store holding saved images
 
     /**
      * Constructs a new MatchDetailFragment with the specified match.
      *
      * @param match The soccer match to be displayed.
      */
-    protected MatchDetailFragment(Match match){
+    public MatchDetailFragment(Match match){
         this.match = match;
     }
 
@@ -95,9 +87,9 @@ public class MatchDetailFragment extends Fragment {
 
         thiscontext = getActivity().getApplicationContext();
 
-        MatchDatabase db = Room.databaseBuilder(thiscontext,
-                MatchDatabase.class, "match").build();
+        AppDatabase db = AppDatabase.getInstance(thiscontext);
         matchDAO = db.matchDAO();
+        savedMatches = db.savedMatches();
 
 
         imageViewThumbnail = view.findViewById(R.id.imageViewThumbnail);
@@ -107,12 +99,14 @@ public class MatchDetailFragment extends Fragment {
         textViewDate = view.findViewById(R.id.textViewDate);
 //        buttonView = view.findViewById(R.id.buttonView);
         buttonSave = view.findViewById(R.id.buttonSave);
+        imageSaver = new ImageSaveController(buttonSave);
+        imageStore = ImageStore.getInstance(thiscontext);
         buttonInBrowser = view.findViewById(R.id.buttonInBrowser);
         buttonRemove = view.findViewById(R.id.buttonRemove);
 
 //        videoViewHighlight = view.findViewById(R.id.videoViewHighlight);
 
-        Picasso.get().load(match.getThumbnailUrl()).into(imageViewThumbnail);
+        ImageLoader.loadFitted(match.getThumbnailUrl(), imageViewThumbnail);
         textViewTitle.setText(match.getTitle());
         textViewSide1.setText(match.getTeam1());
         textViewSide2.setText(match.getTeam2());
@@ -164,13 +158,25 @@ public class MatchDetailFragment extends Fragment {
                         .setNegativeButton("No",(dialog, cl)->{})
                         .setPositiveButton("Yes",(dialog, cl)->{
 
-                            Executor thread = Executors.newSingleThreadExecutor();
-                            thread.execute(()-> matchDAO.delete(match));
+                            Executor thread = AppExecutors.getInstance().diskIO();
+                            thread.execute(() -> {
+                                // Drop this row's reference to its stored image
+                                if (matchDAO.delete(match) > 0) {
+                                    imageStore.release(match.getThumbnailUrl());
+                                    savedMatches.remove(match);
+                                }
+                            });
                             getActivity().getSupportFragmentManager().popBackStack();
 
                             Snackbar.make(view, "You deleted it.",Snackbar.LENGTH_LONG)
                                     .setAction("Undo", click ->{
-                                        thread.execute(()-> matchDAO.insert(match));
+                                        thread.execute(() -> {
+                                            // Skipped if the match was saved again in the meantime
+                                            if (matchDAO.insert(match) != -1) {
+                                                imageStore.acquireExisting(match.getThumbnailUrl());
+                                                savedMatches.add(match);
+                                            }
+                                        });
                                     })
                                     .show();
                         }).create().show();
@@ -178,8 +184,6 @@ public class MatchDetailFragment extends Fragment {
             }
         });
 
-        queue = Volley.newRequestQueue(getActivity().getApplicationContext());
-
         return view;
     }
 
@@ -194,44 +198,27 @@ public class MatchDetailFragment extends Fragment {
     }
 
     /**
-     * Saves the match thumbnail to the internal storage directory.
+     * Streams the thumbnail to internal storage and then saves the match, or cancels a save that
+     * is already running.
      */
     private void saveMatchToStorage() {
-
-        // Get the directory for the app's private internal storage directory.
-        File directory = requireContext().getFilesDir();
-
-        // Generate a unique filename for the image.
-        String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
-        String imageFileName = "JPEG_" + timeStamp + ".jpg";
-
-        String imageUrl = match.getThumbnailUrl();
-        ImageRequest imgReq = new ImageRequest(imageUrl, new Response.Listener<Bitmap>() {
-            @Override
-            public void onResponse(Bitmap bitmap) {
-                try {
-                    // Create a new file in the directory with the generated filename.
-                    File file = new File(directory, imageFileName);
-                    // Write the bitmap to the file.
-                    FileOutputStream fos = new FileOutputStream(file);
-                    bitmap.compress(Bitmap.CompressFormat.JPEG, 100, fos);
-                    fos.close();
-
-                    Executor thread = Executors.newSingleThreadExecutor();
-                    thread.execute(()-> matchDAO.insert(match));
-
-
-                    // Notify the user that the image has been saved.
-                    Toast.makeText(requireContext(), "Poster saved to " + file.getAbsolutePath(), Toast.LENGTH_SHORT).show();
-
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+        if (match.getUrl() == null) {
+            // The feed entry could not be decoded; there is nothing to save
+            Toast.makeText(requireContext(), "This match could not be read", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        imageSaver.saveOrCancel(match.getThumbnailUrl(), () -> {
+            // Save the match once its image is on disk. Saving a match that is already saved refreshes
+            // its row instead of adding a duplicate, and the old row's image reference is given back
+            Executor thread = AppExecutors.getInstance().diskIO();
+            thread.execute(() -> {
+                Match previous = matchDAO.upsert(match);
+                if (previous != null) {
+                    imageStore.release(previous.getThumbnailUrl());
+                } else {
+                    savedMatches.add(match);
                 }
-            }
-        }, 2000, 2000, ImageView.ScaleType.CENTER, null, (error ) -> {
+            });
         });
-        queue.add(imgReq);
     }
 }
\ No newline at end of file
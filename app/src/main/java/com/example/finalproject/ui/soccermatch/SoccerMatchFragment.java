@@ -4,6 +4,7 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.fragment.app.FragmentManager;
 
 import android.app.AlertDialog;
+import android.content.Context;
 import android.os.Bundle;
 
 import androidx.annotation.NonNull;
@@ -11,7 +12,6 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import androidx.room.Room;
 
 import android.view.LayoutInflater;
 import android.view.MenuItem;
@@ -22,28 +22,25 @@ import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.android.volley.AuthFailureError;
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.Response;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.StringRequest;
-import com.android.volley.toolbox.Volley;
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.cache.QueryRepository;
+import com.example.finalproject.data.cache.QueryResult;
+import com.example.finalproject.data.images.ImageStore;
+import com.example.finalproject.data.saved.SavedKeyIndex;
 import com.example.finalproject.data.soccermatch.Match;
 import com.example.finalproject.data.soccermatch.MatchDao;
-import com.example.finalproject.data.soccermatch.MatchDatabase;
-
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.example.finalproject.data.soccermatch.MatchRepository;
+import com.example.finalproject.ui.common.BulkActionBar;
+import com.example.finalproject.ui.common.EndlessScrollListener;
+import com.example.finalproject.ui.common.KeysetPageLoader;
+import com.google.android.material.snackbar.Snackbar;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 
 /**
@@ -60,6 +57,10 @@ public class SoccerMatchFragment extends Fragment {
     private Button buttonShowSaved; // Button to show saved matches
 
     private MatchDao matchDAO; // Data Access Object for Match entities
+    private SavedKeyIndex<Match> savedMatches; // Keys of the saved matches, updated on insert and delete
+    private KeysetPageLoader<Match> savedLoader; // Loads saved matches page by page
+    private BulkActionBar bulkBar; // Saves or deletes the rows selected with a long press
+    private QueryRepository.Subscription feedRequest; // Feed load still delivering, if any
 
     // SharedPreferences file name
     private static final String PREFS_NAME = "MyMatch";
@@ -107,24 +108,57 @@ public class SoccerMatchFragment extends Fragment {
         recyclerViewMatches = view.findViewById(R.id.recyclerViewMatches);
         buttonShowSaved = view.findViewById(R.id.buttonShowSaved);
 
-        // Initialize database
-        MatchDatabase db = Room.databaseBuilder(getContext(),
-                MatchDatabase.class, "match").build();
+        // Get the shared database
+        AppDatabase db = AppDatabase.getInstance(requireContext());
         matchDAO = db.matchDAO();
+        savedMatches = db.savedMatches();
 
         // Initialize FragmentManager
         FragmentManager fragmentManager = requireActivity().getSupportFragmentManager();
 
         // Initialize match list and adapter for RecyclerView
         matchList = new ArrayList<>();
-        matchAdapter = new MatchAdapter(matchList, fragmentManager);
+        matchAdapter = new MatchAdapter(fragmentManager, savedMatches);
         recyclerViewMatches.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerViewMatches.setAdapter(matchAdapter);
 
+        // Load saved matches a screen or two at a time instead of the whole table
+        savedLoader = new KeysetPageLoader<>(matchDAO::getMatchesAfter, matchDAO::getMatchesBefore,
+                Match::getId, rows -> {
+            matchList = new ArrayList<>(rows);
+            matchAdapter.submitList(new ArrayList<>(matchList));
+        });
+
+        // Save or delete the rows selected with a long press, each batch in one transaction
+        bulkBar = new BulkActionBar(view, matchAdapter.getSelection(), new BulkActionBar.Actions() {
+            @Override
+            public void onSaveSelected(List<Integer> positions) {
+                saveSelected(positions);
+            }
+
+            @Override
+            public void onDeleteSelected(List<Integer> positions) {
+                deleteSelected(positions);
+            }
+        });
+
+        recyclerViewMatches.addOnScrollListener(new EndlessScrollListener(getVisibleRowCount()) {
+            @Override
+            public void onLoadMore() {
+                savedLoader.loadMore();
+            }
+
+            @Override
+            public void onLoadPrevious() {
+                savedLoader.loadPrevious();
+            }
+        });
+
         // Set button click listeners
         buttonSearch.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
+                savedLoader.stop(); // Replace saved rows with search results
                 // Perform API request
                 makeApiRequest();
             }
@@ -133,14 +167,9 @@ public class SoccerMatchFragment extends Fragment {
         buttonShowSaved.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                // Clear match list and fetch saved matches
-                matchList.clear();
-                Executor thread = Executors.newSingleThreadExecutor();
-                thread.execute(() -> {
-                    matchList.addAll(matchDAO.getAllMatches());
-                    // Update UI on UI thread
-                    getActivity().runOnUiThread(() -> recyclerViewMatches.setAdapter(matchAdapter));
-                });
+                // Show the first page of saved matches; later pages load on scroll
+                cancelFeedRequest(); // Keep the feed from replacing the saved rows
+                savedLoader.start(getVisibleRowCount() * 2);
             }
         });
 
@@ -148,6 +177,149 @@ public class SoccerMatchFragment extends Fragment {
         return view;
     }
 
+    /**
+     * Called when the view is destroyed. Cancels the running requests, so no callback runs
+     * for a screen the user has left.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        bulkBar.cancel();
+        recyclerViewMatches.setAdapter(null); // Detaches the adapter from the saved-match index
+        cancelFeedRequest();
+        savedLoader.stop();
+    }
+
+    /**
+     * Method to stop delivering the feed load, if one is running.
+     */
+    private void cancelFeedRequest() {
+        if (feedRequest != null) {
+            feedRequest.cancel();
+            feedRequest = null;
+        }
+    }
+
+    /**
+     * Method to save the selected matches that are not saved yet. Their images are stored as one
+     * batch, then every match whose image was stored is inserted in one transaction.
+     *
+     * @param positions Adapter positions of the selected rows.
+     */
+    private void saveSelected(List<Integer> positions) {
+        List<Match> matches = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (int position : positions) {
+            Match match = matchAdapter.getCurrentList().get(position);
+            // Saved rows have a database ID; search results that are saved are in the index.
+            // A feed entry that could not be decoded has no URL and is never saved
+            if (match.getId() == 0 && match.getUrl() != null && !savedMatches.contains(match)) {
+                matches.add(match);
+                urls.add(match.getThumbnailUrl());
+            }
+        }
+        if (matches.isEmpty()) {
+            matchAdapter.getSelection().clear();
+            Toast.makeText(requireContext(), "The selected matches are already saved", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        bulkBar.storeImages(urls, stored -> {
+            // Skip the matches whose image could not be stored
+            List<Match> ready = new ArrayList<>();
+            for (Match match : matches) {
+                String url = match.getThumbnailUrl();
+                if (url == null || url.isEmpty() || stored.contains(url)) {
+                    ready.add(match);
+                }
+            }
+            ImageStore imageStore = ImageStore.getInstance(requireContext());
+            Context appContext = requireContext().getApplicationContext();
+            AppExecutors executors = AppExecutors.getInstance();
+            executors.diskIO().execute(() -> {
+                // Matches that are already saved are skipped; give back their image references
+                long[] rowIds = matchDAO.insertAll(ready);
+                List<Match> inserted = new ArrayList<>();
+                List<String> unused = new ArrayList<>();
+                for (int i = 0; i < rowIds.length; i++) {
+                    if (rowIds[i] == -1) {
+                        unused.add(ready.get(i).getThumbnailUrl());
+                    } else {
+                        inserted.add(ready.get(i));
+                    }
+                }
+                imageStore.releaseAll(unused);
+                savedMatches.addAll(inserted);
+                // Report what was written, not what was asked for
+                executors.mainThread().execute(() -> Toast.makeText(appContext,
+                        "Saved " + inserted.size() + " matches", Toast.LENGTH_SHORT).show());
+            });
+            matchAdapter.getSelection().clear();
+        });
+    }
+
+    /**
+     * Method to delete the selected saved matches in one transaction, with an option to undo.
+     *
+     * @param positions Adapter positions of the selected rows.
+     */
+    private void deleteSelected(List<Integer> positions) {
+        List<Match> matches = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (int position : positions) {
+            Match match = matchAdapter.getCurrentList().get(position);
+            if (match.getId() != 0) { // Only saved rows can be deleted
+                matches.add(match);
+                urls.add(match.getThumbnailUrl());
+            }
+        }
+        matchAdapter.getSelection().clear();
+        if (matches.isEmpty()) {
+            Toast.makeText(requireContext(), "Only saved matches can be deleted", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        ImageStore imageStore = ImageStore.getInstance(requireContext());
+        Executor thread = AppExecutors.getInstance().diskIO();
+        thread.execute(() -> {
+            // Drop the rows' references to their stored images; if some rows were already gone,
+            // keep the references rather than release an image another row still uses
+            int deleted = matchDAO.deleteAll(matches);
+            savedMatches.removeAll(matches);
+            if (deleted == matches.size()) {
+                imageStore.releaseAll(urls);
+            }
+        });
+        savedLoader.remove(matches);
+        // Show undo option with Snackbar
+        Snackbar.make(recyclerViewMatches, "You deleted " + matches.size() + " matches.", Snackbar.LENGTH_LONG)
+                .setAction("Undo", click -> {
+                    // Insert the matches back in one transaction
+                    thread.execute(() -> {
+                        // Matches saved again in the meantime are skipped
+                        long[] rowIds = matchDAO.insertAll(matches);
+                        List<Match> restored = new ArrayList<>();
+                        List<String> restoredUrls = new ArrayList<>();
+                        for (int i = 0; i < rowIds.length; i++) {
+                            if (rowIds[i] != -1) {
+                                restored.add(matches.get(i));
+                                restoredUrls.add(urls.get(i));
+                            }
+                        }
+                        imageStore.acquireExistingAll(restoredUrls);
+                        savedMatches.addAll(restored);
+                    });
+                    savedLoader.restore(matches);
+                })
+                .show();
+    }
+
+    /**
+     * Method to estimate how many rows fit on screen.
+     */
+    private int getVisibleRowCount() {
+        int rowHeight = getResources().getDimensionPixelSize(R.dimen.match_row_height);
+        return EndlessScrollListener.estimateVisibleRows(recyclerViewMatches, rowHeight);
+    }
+
     /**
      * Method to show an AlertDialog explaining how to use the app.
      */
@@ -157,59 +329,49 @@ public class SoccerMatchFragment extends Fragment {
                 .setMessage("1: To get matches list first type search term and click on search button\n" +
                         "2: To see the saved favourite matches, click on Show Saved button\n" +
                         "3: To see more details click on the match row\n" +
-                        "4: You also have options to save and remove the match in detailed view")
+                        "4: You also have options to save and remove the match in detailed view\n" +
+                        "5: Long-press rows to select several matches, then save or delete them all at once with the buttons above the list")
                 .setPositiveButton("OK", null) // You can add buttons and listeners as needed
                 .show();
     }
 
     /**
-     * Method to make an API request to fetch soccer matches.
-     * Uses Volley library for network requests.
+     * Method to load the soccer match feed through the repository.
      */
     private void makeApiRequest() {
-        // Instantiate the RequestQueue.
-        RequestQueue queue = Volley.newRequestQueue(requireContext());
+        if (feedRequest != null && feedRequest.isActive()) {
+            return; // The feed is still loading; its results will arrive
+        }
+        // Show the stored feed at once, then refresh it from Scorebat in the background
+        feedRequest = MatchRepository.getInstance(requireContext()).getFeed(
+                new QueryRepository.Callback<Match>() {
+                    @Override
+                    public void onChunk(List<Match> chunk, int offset) {
+                        if (offset == 0) {
+                            matchList = new ArrayList<>(); // Drop previous results
+                        }
+                        matchList.addAll(chunk);
+                        // Diff against the shown list so only new or changed rows are bound
+                        matchAdapter.submitList(new ArrayList<>(matchList));
+                    }
 
-        // Define the URL with the search term.
-        String url = "https://www.scorebat.com/video-api/v1/";
+                    @Override
+                    public void onResult(QueryResult<Match> result) {
+                        // The feed is immutable and decodes a match only when its row is bound,
+                        // so it is shown as it is rather than copied, which would decode every match;
+                        // against the shown feed only inserted, changed and removed rows are applied
+                        matchList = result.getItems();
+                        matchAdapter.submitList(matchList);
+                    }
 
-        // Request a string response from the provided URL.
-        StringRequest stringRequest = new StringRequest(Request.Method.GET, url,
-                new Response.Listener<String>() {
                     @Override
-                    public void onResponse(String response) {
-                        // Parse the JSON response and update the matchList.
-                        try {
-                            JSONArray matchesArray = new JSONArray(response);
-                            matchList.clear(); // Clear previous results
-                            for (int i = 0; i < matchesArray.length(); i++) {
-                                JSONObject matchObject = matchesArray.getJSONObject(i);
-                                Match match = new Match(matchObject);
-                                matchList.add(match);
-                            }
-                            // Notify adapter of changes
-                            matchAdapter.notifyDataSetChanged();
-                        } catch (JSONException e) {
-                            e.printStackTrace();
+                    public void onError(VolleyError error, boolean showingCached) {
+                        if (showingCached) {
+                            Toast.makeText(requireContext(), "Offline: showing saved matches", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(requireContext(), "Error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
                         }
                     }
-                }, new Response.ErrorListener() {
-            @Override
-            public void onErrorResponse(VolleyError error) {
-                // Handle errors
-                Toast.makeText(requireContext(), "Error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        }) {
-            @Override
-            public Map<String, String> getHeaders() throws AuthFailureError {
-                // Set headers, including Authorization header with your API key
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", "HylTNwr7lJv53y3ocDv9c4CWSZKxROwR7opQJJwM0tKxlsF0kjDpFei4");
-                return headers;
-            }
-        };
-
-        // Add the request to the RequestQueue.
-        queue.add(stringRequest);
+                });
     }
 }
\ No newline at end of file
@@ -8,31 +8,85 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.FragmentManager;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.saved.SavedKeyIndex;
 import com.example.finalproject.data.ticketmaster.Event;
-import com.squareup.picasso.Picasso;
+import com.example.finalproject.image.ImageLoader;
+import com.example.finalproject.ui.common.RowSelection;
+import com.example.finalproject.ui.common.StableIds;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * The EventAdapter class is responsible for adapting a list of Event objects to be displayed in a RecyclerView.
  */
-public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHolder> {
+public class EventAdapter extends ListAdapter<Event, EventAdapter.EventViewHolder> {
 
-    private List<Event> events; // List of events
     private FragmentManager fragmentManager; // FragmentManager to handle fragment transactions
+    private final RowSelection selection = new RowSelection(this); // Rows selected for bulk actions
+    private final SavedKeyIndex<Event> savedEvents; // Keys of the saved events, for the saved badge
+    // Rebinds the saved badge of every row when events are saved or deleted
+    private final SavedKeyIndex.Listener savedListener = () ->
+            notifyItemRangeChanged(0, getItemCount(), RowSelection.PAYLOAD);
+
+    // Identifies events by their Ticketmaster URL and compares the fields shown in a row
+    private static final DiffUtil.ItemCallback<Event> DIFF_CALLBACK = new DiffUtil.ItemCallback<Event>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            return oldItem.getId() == newItem.getId()
+                    && Objects.equals(oldItem.getUrl(), newItem.getUrl());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getPromoImageUrl(), newItem.getPromoImageUrl());
+        }
+    };
 
     /**
-     * Constructs a new EventAdapter with the specified list of events and FragmentManager.
+     * Constructs a new EventAdapter. Lists passed to submitList are diffed on the shared CPU
+     * executor and only the rows that changed are rebound.
      *
-     * @param events          The list of events to be displayed.
-     * @param fragmentManager The FragmentManager to handle fragment transactions.
+     * @param fragmentManager The FragmentManager for managing fragments.
+     * @param savedEvents Keys of the saved events, used to mark rows that are already saved.
      */
-    public EventAdapter(List<Event> events, FragmentManager fragmentManager) {
-        this.events = events;
+    public EventAdapter(FragmentManager fragmentManager, SavedKeyIndex<Event> savedEvents) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().cpu())
+                .build());
         this.fragmentManager = fragmentManager;
+        this.savedEvents = savedEvents;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Starts following the saved events while the adapter is shown.
+     *
+     * @param recyclerView The RecyclerView the adapter was attached to.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        savedEvents.addListener(savedListener);
+    }
+
+    /**
+     * Stops following the saved events, so the process-wide index does not keep the adapter.
+     *
+     * @param recyclerView The RecyclerView the adapter was detached from.
+     */
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        savedEvents.removeListener(savedListener);
     }
 
     /**
@@ -50,6 +104,24 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
         return new EventViewHolder(view); // Return a new EventViewHolder
     }
 
+    /**
+     * Rebinds only the selected state and saved badge of a row when the rebind carries
+     * {@link RowSelection#PAYLOAD}; otherwise binds the whole row.
+     *
+     * @param holder   The ViewHolder to update.
+     * @param position The position of the item within the adapter's data set.
+     * @param payloads The payloads of the rebind; empty for a full bind.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull EventViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.itemView.setActivated(selection.isSelected(getItemId(position)));
+            holder.textViewSaved.setVisibility(savedEvents.contains(getItem(position)) ? View.VISIBLE : View.GONE);
+        }
+    }
+
     /**
      * Called by RecyclerView to display the data at the specified position.
      *
@@ -58,27 +130,56 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
      */
     @Override
     public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
-        Event event = events.get(position); // Get the event at the specified position
-        // Load event image using Picasso library
-        Picasso.get().load(event.getPromoImageUrl()).into(holder.imageViewPromo);
+        Event event = getItem(position); // Get the event at the specified position
+        // Load event image decoded to the row's size
+        ImageLoader.loadThumbnail(event.getPromoImageUrl(), holder.imageViewPromo);
         holder.textViewTitle.setText(event.getName()); // Set event title
+        // Highlight the row if it is selected
+        holder.itemView.setActivated(selection.isSelected(getItemId(position)));
+        // Mark the row if the event is already saved; the index is in memory, so this does no I/O
+        holder.textViewSaved.setVisibility(savedEvents.contains(event) ? View.VISIBLE : View.GONE);
+
         // Set click listener to open EventDetailFragment when the item is clicked
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                openEventDetailFragment(event);
+                if (selection.isSelecting()) {
+                    selection.toggle(holder.getBindingAdapterPosition());
+                } else {
+                    openEventDetailFragment(event);
+                }
+            }
+        });
+
+        // Long press starts or extends a selection
+        holder.itemView.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                selection.toggle(holder.getBindingAdapterPosition());
+                return true;
             }
         });
     }
 
     /**
-     * Returns the total number of items in the data set held by the adapter.
+     * Returns a stable ID derived from the item's Ticketmaster URL.
      *
-     * @return The total number of items in this adapter.
+     * @param position The position of the item within the adapter's data set.
+     * @return The stable ID of the item.
      */
     @Override
-    public int getItemCount() {
-        return events.size(); // Return the size of the events list
+    public long getItemId(int position) {
+        Event event = getItem(position);
+        return StableIds.of(event.getUrl(), event.getId());
+    }
+
+    /**
+     * Returns the multi-selection of this adapter's rows.
+     *
+     * @return The selection.
+     */
+    public RowSelection getSelection() {
+        return selection;
     }
 
     /**
@@ -87,6 +188,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
     static class EventViewHolder extends RecyclerView.ViewHolder {
         ImageView imageViewPromo; // ImageView for event promo image
         TextView textViewTitle; // TextView for event title
+        TextView textViewSaved; // Badge shown on rows that are already saved
 
         /**
          * Constructs a new EventViewHolder with the specified View.
@@ -98,6 +200,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
             // Initialize views
             imageViewPromo = itemView.findViewById(R.id.imageViewPromo);
             textViewTitle = itemView.findViewById(R.id.textViewTitle);
+            textViewSaved = itemView.findViewById(R.id.textViewSaved);
         }
     }
 
@@ -3,14 +3,12 @@ package com.example.finalproject.ui.ticketmaster;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.Intent;
-import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.room.Room;
 
 import android.view.LayoutInflater;
 import android.view.View;
@@ -18,28 +16,19 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
-import android.widget.Toast;
 
-import com.android.volley.RequestQueue;
-import com.android.volley.Response;
-import com.android.volley.toolbox.ImageRequest;
-import com.android.volley.toolbox.Volley;
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.images.ImageStore;
+import com.example.finalproject.data.saved.SavedKeyIndex;
 import com.example.finalproject.data.ticketmaster.Event;
 import com.example.finalproject.data.ticketmaster.EventDao;
-import com.example.finalproject.data.ticketmaster.EventDatabase;
+import com.example.finalproject.image.ImageLoader;
+import com.example.finalproject.ui.common.ImageSaveController;
 import com.google.android.material.snackbar.Snackbar;
-import com.squareup.picasso.Picasso;
-
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * Fragment to display event details.
@@ -73,18 +62,24 @@ public class EventDetailFragment extends Fragment {
     // Data Access Object for handling event data
     EventDao eventDao;
 
+    // Keys of the saved events, updated on save and delete
+    private SavedKeyIndex<Event> savedEvents;
+
     // Context object for the current context
     Context thiscontext;
 
-    // RequestQueue for handling network requests
-    protected RequestQueue queue = null;
+    // Streams the promo image to storage when saving
+    private ImageSaveController imageSaver;
+
+    // Content-addressed store holding saved images
+    private ImageStore imageStore;
 
 
     /**
      * Constructor for EventDetailFragment.
      * @param event The event object to display details.
      */
-    protected EventDetailFragment(Event event){
+    public EventDetailFragment(Event event){
         this.event = event;
     }
 
@@ -96,10 +91,10 @@ public class EventDetailFragment extends Fragment {
 
         thiscontext = getActivity().getApplicationContext();
 
-        // Initialize database and DAO
-        EventDatabase db = Room.databaseBuilder(thiscontext,
-                EventDatabase.class, "events").build();
+        // Get the shared database and DAO
+        AppDatabase db = AppDatabase.getInstance(thiscontext);
         eventDao = db.eventDao();
+        savedEvents = db.savedEvents();
 
         // Initialize UI elements
         textViewTitle = view.findViewById(R.id.textViewTitle);
@@ -108,10 +103,12 @@ public class EventDetailFragment extends Fragment {
         textViewPriceRange = view.findViewById(R.id.textViewPriceRange);
         textViewUrl = view.findViewById(R.id.textViewUrl);
         buttonSave = view.findViewById(R.id.buttonSave);
+        imageSaver = new ImageSaveController(buttonSave);
+        imageStore = ImageStore.getInstance(thiscontext);
         buttonRemove = view.findViewById(R.id.buttonRemove);
 
         // Load event details into UI
-        Picasso.get().load(event.getPromoImageUrl()).into(imageViewPromo);
+        ImageLoader.loadFitted(event.getPromoImageUrl(), imageViewPromo);
         textViewTitle.setText(event.getName());
         textViewPriceRange.setText(String.format("Price Range: %s",event.getPriceRange()));
         textViewStartingDate.setText(String.format("Start Date: %s",event.getStartingDate()));
@@ -145,24 +142,33 @@ public class EventDetailFragment extends Fragment {
                         .setNegativeButton("No",(dialog, cl)->{})
                         .setPositiveButton("Yes",(dialog, cl)->{
                             // Delete event from database
-                            Executor thread = Executors.newSingleThreadExecutor();
-                            thread.execute(()-> eventDao.delete(event));
+                            Executor thread = AppExecutors.getInstance().diskIO();
+                            thread.execute(() -> {
+                                // Drop this row's reference to its stored image
+                                if (eventDao.delete(event) > 0) {
+                                    imageStore.release(event.getPromoImageUrl());
+                                    savedEvents.remove(event);
+                                }
+                            });
                             // Pop back stack to previous fragment
                             getActivity().getSupportFragmentManager().popBackStack();
                             // Show undo option with Snackbar
                             Snackbar.make(view, "You deleted it.",Snackbar.LENGTH_LONG)
                                     .setAction("Undo", click ->{
                                         // Insert event back to database
-                                        thread.execute(()-> eventDao.insert(event));
+                                        thread.execute(() -> {
+                                            // Skipped if the event was saved again in the meantime
+                                            if (eventDao.insert(event) != -1) {
+                                                imageStore.acquireExisting(event.getPromoImageUrl());
+                                                savedEvents.add(event);
+                                            }
+                                        });
                                     })
                                     .show();
                         }).create().show();
             }
         });
 
-        // Initialize Volley request queue
-        queue = Volley.newRequestQueue(getActivity().getApplicationContext());
-
         return view;
     }
 
@@ -176,44 +182,22 @@ public class EventDetailFragment extends Fragment {
     }
 
     /**
-     * Saves the event details and promo image to internal storage.
+     * Streams the promo image to internal storage and then saves the event, or cancels a save that
+     * is already running.
      */
     private void saveEventToStorage() {
-
-        // Get the directory for the app's private internal storage directory.
-        File directory = requireContext().getFilesDir();
-
-        // Generate a unique filename for the image.
-        String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
-        String imageFileName = "JPEG_" + timeStamp + ".jpg";
-
-        String imageUrl = event.getPromoImageUrl();
-        ImageRequest imgReq = new ImageRequest(imageUrl, new Response.Listener<Bitmap>() {
-            @Override
-            public void onResponse(Bitmap bitmap) {
-                try {
-                    // Create a new file in the directory with the generated filename.
-                    File file = new File(directory, imageFileName);
-                    // Write the bitmap to the file.
-                    FileOutputStream fos = new FileOutputStream(file);
-                    bitmap.compress(Bitmap.CompressFormat.JPEG, 100, fos);
-                    fos.close();
-
-                    // Insert event into database
-                    Executor thread = Executors.newSingleThreadExecutor();
-                    thread.execute(()-> eventDao.insert(event));
-
-                    // Notify the user that the image has been saved.
-                    Toast.makeText(requireContext(), "Promo image saved to " + file.getAbsolutePath(), Toast.LENGTH_SHORT).show();
-
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+        imageSaver.saveOrCancel(event.getPromoImageUrl(), () -> {
+            // Save the event once its image is on disk. Saving an event that is already saved refreshes
+            // its row instead of adding a duplicate, and the old row's image reference is given back
+            Executor thread = AppExecutors.getInstance().diskIO();
+            thread.execute(() -> {
+                Event previous = eventDao.upsert(event);
+                if (previous != null) {
+                    imageStore.release(previous.getPromoImageUrl());
+                } else {
+                    savedEvents.add(event);
                 }
-            }
-        }, 2000, 2000, ImageView.ScaleType.CENTER, null, (error ) -> {
+            });
         });
-        queue.add(imgReq);
     }
 }
\ No newline at end of file
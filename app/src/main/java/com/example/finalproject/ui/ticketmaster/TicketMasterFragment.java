@@ -13,7 +13,6 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import androidx.room.Room;
 
 import android.view.LayoutInflater;
 import android.view.MenuItem;
@@ -24,27 +23,28 @@ import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.Response;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.StringRequest;
-import com.android.volley.toolbox.Volley;
 import com.example.finalproject.R;
+import com.example.finalproject.concurrent.AppExecutors;
+import com.example.finalproject.data.AppDatabase;
+import com.example.finalproject.data.cache.QueryRepository;
+import com.example.finalproject.data.cache.QueryResult;
+import com.example.finalproject.data.images.ImageStore;
+import com.example.finalproject.data.saved.SavedKeyIndex;
 import com.example.finalproject.data.ticketmaster.Event;
 import com.example.finalproject.data.ticketmaster.EventDao;
-import com.example.finalproject.data.ticketmaster.EventDatabase;
+import com.example.finalproject.data.ticketmaster.EventRepository;
+import com.example.finalproject.network.RequestKeys;
+import com.example.finalproject.ui.common.BulkActionBar;
+import com.example.finalproject.ui.common.DebouncedTextWatcher;
+import com.example.finalproject.ui.common.EndlessScrollListener;
+import com.example.finalproject.ui.common.KeysetPageLoader;
+import com.example.finalproject.ui.common.ViewportPrefetcher;
+import com.google.android.material.snackbar.Snackbar;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * Fragment to display events retrieved from Ticket Master API.
@@ -76,6 +76,25 @@ public class TicketMasterFragment extends Fragment {
     // DAO object
     private EventDao eventDao;
 
+    // Keys of the saved events, updated on insert and delete
+    private SavedKeyIndex<Event> savedEvents;
+
+    // Loads saved events page by page
+    private KeysetPageLoader<Event> savedLoader;
+
+    // Saves or deletes the rows selected with a long press
+    private BulkActionBar bulkBar;
+
+    // Search currently delivering results, and the normalized city and radius it was made for
+    private QueryRepository.Subscription activeSearch;
+    private String activeSearchKey;
+
+    // Searches once the user pauses typing
+    private DebouncedTextWatcher searchWatcher;
+
+    // Warms the cache with the promo images of the visible rows
+    private ViewportPrefetcher detailPrefetcher;
+
     // SharedPreferences file name
     private static final String PREFS_NAME = "MyEvents";
     // SharedPreferences key for search term
@@ -123,29 +142,62 @@ public class TicketMasterFragment extends Fragment {
         recyclerViewEvents = view.findViewById(R.id.recyclerViewEvents);
         buttonShowSaved = view.findViewById(R.id.buttonShowSaved);
 
-        // Initialize database and DAO
-        EventDatabase db = Room.databaseBuilder(getContext(),
-                EventDatabase.class, "events").build();
+        // Get the shared database and DAO
+        AppDatabase db = AppDatabase.getInstance(requireContext());
         eventDao = db.eventDao();
+        savedEvents = db.savedEvents();
 
         // Initialize FragmentManager
         FragmentManager fragmentManager = requireActivity().getSupportFragmentManager();
 
         // Initialize event list and adapter
         eventList = new ArrayList<>();
-        eventAdapter = new EventAdapter(eventList, fragmentManager);
+        eventAdapter = new EventAdapter(fragmentManager, savedEvents);
         recyclerViewEvents.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerViewEvents.setAdapter(eventAdapter);
+        // Prefetch the detail image of rows that stay on screen, so detail screens open ready
+        detailPrefetcher = ViewportPrefetcher.attach(recyclerViewEvents,
+                position -> eventAdapter.getCurrentList().get(position).getPromoImageUrl());
+
+        // Load saved events a screen or two at a time instead of the whole table
+        savedLoader = new KeysetPageLoader<>(eventDao::getEventsAfter, eventDao::getEventsBefore,
+                Event::getId, rows -> {
+            eventList.clear();
+            eventList.addAll(rows);
+            eventAdapter.submitList(new ArrayList<>(eventList));
+        });
+
+        // Save or delete the rows selected with a long press, each batch in one transaction
+        bulkBar = new BulkActionBar(view, eventAdapter.getSelection(), new BulkActionBar.Actions() {
+            @Override
+            public void onSaveSelected(List<Integer> positions) {
+                saveSelected(positions);
+            }
+
+            @Override
+            public void onDeleteSelected(List<Integer> positions) {
+                deleteSelected(positions);
+            }
+        });
+
+        recyclerViewEvents.addOnScrollListener(new EndlessScrollListener(getVisibleRowCount()) {
+            @Override
+            public void onLoadMore() {
+                savedLoader.loadMore();
+            }
+
+            @Override
+            public void onLoadPrevious() {
+                savedLoader.loadPrevious();
+            }
+        });
 
         // Handle search button click
         buttonSearch.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                String searchTerm = editTextSearch.getText().toString();
-                String radius = editTextRadius.getText().toString();
-                // Save search term to SharedPreferences
-                saveSearchTerm(searchTerm);
-                makeApiRequest(searchTerm, radius);
+                searchWatcher.cancel(); // The button searches now; drop a pending typed search
+                search(editTextSearch.getText().toString(), editTextRadius.getText().toString());
             }
         });
 
@@ -153,12 +205,10 @@ public class TicketMasterFragment extends Fragment {
         buttonShowSaved.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                eventList.clear();
-                Executor thread = Executors.newSingleThreadExecutor();
-                thread.execute(() -> {
-                    eventList.addAll(eventDao.getAllEvents());
-                    getActivity().runOnUiThread(() -> recyclerViewEvents.setAdapter(eventAdapter));
-                });
+                // Show the first page of saved events; later pages load on scroll
+                searchWatcher.cancel();
+                cancelSearch(); // Keep search results from replacing the saved rows
+                savedLoader.start(getVisibleRowCount() * 2);
             }
         });
 
@@ -168,19 +218,167 @@ public class TicketMasterFragment extends Fragment {
             editTextSearch.setText(savedSearchTerm);
         }
 
+        // Search as the user types, once they pause; added after restoring the term so that
+        // opening the screen does not start a search
+        searchWatcher = new DebouncedTextWatcher() {
+            @Override
+            protected void onTextSettled(String text) {
+                String radius = editTextRadius.getText().toString();
+                if (!searchKey(text, radius).equals(activeSearchKey)) {
+                    search(text, radius);
+                }
+            }
+        };
+        editTextSearch.addTextChangedListener(searchWatcher);
+
         return view;
     }
 
+    /**
+     * Called when the view is destroyed. Cancels the pending typed search and every running
+     * request, so no callback runs for a screen the user has left.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        bulkBar.cancel();
+        recyclerViewEvents.setAdapter(null); // Detaches the adapter from the saved-event index
+        detailPrefetcher.detach();
+        searchWatcher.cancel();
+        cancelSearch();
+        savedLoader.stop();
+    }
+
+    /**
+     * Method to save the selected events that are not saved yet. Their images are stored as one
+     * batch, then every event whose image was stored is inserted in one transaction.
+     *
+     * @param positions Adapter positions of the selected rows.
+     */
+    private void saveSelected(List<Integer> positions) {
+        List<Event> events = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (int position : positions) {
+            Event event = eventAdapter.getCurrentList().get(position);
+            // Saved rows have a database ID; search results that are saved are in the index
+            if (event.getId() == 0 && !savedEvents.contains(event)) {
+                events.add(event);
+                urls.add(event.getPromoImageUrl());
+            }
+        }
+        if (events.isEmpty()) {
+            eventAdapter.getSelection().clear();
+            Toast.makeText(requireContext(), "The selected events are already saved", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        bulkBar.storeImages(urls, stored -> {
+            // Skip the events whose image could not be stored
+            List<Event> ready = new ArrayList<>();
+            for (Event event : events) {
+                String url = event.getPromoImageUrl();
+                if (url == null || url.isEmpty() || stored.contains(url)) {
+                    ready.add(event);
+                }
+            }
+            ImageStore imageStore = ImageStore.getInstance(requireContext());
+            Context appContext = requireContext().getApplicationContext();
+            AppExecutors executors = AppExecutors.getInstance();
+            executors.diskIO().execute(() -> {
+                // Events that are already saved are skipped; give back their image references
+                long[] rowIds = eventDao.insertAll(ready);
+                List<Event> inserted = new ArrayList<>();
+                List<String> unused = new ArrayList<>();
+                for (int i = 0; i < rowIds.length; i++) {
+                    if (rowIds[i] == -1) {
+                        unused.add(ready.get(i).getPromoImageUrl());
+                    } else {
+                        inserted.add(ready.get(i));
+                    }
+                }
+                imageStore.releaseAll(unused);
+                savedEvents.addAll(inserted);
+                // Report what was written, not what was asked for
+                executors.mainThread().execute(() -> Toast.makeText(appContext,
+                        "Saved " + inserted.size() + " events", Toast.LENGTH_SHORT).show());
+            });
+            eventAdapter.getSelection().clear();
+        });
+    }
+
+    /**
+     * Method to delete the selected saved events in one transaction, with an option to undo.
+     *
+     * @param positions Adapter positions of the selected rows.
+     */
+    private void deleteSelected(List<Integer> positions) {
+        List<Event> events = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (int position : positions) {
+            Event event = eventAdapter.getCurrentList().get(position);
+            if (event.getId() != 0) { // Only saved rows can be deleted
+                events.add(event);
+                urls.add(event.getPromoImageUrl());
+            }
+        }
+        eventAdapter.getSelection().clear();
+        if (events.isEmpty()) {
+            Toast.makeText(requireContext(), "Only saved events can be deleted", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        ImageStore imageStore = ImageStore.getInstance(requireContext());
+        Executor thread = AppExecutors.getInstance().diskIO();
+        thread.execute(() -> {
+            // Drop the rows' references to their stored images; if some rows were already gone,
+            // keep the references rather than release an image another row still uses
+            int deleted = eventDao.deleteAll(events);
+            savedEvents.removeAll(events);
+            if (deleted == events.size()) {
+                imageStore.releaseAll(urls);
+            }
+        });
+        savedLoader.remove(events);
+        // Show undo option with Snackbar
+        Snackbar.make(recyclerViewEvents, "You deleted " + events.size() + " events.", Snackbar.LENGTH_LONG)
+                .setAction("Undo", click -> {
+                    // Insert the events back in one transaction
+                    thread.execute(() -> {
+                        // Events saved again in the meantime are skipped
+                        long[] rowIds = eventDao.insertAll(events);
+                        List<Event> restored = new ArrayList<>();
+                        List<String> restoredUrls = new ArrayList<>();
+                        for (int i = 0; i < rowIds.length; i++) {
+                            if (rowIds[i] != -1) {
+                                restored.add(events.get(i));
+                                restoredUrls.add(urls.get(i));
+                            }
+                        }
+                        imageStore.acquireExistingAll(restoredUrls);
+                        savedEvents.addAll(restored);
+                    });
+                    savedLoader.restore(events);
+                })
+                .show();
+    }
+
+    /**
+     * Method to estimate how many rows fit on screen.
+     */
+    private int getVisibleRowCount() {
+        int rowHeight = getResources().getDimensionPixelSize(R.dimen.event_row_height);
+        return EndlessScrollListener.estimateVisibleRows(recyclerViewEvents, rowHeight);
+    }
+
     /**
      * Method to show AlertDialog explaining how to use the app.
      */
     private void showAlertDialog() {
         AlertDialog.Builder builder = new AlertDialog.Builder(getActivity());
         builder.setTitle("How To Use")
-                .setMessage("1: To get event list first type search term and click on search button\n" +
+                .setMessage("1: To get event list type search term; results appear as you type, or click on search button\n" +
                         "2: To see the saved event, click on Show Saved button\n" +
                         "3: To see more details click on the event row\n" +
-                        "4: You also have options to save and remove the event in detailed view")
+                        "4: You also have options to save and remove the event in detailed view\n" +
+                        "5: Long-press rows to select several events, then save or delete them all at once with the buttons above the list")
                 .setPositiveButton("OK", null) // You can add buttons and listeners as needed
                 .show();
     }
@@ -206,54 +404,80 @@ public class TicketMasterFragment extends Fragment {
     }
 
     /**
-     * Method to make an API request to Ticket Master API.
+     * Method to save the search term and replace the shown rows with search results.
+     * @param searchTerm The city to search in.
+     * @param radius The search radius.
+     */
+    private void search(String searchTerm, String radius) {
+        // Save search term to SharedPreferences
+        saveSearchTerm(searchTerm);
+        savedLoader.stop(); // Replace saved rows with search results
+        makeApiRequest(searchTerm, radius);
+    }
+
+    /**
+     * Method to stop delivering results of the running search, if any.
+     */
+    private void cancelSearch() {
+        if (activeSearch != null) {
+            activeSearch.cancel();
+            activeSearch = null;
+        }
+        activeSearchKey = null;
+    }
+
+    /**
+     * Method to build the key two searches are compared by.
+     * @param searchTerm The city to search in.
+     * @param radius The search radius.
+     * @return The normalized city and radius.
+     */
+    private static String searchKey(String searchTerm, String radius) {
+        return RequestKeys.normalizeTerm(searchTerm) + "|" + radius.trim();
+    }
+
+    /**
+     * Method to search Ticket Master events through the repository.
      * @param searchTerm The search term used for the API request.
      * @param radius The search radius used for the API request.
      */
     private void makeApiRequest(String searchTerm, String radius) {
-        // Instantiate the RequestQueue.
-        RequestQueue queue = Volley.newRequestQueue(requireContext());
-
-        // Define the URL with the search term.
-        String url;
-        try {
-            url = "https://app.ticketmaster.com/discovery/v2/events.json?apikey=Rzk9LAGNqRN0q0Uo1GJbsLn0snbt3a7k&city=" + URLEncoder.encode(searchTerm, "UTF-8") + "&radius=" + radius;
-            System.out.println(url);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+        String key = searchKey(searchTerm, radius);
+        if (activeSearch != null && activeSearch.isActive()) {
+            if (key.equals(activeSearchKey)) {
+                return; // The same search is still running; its results will arrive
+            }
+            activeSearch.cancel(); // A different search replaces the running one
         }
-
-        // Request a string response from the provided URL.
-        StringRequest stringRequest = new StringRequest(Request.Method.GET, url,
-                new Response.Listener<String>() {
+        activeSearchKey = key;
+        // Show the stored search at once, then refresh it from Ticketmaster in the background
+        activeSearch = EventRepository.getInstance(requireContext()).search(searchTerm, radius,
+                new QueryRepository.Callback<Event>() {
                     @Override
-                    public void onResponse(String response) {
-                        // Parse the JSON response and update the eventList.
-                        try {
-                            JSONObject jsonResponse = new JSONObject(response);
-                            JSONObject _embedded = jsonResponse.getJSONObject("_embedded");
-                            JSONArray eventsArray = _embedded.getJSONArray("events");
+                    public void onChunk(List<Event> chunk, int offset) {
+                        if (offset == 0) {
                             eventList.clear(); // Clear previous results
-                            for (int i = 0; i < eventsArray.length(); i++) {
-                                JSONObject eventObject = eventsArray.getJSONObject(i);
-                                Event event = new Event(eventObject);
-                                eventList.add(event);
-                            }
-                            // Notify adapter of changes
-                            eventAdapter.notifyDataSetChanged();
-                        } catch (JSONException e) {
-                            e.printStackTrace();
                         }
+                        eventList.addAll(chunk);
+                        // Diff against the shown list so only new or changed rows are bound
+                        eventAdapter.submitList(new ArrayList<>(eventList));
                     }
-                }, new Response.ErrorListener() {
-            @Override
-            public void onErrorResponse(VolleyError error) {
-                // Handle errors
-                Toast.makeText(requireContext(), "Error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
 
-        // Add the request to the RequestQueue.
-        queue.add(stringRequest);
+                    @Override
+                    public void onResult(QueryResult<Event> result) {
+                        eventList.clear();
+                        eventList.addAll(result.getItems());
+                        eventAdapter.submitList(new ArrayList<>(eventList));
+                    }
+
+                    @Override
+                    public void onError(VolleyError error, boolean showingCached) {
+                        if (showingCached) {
+                            Toast.makeText(requireContext(), "Offline: showing saved events", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(requireContext(), "Error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
     }
 }
\ No newline at end of file
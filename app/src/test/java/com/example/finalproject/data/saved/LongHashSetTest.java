@@ -0,0 +1,64 @@
+package com.example.finalproject.data.saved;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link LongHashSet}: it must agree with a boxed HashSet through any mix
+ * of adds and removes, including the removals that shift probe runs back.
+ */
+public class LongHashSetTest {
+
+    @Test
+    public void randomAddsAndRemoves_matchHashSet() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet(0);
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            // A small value range makes collisions, re-adds and removals of present values common
+            long value = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        for (long value = -200; value < 5_100; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+
+    @Test
+    public void valuesSharingLowBits_remainFindableAfterRemovals() {
+        LongHashSet set = new LongHashSet(0);
+        for (long i = 1; i <= 1_000; i++) {
+            set.add(i << 40);
+        }
+        for (long i = 1; i <= 1_000; i += 2) {
+            assertTrue(set.remove(i << 40));
+        }
+        for (long i = 1; i <= 1_000; i++) {
+            assertEquals(i % 2 == 0, set.contains(i << 40));
+        }
+        assertEquals(500, set.size());
+    }
+
+    @Test
+    public void zero_isStoredLikeAnyOtherValue() {
+        LongHashSet set = new LongHashSet(4);
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+        assertTrue(set.remove(0));
+        assertFalse(set.contains(0));
+        assertEquals(0, set.size());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.finalproject.data.search;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link SavedSearch}: typed text must become a MATCH expression of
+ * prefix terms that cannot carry FTS syntax, and rows must be scored from their matchinfo.
+ */
+public class SavedSearchTest {
+
+    @Test
+    public void toMatchQuery_makesLowerCasePrefixTerms() {
+        assertEquals("star* wars*", SavedSearch.toMatchQuery("Star Wars"));
+        assertEquals("café* 2024*", SavedSearch.toMatchQuery("  Café\t2024 "));
+    }
+
+    @Test
+    public void toMatchQuery_dropsOperatorsAndPunctuation() {
+        assertEquals("a* b*", SavedSearch.toMatchQuery("\"a\" -b*"));
+        assertEquals("title* x* y*", SavedSearch.toMatchQuery("title:x ^(y)"));
+        // Lower-cased, operator words are plain terms to FTS4
+        assertEquals("a* or* near* 2* not* b*", SavedSearch.toMatchQuery("a OR NEAR/2 NOT b"));
+        assertEquals("it* s*", SavedSearch.toMatchQuery("it's"));
+    }
+
+    @Test
+    public void toMatchQuery_returnsNullWithoutWords() {
+        assertNull(SavedSearch.toMatchQuery(""));
+        assertNull(SavedSearch.toMatchQuery("  \"*\" - ^ : ( ) "));
+    }
+
+    @Test
+    public void toMatchQuery_keepsOnlyTheFirstTerms() {
+        StringBuilder text = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < SavedSearch.MAX_TERMS + 3; i++) {
+            text.append("w").append(i).append(' ');
+            if (i < SavedSearch.MAX_TERMS) {
+                expected.append(i == 0 ? "" : " ").append("w").append(i).append('*');
+            }
+        }
+        assertEquals(expected.toString(), SavedSearch.toMatchQuery(text.toString()));
+    }
+
+    @Test
+    public void score_weighsEachColumnByTheRowsShareOfHits() {
+        // Two phrases over two columns: hits in this row, hits in all rows, rows with a hit
+        byte[] matchinfo = matchinfo(2, 2,
+                1, 4, 3,    // phrase 0, column 0
+                0, 9, 5,    // phrase 0, column 1: no hit in this row
+                2, 2, 1,    // phrase 1, column 0
+                1, 10, 6);  // phrase 1, column 1
+        double score = SavedSearch.score(matchinfo, new double[]{2.0, 1.0});
+        assertEquals(2.0 * 1 / 4 + 2.0 * 2 / 2 + 1.0 * 1 / 10, score, 1e-9);
+    }
+
+    @Test
+    public void score_isZeroWithoutHitsInTheRow() {
+        byte[] matchinfo = matchinfo(1, 3, 0, 7, 2, 0, 0, 0, 0, 1, 1);
+        assertEquals(0.0, SavedSearch.score(matchinfo, new double[]{2.0, 1.0, 1.5}), 0.0);
+    }
+
+    @Test
+    public void score_rarerTermsCountMore() {
+        double rare = SavedSearch.score(matchinfo(1, 1, 1, 2, 2), new double[]{1.0});
+        double common = SavedSearch.score(matchinfo(1, 1, 1, 50, 40), new double[]{1.0});
+        assertTrue(rare > common);
+    }
+
+    /**
+     * Builds a matchinfo 'pcx' blob: the phrase and column counts, then three values per
+     * phrase and column, as 32-bit integers in native byte order.
+     */
+    private static byte[] matchinfo(int phrases, int columns, int... values) {
+        assertEquals(3 * phrases * columns, values.length);
+        ByteBuffer blob = ByteBuffer.allocate(4 * (2 + values.length)).order(ByteOrder.nativeOrder());
+        blob.putInt(phrases).putInt(columns);
+        for (int value : values) {
+            blob.putInt(value);
+        }
+        return blob.array();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.finalproject.data.soccermatch;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link MatchFeed}: matches must be told apart and compared from the raw
+ * feed alone, and a sync must decode only the matches whose details changed.
+ */
+public class MatchFeedTest {
+
+    @Test
+    public void keysAndFingerprints_ignoreMemberOrderAndUnrelatedMembers() throws IOException {
+        MatchFeed a = feed(match("A - B", "2025-03-04", "v1"));
+        MatchFeed b = feed("{\"videos\": [{\"id\": 7, \"embed\": \"<iframe src='v1'>\"}],"
+                + " \"date\": \"2025-03-04\", \"competition\": \"Cup\", \"title\": \"A - B\"}");
+        assertEquals(a.keyAt(0), b.keyAt(0));
+        assertEquals(a.fingerprintAt(0), b.fingerprintAt(0));
+        assertEquals("A - B", b.get(0).getTitle());
+        assertEquals("v1", b.get(0).getUrl());
+    }
+
+    @Test
+    public void changedTitle_keepsKeyAndChangesFingerprint() throws IOException {
+        MatchFeed before = feed(match("A - B", "2025-03-04", "v1"));
+        MatchFeed after = feed(match("A - B (AET)", "2025-03-04", "v1"));
+        assertEquals(before.keyAt(0), after.keyAt(0));
+        assertNotEquals(before.fingerprintAt(0), after.fingerprintAt(0));
+    }
+
+    @Test
+    public void syncFrom_reusesUnchangedMatchesAndReturnsChangedOnes() throws IOException {
+        MatchFeed before = feed(match("A - B", "d1", "v1"), match("C - D", "d2", "v2"),
+                match("E - F", "d3", "v3"));
+        Match unchanged = before.get(0);
+        MatchFeed after = feed(match("G - H", "d4", "v4"), match("A - B", "d1", "v1"),
+                match("C - D", "d2 (postponed)", "v2"));
+
+        List<Match> changed = after.syncFrom(before);
+
+        assertEquals(1, changed.size());
+        assertEquals("d2 (postponed)", changed.get(0).getDate());
+        assertSame(unchanged, after.get(1));
+    }
+
+    @Test
+    public void escapedQuotesAndNestedValues_doNotEndAMatchEarly() throws IOException {
+        MatchFeed feed = feed("{\"title\": \"A \\\"}]\\\" B\", \"side1\": {\"name\": \"A\", \"tags\": [1, [2]]},"
+                + " \"videos\": [{\"embed\": \"<iframe src='v1'>\"}]}", match("C - D", "d2", "v2"));
+        assertEquals(2, feed.size());
+        assertEquals("A \"}]\" B", feed.get(0).getTitle());
+        assertEquals("A", feed.get(0).getTeam1());
+        assertEquals("C - D", feed.get(1).getTitle());
+    }
+
+    @Test(expected = IOException.class)
+    public void elementThatIsNotAnObject_isRejected() throws IOException {
+        MatchFeed.index("[1]".getBytes(StandardCharsets.UTF_8), "UTF-8");
+    }
+
+    /**
+     * Indexes a feed made of the given match objects.
+     */
+    private static MatchFeed feed(String... matches) throws IOException {
+        String body = "[" + String.join(", ", matches) + "]";
+        return MatchFeed.index(body.getBytes(StandardCharsets.UTF_8), "UTF-8");
+    }
+
+    /**
+     * Returns a match object in the shape of the Scorebat feed.
+     */
+    private static String match(String title, String date, String src) {
+        return "{\"title\": \"" + title + "\", \"date\": \"" + date + "\","
+                + " \"videos\": [{\"title\": \"Highlights\", \"embed\": \"<iframe src='" + src + "'>\"}]}";
+    }
+}
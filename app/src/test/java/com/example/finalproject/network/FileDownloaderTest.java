@@ -0,0 +1,61 @@
+package com.example.finalproject.network;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link FileDownloader}: a URL the transport cannot send must still end
+ * in onError, since callers keep their Save button and image references until it is called.
+ */
+public class FileDownloaderTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void invalidUrl_failsThroughOnError() throws Exception {
+        // OMDb reports a missing poster as "N/A", which is stored unchanged
+        assertFailsWithMalformedUrl("N/A");
+        assertFailsWithMalformedUrl("");
+        assertFailsWithMalformedUrl("ftp://example.com/poster.jpg");
+    }
+
+    /**
+     * Downloads a URL on the calling thread and checks it fails without leaving a file behind.
+     */
+    private void assertFailsWithMalformedUrl(String url) throws IOException {
+        FileDownloader downloader = new FileDownloader(Runnable::run, Runnable::run, new OkHttpTransport(1, 1, 1));
+        File target = new File(folder.newFolder(), "image.jpg");
+        AtomicReference<IOException> error = new AtomicReference<>();
+        downloader.download(url, null, target, new FileDownloader.Listener() {
+            @Override
+            public void onProgress(long bytesWritten, long totalBytes) {
+                fail("No progress expected for " + url);
+            }
+
+            @Override
+            public void onComplete(@NonNull File file) {
+                fail("No file expected for " + url);
+            }
+
+            @Override
+            public void onError(@NonNull IOException e) {
+                error.set(e);
+            }
+        });
+
+        assertTrue("onError not called for \"" + url + "\"", error.get() instanceof MalformedURLException);
+        assertFalse(target.exists());
+        assertFalse(new File(target.getPath() + ".part").exists());
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.finalproject.network;
+
+import com.example.finalproject.data.soccermatch.Match;
+import com.example.finalproject.data.soccermatch.MatchJsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ParseStage}: parsing must stay off the delivery thread, the
+ * delivery thread only ever receives ready-made chunks of at most the requested size, and each
+ * task it runs fits within {@link ParseStage#MAIN_THREAD_BUDGET_MS}.
+ */
+public class ParseStageTest {
+
+    private static final int FEED_SIZE = 3000;
+    private static final int CHUNK_SIZE = 20;
+
+    private ExecutorService worker;
+    private ExecutorService main;
+    private final AtomicReference<Thread> mainThread = new AtomicReference<>();
+    // First failure seen by a callback; callbacks run on the executors, not the test thread
+    private final AtomicReference<String> failure = new AtomicReference<>();
+
+    @Before
+    public void setUp() throws Exception {
+        worker = Executors.newSingleThreadExecutor();
+        main = Executors.newSingleThreadExecutor();
+        main.submit(() -> mainThread.set(Thread.currentThread())).get();
+    }
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+        main.shutdownNow();
+    }
+
+    @Test
+    public void largeScorebatFeed_parsesOffMainAndPostsBoundedChunks() throws Exception {
+        AtomicBoolean parsedOnMain = new AtomicBoolean();
+        JsonStreamParser<Match> parser = (reader, sink) -> new MatchJsonParser().parse(reader, match -> {
+            if (Thread.currentThread() == mainThread.get()) {
+                parsedOnMain.set(true);
+            }
+            sink.accept(match);
+        });
+        CountDownLatch done = new CountDownLatch(1);
+        List<Match> chunked = new ArrayList<>();
+        AtomicInteger largestChunk = new AtomicInteger();
+        AtomicReference<List<Match>> result = new AtomicReference<>();
+
+        stage().parse(scorebatFeed(FEED_SIZE), "UTF-8", parser, CHUNK_SIZE, new ParseStage.Delivery<Match>() {
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public void onChunk(List<Match> chunk, int offset) {
+                if (offset != chunked.size()) {
+                    failure.compareAndSet(null, "Chunk offset " + offset + " after " + chunked.size() + " items");
+                }
+                largestChunk.accumulateAndGet(chunk.size(), Math::max);
+                chunked.addAll(chunk);
+            }
+
+            @Override
+            public void onComplete(List<Match> items) {
+                result.set(items);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception error) {
+                failure.compareAndSet(null, error.toString());
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertNull(failure.get());
+        assertFalse(parsedOnMain.get());
+        assertEquals(CHUNK_SIZE, largestChunk.get());
+        assertEquals(FEED_SIZE, result.get().size());
+        assertEquals(FEED_SIZE, chunked.size());
+        assertEquals("https://www.scorebat.com/embed/g/" + (FEED_SIZE - 1) + "/",
+                result.get().get(FEED_SIZE - 1).getUrl());
+        try {
+            result.get().add(new Match());
+            fail("Delivered list must be immutable");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void cancelledDelivery_receivesNothing() throws Exception {
+        AtomicBoolean delivered = new AtomicBoolean();
+        stage().parse(scorebatFeed(100), "UTF-8", new MatchJsonParser(), CHUNK_SIZE, new ParseStage.Delivery<Match>() {
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+
+            @Override
+            public void onChunk(List<Match> chunk, int offset) {
+                delivered.set(true);
+            }
+
+            @Override
+            public void onComplete(List<Match> items) {
+                delivered.set(true);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                delivered.set(true);
+            }
+        });
+        worker.submit(() -> { }).get();
+        main.submit(() -> { }).get();
+        assertFalse(delivered.get());
+    }
+
+    @Test
+    public void cancelledMidParse_stopsAtNextChunk() throws Exception {
+        AtomicInteger parsed = new AtomicInteger();
+        JsonStreamParser<Match> parser = (reader, sink) -> new MatchJsonParser().parse(reader, match -> {
+            parsed.incrementAndGet();
+            sink.accept(match);
+        });
+        stage().parse(scorebatFeed(FEED_SIZE), "UTF-8", parser, CHUNK_SIZE, new ParseStage.Delivery<Match>() {
+            @Override
+            public boolean isCancelled() {
+                // Superseded once two chunks have been parsed
+                return parsed.get() >= 2 * CHUNK_SIZE;
+            }
+
+            @Override
+            public void onChunk(List<Match> chunk, int offset) {
+            }
+
+            @Override
+            public void onComplete(List<Match> items) {
+                failure.compareAndSet(null, "A cancelled parse must not complete");
+            }
+
+            @Override
+            public void onError(Exception error) {
+                failure.compareAndSet(null, error.toString());
+            }
+        });
+        worker.submit(() -> { }).get();
+        main.submit(() -> { }).get();
+        assertNull(failure.get());
+        assertEquals(2 * CHUNK_SIZE, parsed.get());
+    }
+
+    @Test
+    public void deliveryTasks_fitWithinMainThreadBudget() throws Exception {
+        AtomicLong longestTaskNanos = new AtomicLong();
+        Executor timedMain = task -> main.execute(() -> {
+            long start = System.nanoTime();
+            task.run();
+            longestTaskNanos.accumulateAndGet(System.nanoTime() - start, Math::max);
+        });
+        ParseStage stage = new ParseStage(worker, timedMain);
+
+        // The first run loads classes on the main thread; only the second one is measured
+        parseAndWait(stage);
+        longestTaskNanos.set(0);
+        parseAndWait(stage);
+
+        // The stage's own work must take at most half the budget, leaving the rest for binding
+        long limitNanos = TimeUnit.MILLISECONDS.toNanos(ParseStage.MAIN_THREAD_BUDGET_MS) / 2;
+        assertNull(failure.get());
+        assertTrue("Longest main-thread task took " + longestTaskNanos.get() + " ns",
+                longestTaskNanos.get() < limitNanos);
+    }
+
+    /**
+     * Parses a large feed through a stage and waits for it to complete, keeping the chunks.
+     */
+    private void parseAndWait(ParseStage stage) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        List<Match> chunked = new ArrayList<>();
+        stage.parse(scorebatFeed(FEED_SIZE), "UTF-8", new MatchJsonParser(), CHUNK_SIZE, new ParseStage.Delivery<Match>() {
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public void onChunk(List<Match> chunk, int offset) {
+                chunked.addAll(chunk);
+            }
+
+            @Override
+            public void onComplete(List<Match> items) {
+                if (items.size() != chunked.size()) {
+                    failure.compareAndSet(null, items.size() + " items but " + chunked.size() + " chunked");
+                }
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception error) {
+                failure.compareAndSet(null, error.toString());
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Builds a stage that parses on the worker and delivers on the stand-in main thread.
+     */
+    private ParseStage stage() {
+        return new ParseStage(worker, main);
+    }
+
+    /**
+     * Builds a Scorebat-shaped feed with the given number of matches.
+     */
+    private static byte[] scorebatFeed(int size) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"title\":\"Home ").append(i).append(" - Away ").append(i).append("\",")
+                    .append("\"competition\":{\"name\":\"LEAGUE\",\"id\":").append(i % 40).append("},")
+                    .append("\"matchviewUrl\":\"https://www.scorebat.com/embed/matchview/").append(i).append("/\",")
+                    .append("\"thumbnail\":\"https://www.scorebat.com/og/m/og").append(i).append(".jpeg\",")
+                    .append("\"date\":\"2024-04-0").append(i % 9 + 1).append("T19:00:00+0000\",")
+                    .append("\"side1\":{\"name\":\"Home ").append(i).append("\",\"url\":\"https://x/1\"},")
+                    .append("\"side2\":{\"name\":\"Away ").append(i).append("\",\"url\":\"https://x/2\"},")
+                    .append("\"videos\":[{\"title\":\"Highlights\",\"embed\":\"<div style='width:100%'>")
+                    .append("<iframe src='https://www.scorebat.com/embed/g/").append(i)
+                    .append("/' frameborder='0' allowfullscreen></iframe></div>\"}]}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
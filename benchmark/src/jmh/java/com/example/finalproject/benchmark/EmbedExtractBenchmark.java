@@ -0,0 +1,59 @@
+package com.example.finalproject.benchmark;
+
+import com.example.finalproject.data.soccermatch.Match;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Match#extractSrcFromHtml(String)} on the first embed of every match in the
+ * Scorebat fixture, one operation per embed, as the match parsers call it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EmbedExtractBenchmark {
+
+    private String[] embeds; // Embed HTML of the first video of each match
+
+    /**
+     * Collects the embeds from the Scorebat fixture.
+     *
+     * @throws IOException   If the fixture cannot be read.
+     * @throws JSONException If the fixture is malformed.
+     */
+    @Setup
+    public void setUp() throws IOException, JSONException {
+        JSONArray matches = new JSONArray(new String(Fixtures.load(Fixtures.SCOREBAT), StandardCharsets.UTF_8));
+        if (matches.length() != EntityParseBenchmark.MATCHES) {
+            throw new IllegalStateException("Scorebat fixture holds " + matches.length() + " matches");
+        }
+        embeds = new String[matches.length()];
+        for (int i = 0; i < embeds.length; i++) {
+            JSONObject video = matches.getJSONObject(i).getJSONArray("videos").getJSONObject(0);
+            embeds[i] = video.getString("embed");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EntityParseBenchmark.MATCHES)
+    public void extractSrc(Blackhole blackhole) {
+        for (String embed : embeds) {
+            blackhole.consume(Match.extractSrcFromHtml(embed));
+        }
+    }
+}
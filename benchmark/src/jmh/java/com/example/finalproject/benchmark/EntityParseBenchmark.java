@@ -0,0 +1,179 @@
+package com.example.finalproject.benchmark;
+
+import com.example.finalproject.data.movieinfo.Movie;
+import com.example.finalproject.data.movieinfo.MovieJsonParser;
+import com.example.finalproject.data.pexels.Photo;
+import com.example.finalproject.data.pexels.PhotoJsonParser;
+import com.example.finalproject.data.soccermatch.Match;
+import com.example.finalproject.data.soccermatch.MatchFeed;
+import com.example.finalproject.data.soccermatch.MatchJsonParser;
+import com.example.finalproject.data.ticketmaster.Event;
+import com.example.finalproject.data.ticketmaster.EventJsonParser;
+import com.example.finalproject.network.JsonStreamParser;
+import com.google.gson.stream.JsonReader;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures turning a whole response body into entities, once with the org.json DOM and the
+ * entities' JSONObject constructors, and once with the streaming parsers the repositories use.
+ * Both start from the raw bytes, so decoding is included. Each benchmark counts one operation
+ * per entity, so the scores and the gc profiler's allocation figures are per item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EntityParseBenchmark {
+
+    // Items in each fixture; operations per invocation must be constants
+    static final int PHOTOS = 80;
+    static final int EVENTS = 50;
+    static final int MATCHES = 100;
+    // Rows of the match list visible on a phone screen
+    static final int SCREEN = 10;
+
+    private byte[] pexels; // Pexels search page
+    private byte[] ticketmaster; // Ticketmaster discovery page
+    private byte[] scorebat; // Scorebat feed
+    private byte[] omdb; // OMDb movie
+
+    /**
+     * Loads the fixtures and checks they hold the item counts the scores are divided by.
+     *
+     * @throws IOException If a fixture cannot be read or parsed.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        pexels = Fixtures.load(Fixtures.PEXELS);
+        ticketmaster = Fixtures.load(Fixtures.TICKETMASTER);
+        scorebat = Fixtures.load(Fixtures.SCOREBAT);
+        omdb = Fixtures.load(Fixtures.OMDB);
+        checkCount(Fixtures.PEXELS, new PhotoJsonParser(), pexels, PHOTOS);
+        checkCount(Fixtures.TICKETMASTER, new EventJsonParser(), ticketmaster, EVENTS);
+        checkCount(Fixtures.SCOREBAT, new MatchJsonParser(), scorebat, MATCHES);
+        checkCount(Fixtures.OMDB, new MovieJsonParser(), omdb, 1);
+        if (MatchFeed.index(scorebat, "UTF-8").size() != MATCHES) {
+            throw new IllegalStateException(Fixtures.SCOREBAT + " does not index to " + MATCHES + " matches");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PHOTOS)
+    public void photosDom(Blackhole blackhole) throws JSONException {
+        JSONArray photos = new JSONObject(decode(pexels)).getJSONArray("photos");
+        for (int i = 0; i < photos.length(); i++) {
+            blackhole.consume(new Photo(photos.getJSONObject(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PHOTOS)
+    public void photosStreaming(Blackhole blackhole) throws IOException {
+        stream(new PhotoJsonParser(), pexels, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void eventsDom(Blackhole blackhole) throws JSONException {
+        JSONArray events = new JSONObject(decode(ticketmaster))
+                .getJSONObject("_embedded").getJSONArray("events");
+        for (int i = 0; i < events.length(); i++) {
+            blackhole.consume(new Event(events.getJSONObject(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void eventsStreaming(Blackhole blackhole) throws IOException {
+        stream(new EventJsonParser(), ticketmaster, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MATCHES)
+    public void matchesDom(Blackhole blackhole) throws JSONException {
+        JSONArray matches = new JSONArray(decode(scorebat));
+        for (int i = 0; i < matches.length(); i++) {
+            blackhole.consume(new Match(matches.getJSONObject(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MATCHES)
+    public void matchesStreaming(Blackhole blackhole) throws IOException {
+        stream(new MatchJsonParser(), scorebat, blackhole);
+    }
+
+    /**
+     * Indexes the feed and decodes only the first screen of rows, as the match list does on a
+     * refresh. Counted per match in the feed, so the score compares directly with the others.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MATCHES)
+    public void matchesIndexed(Blackhole blackhole) throws IOException {
+        MatchFeed feed = MatchFeed.index(scorebat, "UTF-8");
+        for (int i = 0; i < SCREEN; i++) {
+            blackhole.consume(feed.get(i));
+        }
+    }
+
+    @Benchmark
+    public Movie movieDom() throws JSONException {
+        return new Movie(new JSONObject(decode(omdb)));
+    }
+
+    @Benchmark
+    public void movieStreaming(Blackhole blackhole) throws IOException {
+        stream(new MovieJsonParser(), omdb, blackhole);
+    }
+
+    /**
+     * Decodes a body for the DOM parse.
+     */
+    private static String decode(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Streams a body through a parser the way the network layer does.
+     */
+    private static <T> void stream(JsonStreamParser<T> parser, byte[] body, Blackhole blackhole)
+            throws IOException {
+        try (JsonReader reader = new JsonReader(
+                new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            parser.parse(reader, blackhole::consume);
+        }
+    }
+
+    /**
+     * Fails the run if a fixture does not hold the expected number of items.
+     */
+    private static <T> void checkCount(String name, JsonStreamParser<T> parser, byte[] body,
+                                       int expected) throws IOException {
+        AtomicInteger count = new AtomicInteger();
+        try (JsonReader reader = new JsonReader(
+                new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            parser.parse(reader, item -> count.incrementAndGet());
+        }
+        if (count.get() != expected) {
+            throw new IllegalStateException(name + " holds " + count.get() + " items, expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.finalproject.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads the API responses the benchmarks parse. The fixtures are generated, not recorded: they
+ * have the field layout and size of real responses, a Pexels search page of 80 photos, a
+ * Ticketmaster discovery page of 50 events, a Scorebat feed of 100 matches and one OMDb movie,
+ * but their values are synthetic, so team names, leagues and the like do not match real data.
+ */
+final class Fixtures {
+
+    // Pexels search page
+    static final String PEXELS = "pexels_search.json";
+    // Ticketmaster discovery page
+    static final String TICKETMASTER = "ticketmaster_events.json";
+    // Scorebat v1 feed
+    static final String SCOREBAT = "scorebat_feed.json";
+    // OMDb title lookup
+    static final String OMDB = "omdb_movie.json";
+
+    /**
+     * Not instantiable.
+     */
+    private Fixtures() {
+    }
+
+    /**
+     * Reads a fixture from the classpath.
+     *
+     * @param name File name of the fixture.
+     * @return The response body, UTF-8 encoded as it came over the network.
+     * @throws IOException If the fixture is missing or cannot be read.
+     */
+    static byte[] load(String name) throws IOException {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IOException("Missing fixture " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}